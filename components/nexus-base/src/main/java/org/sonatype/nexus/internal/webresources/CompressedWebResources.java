@@ -0,0 +1,187 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.webresources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ByteSize;
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.webresources.WebResource;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps a content hash and a gzip compressed copy of the web resources served, so that the large UI bundles are
+ * compressed once instead of being sent in full on every request, and can be revalidated by {@code ETag}.
+ *
+ * Cacheable resources are kept until their size or last modified time changes; other resources, such as generated
+ * ones, are small and compressed per request.
+ *
+ * @since 3.71
+ */
+@Named
+@Singleton
+public class CompressedWebResources
+    extends ComponentSupport
+{
+  /**
+   * Below this size compression does not pay for the extra header and CPU.
+   */
+  private static final int MIN_COMPRESSED_SIZE = 1024;
+
+  private final Cache<String, Variants> cache;
+
+  private final long maxResourceSize;
+
+  @Inject
+  public CompressedWebResources(
+      @Named("${nexus.webresources.compressed.cacheSize:-64mb}") final ByteSize cacheSize,
+      @Named("${nexus.webresources.compressed.maxResourceSize:-16mb}") final ByteSize maxResourceSize)
+  {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(checkNotNull(cacheSize).toBytes())
+        .<String, Variants>weigher((path, variants) -> variants.weight())
+        .build();
+    this.maxResourceSize = checkNotNull(maxResourceSize).toBytes();
+  }
+
+  /**
+   * Returns the variants of a prepared resource, or {@code null} when its size is unknown or too large to hold.
+   */
+  @Nullable
+  public Variants get(final WebResource resource) throws IOException {
+    long size = resource.getSize();
+    if (size < 0 || size > maxResourceSize) {
+      return null;
+    }
+    if (!resource.isCacheable()) {
+      return compress(resource);
+    }
+
+    Variants cached = cache.getIfPresent(resource.getPath());
+    if (cached != null && cached.lastModified == resource.getLastModified() && cached.size == size) {
+      return cached;
+    }
+    Variants variants = compress(resource);
+    cache.put(resource.getPath(), variants);
+    return variants;
+  }
+
+  private Variants compress(final WebResource resource) throws IOException {
+    byte[] content;
+    try (InputStream in = resource.getInputStream()) {
+      content = ByteStreams.toByteArray(in);
+    }
+    String hash = Hashing.sha256().hashBytes(content).toString().substring(0, 32);
+
+    byte[] gzipped = null;
+    if (content.length >= MIN_COMPRESSED_SIZE && isCompressible(resource.getContentType())) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+        gzip.write(content);
+      }
+      if (buffer.size() < content.length) {
+        gzipped = buffer.toByteArray();
+      }
+    }
+    log.trace("Prepared variants of {}: {} bytes, {} gzipped", resource.getPath(), content.length,
+        gzipped != null ? gzipped.length : "not");
+    return new Variants(resource.getLastModified(), resource.getSize(), hash, gzipped);
+  }
+
+  @VisibleForTesting
+  static boolean isCompressible(@Nullable final String contentType) {
+    if (contentType == null) {
+      return false;
+    }
+    String type = contentType.toLowerCase();
+    return type.startsWith("text/") || type.contains("javascript") || type.contains("json") || type.contains("xml")
+        || type.contains("svg");
+  }
+
+  /**
+   * The content hash of a resource and its compressed copy, if compressing it is worthwhile.
+   */
+  public static class Variants
+  {
+    private final long lastModified;
+
+    private final long size;
+
+    private final String hash;
+
+    @Nullable
+    private final byte[] gzipped;
+
+    Variants(final long lastModified, final long size, final String hash, @Nullable final byte[] gzipped) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.hash = hash;
+      this.gzipped = gzipped;
+    }
+
+    /**
+     * The strong entity tag of the resource, in the given encoding.
+     */
+    public String getETag(final boolean gzip) {
+      return '"' + hash + (gzip ? "-gzip" : "") + '"';
+    }
+
+    /**
+     * Whether the entity tags of an {@code If-None-Match} header match this resource in any encoding.
+     */
+    public boolean matches(@Nullable final String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String tag : ifNoneMatch.split(",")) {
+        String candidate = tag.trim();
+        if (candidate.startsWith("W/")) {
+          // weak comparison is fine for a GET
+          candidate = candidate.substring(2);
+        }
+        if ("*".equals(candidate) || getETag(false).equals(candidate) || getETag(true).equals(candidate)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public boolean hasGzip() {
+      return gzipped != null;
+    }
+
+    @Nullable
+    public byte[] getGzipped() {
+      return gzipped;
+    }
+
+    private int weight() {
+      return 256 + (gzipped != null ? gzipped.length : 0);
+    }
+  }
+}
@@ -12,9 +12,11 @@
  */
 package org.sonatype.nexus.internal.webresources;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -25,22 +27,29 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.sonatype.goodies.common.Time;
 import org.sonatype.nexus.common.app.BaseUrlHolder;
+import org.sonatype.nexus.internal.webresources.CompressedWebResources.Variants;
 import org.sonatype.nexus.servlet.ServletHelper;
 import org.sonatype.nexus.servlet.XFrameOptions;
 import org.sonatype.nexus.webresources.WebResource;
 import org.sonatype.nexus.webresources.WebResource.Prepareable;
 import org.sonatype.nexus.webresources.WebResourceService;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
 import static com.google.common.net.HttpHeaders.CACHE_CONTROL;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
 import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.HttpHeaders.ETAG;
 import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
 import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static com.google.common.net.HttpHeaders.VARY;
 import static com.google.common.net.HttpHeaders.X_FRAME_OPTIONS;
 import static com.google.common.net.HttpHeaders.X_XSS_PROTECTION;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
@@ -64,16 +73,20 @@ public class WebResourceServlet
 
   private final XFrameOptions xframeOptions;
 
+  private final CompressedWebResources compressedWebResources;
+
   private static final String INDEX_PATH = "/index.html";
 
   @Inject
   public WebResourceServlet(final WebResourceService webResources,
                             final XFrameOptions xframeOptions,
+                            final CompressedWebResources compressedWebResources,
                             @Named("${nexus.webresources.maxAge:-30days}") final Time maxAge)
   {
     this.webResources = checkNotNull(webResources);
     this.maxAgeSeconds = checkNotNull(maxAge.toSeconds());
     this.xframeOptions = checkNotNull(xframeOptions);
+    this.compressedWebResources = checkNotNull(compressedWebResources);
     log.info("Max-age: {} ({} seconds)", maxAge, maxAgeSeconds);
   }
 
@@ -142,7 +155,6 @@ public class WebResourceServlet
     if (size < 0) {
       log.warn("Resource {} has invalid size: {}", resource.getPath(), size);
     }
-    response.setHeader(CONTENT_LENGTH, String.valueOf(size));
 
     // set max-age if cacheable
     if (resource.isCacheable()) {
@@ -152,20 +164,73 @@ public class WebResourceServlet
       ServletHelper.addNoCacheResponseHeaders(response);
     }
 
-    // honor if-modified-since GETs
+    Variants variants = compressedWebResources.get(resource);
+    boolean gzip = variants != null && variants.hasGzip() && acceptsGzip(request.getHeader(ACCEPT_ENCODING));
+    if (variants != null) {
+      response.setHeader(ETAG, variants.getETag(gzip));
+      if (variants.hasGzip()) {
+        response.setHeader(VARY, ACCEPT_ENCODING);
+      }
+    }
+    if (gzip) {
+      response.setHeader(CONTENT_ENCODING, "gzip");
+      response.setHeader(CONTENT_LENGTH, String.valueOf(variants.getGzipped().length));
+    }
+    else {
+      response.setHeader(CONTENT_LENGTH, String.valueOf(size));
+    }
+
+    // handle conditional GETs, an entity tag takes precedence over the time-stamp
+    String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
     long ifModifiedSince = request.getDateHeader(IF_MODIFIED_SINCE);
-    // handle conditional GETs
-    if (ifModifiedSince > -1 && resource.getLastModified() <= ifModifiedSince) {
-      // this is a conditional GET using time-stamp, and resource is not modified
+    boolean notModified;
+    if (ifNoneMatch != null && variants != null) {
+      notModified = variants.matches(ifNoneMatch);
+    }
+    else {
+      notModified = ifModifiedSince > -1 && resource.getLastModified() <= ifModifiedSince;
+    }
+
+    if (notModified) {
+      // this is a conditional GET and resource is not modified
       response.setStatus(SC_NOT_MODIFIED);
     }
     else {
       // send the content only if needed (this method will be called for HEAD requests too)
       if ("GET".equalsIgnoreCase(request.getMethod())) {
-        try (InputStream in = resource.getInputStream()) {
+        try (InputStream in = gzip ? new ByteArrayInputStream(variants.getGzipped()) : resource.getInputStream()) {
           ServletHelper.sendContent(in, response);
         }
       }
     }
   }
+
+  /**
+   * Whether an {@code Accept-Encoding} header allows a gzip encoded response.
+   */
+  @VisibleForTesting
+  static boolean acceptsGzip(@Nullable final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Boolean wildcard = null;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      String name = parts[0].trim().toLowerCase();
+      boolean accepted = true;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim().toLowerCase();
+        if (parameter.startsWith("q=")) {
+          accepted = !parameter.substring(2).trim().matches("0(\\.0{0,3})?");
+        }
+      }
+      if ("gzip".equals(name) || "x-gzip".equals(name)) {
+        return accepted;
+      }
+      if ("*".equals(name)) {
+        wildcard = accepted;
+      }
+    }
+    return Boolean.TRUE.equals(wildcard);
+  }
 }
@@ -0,0 +1,187 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.webresources;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.sonatype.goodies.common.ByteSize;
+import org.sonatype.goodies.common.Time;
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.servlet.XFrameOptions;
+import org.sonatype.nexus.webresources.WebResource;
+import org.sonatype.nexus.webresources.WebResourceService;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.VARY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link WebResourceServlet}.
+ */
+public class WebResourceServletTest
+    extends TestSupport
+{
+  private static final String CONTENT = Strings.repeat("Ext.define('NX.app.Application', {});\n", 200);
+
+  @Mock
+  private WebResourceService webResources;
+
+  @Mock
+  private WebResource resource;
+
+  @Mock
+  private HttpServletRequest request;
+
+  @Mock
+  private HttpServletResponse response;
+
+  private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+  private WebResourceServlet underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    when(resource.getPath()).thenReturn("/static/app.js");
+    when(resource.getContentType()).thenReturn(WebResource.JAVASCRIPT);
+    when(resource.getSize()).thenReturn((long) CONTENT.length());
+    when(resource.getLastModified()).thenReturn(1000L);
+    when(resource.isCacheable()).thenReturn(true);
+    when(resource.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(CONTENT.getBytes(UTF_8)));
+    when(webResources.getResource("/static/app.js")).thenReturn(resource);
+
+    when(request.getPathInfo()).thenReturn("/static/app.js");
+    when(request.getMethod()).thenReturn("GET");
+    when(request.getDateHeader(anyString())).thenReturn(-1L);
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream()
+    {
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(final WriteListener writeListener) {
+        // not used
+      }
+
+      @Override
+      public void write(final int b) {
+        body.write(b);
+      }
+    });
+
+    underTest = new WebResourceServlet(webResources, new XFrameOptions(true),
+        new CompressedWebResources(ByteSize.megaBytes(1), ByteSize.megaBytes(1)), Time.days(30));
+  }
+
+  @Test
+  public void servesGzipWhenAccepted() throws Exception {
+    when(request.getHeader(ACCEPT_ENCODING)).thenReturn("gzip, deflate, br");
+
+    underTest.doGet(request, response);
+
+    verify(response).setHeader(CONTENT_ENCODING, "gzip");
+    verify(response).setHeader(VARY, ACCEPT_ENCODING);
+    verify(response).setHeader(CONTENT_LENGTH, String.valueOf(body.size()));
+    assertThat(gunzip(body.toByteArray()), is(CONTENT));
+    assertThat(etag(), startsWith("\""));
+  }
+
+  @Test
+  public void servesIdentityWhenGzipIsNotAccepted() throws Exception {
+    underTest.doGet(request, response);
+
+    verify(response, never()).setHeader(CONTENT_ENCODING, "gzip");
+    verify(response).setHeader(CONTENT_LENGTH, String.valueOf(CONTENT.length()));
+    assertThat(body.toString(UTF_8.name()), is(CONTENT));
+  }
+
+  @Test
+  public void revalidatesByETag() throws Exception {
+    when(request.getHeader(ACCEPT_ENCODING)).thenReturn("gzip");
+    underTest.doGet(request, response);
+    String etag = etag();
+    body.reset();
+
+    when(request.getHeader(IF_NONE_MATCH)).thenReturn(etag);
+    underTest.doGet(request, response);
+
+    verify(response).setStatus(SC_NOT_MODIFIED);
+    assertThat(body.size(), is(0));
+    // compressed once and then served from the cache
+    verify(resource, times(1)).getInputStream();
+  }
+
+  @Test
+  public void recompressesWhenResourceChanges() throws Exception {
+    underTest.doGet(request, response);
+    when(resource.getLastModified()).thenReturn(2000L);
+    underTest.doGet(request, response);
+
+    // once per compression, once per identity response
+    verify(resource, times(4)).getInputStream();
+  }
+
+  @Test
+  public void acceptsGzip() {
+    assertThat(WebResourceServlet.acceptsGzip(null), is(false));
+    assertThat(WebResourceServlet.acceptsGzip("identity"), is(false));
+    assertThat(WebResourceServlet.acceptsGzip("gzip"), is(true));
+    assertThat(WebResourceServlet.acceptsGzip("deflate, GZIP;q=0.5"), is(true));
+    assertThat(WebResourceServlet.acceptsGzip("gzip;q=0"), is(false));
+    assertThat(WebResourceServlet.acceptsGzip("gzip;q=0.000, *"), is(false));
+    assertThat(WebResourceServlet.acceptsGzip("*"), is(true));
+    assertThat(WebResourceServlet.acceptsGzip("br, *;q=0"), is(false));
+  }
+
+  private String etag() {
+    ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+    verify(response).setHeader(eq(ETAG), etag.capture());
+    return etag.getValue();
+  }
+
+  private static String gunzip(final byte[] bytes) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return new String(ByteStreams.toByteArray(in), UTF_8);
+    }
+  }
+}
@@ -12,9 +12,18 @@
  */
 package org.sonatype.nexus.blobstore.api;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * A handle for binary data stored within a {@link BlobStore}.
  *
@@ -42,6 +51,44 @@ public interface Blob
    */
   InputStream getInputStream();
 
+  /**
+   * Opens an input stream to part of the blob's content, starting {@code offset} bytes into the content and ending
+   * after at most {@code length} bytes. By default the content before the offset is read and discarded; blob stores
+   * which can read from a position override this so that only the requested bytes are fetched.
+   *
+   * @throws BlobStoreException may be thrown if the blob is {@link BlobStore#delete deleted} or
+   *                            {@link BlobStore#delete hard deleted}.
+   * @since 3.71
+   */
+  default InputStream getInputStream(final long offset, final long length) {
+    checkArgument(offset >= 0, "offset must not be negative");
+    checkArgument(length >= 0, "length must not be negative");
+    InputStream inputStream = getInputStream();
+    try {
+      ByteStreams.skipFully(inputStream, offset);
+    }
+    catch (IOException e) {
+      Closeables.closeQuietly(inputStream);
+      throw new BlobStoreException("Unable to skip to offset " + offset, e, getId());
+    }
+    return ByteStreams.limit(inputStream, length);
+  }
+
+  /**
+   * Opens a read-only channel to the blob's content when it is held in a local file, so it can be served using
+   * zero-copy transfers rather than through {@link #getInputStream()}. The caller is responsible for closing the
+   * returned channel.
+   *
+   * @return the channel, or {@code null} if this blob is not backed by a local file
+   * @throws BlobStoreException may be thrown if the blob is {@link BlobStore#delete deleted} or
+   *                            {@link BlobStore#delete hard deleted}.
+   * @since 3.71
+   */
+  @Nullable
+  default FileChannel openFileChannel() {
+    return null;
+  }
+
   /**
    * Provides metrics about this Blob.
    *
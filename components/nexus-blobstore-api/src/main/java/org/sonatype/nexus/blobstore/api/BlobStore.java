@@ -15,9 +15,12 @@ package org.sonatype.nexus.blobstore.api;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
@@ -197,6 +200,40 @@ public interface BlobStore
    */
   boolean deleteHard(BlobId blobId);
 
+  /**
+   * Removes several blobs from the blob store, as if each were passed to {@link #delete(BlobId, String)}.
+   * Implementations may batch the underlying storage operations.
+   *
+   * @return the number of blobs which were deleted
+   * @since 3.71
+   */
+  default int deleteAll(final Collection<BlobId> blobIds, final String reason) {
+    int deleted = 0;
+    for (BlobId blobId : blobIds) {
+      if (delete(blobId, reason)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Removes several blobs from the blob store immediately, as if each were passed to {@link #deleteHard(BlobId)}.
+   * Implementations may batch the underlying storage operations.
+   *
+   * @return the number of blobs which were deleted
+   * @since 3.71
+   */
+  default int deleteAllHard(final Collection<BlobId> blobIds) {
+    int deleted = 0;
+    for (BlobId blobId : blobIds) {
+      if (deleteHard(blobId)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
   /**
    * Provides access to the blob store's metrics service instance
    * <p>
@@ -266,6 +303,19 @@ public interface BlobStore
    */
   Stream<BlobId> getBlobIdUpdatedSinceStream(int sinceDays);
 
+  /**
+   * Split the blobs returned by {@link #getBlobIdStream()} into independent partitions which may be enumerated
+   * concurrently, keyed by an id naming the same part of the blob store (a directory or key prefix, say) from one call
+   * to the next. Together the partitions contain the same blobs as {@link #getBlobIdStream()}; each stream should be
+   * closed once consumed. Callers may checkpoint their progress by the ids of completed partitions; the blobs within a
+   * partition need not be listed in a stable order.
+   *
+   * @since 3.71
+   */
+  default Map<String, Supplier<Stream<BlobId>>> getBlobIdStreamPartitions() {
+    return Collections.singletonMap("", this::getBlobIdStream);
+  }
+
   /**
    * Get a {@link Stream} of direct-path {@link BlobId}s under the specified path prefix.
    */
@@ -13,6 +13,7 @@
 package org.sonatype.nexus.blobstore.file;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import javax.annotation.Nullable;
 
@@ -44,6 +45,18 @@ public interface FileBlobDeletionIndex
    */
   void createRecord(BlobId blobId) throws IOException;
 
+  /**
+   * Add new records to deletion index
+   *
+   * @param blobIds the {@link BlobId}s that are referenced to the Blobs that were soft-deleted
+   * @since 3.71
+   */
+  default void createRecords(final Collection<BlobId> blobIds) throws IOException {
+    for (BlobId blobId : blobIds) {
+      createRecord(blobId);
+    }
+  }
+
   /**
    * Get the oldest record currently present, may return {@code null} if no deletion records are present
    *
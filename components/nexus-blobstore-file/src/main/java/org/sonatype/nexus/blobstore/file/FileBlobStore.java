@@ -17,6 +17,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileStore;
@@ -28,10 +30,15 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -39,6 +46,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -82,7 +90,9 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.HashCode;
+import com.google.common.io.ByteStreams;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.filefilter.AgeFileFilter;
 import org.apache.commons.lang.time.DateUtils;
 import org.joda.time.DateTime;
@@ -148,6 +158,8 @@ public class FileBlobStore
 
   public static final String TMP = "tmp";
 
+  private static final String VOLUME_DIRECTORY_PREFIX = "vol-";
+
   private static final boolean RETRY_ON_COLLISION =
       SystemPropertiesHelper.getBoolean("nexus.blobstore.retryOnCollision", true);
 
@@ -309,6 +321,9 @@ public class FileBlobStore
     finally {
       metricsService.stop();
       blobStoreQuotaUsageChecker.stop();
+      if (reconciliationLogDir != null) {
+        reconciliationLogger.close(reconciliationLogDir);
+      }
     }
   }
 
@@ -529,6 +544,55 @@ public class FileBlobStore
 
   @Override
   protected boolean doDelete(final BlobId blobId, final String reason) {
+    return softDelete(blobId, reason, null);
+  }
+
+  @Override
+  protected int doDeleteAll(final Collection<BlobId> blobIds, final String reason) {
+    List<BlobId> deletionRecords = new ArrayList<>(blobIds.size());
+    int deleted = 0;
+    try {
+      for (BlobId blobId : blobIds) {
+        if (softDelete(blobId, reason, deletionRecords)) {
+          deleted++;
+        }
+      }
+    }
+    catch (RuntimeException e) {
+      // the blobs marked so far still need their records, but the failure that stopped the batch is what gets reported
+      try {
+        createDeletionRecords(deletionRecords);
+      }
+      catch (RuntimeException recordFailure) {
+        e.addSuppressed(recordFailure);
+      }
+      throw e;
+    }
+    createDeletionRecords(deletionRecords);
+    return deleted;
+  }
+
+  /**
+   * Records the whole batch for hard-deletion when the next compact task runs.
+   */
+  private void createDeletionRecords(final List<BlobId> deletionRecords) {
+    try {
+      blobDeletionIndex.createRecords(deletionRecords);
+    }
+    catch (IOException e) {
+      throw new BlobStoreException("Unable to record " + deletionRecords.size() + " deleted blobs", e, null);
+    }
+  }
+
+  /**
+   * Marks the blob as deleted; the deletion index record is either written straight away or, when given a list of
+   * {@code deletionRecords}, left for the caller to write together with the rest of its batch.
+   */
+  private boolean softDelete(
+      final BlobId blobId,
+      final String reason,
+      @Nullable final List<BlobId> deletionRecords)
+  {
     final FileBlob blob = liveBlobs.getUnchecked(blobId);
 
     Lock lock = blob.lock();
@@ -554,7 +618,12 @@ public class FileBlobStore
       blobAttributes.store();
 
       // record blob for hard-deletion when the next compact task runs
-      blobDeletionIndex.createRecord(blobId);
+      if (deletionRecords != null) {
+        deletionRecords.add(blobId);
+      }
+      else {
+        blobDeletionIndex.createRecord(blobId);
+      }
       blob.markStale();
 
       return true;
@@ -585,6 +654,9 @@ public class FileBlobStore
       if (blobDeleted && contentSize != null) {
         metricsService.recordDeletion(contentSize);
       }
+      if (blobDeleted) {
+        reconciliationLogger.logBlobDeleted(reconciliationLogDir, blobId);
+      }
 
       return blobDeleted;
     }
@@ -832,8 +904,10 @@ public class FileBlobStore
   public void remove() {
     try {
       metricsService.remove();
+      removeOperationHistograms();
 
       Path blobDir = getAbsoluteBlobDir();
+      reconciliationLogger.close(reconciliationLogDir);
       FileUtils.deleteDirectory(reconciliationLogDir.toFile());
       if (fileOperations.deleteEmptyDirectory(contentDir)) {
         fileOperations.deleteQuietly(blobDir.resolve("metadata.properties"));
@@ -1067,6 +1141,43 @@ public class FileBlobStore
         throw new BlobStoreException(e, getId());
       }
     }
+
+    @Override
+    public InputStream getInputStream(final long offset, final long length) {
+      FileChannel channel = openFileChannel();
+      if (channel == null) {
+        return super.getInputStream(offset, length);
+      }
+      try {
+        channel.position(offset);
+      }
+      catch (IOException e) {
+        IOUtils.closeQuietly(channel);
+        throw new BlobStoreException(e, getId());
+      }
+      return new BufferedInputStream(ByteStreams.limit(Channels.newInputStream(channel), length));
+    }
+
+    @Nullable
+    @Override
+    public FileChannel openFileChannel() {
+      if (performanceLogger.isEnabled()) {
+        // reads must go through the logging stream so they are accounted for
+        return null;
+      }
+      Path contentPath = contentPath(getId());
+      try {
+        checkExists(contentPath, getId());
+        return fileOperations.openFileChannel(contentPath);
+      }
+      catch (BlobStoreException e) {
+        markStale();
+        throw e;
+      }
+      catch (Exception e) {
+        throw new BlobStoreException(e, getId());
+      }
+    }
   }
 
   private interface BlobIngester
@@ -1082,16 +1193,84 @@ public class FileBlobStore
   @Override
   public Stream<BlobId> getBlobIdStream() {
     try {
-      return getAttributeFilePaths()
-          .map(FileAttributesLocation::new)
-          .map(this::getBlobIdFromAttributeFilePath)
-          .map(BlobId::new);
+      return toBlobIds(getAttributeFilePaths());
     }
     catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Partitions the content directory by chapter for volume/chapter blobs, and by top-level directory otherwise (e.g.
+   * direct-path blobs), each keyed by its path under the content directory. Attribute files sitting directly in the
+   * content or volume directories form one last partition, keyed by the empty path.
+   */
+  @Override
+  public Map<String, Supplier<Stream<BlobId>>> getBlobIdStreamPartitions() {
+    if (!contentDir.toFile().exists()) {
+      return Collections.emptyMap();
+    }
+    Map<String, Supplier<Stream<BlobId>>> partitions = new LinkedHashMap<>();
+    List<Path> shallowDirectories = new ArrayList<>();
+    shallowDirectories.add(contentDir);
+    try {
+      for (Path directory : listDirectories(contentDir)) {
+        String name = directory.getFileName().toString();
+        if (TMP.equals(name)) {
+          continue;
+        }
+        if (name.startsWith(VOLUME_DIRECTORY_PREFIX)) {
+          shallowDirectories.add(directory);
+          listDirectories(directory).forEach(chapter ->
+              partitions.put(name + '/' + chapter.getFileName(), () -> walkBlobIds(chapter)));
+        }
+        else {
+          partitions.put(name, () -> walkBlobIds(directory));
+        }
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    partitions.put("", () -> shallowDirectories.stream().flatMap(this::listBlobIds));
+    return partitions;
+  }
+
+  private List<Path> listDirectories(final Path parent) throws IOException {
+    List<Path> directories = new ArrayList<>();
+    try (DirectoryStream<Path> children = Files.newDirectoryStream(parent, Files::isDirectory)) {
+      children.forEach(directories::add);
+    }
+    // keep the partitions in a stable order so that walks can be checkpointed by partition
+    Collections.sort(directories);
+    return directories;
+  }
+
+  private Stream<BlobId> walkBlobIds(final Path directory) {
+    try {
+      return toBlobIds(Files.walk(directory, FOLLOW_LINKS).filter(this::isNonTemporaryAttributeFile));
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Stream<BlobId> listBlobIds(final Path directory) {
+    try {
+      return toBlobIds(Files.list(directory).filter(this::isNonTemporaryAttributeFile));
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Stream<BlobId> toBlobIds(final Stream<Path> attributeFilePaths) {
+    return attributeFilePaths
+        .map(FileAttributesLocation::new)
+        .map(this::getBlobIdFromAttributeFilePath)
+        .map(BlobId::new);
+  }
+
   @Override
   public Stream<BlobId> getDirectPathBlobIdStream(final String prefix) {
     checkArgument(!prefix.contains(".."), "path traversal not allowed");
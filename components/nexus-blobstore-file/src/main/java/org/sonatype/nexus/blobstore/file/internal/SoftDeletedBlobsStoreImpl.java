@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.blobstore.file.internal;
 
+import java.util.Collection;
 import java.util.List;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -26,6 +27,8 @@ import org.sonatype.nexus.datastore.ConfigStoreSupport;
 import org.sonatype.nexus.datastore.api.DataSessionSupplier;
 import org.sonatype.nexus.transaction.Transactional;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Implementation of {@link SoftDeletedBlobsStore}
  */
@@ -46,6 +49,14 @@ public class SoftDeletedBlobsStoreImpl
     dao().createRecord(sourceBlobStoreName, blobId.toString());
   }
 
+  @Transactional
+  @Override
+  public void createRecords(final Collection<BlobId> blobIds, final String sourceBlobStoreName) {
+    if (!blobIds.isEmpty()) {
+      dao().createRecords(sourceBlobStoreName, blobIds.stream().map(BlobId::toString).collect(toList()));
+    }
+  }
+
   @Transactional
   @Override
   public Continuation<SoftDeletedBlobsData> readRecords(
@@ -16,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Objects;
@@ -92,6 +93,11 @@ public class DatastoreFileBlobDeletionIndex
     softDeletedBlobsStore.createRecord(blobId, blobStoreName);
   }
 
+  @Override
+  public final void createRecords(final Collection<BlobId> blobIds) {
+    softDeletedBlobsStore.createRecords(blobIds, blobStoreName);
+  }
+
   private void populateInternalCache() {
     deletedRecordsCache.addAll(softDeletedBlobsStore.readOldestRecords(blobStoreName));
   }
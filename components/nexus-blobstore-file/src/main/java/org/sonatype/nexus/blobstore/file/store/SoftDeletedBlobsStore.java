@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.blobstore.file.store;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.sonatype.nexus.blobstore.api.BlobId;
@@ -30,6 +31,15 @@ public interface SoftDeletedBlobsStore
    */
   void createRecord(BlobId blobId, String sourceBlobStoreName);
 
+  /**
+   * Create new records in a single round trip
+   *
+   * @param blobIds             the {@link BlobId}s of the soft-deleted blobs
+   * @param sourceBlobStoreName the blobstore name these records are related to
+   * @since 3.71
+   */
+  void createRecords(Collection<BlobId> blobIds, String sourceBlobStoreName);
+
   /**
    * Return all records stored in DB, the continuationToken to be used when amount more than single page (>1000 rows)
    *
@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.blobstore.file.store.internal;
 
+import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -38,6 +39,17 @@ public interface SoftDeletedBlobsDAO
       @Param("sourceBlobStoreName") String sourceBlobStoreName,
       @Param("blobId") String blobId);
 
+  /**
+   * Create new records in a single statement
+   *
+   * @param sourceBlobStoreName the blobstore name these records are related to
+   * @param blobIds             string representations of {@link BlobId}s
+   * @since 3.71
+   */
+  void createRecords(
+      @Param("sourceBlobStoreName") String sourceBlobStoreName,
+      @Param("blobIds") Collection<String> blobIds);
+
   /**
    * Return all records stored in DB, the continuationToken to be used when amount more than single page (>1000 rows)
    *
@@ -404,6 +404,28 @@ public abstract class FileBlobStoreITSupport
         .until(() -> underTest.getMetrics().getBlobCount(), is(initialBlobCount));
   }
 
+  @Test
+  public void deleteAllSoftDeletesEachBlobForCompact() throws IOException {
+    long initialBlobCount = underTest.getMetrics().getBlobCount();
+    final byte[] content = new byte[TEST_DATA_LENGTH];
+
+    final Blob blob1 = underTest.create(new ByteArrayInputStream(content), TEST_HEADERS);
+    final Blob blob2 = underTest.create(new ByteArrayInputStream(content), TEST_HEADERS);
+    await().atMost(METRICS_FLUSH_TIMEOUT, SECONDS)
+        .until(() -> underTest.getMetrics().getBlobCount(), is(initialBlobCount + 2));
+
+    assertThat(underTest.deleteAll(Arrays.asList(blob1.getId(), blob2.getId()), "deleteAll"), is(2));
+    assertThat(underTest.get(blob1.getId()), is(nullValue()));
+    assertThat(underTest.get(blob2.getId()), is(nullValue()));
+
+    // already deleted blobs are not counted again
+    assertThat(underTest.deleteAll(Arrays.asList(blob1.getId(), blob2.getId()), "deleteAll"), is(0));
+
+    underTest.compact(null);
+    await().atMost(METRICS_FLUSH_TIMEOUT, SECONDS)
+        .until(() -> underTest.getMetrics().getBlobCount(), is(initialBlobCount));
+  }
+
   @Test
   public void temporaryBlobMoveFallback() throws Exception {
     final byte[] content = randomBytes();
@@ -557,6 +579,21 @@ public abstract class FileBlobStoreITSupport
     }
   }
 
+  @Test
+  public void rangedReadStartsAtTheOffset() throws Exception {
+    final byte[] content = randomBytes();
+
+    final Blob blob = underTest.create(new ByteArrayInputStream(content), TEST_HEADERS);
+
+    try (InputStream inputStream = blob.getInputStream(2, 5)) {
+      assertThat(inputStream.markSupported(), is(true));
+      assertThat(ByteStreams.toByteArray(inputStream), is(Arrays.copyOfRange(content, 2, 7)));
+    }
+    try (InputStream inputStream = blob.getInputStream(7, 20)) {
+      assertThat(ByteStreams.toByteArray(inputStream), is(Arrays.copyOfRange(content, 7, content.length)));
+    }
+  }
+
   @Test
   public void hardDeletePreventsGetDespiteOpenStreams() throws Exception {
     final byte[] content = randomBytes();
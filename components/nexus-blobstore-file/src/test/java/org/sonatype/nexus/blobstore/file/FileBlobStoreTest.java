@@ -18,10 +18,13 @@ import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.blobstore.BlobIdLocationResolver;
@@ -56,7 +59,11 @@ import org.mockito.Mock;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.write;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -486,6 +493,24 @@ public class FileBlobStoreTest
     assertNotNull(underTest.getBlobAttributes(new BlobId("e27f83a9-dc18-4818-b4ca-ae8a9cb813c7")));
   }
 
+  @Test
+  public void blobIdStreamPartitionsContainTheSameBlobsAsTheBlobIdStream() throws Exception {
+    Path otherChapter = underTest.getAbsoluteBlobDir().resolve(CONTENT).resolve("vol-05").resolve("chap-01");
+    Files.createDirectories(otherChapter);
+    Files.createDirectories(otherChapter.resolveSibling("chap-02"));
+    write(fullPath.resolve("e27f83a9-dc18-4818-b4ca-ae8a9cb813c7.properties"), VALID_BLOB_STORE_PROPERTIES);
+    write(otherChapter.resolve("0f3bfb2f-6d2e-4c4f-a3d6-8e9a7d39c0a1.properties"), VALID_BLOB_STORE_PROPERTIES);
+    write(otherChapter.resolveSibling("chap-02").resolve("7d2a6b1e-5c4e-4f0a-9b3c-2a1d0e9f8c7b.properties"),
+        VALID_BLOB_STORE_PROPERTIES);
+
+    Map<String, Supplier<Stream<BlobId>>> partitions = underTest.getBlobIdStreamPartitions();
+    List<BlobId> partitioned = partitions.values().stream().flatMap(Supplier::get).collect(toList());
+
+    assertThat(partitions.keySet(), hasItems("vol-05/chap-01", "vol-05/chap-02", ""));
+    assertThat(partitioned, containsInAnyOrder(underTest.getBlobIdStream().toArray()));
+    assertThat(partitioned, hasSize(3));
+  }
+
   @Test
   public void getBlobAttributesReturnsNullWhenPropertiesFileIsNonExistent() {
     assertNull(underTest.getBlobAttributes(new BlobId("non-existent-blob")));
@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.blobstore.file;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import org.sonatype.goodies.testsupport.TestSupport;
@@ -29,6 +30,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.sonatype.nexus.datastore.api.DataStoreManager.DEFAULT_DATASTORE_NAME;
 
@@ -82,5 +84,9 @@ public class SoftDeletedBlobsDAOTest
     dao.deleteAllRecords(FAKE_BLOB_STORE_NAME, "100");
 
     assertThat(dao.readRecords(null, FAKE_BLOB_STORE_NAME).size(), is(0));
+
+    dao.createRecords(FAKE_BLOB_STORE_NAME, Arrays.asList("blob4", "blob5"));
+
+    assertThat(dao.readOldestRecords(FAKE_BLOB_STORE_NAME), containsInAnyOrder("blob4", "blob5"));
   }
 }
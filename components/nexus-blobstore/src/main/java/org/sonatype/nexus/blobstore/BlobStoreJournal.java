@@ -0,0 +1,534 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.blobstore.api.BlobId;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Append-only binary journal of blob create and delete events for a single blob store.
+ *
+ * The journal is split into one segment per day, named after the date of the events it holds, so readers asking for
+ * the blobs changed since a date only open the segments covering that period. Each record is laid out as
+ * {@code [type:byte][timestamp:long][length:unsigned short][blob id:UTF-8][crc32:int]}, the checksum covering the rest
+ * of the record. Reading stops at the first record with an unknown type or a bad checksum, so a record which is still
+ * being written, or which was torn by a crash, reads as the end of the segment. When a segment is reopened for
+ * appending it is truncated at that point, so nothing left past the last good record can be read back later.
+ *
+ * Segments are appended through a memory-mapped window which is forced to disk at most once per sync interval on
+ * append, whenever {@link #sync()} is called, when the window moves and when the journal is closed. Windows are
+ * unmapped as soon as they are replaced rather than left for the garbage collector.
+ *
+ * Text reconciliation logs written by earlier versions (one {@code yyyy-MM-dd} file per day holding
+ * {@code yyyy-MM-dd HH:mm:ss,blobId} lines) are imported into the journal when it is opened and then moved into the
+ * {@value #MIGRATED_DIRECTORY} sub-directory.
+ *
+ * @since 3.71
+ */
+class BlobStoreJournal
+    extends ComponentSupport
+    implements Closeable
+{
+  static final byte CREATED = 1;
+
+  static final byte DELETED = 2;
+
+  static final String SEGMENT_SUFFIX = ".journal";
+
+  static final String MIGRATED_DIRECTORY = "migrated";
+
+  private static final int HEADER_SIZE = 1 + Long.BYTES + Short.BYTES;
+
+  private static final int CHECKSUM_SIZE = Integer.BYTES;
+
+  private static final int MAX_BLOB_ID_LENGTH = 0xFFFF;
+
+  private static final int WINDOW_SIZE = 1024 * 1024;
+
+  private static final DateTimeFormatter LEGACY_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final Path directory;
+
+  private final Clock clock;
+
+  private final long syncIntervalMillis;
+
+  private final int retentionDays;
+
+  private LocalDate segmentDate;
+
+  private FileChannel channel;
+
+  private MappedByteBuffer window;
+
+  private long windowStart;
+
+  private long lastSync;
+
+  private boolean dirty;
+
+  private final Consumer<MappedByteBuffer> unmapper = unmapper();
+
+  BlobStoreJournal(
+      final Path directory,
+      final Clock clock,
+      final long syncIntervalMillis,
+      final int retentionDays) throws IOException
+  {
+    this.directory = checkNotNull(directory);
+    this.clock = checkNotNull(clock);
+    checkArgument(syncIntervalMillis >= 0, "Sync interval must not be negative");
+    checkArgument(retentionDays > 0, "Retention must be positive");
+    this.syncIntervalMillis = syncIntervalMillis;
+    this.retentionDays = retentionDays;
+
+    Files.createDirectories(directory);
+    migrateLegacyLogs();
+  }
+
+  /**
+   * Records that the given blob was created.
+   */
+  void created(final BlobId blobId) throws IOException {
+    append(CREATED, blobId);
+  }
+
+  /**
+   * Records that the given blob was permanently deleted.
+   */
+  void deleted(final BlobId blobId) throws IOException {
+    append(DELETED, blobId);
+  }
+
+  /**
+   * Streams the ids of blobs with events of the given type recorded at or after the given instant, oldest first. The
+   * returned stream holds open files and should be closed.
+   */
+  Stream<BlobId> read(final byte type, final Instant since) {
+    long sinceMillis = since.toEpochMilli();
+    List<Path> segments;
+    try {
+      segments = segmentsSince(since.atZone(clock.getZone()).toLocalDate());
+    }
+    catch (IOException e) {
+      log.error("Unable to list blob store journal segments in {}", directory, e);
+      return Stream.empty();
+    }
+    return segments.stream()
+        .flatMap(BlobStoreJournal::readSegment)
+        .filter(record -> record.type == type && record.timestamp >= sinceMillis)
+        .map(record -> record.blobId);
+  }
+
+  /**
+   * Forces records appended since the last sync to disk.
+   */
+  synchronized void sync() {
+    if (dirty && window != null) {
+      window.force();
+      dirty = false;
+      lastSync = clock.millis();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    closeSegment();
+  }
+
+  private synchronized void append(final byte type, final BlobId blobId) throws IOException {
+    long now = clock.millis();
+    append(LocalDate.now(clock), now, type, blobId);
+    if (now - lastSync >= syncIntervalMillis) {
+      sync();
+    }
+  }
+
+  private void append(final LocalDate date, final long timestamp, final byte type, final BlobId blobId)
+      throws IOException
+  {
+    byte[] id = blobId.asUniqueString().getBytes(UTF_8);
+    if (id.length > MAX_BLOB_ID_LENGTH) {
+      log.warn("Blob id {} is too long to be journaled, skipping", blobId);
+      return;
+    }
+    if (!date.equals(segmentDate)) {
+      openSegment(date);
+    }
+    if (window.remaining() < HEADER_SIZE + id.length + CHECKSUM_SIZE) {
+      mapWindow(windowStart + window.position());
+    }
+
+    int start = window.position();
+    window.put(type).putLong(timestamp).putShort((short) id.length).put(id);
+    ByteBuffer record = window.duplicate();
+    record.position(start).limit(window.position());
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    window.putInt((int) crc.getValue());
+    dirty = true;
+  }
+
+  private void openSegment(final LocalDate date) throws IOException {
+    closeSegment();
+
+    Path segment = segmentPath(date);
+    long end = endOfRecords(segment);
+    channel = FileChannel.open(segment, CREATE, READ, WRITE);
+    if (channel.size() > end) {
+      // drop any torn record and whatever the previous window left past it
+      channel.truncate(end);
+    }
+    segmentDate = date;
+    mapWindow(end);
+
+    removeExpiredSegments();
+  }
+
+  private void mapWindow(final long position) throws IOException {
+    releaseWindow();
+    window = channel.map(READ_WRITE, position, WINDOW_SIZE);
+    windowStart = position;
+  }
+
+  private void releaseWindow() {
+    if (window != null) {
+      MappedByteBuffer released = window;
+      window = null;
+      released.force();
+      dirty = false;
+      unmapper.accept(released);
+    }
+  }
+
+  private void closeSegment() throws IOException {
+    if (channel != null) {
+      try {
+        releaseWindow();
+      }
+      finally {
+        channel.close();
+        channel = null;
+        segmentDate = null;
+      }
+    }
+  }
+
+  /**
+   * Looks up the JDK's internal means of unmapping a buffer, falling back to leaving it to the garbage collector.
+   */
+  private Consumer<MappedByteBuffer> unmapper() {
+    try {
+      // Java 9 and later
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      return buffer -> invoke(invokeCleaner, unsafe, buffer);
+    }
+    catch (ReflectiveOperationException | RuntimeException e) { // NOSONAR
+      // Java 8
+    }
+    try {
+      Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return buffer -> {
+        Object bufferCleaner = invoke(cleaner, buffer);
+        if (bufferCleaner != null) {
+          invoke(clean, bufferCleaner);
+        }
+      };
+    }
+    catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("Unable to unmap journal windows explicitly, leaving them to the garbage collector", e);
+      return buffer -> { };
+    }
+  }
+
+  @Nullable
+  private Object invoke(final Method method, final Object target, final Object... args) {
+    try {
+      return method.invoke(target, args);
+    }
+    catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("Unable to unmap journal window", e);
+      return null;
+    }
+  }
+
+  private void removeExpiredSegments() throws IOException {
+    LocalDate oldest = LocalDate.now(clock).minusDays(retentionDays);
+    try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path segment : segments) {
+        Optional<LocalDate> date = segmentDate(segment);
+        if (date.isPresent() && date.get().isBefore(oldest)) {
+          log.debug("Removing expired blob store journal segment {}", segment);
+          Files.deleteIfExists(segment);
+        }
+      }
+    }
+  }
+
+  private List<Path> segmentsSince(final LocalDate sinceDate) throws IOException {
+    List<Path> matching = new ArrayList<>();
+    try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path segment : segments) {
+        segmentDate(segment)
+            .filter(date -> !date.isBefore(sinceDate))
+            .ifPresent(date -> matching.add(segment));
+      }
+    }
+    matching.sort(null);
+    return matching;
+  }
+
+  @VisibleForTesting
+  Path segmentPath(final LocalDate date) {
+    return directory.resolve(date + SEGMENT_SUFFIX);
+  }
+
+  private static Optional<LocalDate> segmentDate(final Path segment) {
+    String name = segment.getFileName().toString();
+    return parseDate(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static Optional<LocalDate> parseDate(final String value) {
+    try {
+      return Optional.of(LocalDate.parse(value));
+    }
+    catch (DateTimeParseException e) { // NOSONAR
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns the offset just past the last complete record of the segment, which is where appending resumes.
+   */
+  private static long endOfRecords(final Path segment) throws IOException {
+    if (!Files.exists(segment)) {
+      return 0;
+    }
+    try (SegmentReader reader = new SegmentReader(segment)) {
+      while (reader.hasNext()) {
+        reader.next();
+      }
+      return reader.offset;
+    }
+  }
+
+  private static Stream<Record> readSegment(final Path segment) {
+    SegmentReader reader;
+    try {
+      reader = new SegmentReader(segment);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, ORDERED | NONNULL), false)
+        .onClose(reader::closeQuietly);
+  }
+
+  private void migrateLegacyLogs() throws IOException {
+    List<Path> legacyLogs = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+        file -> Files.isRegularFile(file) && parseDate(file.getFileName().toString()).isPresent())) {
+      files.forEach(legacyLogs::add);
+    }
+    if (legacyLogs.isEmpty()) {
+      return;
+    }
+
+    legacyLogs.sort(null);
+    Path migrated = Files.createDirectories(directory.resolve(MIGRATED_DIRECTORY));
+    LocalDate oldest = LocalDate.now(clock).minusDays(retentionDays);
+    try {
+      for (Path legacyLog : legacyLogs) {
+        LocalDate date = LocalDate.parse(legacyLog.getFileName().toString());
+        if (!date.isBefore(oldest)) {
+          log.info("Importing reconciliation log {} into blob store journal", legacyLog);
+          migrateLegacyLog(legacyLog, date);
+        }
+        Files.move(legacyLog, migrated.resolve(legacyLog.getFileName()), REPLACE_EXISTING);
+      }
+    }
+    finally {
+      closeSegment();
+    }
+  }
+
+  private void migrateLegacyLog(final Path legacyLog, final LocalDate date) throws IOException {
+    long startOfDay = date.atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+    try (Stream<String> lines = Files.lines(legacyLog)) {
+      for (Iterator<String> iterator = lines.iterator(); iterator.hasNext(); ) {
+        String[] split = iterator.next().split(",");
+        if (split.length == 2) {
+          append(date, parseLegacyTimestamp(split[0], startOfDay), CREATED, new BlobId(split[1]));
+        }
+      }
+    }
+  }
+
+  private long parseLegacyTimestamp(final String value, final long fallback) {
+    try {
+      return LocalDateTime.parse(value, LEGACY_TIMESTAMP).atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+    catch (DateTimeParseException e) { // NOSONAR
+      return fallback;
+    }
+  }
+
+  private static final class Record
+  {
+    final byte type;
+
+    final long timestamp;
+
+    final BlobId blobId;
+
+    Record(final byte type, final long timestamp, final BlobId blobId) {
+      this.type = type;
+      this.timestamp = timestamp;
+      this.blobId = blobId;
+    }
+  }
+
+  /**
+   * Reads complete records from a segment, stopping at the first end marker, unknown type, bad checksum or end of file.
+   */
+  private static final class SegmentReader
+      implements Iterator<Record>, Closeable
+  {
+    private final DataInputStream input;
+
+    private long offset;
+
+    @Nullable
+    private Record next;
+
+    private boolean done;
+
+    SegmentReader(final Path segment) throws IOException {
+      this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 64 * 1024));
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !done) {
+        next = readRecord();
+        done = next == null;
+      }
+      return next != null;
+    }
+
+    @Override
+    public Record next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Record record = next;
+      next = null;
+      return record;
+    }
+
+    @Nullable
+    private Record readRecord() {
+      try {
+        byte[] header = new byte[HEADER_SIZE];
+        input.readFully(header);
+        ByteBuffer fields = ByteBuffer.wrap(header);
+        byte type = fields.get();
+        if (type != CREATED && type != DELETED) {
+          return null;
+        }
+        long timestamp = fields.getLong();
+        int length = Short.toUnsignedInt(fields.getShort());
+        byte[] id = new byte[length];
+        input.readFully(id);
+        CRC32 crc = new CRC32();
+        crc.update(header);
+        crc.update(id);
+        if (input.readInt() != (int) crc.getValue()) {
+          return null;
+        }
+        offset += HEADER_SIZE + length + CHECKSUM_SIZE;
+        return new Record(type, timestamp, new BlobId(new String(id, UTF_8)));
+      }
+      catch (EOFException e) { // NOSONAR
+        return null;
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+
+    void closeQuietly() {
+      try {
+        close();
+      }
+      catch (IOException e) { // NOSONAR
+        // nothing more can be read from this segment
+      }
+    }
+  }
+}
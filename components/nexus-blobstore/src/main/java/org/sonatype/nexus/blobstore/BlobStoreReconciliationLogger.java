@@ -12,64 +12,126 @@
  */
 package org.sonatype.nexus.blobstore;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.time.Clock;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-import java.util.Objects;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.sonatype.nexus.blobstore.api.BlobId;
 import org.sonatype.nexus.common.app.ApplicationDirectories;
+import org.sonatype.nexus.common.app.ManagedLifecycle;
+import org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
+import com.google.common.annotations.VisibleForTesting;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.sonatype.nexus.common.app.ManagedLifecycle.Phase.STORAGE;
+import static org.sonatype.nexus.blobstore.BlobStoreJournal.CREATED;
+import static org.sonatype.nexus.blobstore.BlobStoreJournal.DELETED;
 import static org.sonatype.nexus.blobstore.DefaultBlobIdLocationResolver.TEMPORARY_BLOB_ID_PREFIX;
 
 /**
- * Helper class for storing and retrieving reconciliation log for newly created blob store. Configuration is stored in
- * logback.xml. Logback will be responsible for rolling the files, and all we need to do is just call it via this class
- * that sets the context properties, so each blob store has its own reconciliation log file. Reconciliation logs are
- * stored at &lt;blobstore root&gt;/reconciliation/%date.log
+ * Helper class for storing and retrieving the reconciliation log of blob stores. Each blob store has its own
+ * {@link BlobStoreJournal binary journal} of created and deleted blobs, stored at
+ * &lt;blobstore root&gt;/reconciliation/%date.journal. Text logs written by earlier versions are imported into the
+ * journal the first time it is opened.
+ *
+ * Open journals are forced to disk once per sync interval by a background thread, so the last entries written before
+ * a quiet period do not wait for the next append to reach the disk. Stopping the logger stops that thread and closes
+ * every open journal; it starts in the {@link ManagedLifecycle.Phase#STORAGE storage} phase so blob stores are
+ * stopped before it.
  */
+@Named
 @Singleton
+@ManagedLifecycle(phase = STORAGE)
 public class BlobStoreReconciliationLogger
+    extends StateGuardLifecycleSupport
 {
+  /**
+   * Key of the diagnostic context that routed entries of the text logs written by earlier versions.
+   *
+   * @deprecated entries are now written to a {@link BlobStoreJournal} rather than logged
+   */
+  @Deprecated
   public static final String BLOBSTORE = "blobstore-reconciliation-path";
 
-  private static final String RECONCILIATION_LOGGER_NAME = "blobstore-reconciliation-log";
+  private final ApplicationDirectories applicationDirectories;
 
-  private static final Logger LOGGER = LoggerFactory.getLogger(BlobStoreReconciliationLogger.class);
+  private final Clock clock;
 
-  private final Logger reconciliationLogger;
+  private final long syncIntervalMillis;
 
-  private final ApplicationDirectories applicationDirectories;
+  private final int retentionDays;
+
+  private final Map<Path, BlobStoreJournal> journals = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService syncExecutor;
 
   @Inject
-  public BlobStoreReconciliationLogger(final ApplicationDirectories applicationDirectories) {
+  public BlobStoreReconciliationLogger(
+      final ApplicationDirectories applicationDirectories,
+      @Named("${nexus.blobstore.journal.syncIntervalMillis:-1000}") final long syncIntervalMillis,
+      @Named("${nexus.blobstore.journal.retentionDays:-90}") final int retentionDays)
+  {
+    this(applicationDirectories, Clock.systemDefaultZone(), syncIntervalMillis, retentionDays);
+  }
+
+  @VisibleForTesting
+  BlobStoreReconciliationLogger(
+      final ApplicationDirectories applicationDirectories,
+      final Clock clock,
+      final long syncIntervalMillis,
+      final int retentionDays)
+  {
     this.applicationDirectories = checkNotNull(applicationDirectories);
-    this.reconciliationLogger = LoggerFactory.getLogger(RECONCILIATION_LOGGER_NAME);
+    this.clock = checkNotNull(clock);
+    this.syncIntervalMillis = syncIntervalMillis;
+    this.retentionDays = retentionDays;
   }
 
   /**
-   * Add new entry in rolling log later used in reconciliation task.
+   * Add new entry in the journal later used in reconciliation task.
    * @param reconciliationLogPath The path to the blob store's reconciliation log directory
    * @param blobId id of blob created
    */
   public void logBlobCreated(final Path reconciliationLogPath, final BlobId blobId) {
     if (isNotTemporaryBlob(blobId)) {
-      MDC.put(BLOBSTORE, reconciliationLogPath.toString());
-      reconciliationLogger.info(blobId.asUniqueString());
-      MDC.remove(BLOBSTORE);
+      try {
+        journal(reconciliationLogPath).created(blobId);
+      }
+      catch (Exception e) {
+        log.warn("Unable to record creation of blob {} in {}", blobId, reconciliationLogPath, e);
+      }
+    }
+  }
+
+  /**
+   * Add new entry in the journal recording that a blob was permanently deleted.
+   * @param reconciliationLogPath The path to the blob store's reconciliation log directory
+   * @param blobId id of blob deleted
+   *
+   * @since 3.71
+   */
+  public void logBlobDeleted(final Path reconciliationLogPath, final BlobId blobId) {
+    if (isNotTemporaryBlob(blobId)) {
+      try {
+        journal(reconciliationLogPath).deleted(blobId);
+      }
+      catch (Exception e) {
+        log.warn("Unable to record deletion of blob {} in {}", blobId, reconciliationLogPath, e);
+      }
     }
   }
 
@@ -85,55 +147,84 @@ public class BlobStoreReconciliationLogger
    * @return stream of BlobId
    */
   public Stream<BlobId> getBlobsCreatedSince(final Path reconciliationLogPath, final LocalDate sinceDate) {
-    return getLogFilesToProcess(reconciliationLogPath, sinceDate)
-        .flatMap(this::readLines)
-        .map(line -> {
-          String[] split = line.split(",");
-          if (split.length == 2) {
-            return split[1];
-          }
-          else {
-            LOGGER.info("Cannot find blob id on line, skipping: {}", line);
-            return null;
-          }
-        })
-        .filter(Objects::nonNull)
-        .map(BlobId::new);
+    return read(reconciliationLogPath, CREATED, sinceDate);
+  }
+
+  /**
+   * Stream blob ids of blobs permanently deleted from a blob store since specified date (inclusive).
+   *
+   * @since 3.71
+   */
+  public Stream<BlobId> getBlobsDeletedSince(final Path reconciliationLogPath, final LocalDate sinceDate) {
+    return read(reconciliationLogPath, DELETED, sinceDate);
   }
 
-  private Stream<String> readLines(final File file) {
+  private Stream<BlobId> read(final Path reconciliationLogPath, final byte type, final LocalDate sinceDate) {
     try {
-      return Files.lines(file.toPath());
+      return journal(reconciliationLogPath).read(type, sinceDate.atStartOfDay(clock.getZone()).toInstant());
     }
-    catch (IOException e) {
-      LOGGER.error("Problem when reading file '{}'", file.getName(), e);
+    catch (Exception e) {
+      log.error("Problem when reading reconciliation journal in '{}'", reconciliationLogPath, e);
       return Stream.empty();
     }
   }
 
-  private Stream<File> getLogFilesToProcess(final Path reconciliationLogPath, final LocalDate sinceDate) {
-    File reconciliationLogDirectory = applicationDirectories.getWorkDirectory(reconciliationLogPath.toString());
-    File[] logs = reconciliationLogDirectory.listFiles();
-    if (Objects.nonNull(logs)) {
-      return Stream.of(logs)
-          .filter(isFileNameOlderOrSameAs(sinceDate))
-          .peek(file -> LOGGER.info("Processing file '{}'", file.getName()));
+  /**
+   * Closes the journal of the given reconciliation log directory, flushing pending entries to disk. The journal is
+   * reopened on next use.
+   *
+   * @since 3.71
+   */
+  public void close(final Path reconciliationLogPath) {
+    BlobStoreJournal journal = journals.remove(reconciliationLogPath);
+    if (journal != null) {
+      try {
+        journal.close();
+      }
+      catch (IOException e) {
+        log.warn("Problem when closing reconciliation journal in '{}'", reconciliationLogPath, e);
+      }
     }
-    else {
-      LOGGER.info("No files found to process");
-      return Stream.empty();
+  }
+
+  private BlobStoreJournal journal(final Path reconciliationLogPath) {
+    return journals.computeIfAbsent(reconciliationLogPath, path -> {
+      try {
+        return new BlobStoreJournal(applicationDirectories.getWorkDirectory(path.toString()).toPath(), clock,
+            syncIntervalMillis, retentionDays);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  @Override
+  protected void doStart() {
+    if (syncIntervalMillis > 0) {
+      syncExecutor = Executors.newSingleThreadScheduledExecutor(
+          new NexusThreadFactory("blobstore-journal", "blobstore-journal", Thread.NORM_PRIORITY, true));
+      syncExecutor.scheduleWithFixedDelay(this::syncJournals, syncIntervalMillis, syncIntervalMillis, MILLISECONDS);
+    }
+  }
+
+  @Override
+  protected void doStop() {
+    if (syncExecutor != null) {
+      syncExecutor.shutdown();
+      syncExecutor = null;
     }
+    journals.keySet().forEach(this::close);
   }
 
-  private Predicate<File> isFileNameOlderOrSameAs(final LocalDate sinceDate) {
-    return file -> {
+  private void syncJournals() {
+    journals.forEach((path, journal) -> {
       try {
-        LocalDate logFileDate = LocalDate.parse(file.getName());
-        return !sinceDate.isAfter(logFileDate);
+        journal.sync();
       }
-      catch (DateTimeParseException e) {
-        return false;
+      catch (Exception e) {
+        log.warn("Problem when syncing reconciliation journal in '{}'", path, e);
       }
-    };
+    });
   }
 }
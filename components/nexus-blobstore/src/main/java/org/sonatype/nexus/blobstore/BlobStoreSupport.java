@@ -14,6 +14,7 @@ package org.sonatype.nexus.blobstore;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,6 +31,7 @@ import org.sonatype.nexus.blobstore.api.BlobSession;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreConfiguration;
 import org.sonatype.nexus.blobstore.api.BlobStoreUsageChecker;
+import org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms;
 import org.sonatype.nexus.common.log.DryRunPrefix;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport;
@@ -42,6 +44,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static org.sonatype.nexus.blobstore.api.BlobAttributesConstants.HEADER_PREFIX;
+import static org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms.DELETE;
+import static org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms.DELETE_HARD;
 import static org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport.State.SHUTDOWN;
 import static org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport.State.STARTED;
 
@@ -62,6 +66,8 @@ public abstract class BlobStoreSupport<T extends AttributesLocation>
 
   private MetricRegistry metricRegistry;
 
+  private BlobStoreOperationHistograms operationHistograms;
+
   protected final BlobIdLocationResolver blobIdLocationResolver;
 
   protected final DryRunPrefix dryRunPrefix;
@@ -89,6 +95,11 @@ public abstract class BlobStoreSupport<T extends AttributesLocation>
     this.metricRegistry = metricRegistry;
   }
 
+  @Inject
+  public void setOperationHistograms(final BlobStoreOperationHistograms operationHistograms) {
+    this.operationHistograms = operationHistograms;
+  }
+
   protected BlobId getBlobId(final Map<String, String> headers, @Nullable final BlobId blobId) {
     return Optional.ofNullable(blobId).orElseGet(() -> blobIdLocationResolver.fromHeaders(headers));
   }
@@ -148,6 +159,7 @@ public abstract class BlobStoreSupport<T extends AttributesLocation>
     finally {
       long elapsed = System.nanoTime() - start;
       updateTimer("delete", elapsed);
+      recordLatency(DELETE, elapsed);
       performanceLogger.logDelete(elapsed);
     }
   }
@@ -208,12 +220,72 @@ public abstract class BlobStoreSupport<T extends AttributesLocation>
       return doDeleteHard(blobId);
     }
     finally {
-      updateTimer("deleteHard", System.nanoTime() - start);
+      long elapsed = System.nanoTime() - start;
+      updateTimer("deleteHard", elapsed);
+      recordLatency(DELETE_HARD, elapsed);
     }
   }
 
   protected abstract boolean doDeleteHard(final BlobId blobId);
 
+  @Override
+  @Guarded(by = STARTED)
+  public int deleteAll(final Collection<BlobId> blobIds, final String reason) {
+    checkNotNull(blobIds);
+
+    long start = System.nanoTime();
+    try {
+      return doDeleteAll(blobIds, reason);
+    }
+    finally {
+      updateTimer("deleteAll", System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Deletes each blob in turn; stores which can batch the underlying storage operations should override this.
+   *
+   * @since 3.71
+   */
+  protected int doDeleteAll(final Collection<BlobId> blobIds, final String reason) {
+    int deleted = 0;
+    for (BlobId blobId : blobIds) {
+      if (doDelete(blobId, reason)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  @Override
+  @Guarded(by = STARTED)
+  public int deleteAllHard(final Collection<BlobId> blobIds) {
+    checkNotNull(blobIds);
+
+    long start = System.nanoTime();
+    try {
+      return doDeleteAllHard(blobIds);
+    }
+    finally {
+      updateTimer("deleteAllHard", System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Hard deletes each blob in turn; stores which can batch the underlying storage operations should override this.
+   *
+   * @since 3.71
+   */
+  protected int doDeleteAllHard(final Collection<BlobId> blobIds) {
+    int deleted = 0;
+    for (BlobId blobId : blobIds) {
+      if (doDeleteHard(blobId)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
   @Override
   @Guarded(by = STARTED)
   public synchronized void compact(@Nullable final BlobStoreUsageChecker inUseChecker) {
@@ -284,6 +356,21 @@ public abstract class BlobStoreSupport<T extends AttributesLocation>
     }
   }
 
+  private void recordLatency(final String operation, final long elapsed) {
+    if (operationHistograms != null && blobStoreConfiguration != null) {
+      operationHistograms.recordLatency(blobStoreConfiguration.getName(), operation, elapsed);
+    }
+  }
+
+  /**
+   * Drops the operation histograms of this blob store, to be called when the blob store is removed.
+   */
+  protected void removeOperationHistograms() {
+    if (operationHistograms != null && blobStoreConfiguration != null) {
+      operationHistograms.remove(blobStoreConfiguration.getName());
+    }
+  }
+
   @Override
   public boolean isEmpty() {
     return !getBlobIdStream().findAny().isPresent();
@@ -15,6 +15,7 @@ package org.sonatype.nexus.blobstore;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import javax.annotation.Nullable;
 
 import org.sonatype.nexus.blobstore.api.Blob;
 import org.sonatype.nexus.blobstore.api.BlobId;
@@ -36,13 +37,27 @@ public abstract class CloudBlobStoreSupport<T extends AttributesLocation>
     super(blobIdLocationResolver, dryRunPrefix);
   }
 
-  protected abstract Blob writeBlobProperties(BlobId blobId, Map<String, String> headers);
+  /**
+   * Rewrites the properties of an existing blob with the given headers, leaving its content untouched.
+   */
+  protected abstract Blob writeBlobProperties(Blob blob, Map<String, String> headers);
+
+  /**
+   * Looks up a blob for internal use, such as promotion, without recording it as a download.
+   *
+   * @since 3.71
+   */
+  @Nullable
+  protected abstract Blob lookupBlob(BlobId blobId);
 
   @Override
   protected BlobId getBlobId(final Map<String, String> headers, final BlobId assignedBlobId) {
     return super.getBlobId(removeTemporaryBlobHeaderIfPresent(headers), assignedBlobId);
   }
 
+  /**
+   * Promotes a temporary blob in place by rewriting only its properties; the content is neither copied nor moved.
+   */
   @Override
   public final Blob makeBlobPermanent(final BlobId blobId, final Map<String, String> headers) {
     if (headers.containsKey(TEMPORARY_BLOB_HEADER)) {
@@ -50,10 +65,9 @@ public abstract class CloudBlobStoreSupport<T extends AttributesLocation>
           String.format("Permanent blob headers must not contain entry with '%s' key.", TEMPORARY_BLOB_HEADER));
     }
 
-    return Optional.ofNullable(get(blobId))
-        .map(Blob::getHeaders)
-        .filter(blobHeaders -> blobHeaders.containsKey(TEMPORARY_BLOB_HEADER))
-        .map(__ -> writeBlobProperties(blobId, headers))
+    return Optional.ofNullable(lookupBlob(blobId))
+        .filter(blob -> blob.getHeaders().containsKey(TEMPORARY_BLOB_HEADER))
+        .map(blob -> writeBlobProperties(blob, headers))
         // We were given a blob that was already made permanent, so we need to copy it instead.
         .orElseGet(() -> super.makeBlobPermanent(blobId, headers));
   }
@@ -0,0 +1,216 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.blobstore.api.BlobId;
+import org.sonatype.nexus.blobstore.api.BlobStore;
+import org.sonatype.nexus.thread.NexusThreadFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.sonatype.nexus.thread.NexusExecutorService.forCurrentSubject;
+
+/**
+ * Visits every {@link BlobId} of a {@link BlobStore} using a pool of worker threads, each worker enumerating one
+ * {@link BlobStore#getBlobIdStreamPartitions() partition} at a time.
+ *
+ * The consumer is invoked concurrently and must be thread-safe. Progress is reported on the calling thread so that
+ * task logging, which is bound to the task thread, keeps working. When only one worker is needed the walk runs
+ * entirely on the calling thread.
+ *
+ * @since 3.71
+ */
+@Named
+@Singleton
+public class ParallelBlobIdWalker
+    extends ComponentSupport
+{
+  private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+  private final int parallelism;
+
+  @Inject
+  public ParallelBlobIdWalker(@Named("${nexus.blobstore.walker.parallelism:-0}") final int parallelism) {
+    checkArgument(parallelism >= 0, "Must use a non-negative parallelism");
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * The default number of worker threads used by {@link #walk(BlobStore, Consumer, BooleanSupplier, LongConsumer)}.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Visits every blob of the given store with the default parallelism.
+   *
+   * @return the number of blobs visited
+   */
+  public long walk(
+      final BlobStore blobStore,
+      final Consumer<BlobId> consumer,
+      final BooleanSupplier isCanceled,
+      final LongConsumer progress)
+  {
+    return walk(blobStore.getBlobIdStreamPartitions().values(), parallelism, consumer, isCanceled, progress);
+  }
+
+  /**
+   * Visits every blob in the given partitions using at most {@code threads} workers. The walk stops early, without
+   * error, once {@code isCanceled} reports {@code true}; the first exception thrown by a worker stops the walk and is
+   * rethrown to the caller.
+   *
+   * @param partitions independent sources of blob ids, each of which is enumerated by a single worker
+   * @param threads    the maximum number of workers
+   * @param consumer   receives each blob id, possibly concurrently
+   * @param isCanceled polled on the calling thread to detect cancellation
+   * @param progress   called on the calling thread with the number of blobs visited so far
+   * @return the number of blobs visited
+   */
+  public long walk(
+      final Collection<Supplier<Stream<BlobId>>> partitions,
+      final int threads,
+      final Consumer<BlobId> consumer,
+      final BooleanSupplier isCanceled,
+      final LongConsumer progress)
+  {
+    checkNotNull(partitions);
+    checkArgument(threads > 0, "Must use a positive number of threads");
+    checkNotNull(consumer);
+    checkNotNull(isCanceled);
+    checkNotNull(progress);
+
+    int workers = Math.min(threads, partitions.size());
+    if (workers <= 1) {
+      return walkOnCallingThread(partitions, consumer, isCanceled, progress);
+    }
+
+    log.debug("Walking {} blob id partitions with {} workers", partitions.size(), workers);
+
+    AtomicBoolean stopped = new AtomicBoolean();
+    AtomicLong visited = new AtomicLong();
+    ExecutorService executor = forCurrentSubject(
+        newFixedThreadPool(workers, new NexusThreadFactory("blobstore-walker", "blobstore-walker")));
+    try {
+      List<Future<?>> futures = new ArrayList<>(partitions.size());
+      for (Supplier<Stream<BlobId>> partition : partitions) {
+        futures.add(executor.submit(() -> walkPartition(partition, consumer, stopped, visited)));
+      }
+      for (Future<?> future : futures) {
+        awaitPartition(future, stopped, isCanceled, () -> progress.accept(visited.get()));
+      }
+      progress.accept(visited.get());
+      return visited.get();
+    }
+    finally {
+      stopped.set(true);
+      executor.shutdownNow();
+    }
+  }
+
+  private long walkOnCallingThread(
+      final Collection<Supplier<Stream<BlobId>>> partitions,
+      final Consumer<BlobId> consumer,
+      final BooleanSupplier isCanceled,
+      final LongConsumer progress)
+  {
+    long visited = 0;
+    for (Supplier<Stream<BlobId>> partition : partitions) {
+      try (Stream<BlobId> blobIds = partition.get()) {
+        Iterator<BlobId> iterator = blobIds.iterator();
+        while (iterator.hasNext()) {
+          if (isCanceled.getAsBoolean()) {
+            return visited;
+          }
+          consumer.accept(iterator.next());
+          progress.accept(++visited);
+        }
+      }
+    }
+    return visited;
+  }
+
+  private static void walkPartition(
+      final Supplier<Stream<BlobId>> partition,
+      final Consumer<BlobId> consumer,
+      final AtomicBoolean stopped,
+      final AtomicLong visited)
+  {
+    if (stopped.get()) {
+      return;
+    }
+    try (Stream<BlobId> blobIds = partition.get()) {
+      Iterator<BlobId> iterator = blobIds.iterator();
+      while (!stopped.get() && iterator.hasNext()) {
+        consumer.accept(iterator.next());
+        visited.incrementAndGet();
+      }
+    }
+  }
+
+  private static void awaitPartition(
+      final Future<?> future,
+      final AtomicBoolean stopped,
+      final BooleanSupplier isCanceled,
+      final Runnable reportProgress)
+  {
+    while (true) {
+      if (isCanceled.getAsBoolean()) {
+        stopped.set(true);
+      }
+      try {
+        future.get(PROGRESS_INTERVAL_MILLIS, MILLISECONDS);
+        return;
+      }
+      catch (TimeoutException e) { // NOSONAR
+        reportProgress.run();
+      }
+      catch (InterruptedException e) {
+        stopped.set(true);
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while walking blob store", e);
+      }
+      catch (ExecutionException e) {
+        stopped.set(true);
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IllegalStateException(cause);
+      }
+    }
+  }
+}
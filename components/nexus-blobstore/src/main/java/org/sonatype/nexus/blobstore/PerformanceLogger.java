@@ -38,6 +38,15 @@ public class PerformanceLogger {
     this.blobStoreName = blobStoreName;
   }
 
+  /**
+   * @return true when reads should go through {@link #maybeWrapForPerformanceLogging(InputStream)} to be logged
+   *
+   * @since 3.71
+   */
+  public boolean isEnabled() {
+    return log.isDebugEnabled();
+  }
+
   public InputStream maybeWrapForPerformanceLogging(final InputStream inputStream) {
     if (log.isDebugEnabled()) {
       return new PerformanceLoggingInputStream(inputStream, this);
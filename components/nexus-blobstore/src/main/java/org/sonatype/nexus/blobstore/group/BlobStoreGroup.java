@@ -17,11 +17,13 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.cache.Cache;
@@ -58,7 +60,6 @@ import org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport;
 import org.sonatype.nexus.common.stateguard.Transitions;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.hash.HashCode;
 
@@ -130,7 +131,7 @@ public class BlobStoreGroup
   @Override
   public void init(final BlobStoreConfiguration configuration) {
     this.blobStoreConfiguration = configuration;
-    this.members = Suppliers.memoize(new MembersSupplier());
+    this.members = Suppliers.memoize(new MembersSupplier()::get);
     String fillPolicyName = BlobStoreGroupConfigurationHelper.fillPolicyName(configuration);
     if (fillPolicyProviders.containsKey(fillPolicyName)) {
       this.fillPolicy = fillPolicyProviders.get(fillPolicyName).get();
@@ -418,6 +419,19 @@ public class BlobStoreGroup
         .flatMap(identity());
   }
 
+  /**
+   * The partitions of every member, keyed by the member name followed by the id of the partition within the member.
+   */
+  @Override
+  public Map<String, Supplier<Stream<BlobId>>> getBlobIdStreamPartitions() {
+    Map<String, Supplier<Stream<BlobId>>> partitions = new LinkedHashMap<>();
+    for (BlobStore member : members.get()) {
+      String memberName = member.getBlobStoreConfiguration().getName();
+      member.getBlobIdStreamPartitions().forEach((id, blobIds) -> partitions.put(memberName + '/' + id, blobIds));
+    }
+    return partitions;
+  }
+
   @Override
   public Stream<BlobId> getBlobIdUpdatedSinceStream(final int sinceDays) {
     return members
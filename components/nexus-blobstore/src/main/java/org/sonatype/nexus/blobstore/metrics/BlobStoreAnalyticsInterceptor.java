@@ -13,10 +13,12 @@
 package org.sonatype.nexus.blobstore.metrics;
 
 import java.lang.reflect.Method;
+import javax.inject.Inject;
 
 import org.sonatype.goodies.common.ComponentSupport;
 import org.sonatype.nexus.blobstore.BlobSupport;
 import org.sonatype.nexus.blobstore.api.BlobStore;
+import org.sonatype.nexus.blobstore.api.BlobStoreConfiguration;
 import org.sonatype.nexus.blobstore.api.OperationMetrics;
 import org.sonatype.nexus.blobstore.api.OperationType;
 
@@ -24,6 +26,8 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms.operationName;
 
 /**
  * A method interceptor which monitor blob store operations (see {@link OperationType}) of the annotated method.
@@ -34,6 +38,9 @@ public class BlobStoreAnalyticsInterceptor
     extends ComponentSupport
     implements MethodInterceptor
 {
+  @Inject
+  private BlobStoreOperationHistograms operationHistograms;
+
   @Override
   public Object invoke(final MethodInvocation invocation) throws Throwable {
     String clazz = invocation.getThis().getClass().getSimpleName();
@@ -55,17 +62,26 @@ public class BlobStoreAnalyticsInterceptor
       return invocation.proceed();
     }
 
-    long start = System.currentTimeMillis();
+    long start = System.nanoTime();
     try {
       Object result = invocation.proceed();
+      long elapsed = System.nanoTime() - start;
 
       // record metrics only in case of successful processing.
       operationMetrics.addSuccessfulRequest();
-      operationMetrics.addTimeOnRequests(System.currentTimeMillis() - start);
+      operationMetrics.addTimeOnRequests(NANOSECONDS.toMillis(elapsed));
+
+      String blobStoreName = blobStoreName(blobStore);
+      if (blobStoreName != null) {
+        operationHistograms.recordLatency(blobStoreName, operationName(operationType), elapsed);
+      }
 
       if (result instanceof BlobSupport) {
         long totalSize = ((BlobSupport) result).getMetrics().getContentSize();
         operationMetrics.addBlobSize(totalSize);
+        if (blobStoreName != null) {
+          operationHistograms.recordSize(blobStoreName, operationName(operationType), totalSize);
+        }
       }
 
       return result;
@@ -75,4 +91,12 @@ public class BlobStoreAnalyticsInterceptor
       throw e;
     }
   }
+
+  /**
+   * The name under which histograms of the given blob store are recorded, or {@code null} if they can't be recorded.
+   */
+  private String blobStoreName(final BlobStore blobStore) {
+    BlobStoreConfiguration configuration = blobStore.getBlobStoreConfiguration();
+    return operationHistograms != null && configuration != null ? configuration.getName() : null;
+  }
 }
@@ -30,7 +30,9 @@ public class BlobStoreModule
 {
   @Override
   protected void configure() {
-    bindInterceptor(Matchers.any(), new TransactionalMatcher(), new BlobStoreAnalyticsInterceptor());
+    BlobStoreAnalyticsInterceptor interceptor = new BlobStoreAnalyticsInterceptor();
+    bindInterceptor(Matchers.any(), new TransactionalMatcher(), interceptor);
+    requestInjection(interceptor);
   }
 
   private static final class TransactionalMatcher
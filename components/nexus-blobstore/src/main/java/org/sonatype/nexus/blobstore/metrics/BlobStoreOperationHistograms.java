@@ -0,0 +1,146 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore.metrics;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.blobstore.api.OperationType;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
+import org.sonatype.nexus.jmx.reflect.ManagedObject;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Latency and size histograms per blob store and operation, backed by {@link LogLinearReservoir}s so tail latencies
+ * reflect every request of the last few minutes rather than a sample. Counts are cumulative since startup.
+ *
+ * Histograms are registered in the shared {@link MetricRegistry} as
+ * {@code nexus.blobstore.operations.<blob store>.<operation>.latency} and {@code ...size}, which makes them
+ * available from the metrics servlet; a percentile summary is also available over JMX. The namespace is kept apart
+ * from the class-named timers of the blob store implementations, and removing a blob store only unregisters the
+ * names recorded for it, so blob store names never clash with other metrics or with each other.
+ *
+ * @since 3.71
+ */
+@Named
+@Singleton
+@ManagedObject
+public class BlobStoreOperationHistograms
+    extends ComponentSupport
+{
+  public static final String DELETE = "delete";
+
+  public static final String DELETE_HARD = "deleteHard";
+
+  private static final String PREFIX = "nexus.blobstore.operations";
+
+  private final MetricRegistry metricRegistry;
+
+  private final ConcurrentMap<String, ConcurrentMap<String, Timer>> latencies = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, ConcurrentMap<String, Histogram>> sizes = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Set<String>> metricNames = new ConcurrentHashMap<>();
+
+  @Inject
+  public BlobStoreOperationHistograms(final MetricRegistry metricRegistry) {
+    this.metricRegistry = checkNotNull(metricRegistry);
+  }
+
+  /**
+   * The operation name used for the given {@link OperationType}.
+   */
+  public static String operationName(final OperationType operationType) {
+    return operationType.name().toLowerCase(Locale.ENGLISH);
+  }
+
+  public void recordLatency(final String blobStoreName, final String operation, final long elapsedNanos) {
+    latencies.computeIfAbsent(blobStoreName, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(operation, key -> metricRegistry.timer(metricName(blobStoreName, operation, "latency"),
+            () -> new Timer(new LogLinearReservoir())))
+        .update(elapsedNanos, NANOSECONDS);
+  }
+
+  public void recordSize(final String blobStoreName, final String operation, final long bytes) {
+    sizes.computeIfAbsent(blobStoreName, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(operation, key -> metricRegistry.histogram(metricName(blobStoreName, operation, "size"),
+            () -> new Histogram(new LogLinearReservoir())))
+        .update(bytes);
+  }
+
+  /**
+   * Latency timers of the given blob store, keyed by operation. Durations are recorded in nanoseconds.
+   */
+  public Map<String, Timer> getLatencies(final String blobStoreName) {
+    return Collections.unmodifiableMap(latencies.getOrDefault(blobStoreName, new ConcurrentHashMap<>()));
+  }
+
+  /**
+   * Blob size histograms of the given blob store, keyed by operation. Sizes are recorded in bytes.
+   */
+  public Map<String, Histogram> getSizes(final String blobStoreName) {
+    return Collections.unmodifiableMap(sizes.getOrDefault(blobStoreName, new ConcurrentHashMap<>()));
+  }
+
+  /**
+   * Drops the histograms of a blob store which has been removed.
+   */
+  public void remove(final String blobStoreName) {
+    latencies.remove(blobStoreName);
+    sizes.remove(blobStoreName);
+    Set<String> registered = metricNames.remove(blobStoreName);
+    if (registered != null) {
+      registered.forEach(metricRegistry::remove);
+    }
+  }
+
+  private String metricName(final String blobStoreName, final String operation, final String kind) {
+    String metricName = name(PREFIX, blobStoreName, operation, kind);
+    metricNames.computeIfAbsent(blobStoreName, key -> ConcurrentHashMap.newKeySet()).add(metricName);
+    return metricName;
+  }
+
+  @ManagedAttribute(description = "Total count and latency percentiles over the last few minutes in milliseconds per blob store and operation")
+  public Map<String, String> getLatencyPercentiles() {
+    Map<String, String> summary = new TreeMap<>();
+    latencies.forEach((blobStoreName, timers) -> timers.forEach((operation, timer) -> {
+      Snapshot snapshot = timer.getSnapshot();
+      summary.put(blobStoreName + '.' + operation, String.format("count=%d p50=%.2f p95=%.2f p99=%.2f max=%.2f",
+          timer.getCount(), millis(snapshot.getMedian()), millis(snapshot.get95thPercentile()),
+          millis(snapshot.get99thPercentile()), millis(snapshot.getMax())));
+    }));
+    return summary;
+  }
+
+  private static double millis(final double nanos) {
+    return nanos / MILLISECONDS.toNanos(1);
+  }
+}
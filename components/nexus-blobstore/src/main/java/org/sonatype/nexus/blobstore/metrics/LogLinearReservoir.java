@@ -0,0 +1,305 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore.metrics;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.stream.LongStream;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * A {@link Reservoir} which keeps a count per log-linear bucket, in the style of an HDR histogram: every power of two
+ * is split into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is reported with a relative error of
+ * at most 1/{@value #SUB_BUCKETS}. Recording is a single atomic increment and never blocks, and the memory used is
+ * fixed regardless of how many values are recorded.
+ *
+ * Percentiles describe every value recorded in a recent time window rather than a sample of them. The window is a ring
+ * of time slices, each with its own buckets: a slice is cleared when it comes round again, so a snapshot covers the
+ * last {@code slices - 1} complete slices plus the current one. By default that is the last four to five minutes,
+ * which keeps p99 responsive to a change in latency however long the server has been running. Cumulative counts are
+ * still available from the {@link com.codahale.metrics.Histogram} or {@link com.codahale.metrics.Timer} wrapping the
+ * reservoir.
+ *
+ * Negative values are recorded as zero.
+ *
+ * @since 3.71
+ */
+public class LogLinearReservoir
+    implements Reservoir
+{
+  private static final int PRECISION_BITS = 5;
+
+  static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+
+  private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - PRECISION_BITS);
+
+  private static final long DEFAULT_WINDOW_MINUTES = 5;
+
+  private static final int DEFAULT_SLICES = 5;
+
+  private final Clock clock;
+
+  private final long sliceNanos;
+
+  private final Slice[] slices;
+
+  public LogLinearReservoir() {
+    this(DEFAULT_WINDOW_MINUTES, MINUTES, DEFAULT_SLICES, Clock.defaultClock());
+  }
+
+  public LogLinearReservoir(final long window, final TimeUnit unit, final int slices, final Clock clock) {
+    checkArgument(slices > 0, "At least one slice is required");
+    this.sliceNanos = unit.toNanos(window) / slices;
+    checkArgument(sliceNanos > 0, "Window is too short for %s slices", slices);
+    this.clock = checkNotNull(clock);
+    this.slices = new Slice[slices];
+    for (int i = 0; i < slices; i++) {
+      this.slices[i] = new Slice();
+    }
+  }
+
+  @Override
+  public int size() {
+    long tick = currentTick();
+    long size = 0;
+    for (Slice slice : slices) {
+      if (isLive(slice, tick)) {
+        for (int i = 0; i < BUCKETS; i++) {
+          size += slice.counts.get(i);
+        }
+      }
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public void update(final long value) {
+    long v = Math.max(value, 0);
+    Slice slice = currentSlice();
+    slice.counts.incrementAndGet(bucketOf(v));
+    slice.min.accumulate(v);
+    slice.max.accumulate(v);
+  }
+
+  @Override
+  public Snapshot getSnapshot() {
+    long tick = currentTick();
+    long[] copy = new long[BUCKETS];
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    for (Slice slice : slices) {
+      if (isLive(slice, tick)) {
+        for (int i = 0; i < BUCKETS; i++) {
+          copy[i] += slice.counts.get(i);
+        }
+        min = Math.min(min, slice.min.get());
+        max = Math.max(max, slice.max.get());
+      }
+    }
+    return new LogLinearSnapshot(copy, min, max);
+  }
+
+  private long currentTick() {
+    return clock.getTick() / sliceNanos;
+  }
+
+  /**
+   * Returns the slice for the current tick, clearing it first if it last held an older tick. A value recorded by a
+   * thread racing with the clearing may be lost, which only affects the slice being started.
+   */
+  private Slice currentSlice() {
+    long tick = currentTick();
+    Slice slice = slices[(int) Math.floorMod(tick, (long) slices.length)];
+    if (slice.tick != tick) {
+      synchronized (slice) {
+        if (slice.tick != tick) {
+          for (int i = 0; i < BUCKETS; i++) {
+            slice.counts.set(i, 0);
+          }
+          slice.min.reset();
+          slice.max.reset();
+          slice.tick = tick;
+        }
+      }
+    }
+    return slice;
+  }
+
+  private boolean isLive(final Slice slice, final long tick) {
+    return slice.tick <= tick && slice.tick > tick - slices.length;
+  }
+
+  static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - PRECISION_BITS;
+    return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  /**
+   * The highest value which falls into the given bucket.
+   */
+  static long highestValueOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    long subBucket = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    long lowest = subBucket << shift;
+    return lowest + ((1L << shift) - 1);
+  }
+
+  /**
+   * Bucket counts of the values recorded during one tick.
+   */
+  private static class Slice
+  {
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    private volatile long tick = Long.MIN_VALUE;
+  }
+
+  /**
+   * Point-in-time view of the bucket counts. Each value is reported as the highest value of its bucket, clamped to
+   * the observed minimum and maximum.
+   */
+  private static class LogLinearSnapshot
+      extends Snapshot
+  {
+    private final long[] counts;
+
+    private final long total;
+
+    private final long min;
+
+    private final long max;
+
+    LogLinearSnapshot(final long[] counts, final long min, final long max) {
+      this.counts = counts;
+      this.total = LongStream.of(counts).sum();
+      this.min = total == 0 ? 0 : min;
+      this.max = total == 0 ? 0 : max;
+    }
+
+    @Override
+    public double getValue(final double quantile) {
+      if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+        throw new IllegalArgumentException(quantile + " is not in [0..1]");
+      }
+      if (total == 0) {
+        return 0.0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(quantile * total));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return valueOf(i);
+        }
+      }
+      return max;
+    }
+
+    /**
+     * Returns the value of every non-empty bucket; a bucket holding several values is only listed once.
+     */
+    @Override
+    public long[] getValues() {
+      LongStream.Builder values = LongStream.builder();
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] > 0) {
+          values.add(valueOf(i));
+        }
+      }
+      return values.build().toArray();
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getMax() {
+      return max;
+    }
+
+    @Override
+    public long getMin() {
+      return min;
+    }
+
+    @Override
+    public double getMean() {
+      if (total == 0) {
+        return 0.0;
+      }
+      double sum = 0;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] > 0) {
+          sum += (double) valueOf(i) * counts[i];
+        }
+      }
+      return sum / total;
+    }
+
+    @Override
+    public double getStdDev() {
+      if (total <= 1) {
+        return 0.0;
+      }
+      double mean = getMean();
+      double variance = 0;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] > 0) {
+          double diff = valueOf(i) - mean;
+          variance += diff * diff * counts[i];
+        }
+      }
+      return Math.sqrt(variance / (total - 1));
+    }
+
+    @Override
+    public void dump(final OutputStream output) {
+      try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8))) {
+        for (int i = 0; i < counts.length; i++) {
+          if (counts[i] > 0) {
+            out.printf("%d %d%n", valueOf(i), counts[i]);
+          }
+        }
+      }
+    }
+
+    private long valueOf(final int bucket) {
+      return Math.max(min, Math.min(max, highestValueOf(bucket)));
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore.rest;
+
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Latency and size percentiles of one blob store operation over the last few minutes. The count is cumulative since
+ * the blob store was started.
+ *
+ * @since 3.71
+ */
+public class BlobStoreOperationMetricsXO
+{
+  private String operation;
+
+  private long count;
+
+  private double latencyP50Millis;
+
+  private double latencyP95Millis;
+
+  private double latencyP99Millis;
+
+  private double latencyMaxMillis;
+
+  private Long sizeP50Bytes;
+
+  private Long sizeP95Bytes;
+
+  private Long sizeP99Bytes;
+
+  private Long sizeMaxBytes;
+
+  public String getOperation() {
+    return operation;
+  }
+
+  public void setOperation(final String operation) {
+    this.operation = operation;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void setCount(final long count) {
+    this.count = count;
+  }
+
+  public double getLatencyP50Millis() {
+    return latencyP50Millis;
+  }
+
+  public void setLatencyP50Millis(final double latencyP50Millis) {
+    this.latencyP50Millis = latencyP50Millis;
+  }
+
+  public double getLatencyP95Millis() {
+    return latencyP95Millis;
+  }
+
+  public void setLatencyP95Millis(final double latencyP95Millis) {
+    this.latencyP95Millis = latencyP95Millis;
+  }
+
+  public double getLatencyP99Millis() {
+    return latencyP99Millis;
+  }
+
+  public void setLatencyP99Millis(final double latencyP99Millis) {
+    this.latencyP99Millis = latencyP99Millis;
+  }
+
+  public double getLatencyMaxMillis() {
+    return latencyMaxMillis;
+  }
+
+  public void setLatencyMaxMillis(final double latencyMaxMillis) {
+    this.latencyMaxMillis = latencyMaxMillis;
+  }
+
+  public Long getSizeP50Bytes() {
+    return sizeP50Bytes;
+  }
+
+  public void setSizeP50Bytes(final Long sizeP50Bytes) {
+    this.sizeP50Bytes = sizeP50Bytes;
+  }
+
+  public Long getSizeP95Bytes() {
+    return sizeP95Bytes;
+  }
+
+  public void setSizeP95Bytes(final Long sizeP95Bytes) {
+    this.sizeP95Bytes = sizeP95Bytes;
+  }
+
+  public Long getSizeP99Bytes() {
+    return sizeP99Bytes;
+  }
+
+  public void setSizeP99Bytes(final Long sizeP99Bytes) {
+    this.sizeP99Bytes = sizeP99Bytes;
+  }
+
+  public Long getSizeMaxBytes() {
+    return sizeMaxBytes;
+  }
+
+  public void setSizeMaxBytes(final Long sizeMaxBytes) {
+    this.sizeMaxBytes = sizeMaxBytes;
+  }
+
+  static BlobStoreOperationMetricsXO asOperationMetricsXO(
+      final String operation,
+      final Timer latency,
+      @Nullable final Histogram size)
+  {
+    BlobStoreOperationMetricsXO xo = new BlobStoreOperationMetricsXO();
+    xo.setOperation(operation);
+    xo.setCount(latency.getCount());
+
+    Snapshot latencies = latency.getSnapshot();
+    xo.setLatencyP50Millis(millis(latencies.getMedian()));
+    xo.setLatencyP95Millis(millis(latencies.get95thPercentile()));
+    xo.setLatencyP99Millis(millis(latencies.get99thPercentile()));
+    xo.setLatencyMaxMillis(millis(latencies.getMax()));
+
+    if (size != null) {
+      Snapshot sizes = size.getSnapshot();
+      xo.setSizeP50Bytes((long) sizes.getMedian());
+      xo.setSizeP95Bytes((long) sizes.get95thPercentile());
+      xo.setSizeP99Bytes((long) sizes.get99thPercentile());
+      xo.setSizeMaxBytes(sizes.getMax());
+    }
+    return xo;
+  }
+
+  private static double millis(final double nanos) {
+    return nanos / MILLISECONDS.toNanos(1);
+  }
+}
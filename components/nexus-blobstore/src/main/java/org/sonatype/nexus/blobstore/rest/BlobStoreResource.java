@@ -34,12 +34,14 @@ import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreConnectionException;
 import org.sonatype.nexus.blobstore.api.BlobStoreException;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms;
 import org.sonatype.nexus.blobstore.quota.BlobStoreQuotaResult;
 import org.sonatype.nexus.blobstore.quota.BlobStoreQuotaService;
 import org.sonatype.nexus.repository.blobstore.BlobStoreConfigurationStore;
 import org.sonatype.nexus.rest.Resource;
 import org.sonatype.nexus.validation.Validate;
 
+import com.codahale.metrics.Histogram;
 import org.apache.shiro.authz.annotation.RequiresAuthentication;
 import org.apache.shiro.authz.annotation.RequiresPermissions;
 
@@ -49,6 +51,7 @@ import static java.util.stream.Collectors.toList;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static org.sonatype.nexus.blobstore.rest.BlobStoreOperationMetricsXO.asOperationMetricsXO;
 
 /**
  * @since 3.14
@@ -67,6 +70,8 @@ public class BlobStoreResource
 
   private final Map<String, ConnectionChecker> connectionCheckers;
 
+  private final BlobStoreOperationHistograms operationHistograms;
+
   private interface Messages
       extends MessageBundle
   {
@@ -80,12 +85,14 @@ public class BlobStoreResource
       final BlobStoreManager blobStoreManager,
       final BlobStoreConfigurationStore store,
       final BlobStoreQuotaService quotaService,
-      final Map<String, ConnectionChecker> connectionCheckers)
+      final Map<String, ConnectionChecker> connectionCheckers,
+      final BlobStoreOperationHistograms operationHistograms)
   {
     this.blobStoreManager = checkNotNull(blobStoreManager);
     this.store = checkNotNull(store);
     this.quotaService = checkNotNull(quotaService);
     this.connectionCheckers = connectionCheckers;
+    this.operationHistograms = checkNotNull(operationHistograms);
   }
 
   @Override
@@ -133,6 +140,23 @@ public class BlobStoreResource
     return result != null ? BlobStoreQuotaResultXO.asQuotaXO(result) : BlobStoreQuotaResultXO.asNoQuotaXO(name);
   }
 
+  @Override
+  @RequiresAuthentication
+  @RequiresPermissions("nexus:blobstores:read")
+  @GET
+  @Path("/{name}/operation-metrics")
+  public List<BlobStoreOperationMetricsXO> operationMetrics(@PathParam("name") final String name) {
+    if (blobStoreManager.get(name) == null) {
+      throw new WebApplicationException(format("No blob store found for id '%s' ", name), NOT_FOUND);
+    }
+
+    Map<String, Histogram> sizes = operationHistograms.getSizes(name);
+    return operationHistograms.getLatencies(name).entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .map(entry -> asOperationMetricsXO(entry.getKey(), entry.getValue(), sizes.get(entry.getKey())))
+        .collect(toList());
+  }
+
   @Override
   @POST
   @Path("test-connection")
@@ -22,6 +22,7 @@ import javax.ws.rs.core.Response.Status;
 
 import org.sonatype.nexus.blobstore.ConnectionChecker;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms;
 import org.sonatype.nexus.blobstore.quota.BlobStoreQuotaService;
 import org.sonatype.nexus.repository.blobstore.BlobStoreConfigurationStore;
 import org.sonatype.nexus.rest.WebApplicationMessageException;
@@ -51,9 +52,10 @@ public class BlobStoreResourceBeta
   public BlobStoreResourceBeta(final BlobStoreManager blobStoreManager,
                                final BlobStoreConfigurationStore store,
                                final BlobStoreQuotaService quotaService,
-                               final Map<String, ConnectionChecker> connectionCheckers)
+                               final Map<String, ConnectionChecker> connectionCheckers,
+                               final BlobStoreOperationHistograms operationHistograms)
   {
-    super(blobStoreManager, store, quotaService, connectionCheckers);
+    super(blobStoreManager, store, quotaService, connectionCheckers, operationHistograms);
   }
 
   @Override
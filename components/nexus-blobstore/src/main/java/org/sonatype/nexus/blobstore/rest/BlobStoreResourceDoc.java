@@ -47,6 +47,9 @@ public interface BlobStoreResourceDoc
   @ApiOperation("Get quota status for a given blob store")
   BlobStoreQuotaResultXO quotaStatus(String id);
 
+  @ApiOperation("Get latency and size percentiles of the operations of a given blob store")
+  List<BlobStoreOperationMetricsXO> operationMetrics(@ApiParam("The name of the blob store") String name);
+
   @ApiOperation(value = "Verify connection using supplied Blob Store settings", hidden = true)
   @ApiResponses(value = {
       @ApiResponse(code = SC_NO_CONTENT, message = "Blob Store connection was successful"),
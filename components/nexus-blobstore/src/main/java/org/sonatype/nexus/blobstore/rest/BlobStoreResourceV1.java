@@ -21,6 +21,7 @@ import javax.ws.rs.Path;
 
 import org.sonatype.nexus.blobstore.ConnectionChecker;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms;
 import org.sonatype.nexus.blobstore.quota.BlobStoreQuotaService;
 import org.sonatype.nexus.repository.blobstore.BlobStoreConfigurationStore;
 
@@ -45,8 +46,9 @@ public class BlobStoreResourceV1
       final BlobStoreManager blobStoreManager,
       final BlobStoreConfigurationStore store,
       final BlobStoreQuotaService quotaService,
-      final Map<String, ConnectionChecker> connectionCheckers)
+      final Map<String, ConnectionChecker> connectionCheckers,
+      final BlobStoreOperationHistograms operationHistograms)
   {
-    super(blobStoreManager, store, quotaService, connectionCheckers);
+    super(blobStoreManager, store, quotaService, connectionCheckers, operationHistograms);
   }
 }
@@ -0,0 +1,158 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.blobstore.api.BlobId;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.sonatype.nexus.blobstore.BlobStoreJournal.CREATED;
+
+/**
+ * Tests for {@link BlobStoreJournal}.
+ */
+public class BlobStoreJournalTest
+    extends TestSupport
+{
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path directory;
+
+  @Before
+  public void setUp() {
+    directory = temporaryFolder.getRoot().toPath();
+  }
+
+  @Test
+  public void tornRecordEndsSegmentAndIsOverwritten() throws IOException {
+    Clock clock = clockAt("2021-04-15T12:00:00Z");
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clock, 0, 90)) {
+      journal.created(new BlobId("a"));
+    }
+    Path segment = directory.resolve("2021-04-15.journal");
+    long end = record("a", true).remaining();
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      // a record whose type byte was written but whose body never made it to disk
+      channel.write(ByteBuffer.wrap(new byte[]{CREATED, 0, 0}), end);
+      channel.truncate(end + 3);
+    }
+
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clock, 0, 90)) {
+      assertThat(read(journal, "2021-04-15T00:00:00Z"), contains("a"));
+
+      journal.created(new BlobId("b"));
+
+      assertThat(read(journal, "2021-04-15T00:00:00Z"), contains("a", "b"));
+    }
+  }
+
+  @Test
+  public void staleBytesPastACorruptRecordAreNeverReplayed() throws IOException {
+    Clock clock = clockAt("2021-04-15T12:00:00Z");
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clock, 0, 90)) {
+      journal.created(new BlobId("a"));
+    }
+    Path segment = directory.resolve("2021-04-15.journal");
+    ByteBuffer good = record("a", true);
+    ByteBuffer corrupt = record("c", false);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      // a complete record with a bad checksum followed by an intact record left over from before the crash
+      long position = good.remaining();
+      position += channel.write(corrupt, position);
+      channel.write(record("d", true), position);
+    }
+
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clock, 0, 90)) {
+      assertThat(read(journal, "2021-04-15T00:00:00Z"), contains("a"));
+
+      journal.created(new BlobId("b"));
+      journal.sync();
+
+      assertThat(read(journal, "2021-04-15T00:00:00Z"), contains("a", "b"));
+    }
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clock, 0, 90)) {
+      assertThat(read(journal, "2021-04-15T00:00:00Z"), contains("a", "b"));
+    }
+  }
+
+  @Test
+  public void readsOnlyEventsAtOrAfterTheRequestedInstant() throws IOException {
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clockAt("2021-04-14T10:00:00Z"), 0, 90)) {
+      journal.created(new BlobId("a"));
+    }
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clockAt("2021-04-15T10:00:00Z"), 0, 90)) {
+      journal.created(new BlobId("b"));
+
+      assertThat(read(journal, "2021-04-14T00:00:00Z"), contains("a", "b"));
+      assertThat(read(journal, "2021-04-14T10:00:01Z"), contains("b"));
+      assertThat(read(journal, "2021-04-15T10:00:01Z").isEmpty(), is(true));
+    }
+  }
+
+  @Test
+  public void expiredSegmentsAreRemovedWhenANewSegmentIsOpened() throws IOException {
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clockAt("2021-01-01T10:00:00Z"), 0, 90)) {
+      journal.created(new BlobId("a"));
+    }
+    try (BlobStoreJournal journal = new BlobStoreJournal(directory, clockAt("2021-04-15T10:00:00Z"), 0, 90)) {
+      journal.created(new BlobId("b"));
+    }
+
+    assertThat(Files.exists(directory.resolve("2021-01-01.journal")), is(false));
+    assertThat(Files.exists(directory.resolve("2021-04-15.journal")), is(true));
+  }
+
+  private static ByteBuffer record(final String blobId, final boolean validChecksum) {
+    byte[] id = blobId.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer record = ByteBuffer.allocate(1 + Long.BYTES + Short.BYTES + id.length + Integer.BYTES);
+    record.put(CREATED).putLong(Instant.parse("2021-04-15T12:00:00Z").toEpochMilli()).putShort((short) id.length).put(id);
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), 0, record.position());
+    record.putInt((int) crc.getValue() + (validChecksum ? 0 : 1));
+    record.flip();
+    return record;
+  }
+
+  private static Clock clockAt(final String instant) {
+    return Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+  }
+
+  private static List<String> read(final BlobStoreJournal journal, final String since) {
+    try (Stream<BlobId> blobIds = journal.read(CREATED, Instant.parse(since))) {
+      return blobIds.map(BlobId::asUniqueString).collect(toList());
+    }
+  }
+}
@@ -10,7 +10,6 @@
  * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
  * Eclipse Foundation. All other trademarks are the property of their respective owners.
  */
-
 package org.sonatype.nexus.blobstore;
 
 import java.io.IOException;
@@ -19,13 +18,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.blobstore.api.BlobId;
-import org.sonatype.nexus.blobstore.api.BlobStore;
-import org.sonatype.nexus.blobstore.api.BlobStoreConfiguration;
 import org.sonatype.nexus.common.app.ApplicationDirectories;
 
 import org.junit.After;
@@ -34,17 +35,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoInteractions;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.when;
 
 public class BlobStoreReconciliationLoggerTest
@@ -52,67 +50,70 @@ public class BlobStoreReconciliationLoggerTest
 {
   public static final String RECONCILIATION_LOG_DIRECTORY = "reconciliationLogDirectory";
 
+  private static final Path RECONCILIATION_LOG_PATH = Paths.get(RECONCILIATION_LOG_DIRECTORY);
+
   @Rule
   public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   @Mock
   private ApplicationDirectories applicationDirectories;
 
-  @Mock
-  private BlobStore blobStore;
-
-  @Mock
-  private Logger logger;
-
-  @Mock
-  private MockedStatic<LoggerFactory> mockedStatic;
-
-  @Mock
-  private Path reconciliationLogPath;
-
   private BlobStoreReconciliationLogger underTest;
 
   @Before
-  public void setUp() throws IOException {
-    // mock blob store and its configuration
-    BlobStoreConfiguration blobStoreConfiguration = mock(BlobStoreConfiguration.class);
-    when(blobStoreConfiguration.getName()).thenReturn("blob-store-name");
-    when(blobStore.getBlobStoreConfiguration()).thenReturn(blobStoreConfiguration);
-
-    // mock logger used to actually log blob ids
-    mockedStatic.when(() -> LoggerFactory.getLogger("blobstore-reconciliation-log")).thenReturn(logger);
-    mockedStatic.when(() -> LoggerFactory.getLogger(BlobStoreReconciliationLogger.class)).thenReturn(mock(Logger.class));
+  public void setUp() {
+    when(applicationDirectories.getWorkDirectory(RECONCILIATION_LOG_DIRECTORY)).thenReturn(temporaryFolder.getRoot());
 
-    underTest = new BlobStoreReconciliationLogger(applicationDirectories);
+    underTest = new BlobStoreReconciliationLogger(applicationDirectories,
+        Clock.fixed(Instant.parse("2021-04-15T12:00:00Z"), ZoneOffset.UTC), 0, 90);
   }
 
   @After
   public void teardown() {
-    if (mockedStatic != null) {
-      mockedStatic.close();
-    }
+    underTest.close(RECONCILIATION_LOG_PATH);
   }
 
   @Test
   public void shouldNotLogTemporaryBlobs() {
-    underTest.logBlobCreated(reconciliationLogPath, new BlobId("tmp$00000000-0000-0000-0000-000000000000"));
-    verifyNoInteractions(logger);
+    underTest.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("tmp$00000000-0000-0000-0000-000000000000"));
+
+    assertThat(createdSince("2021-04-15"), is(empty()));
   }
 
   @Test
   public void shouldLogBlobId() {
-    underTest.logBlobCreated(reconciliationLogPath, new BlobId("00000000-0000-0000-0000-000000000000"));
+    underTest.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000000"));
 
-    verify(logger).info("00000000-0000-0000-0000-000000000000");
+    assertThat(createdSince("2021-04-15"), contains("00000000-0000-0000-0000-000000000000"));
+    assertThat(Files.exists(temporaryFolder.getRoot().toPath().resolve("2021-04-15.journal")), is(true));
+  }
 
-    mockedStatic.verify(() -> LoggerFactory.getLogger("blobstore-reconciliation-log"));
+  @Test
+  public void shouldSeparateCreatedAndDeletedBlobs() {
+    underTest.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000001"));
+    underTest.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000002"));
+    underTest.logBlobDeleted(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000001"));
+
+    assertThat(createdSince("2021-04-15"),
+        contains("00000000-0000-0000-0000-000000000001", "00000000-0000-0000-0000-000000000002"));
+    try (Stream<BlobId> deleted = underTest.getBlobsDeletedSince(RECONCILIATION_LOG_PATH, LocalDate.parse("2021-04-15"))) {
+      assertThat(deleted.map(BlobId::asUniqueString).collect(toList()),
+          contains("00000000-0000-0000-0000-000000000001"));
+    }
   }
 
   @Test
-  public void shouldReadBlobIdsLoggedOnAndAfterRequestedDate() throws IOException {
-    when(applicationDirectories
-        .getWorkDirectory(RECONCILIATION_LOG_DIRECTORY))
-        .thenReturn(temporaryFolder.getRoot());
+  public void shouldKeepBlobIdsAcrossRestarts() {
+    underTest.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000001"));
+    underTest.close(RECONCILIATION_LOG_PATH);
+    underTest.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000002"));
+
+    assertThat(createdSince("2021-04-15"),
+        contains("00000000-0000-0000-0000-000000000001", "00000000-0000-0000-0000-000000000002"));
+  }
+
+  @Test
+  public void shouldMigrateLegacyLogsAndReadBlobIdsLoggedOnAndAfterRequestedDate() throws IOException {
     Files.write(temporaryFolder.newFile("2021-04-13").toPath(),
         "2021-04-13 00:00:00,00000000-0000-0000-0000-000000000001".getBytes(StandardCharsets.UTF_8),
         StandardOpenOption.CREATE);
@@ -129,15 +130,34 @@ public class BlobStoreReconciliationLoggerTest
         "2021-04-14 00:00:00,00000000-0000-0000-0000-000000000006".getBytes(StandardCharsets.UTF_8),
         StandardOpenOption.CREATE);
 
-    List<String> result = underTest.getBlobsCreatedSince(Paths.get(RECONCILIATION_LOG_DIRECTORY),
-        LocalDate.parse("2021-04-14"))
-        .map(BlobId::asUniqueString)
-        .collect(toList());
+    underTest.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000007"));
+
+    List<String> result = createdSince("2021-04-14");
 
-    assertThat(result, hasSize(3));
+    assertThat(result, hasSize(4));
     assertThat(result, containsInAnyOrder(
         "00000000-0000-0000-0000-000000000002",
         "00000000-0000-0000-0000-000000000004",
-        "00000000-0000-0000-0000-000000000005"));
+        "00000000-0000-0000-0000-000000000005",
+        "00000000-0000-0000-0000-000000000007"));
+    assertThat(Files.exists(temporaryFolder.getRoot().toPath().resolve("2021-04-14")), is(false));
+    assertThat(Files.exists(temporaryFolder.getRoot().toPath().resolve("migrated").resolve("2021-04-14")), is(true));
+  }
+
+  @Test
+  public void shouldCloseJournalsWhenStopped() throws Exception {
+    BlobStoreReconciliationLogger syncing = new BlobStoreReconciliationLogger(applicationDirectories,
+        Clock.fixed(Instant.parse("2021-04-15T12:00:00Z"), ZoneOffset.UTC), 10, 90);
+    syncing.start();
+    syncing.logBlobCreated(RECONCILIATION_LOG_PATH, new BlobId("00000000-0000-0000-0000-000000000001"));
+    syncing.stop();
+
+    assertThat(createdSince("2021-04-15"), contains("00000000-0000-0000-0000-000000000001"));
+  }
+
+  private List<String> createdSince(final String date) {
+    try (Stream<BlobId> blobIds = underTest.getBlobsCreatedSince(RECONCILIATION_LOG_PATH, LocalDate.parse(date))) {
+      return blobIds.map(BlobId::asUniqueString).collect(toList());
+    }
   }
 }
@@ -0,0 +1,129 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.blobstore.api.BlobId;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ParallelBlobIdWalker}.
+ */
+public class ParallelBlobIdWalkerTest
+    extends TestSupport
+{
+  private final ParallelBlobIdWalker underTest = new ParallelBlobIdWalker(4);
+
+  @Before
+  public void setUp() {
+    Subject subject = mock(Subject.class);
+    when(subject.associateWith(any(Runnable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(subject.associateWith(any(Callable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    ThreadContext.bind(subject);
+  }
+
+  @After
+  public void tearDown() {
+    ThreadContext.unbindSubject();
+  }
+
+  @Test
+  public void visitsEveryBlobInEveryPartition() {
+    Set<BlobId> visited = ConcurrentHashMap.newKeySet();
+    AtomicLong lastProgress = new AtomicLong();
+
+    long count = underTest.walk(partitions(10, 100), 4, visited::add, () -> false, lastProgress::set);
+
+    assertThat(count, is(1000L));
+    assertThat(visited.size(), is(1000));
+    assertThat(lastProgress.get(), is(1000L));
+  }
+
+  @Test
+  public void singlePartitionIsWalkedOnCallingThread() {
+    Thread caller = Thread.currentThread();
+    AtomicBoolean onCaller = new AtomicBoolean(true);
+
+    long count = underTest.walk(partitions(1, 50), 4,
+        blobId -> onCaller.compareAndSet(true, Thread.currentThread() == caller), () -> false, progress -> { });
+
+    assertThat(count, is(50L));
+    assertThat(onCaller.get(), is(true));
+  }
+
+  @Test
+  public void stopsWhenCanceled() {
+    AtomicLong visited = new AtomicLong();
+
+    long count = underTest.walk(partitions(8, 10_000), 2, blobId -> {
+          visited.incrementAndGet();
+          sleep();
+        },
+        () -> visited.get() > 10, progress -> { });
+
+    assertThat(count, lessThan(80_000L));
+  }
+
+  @Test
+  public void workerFailureIsRethrown() {
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> underTest.walk(partitions(4, 10), 4, blobId -> {
+          throw new IllegalStateException("broken");
+        }, () -> false, progress -> { }));
+
+    assertThat(e.getMessage(), is("broken"));
+  }
+
+  private static List<Supplier<Stream<BlobId>>> partitions(final int partitionCount, final int blobsPerPartition) {
+    List<Supplier<Stream<BlobId>>> partitions = new ArrayList<>();
+    for (int p = 0; p < partitionCount; p++) {
+      int partition = p;
+      partitions.add(() -> IntStream.range(0, blobsPerPartition)
+          .mapToObj(i -> new BlobId(partition + "-" + i)));
+    }
+    return partitions;
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(1);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
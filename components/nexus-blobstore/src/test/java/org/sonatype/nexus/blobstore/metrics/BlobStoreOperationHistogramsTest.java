@@ -0,0 +1,49 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore.metrics;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Tests for {@link BlobStoreOperationHistograms}.
+ */
+public class BlobStoreOperationHistogramsTest
+    extends TestSupport
+{
+  private final MetricRegistry metricRegistry = new MetricRegistry();
+
+  private final BlobStoreOperationHistograms underTest = new BlobStoreOperationHistograms(metricRegistry);
+
+  @Test
+  public void removeOnlyDropsTheMetricsOfTheRemovedBlobStore() {
+    metricRegistry.timer("org.sonatype.nexus.blobstore.file.FileBlobStore.create");
+    underTest.recordLatency("file", "upload", 1_000L);
+    underTest.recordSize("file", "upload", 10L);
+    underTest.recordLatency("file.x", "upload", 1_000L);
+
+    underTest.remove("file");
+
+    assertThat(metricRegistry.getNames(), containsInAnyOrder(
+        "org.sonatype.nexus.blobstore.file.FileBlobStore.create",
+        "nexus.blobstore.operations.file.x.upload.latency"));
+    assertThat(underTest.getLatencies("file").keySet(), empty());
+    assertThat(underTest.getLatencies("file.x").keySet(), containsInAnyOrder("upload"));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.sonatype.nexus.blobstore.metrics.LogLinearReservoir.SUB_BUCKETS;
+import static org.sonatype.nexus.blobstore.metrics.LogLinearReservoir.bucketOf;
+import static org.sonatype.nexus.blobstore.metrics.LogLinearReservoir.highestValueOf;
+
+/**
+ * Tests for {@link LogLinearReservoir}.
+ */
+public class LogLinearReservoirTest
+    extends TestSupport
+{
+  private final LogLinearReservoir underTest = new LogLinearReservoir();
+
+  @Test
+  public void emptySnapshot() {
+    Snapshot snapshot = underTest.getSnapshot();
+
+    assertThat(snapshot.size(), is(0));
+    assertThat(snapshot.getMedian(), is(0.0));
+    assertThat(snapshot.getMax(), is(0L));
+    assertThat(snapshot.getMin(), is(0L));
+  }
+
+  @Test
+  public void bucketsCoverEveryValue() {
+    long[] values = {0, 1, SUB_BUCKETS - 1, SUB_BUCKETS, 1000, 123_456_789L, Long.MAX_VALUE};
+    for (long value : values) {
+      int bucket = bucketOf(value);
+      assertThat(highestValueOf(bucket) >= value, is(true));
+      assertThat(bucket == 0 || highestValueOf(bucket - 1) < value, is(true));
+    }
+  }
+
+  @Test
+  public void percentilesAreWithinRelativeError() {
+    IntStream.rangeClosed(1, 10_000).forEach(underTest::update);
+
+    Snapshot snapshot = underTest.getSnapshot();
+
+    assertThat(snapshot.size(), is(10_000));
+    assertThat(snapshot.getMin(), is(1L));
+    assertThat(snapshot.getMax(), is(10_000L));
+    assertThat(snapshot.getMedian(), closeTo(5_000, 5_000.0 / SUB_BUCKETS));
+    assertThat(snapshot.get99thPercentile(), closeTo(9_900, 9_900.0 / SUB_BUCKETS));
+    assertThat(snapshot.getMean(), closeTo(5_000, 5_000.0 / SUB_BUCKETS));
+  }
+
+  @Test
+  public void tailIsNotLostAmongFastValues() {
+    IntStream.range(0, 990).forEach(i -> underTest.update(10));
+    IntStream.range(0, 10).forEach(i -> underTest.update(5_000_000));
+
+    Snapshot snapshot = underTest.getSnapshot();
+
+    assertThat(snapshot.get95thPercentile(), is(10.0));
+    assertThat(snapshot.getValue(0.995), closeTo(5_000_000, 5_000_000.0 / SUB_BUCKETS));
+    assertThat(snapshot.getMax(), is(5_000_000L));
+  }
+
+  @Test
+  public void negativeValuesAreRecordedAsZero() {
+    underTest.update(-5);
+
+    assertThat(underTest.getSnapshot().getMin(), is(0L));
+    assertThat(underTest.size(), is(1));
+  }
+
+  @Test
+  public void valuesOlderThanTheWindowAreDropped() {
+    AtomicLong nanos = new AtomicLong();
+    Clock clock = new Clock()
+    {
+      @Override
+      public long getTick() {
+        return nanos.get();
+      }
+    };
+    LogLinearReservoir windowed = new LogLinearReservoir(60, SECONDS, 3, clock);
+
+    IntStream.range(0, 1000).forEach(i -> windowed.update(10));
+    nanos.addAndGet(SECONDS.toNanos(20));
+    IntStream.range(0, 10).forEach(i -> windowed.update(5_000));
+
+    assertThat(windowed.getSnapshot().size(), is(1010));
+    assertThat(windowed.getSnapshot().get99thPercentile(), is(10.0));
+
+    // the slice holding the fast values comes round again, so only the slow ones remain
+    nanos.addAndGet(SECONDS.toNanos(45));
+    windowed.update(5_000);
+
+    Snapshot snapshot = windowed.getSnapshot();
+    assertThat(snapshot.size(), is(11));
+    assertThat(snapshot.get99thPercentile(), closeTo(5_000, 5_000.0 / SUB_BUCKETS));
+    assertThat(snapshot.getMin(), is(5_000L));
+
+    nanos.addAndGet(SECONDS.toNanos(120));
+    assertThat(windowed.getSnapshot().size(), is(0));
+  }
+}
@@ -13,6 +13,7 @@
 package org.sonatype.nexus.blobstore.rest;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.WebApplicationException;
@@ -22,14 +23,17 @@ import org.sonatype.nexus.blobstore.ConnectionChecker;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreConnectionException;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.blobstore.metrics.BlobStoreOperationHistograms;
 import org.sonatype.nexus.blobstore.quota.BlobStoreQuotaResult;
 import org.sonatype.nexus.blobstore.quota.BlobStoreQuotaService;
 import org.sonatype.nexus.repository.blobstore.BlobStoreConfigurationStore;
 
+import com.codahale.metrics.MetricRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
@@ -62,6 +66,8 @@ public class BlobStoreResourceTest
   @Mock
   BlobStore failing;
 
+  BlobStoreOperationHistograms operationHistograms = new BlobStoreOperationHistograms(new MetricRegistry());
+
   BlobStoreResource resource;
 
   @Before
@@ -77,7 +83,7 @@ public class BlobStoreResourceTest
     Map<String, ConnectionChecker> connectionCheckers = new HashMap<>();
     connectionCheckers.put("azure cloud storage", connectionChecker);
 
-    resource = new BlobStoreResource(manager, store, quotaService, connectionCheckers);
+    resource = new BlobStoreResource(manager, store, quotaService, connectionCheckers, operationHistograms);
   }
 
   @Test
@@ -101,6 +107,30 @@ public class BlobStoreResourceTest
     assertEquals(resultXO.getBlobStoreName(), "noQuota");
   }
 
+  @Test
+  public void operationMetricsTest() {
+    operationHistograms.recordLatency("passing", "upload", MILLISECONDS.toNanos(20));
+    operationHistograms.recordSize("passing", "upload", 1024);
+    operationHistograms.recordLatency("passing", "delete", MILLISECONDS.toNanos(5));
+
+    List<BlobStoreOperationMetricsXO> metrics = resource.operationMetrics("passing");
+
+    assertEquals(2, metrics.size());
+    assertEquals("delete", metrics.get(0).getOperation());
+    assertEquals(null, metrics.get(0).getSizeMaxBytes());
+    assertEquals("upload", metrics.get(1).getOperation());
+    assertEquals(1, metrics.get(1).getCount());
+    assertEquals(20.0, metrics.get(1).getLatencyMaxMillis(), 0.0);
+    assertEquals(Long.valueOf(1024), metrics.get(1).getSizeMaxBytes());
+  }
+
+  @Test
+  public void operationMetricsOfUnknownBlobStoreTest() {
+    WebApplicationException e =
+        assertThrows(WebApplicationException.class, () -> resource.operationMetrics("unknown"));
+    assertEquals(404, e.getResponse().getStatus());
+  }
+
   @Test
   public void verifyConnectionTest() {
     when(connectionChecker.verifyConnection(any(String.class), any(Map.class))).thenReturn(true);
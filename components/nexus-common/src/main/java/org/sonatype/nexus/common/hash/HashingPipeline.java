@@ -0,0 +1,240 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.common.hash;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import com.google.common.hash.Hasher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.sonatype.nexus.common.property.SystemPropertiesHelper.getInteger;
+
+/**
+ * Feeds several {@link Hasher}s concurrently, one worker thread per hasher. Data is copied once into shared chunks
+ * which every worker reads, and each worker has a bounded queue so a slow hash function applies back-pressure to the
+ * reader instead of buffering the whole stream.
+ *
+ * Workers come from a bounded pool which never queues; when no worker thread is available the pipeline cannot be
+ * {@link #start started} and the caller keeps hashing in its own thread. The pool is shared by every stream and has
+ * no lifecycle of its own: it keeps no core threads, its threads are daemons, and each one exits after a minute
+ * without work, so nothing is left running once hashing stops and the pool never holds up shutdown.
+ *
+ * Callers should {@link #finish} the pipeline, or {@link #abort} it when they give up on the stream. Workers which
+ * have been idle for {@code nexus.hashing.pipeline.idleTimeoutSeconds} also stop by themselves once the pipeline has
+ * been aborted or is no longer reachable, so a stream which is simply dropped does not leave them parked.
+ *
+ * @since 3.71
+ */
+class HashingPipeline
+{
+  static final int CHUNK_SIZE = 64 * 1024;
+
+  private static final int QUEUE_CHUNKS = getInteger("nexus.hashing.pipeline.queueChunks", 16);
+
+  private static final int MAX_THREADS =
+      getInteger("nexus.hashing.pipeline.threads", Runtime.getRuntime().availableProcessors() * 4);
+
+  private static final long IDLE_TIMEOUT_SECONDS = getInteger("nexus.hashing.pipeline.idleTimeoutSeconds", 30);
+
+  private static final ExecutorService executor = newExecutor();
+
+  private static final Chunk END = new Chunk(new byte[0], 0);
+
+  private final List<BlockingQueue<Chunk>> queues = new ArrayList<>();
+
+  private final List<Future<?>> workers = new ArrayList<>();
+
+  private byte[] buffer = new byte[CHUNK_SIZE];
+
+  private int buffered;
+
+  private volatile boolean finished;
+
+  private volatile boolean hashed;
+
+  private volatile boolean aborted;
+
+  private HashingPipeline() {
+    // use start
+  }
+
+  /**
+   * Starts one worker per hasher, or returns {@code null} if there are not enough worker threads available.
+   */
+  static HashingPipeline start(final Collection<Hasher> hashers) {
+    HashingPipeline pipeline = new HashingPipeline();
+    // workers only hold a weak reference, so they can tell when the pipeline has been dropped
+    WeakReference<HashingPipeline> owner = new WeakReference<>(pipeline);
+    try {
+      for (Hasher hasher : hashers) {
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        pipeline.workers.add(executor.submit(() -> consume(queue, hasher, owner)));
+        pipeline.queues.add(queue);
+      }
+      return pipeline;
+    }
+    catch (RejectedExecutionException e) { // NOSONAR
+      pipeline.abort();
+      return null;
+    }
+  }
+
+  void write(final int b) throws IOException {
+    buffer[buffered++] = (byte) b;
+    if (buffered == CHUNK_SIZE) {
+      flush();
+    }
+  }
+
+  void write(final byte[] bytes, final int off, final int len) throws IOException {
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      int n = Math.min(remaining, CHUNK_SIZE - buffered);
+      System.arraycopy(bytes, offset, buffer, buffered, n);
+      buffered += n;
+      offset += n;
+      remaining -= n;
+      if (buffered == CHUNK_SIZE) {
+        flush();
+      }
+    }
+  }
+
+  /**
+   * Hands off any buffered data and waits for every worker to catch up, after which the hashers may be used by the
+   * calling thread again. Calling this more than once has no further effect.
+   */
+  void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+    try {
+      flush();
+      put(END);
+      finished = true;
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+      hashed = true;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abort();
+      throw new InterruptedIOException("Interrupted while hashing");
+    }
+    catch (ExecutionException e) {
+      abort();
+      throw new IOException("Hashing failed", e.getCause());
+    }
+  }
+
+  private void flush() throws IOException {
+    if (finished) {
+      throw new IOException("Hashing pipeline already finished");
+    }
+    if (buffered == 0) {
+      return;
+    }
+    try {
+      put(new Chunk(buffer, buffered));
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abort();
+      throw new InterruptedIOException("Interrupted while hashing");
+    }
+    // chunks are shared with the workers, so never reuse a buffer once handed off
+    buffer = new byte[CHUNK_SIZE];
+    buffered = 0;
+  }
+
+  private void put(final Chunk chunk) throws InterruptedException {
+    for (BlockingQueue<Chunk> queue : queues) {
+      queue.put(chunk);
+    }
+  }
+
+  /**
+   * Stops the workers without waiting for them; the hashes are incomplete afterwards, and cancelled workers may still
+   * be feeding the hashers for a moment, so the hashers must not be used again. Calling this more than once, or after
+   * {@link #finish}, has no further effect.
+   */
+  void abort() {
+    aborted = !hashed;
+    finished = true;
+    workers.forEach(worker -> worker.cancel(true));
+  }
+
+  /**
+   * Whether the pipeline was {@link #abort aborted} before all data had been hashed.
+   */
+  boolean isAborted() {
+    return aborted;
+  }
+
+  private static Void consume(
+      final BlockingQueue<Chunk> queue,
+      final Hasher hasher,
+      final WeakReference<HashingPipeline> owner) throws InterruptedException
+  {
+    while (true) {
+      Chunk chunk = queue.poll(IDLE_TIMEOUT_SECONDS, SECONDS);
+      if (chunk == END) {
+        return null;
+      }
+      if (chunk != null) {
+        hasher.putBytes(chunk.bytes, 0, chunk.length);
+      }
+      else if (isAbandoned(owner)) {
+        return null;
+      }
+    }
+  }
+
+  private static boolean isAbandoned(final WeakReference<HashingPipeline> owner) {
+    HashingPipeline pipeline = owner.get();
+    return pipeline == null || pipeline.finished;
+  }
+
+  private static ExecutorService newExecutor() {
+    return new ThreadPoolExecutor(0, MAX_THREADS, 60L, SECONDS, new SynchronousQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("hashing-pipeline-%d").setDaemon(true).build());
+  }
+
+  private static final class Chunk
+  {
+    final byte[] bytes;
+
+    final int length;
+
+    Chunk(final byte[] bytes, final int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+  }
+}
@@ -15,6 +15,7 @@ package org.sonatype.nexus.common.hash;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -22,39 +23,79 @@ import java.util.Map.Entry;
 
 import javax.annotation.Nonnull;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.HashingInputStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.sonatype.nexus.common.property.SystemPropertiesHelper.getLong;
 
 /**
  * An {@link InputStream} that maintains multiple hashes and the number of bytes of data read from it.
  *
+ * Once more than {@code nexus.hashing.pipeline.threshold} bytes (8 MiB by default, negative to disable) have been
+ * read the remaining data is hashed by one worker thread per algorithm, which lets the algorithms use separate cores.
+ * The threshold is a tuning setting rather than a measured break-even point, and the pipeline is never used on a
+ * single processor, where it can only add overhead. The resulting hashes are the same either way.
+ *
  * @see HashingInputStream
  * @since 3.0
  */
 public class MultiHashingInputStream
     extends FilterInputStream
 {
+  private static final long PIPELINE_THRESHOLD = getLong("nexus.hashing.pipeline.threshold", 8L * 1024 * 1024);
+
+  private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
   private final Map<HashAlgorithm, Hasher> hashers = new LinkedHashMap<>();
 
+  private long pipelineThreshold;
+
   private long count;
 
+  private HashingPipeline pipeline;
+
   public MultiHashingInputStream(final Iterable<HashAlgorithm> algorithms, final InputStream inputStream) {
+    // a pipeline can only add overhead when there is one processor to run it on
+    this(algorithms, inputStream, PROCESSORS > 1 ? PIPELINE_THRESHOLD : -1);
+  }
+
+  @VisibleForTesting
+  MultiHashingInputStream(
+      final Iterable<HashAlgorithm> algorithms,
+      final InputStream inputStream,
+      final long pipelineThreshold)
+  {
     super(checkNotNull(inputStream));
     checkNotNull(algorithms);
     for (HashAlgorithm algorithm : algorithms) {
       hashers.put(algorithm, algorithm.function().newHasher());
     }
+    // nothing to gain from a pipeline when there is only one hash to compute
+    this.pipelineThreshold = hashers.size() > 1 ? pipelineThreshold : -1;
   }
 
   @Override
   public int read() throws IOException {
-    int b = in.read();
+    int b;
+    try {
+      b = in.read();
+    }
+    catch (IOException | RuntimeException e) {
+      abortPipeline();
+      throw e;
+    }
     if (b != -1) {
-      for (Hasher hasher : hashers.values()) {
-        hasher.putByte((byte) b);
+      if (usePipeline()) {
+        pipeline.write(b);
+      }
+      else {
+        for (Hasher hasher : hashers.values()) {
+          hasher.putByte((byte) b);
+        }
       }
       count++;
     }
@@ -63,16 +104,49 @@ public class MultiHashingInputStream
 
   @Override
   public int read(@Nonnull final byte[] bytes, final int off, final int len) throws IOException {
-    int numRead = in.read(bytes, off, len);
+    int numRead;
+    try {
+      numRead = in.read(bytes, off, len);
+    }
+    catch (IOException | RuntimeException e) {
+      abortPipeline();
+      throw e;
+    }
     if (numRead != -1) {
-      for (Hasher hasher : hashers.values()) {
-        hasher.putBytes(bytes, off, numRead);
+      if (usePipeline()) {
+        pipeline.write(bytes, off, numRead);
+      }
+      else {
+        for (Hasher hasher : hashers.values()) {
+          hasher.putBytes(bytes, off, numRead);
+        }
       }
       count += numRead;
     }
     return numRead;
   }
 
+  private boolean usePipeline() {
+    if (pipeline == null && pipelineThreshold >= 0 && count >= pipelineThreshold) {
+      pipeline = HashingPipeline.start(hashers.values());
+      if (pipeline == null) {
+        // no workers available right now, carry on hashing in this thread
+        pipelineThreshold = -1;
+      }
+    }
+    return pipeline != null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finishPipeline();
+    }
+    finally {
+      super.close();
+    }
+  }
+
   @Override
   public boolean markSupported() {
     return false;
@@ -90,8 +164,17 @@ public class MultiHashingInputStream
 
   /**
    * Gets the {@link HashCode}s based on the data read from this stream.
+   *
+   * @throws IllegalStateException if hashing was given up because reading the stream failed
    */
   public Map<HashAlgorithm, HashCode> hashes() {
+    try {
+      finishPipeline();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    checkState(pipeline == null || !pipeline.isAborted(), "Hashing was aborted, the hashes are incomplete");
     Map<HashAlgorithm, HashCode> hashes = new HashMap<>(hashers.size());
     for (Entry<HashAlgorithm, Hasher> entry : hashers.entrySet()) {
       hashes.put(entry.getKey(), entry.getValue().hash());
@@ -99,6 +182,21 @@ public class MultiHashingInputStream
     return hashes;
   }
 
+  private void finishPipeline() throws IOException {
+    if (pipeline != null && !pipeline.isAborted()) {
+      pipeline.finish();
+    }
+  }
+
+  /**
+   * Stops the pipeline workers when reading fails, since the caller is unlikely to carry on reading or ask for hashes.
+   */
+  private void abortPipeline() {
+    if (pipeline != null) {
+      pipeline.abort();
+    }
+  }
+
   /**
    * Gets the number of bytes read from this stream.
    */
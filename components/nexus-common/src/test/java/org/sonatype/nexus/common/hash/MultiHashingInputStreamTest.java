@@ -14,7 +14,11 @@ package org.sonatype.nexus.common.hash;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
 
 import com.google.common.hash.HashCode;
 import com.google.common.io.ByteStreams;
@@ -23,6 +27,7 @@ import org.junit.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
 
 public class MultiHashingInputStreamTest
 {
@@ -46,6 +51,114 @@ public class MultiHashingInputStreamTest
     assertThat(andUseHashingStream.count(), is(equalTo(byteArrayLength)));
   }
 
+  @Test
+  public void pipelinedHashesMatchSequentialHashes() throws IOException {
+    byte[] bytes = new byte[5 * HashingPipeline.CHUNK_SIZE + 123];
+    new Random(42).nextBytes(bytes);
+
+    MultiHashingInputStream sequential =
+        new MultiHashingInputStream(HashAlgorithm.ALL_HASH_ALGORITHMS.values(), new ByteArrayInputStream(bytes), -1);
+    ByteStreams.copy(sequential, ByteStreams.nullOutputStream());
+
+    MultiHashingInputStream pipelined = new MultiHashingInputStream(HashAlgorithm.ALL_HASH_ALGORITHMS.values(),
+        new ByteArrayInputStream(bytes), HashingPipeline.CHUNK_SIZE + 7);
+    try (InputStream in = pipelined) {
+      // mix single byte reads with bulk reads which straddle chunk boundaries
+      for (int i = 0; i < 100; i++) {
+        in.read();
+      }
+      ByteStreams.copy(in, ByteStreams.nullOutputStream());
+    }
+
+    Map<HashAlgorithm, HashCode> expected = sequential.hashes();
+    assertThat(pipelined.hashes(), is(equalTo(expected)));
+    assertThat(pipelined.count(), is((long) bytes.length));
+    assertThat(expected.get(HashAlgorithm.SHA1), is(equalTo(HashAlgorithm.SHA1.function().hashBytes(bytes))));
+  }
+
+  @Test
+  public void pipelinedHashesAreAvailableBeforeClose() throws IOException {
+    byte[] bytes = new byte[3 * HashingPipeline.CHUNK_SIZE];
+    new Random(7).nextBytes(bytes);
+
+    MultiHashingInputStream pipelined = new MultiHashingInputStream(
+        Arrays.asList(HashAlgorithm.MD5, HashAlgorithm.SHA256), new ByteArrayInputStream(bytes), 0);
+    ByteStreams.copy(pipelined, ByteStreams.nullOutputStream());
+
+    Map<HashAlgorithm, HashCode> hashes = pipelined.hashes();
+    pipelined.close();
+
+    assertThat(hashes.get(HashAlgorithm.MD5), is(equalTo(HashAlgorithm.MD5.function().hashBytes(bytes))));
+    assertThat(hashes.get(HashAlgorithm.SHA256), is(equalTo(HashAlgorithm.SHA256.function().hashBytes(bytes))));
+  }
+
+  @Test
+  public void failedReadStopsPipelineWorkers() throws Exception {
+    InputStream failing = new SequenceInputStream(new ByteArrayInputStream(new byte[3 * HashingPipeline.CHUNK_SIZE]),
+        new InputStream()
+        {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("client went away");
+          }
+        });
+    MultiHashingInputStream pipelined =
+        new MultiHashingInputStream(HashAlgorithm.ALL_HASH_ALGORITHMS.values(), failing, 0);
+
+    try {
+      ByteStreams.copy(pipelined, ByteStreams.nullOutputStream());
+      fail("Expected read to fail");
+    }
+    catch (IOException e) {
+      assertThat(e.getMessage(), is("client went away"));
+    }
+
+    // the stream is abandoned without being closed; its workers must not stay parked on their queues
+    long deadline = System.currentTimeMillis() + 5000;
+    while (pipelineWorkersBusy() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(pipelineWorkersBusy(), is(false));
+  }
+
+  @Test
+  public void hashesAreRefusedAfterFailedRead() throws IOException {
+    InputStream failing = new SequenceInputStream(new ByteArrayInputStream(new byte[3 * HashingPipeline.CHUNK_SIZE]),
+        new InputStream()
+        {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("client went away");
+          }
+        });
+    MultiHashingInputStream pipelined =
+        new MultiHashingInputStream(HashAlgorithm.ALL_HASH_ALGORITHMS.values(), failing, 0);
+
+    try {
+      ByteStreams.copy(pipelined, ByteStreams.nullOutputStream());
+      fail("Expected read to fail");
+    }
+    catch (IOException e) {
+      // expected
+    }
+
+    try {
+      pipelined.hashes();
+      fail("Expected hashes to be refused");
+    }
+    catch (IllegalStateException e) {
+      assertThat(e.getMessage(), is("Hashing was aborted, the hashes are incomplete"));
+    }
+    pipelined.close();
+  }
+
+  private static boolean pipelineWorkersBusy() {
+    return Thread.getAllStackTraces().entrySet().stream()
+        .filter(entry -> entry.getKey().getName().startsWith("hashing-pipeline-"))
+        .flatMap(entry -> Arrays.stream(entry.getValue()))
+        .anyMatch(frame -> frame.getClassName().equals(HashingPipeline.class.getName()));
+  }
+
   private MultiHashingInputStream createAndUseHashingStream(final byte[] bytes) throws IOException {
     final MultiHashingInputStream hashingStream = new MultiHashingInputStream(
         Arrays.asList(HashAlgorithm.SHA512), new ByteArrayInputStream(bytes));
@@ -0,0 +1,179 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.httpclient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.common.Time;
+
+import com.google.common.base.Splitter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A partition of the outbound connection pool, with its own limits, serving the repositories and upstream hosts
+ * assigned to it.
+ *
+ * Partitions are configured as a {@code ;} separated list of {@code name(key=value,...)} entries, for example
+ * {@code npm(size=10,maxSize=40,leaseTimeout=30s,hosts=registry.npmjs.org|*.npmjs.org,repositories=npm-proxy)}.
+ * Hosts may be given as {@code host} or {@code host:port}, and {@code *.domain} matches any sub-domain.
+ *
+ * @since 3.71
+ */
+class ConnectionPoolPartition
+{
+  private static final Splitter ENTRY_SPLITTER = Splitter.on(';').trimResults().omitEmptyStrings();
+
+  private static final Splitter SETTING_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private static final Splitter LIST_SPLITTER = Splitter.on('|').trimResults().omitEmptyStrings();
+
+  private final String name;
+
+  private final int size;
+
+  private final int maxSize;
+
+  @Nullable
+  private final Time leaseTimeout;
+
+  private final Set<String> hosts;
+
+  private final Set<String> repositories;
+
+  ConnectionPoolPartition(
+      final String name,
+      final int size,
+      final int maxSize,
+      @Nullable final Time leaseTimeout,
+      final Set<String> hosts,
+      final Set<String> repositories)
+  {
+    this.name = checkNotNull(name);
+    checkArgument(size > 0 && maxSize > 0, "Connection pool partition %s must allow connections", name);
+    this.size = Math.min(size, maxSize);
+    this.maxSize = maxSize;
+    this.leaseTimeout = leaseTimeout;
+    this.hosts = checkNotNull(hosts);
+    this.repositories = checkNotNull(repositories);
+  }
+
+  String getName() {
+    return name;
+  }
+
+  int getSize() {
+    return size;
+  }
+
+  int getMaxSize() {
+    return maxSize;
+  }
+
+  @Nullable
+  Time getLeaseTimeout() {
+    return leaseTimeout;
+  }
+
+  boolean servesRepository(@Nullable final String repositoryName) {
+    return repositoryName != null && repositories.contains(repositoryName);
+  }
+
+  boolean servesHost(final String host, final int port) {
+    String hostName = host.toLowerCase(Locale.ENGLISH);
+    for (String pattern : hosts) {
+      int colon = pattern.lastIndexOf(':');
+      String hostPattern = colon < 0 ? pattern : pattern.substring(0, colon);
+      if (colon >= 0 && !pattern.substring(colon + 1).equals(Integer.toString(port))) {
+        continue;
+      }
+      if (hostPattern.startsWith("*.") ? hostName.endsWith(hostPattern.substring(1)) : hostName.equals(hostPattern)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Parses the configured partitions, using the given sizes where a partition does not set its own.
+   */
+  static List<ConnectionPoolPartition> parse(final String config, final int defaultSize, final int defaultMaxSize) {
+    List<ConnectionPoolPartition> partitions = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    for (String entry : ENTRY_SPLITTER.split(config)) {
+      int open = entry.indexOf('(');
+      checkArgument(open > 0 && entry.endsWith(")"), "Invalid connection pool partition: %s", entry);
+      String name = entry.substring(0, open).trim();
+      checkArgument(names.add(name), "Duplicate connection pool partition: %s", name);
+
+      int size = defaultSize;
+      int maxSize = defaultMaxSize;
+      Time leaseTimeout = null;
+      Set<String> hosts = Collections.emptySet();
+      Set<String> repositories = Collections.emptySet();
+      for (String setting : SETTING_SPLITTER.split(entry.substring(open + 1, entry.length() - 1))) {
+        int equals = setting.indexOf('=');
+        checkArgument(equals > 0, "Invalid setting of connection pool partition %s: %s", name, setting);
+        String key = setting.substring(0, equals).trim();
+        String value = setting.substring(equals + 1).trim();
+        switch (key) {
+          case "size":
+            size = Integer.parseInt(value);
+            break;
+          case "maxSize":
+            maxSize = Integer.parseInt(value);
+            break;
+          case "leaseTimeout":
+            leaseTimeout = Time.parse(value);
+            break;
+          case "hosts":
+            hosts = toSet(value.toLowerCase(Locale.ENGLISH));
+            break;
+          case "repositories":
+            repositories = toSet(value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown setting of connection pool partition " + name + ": " + key);
+        }
+      }
+      partitions.add(new ConnectionPoolPartition(name, size, maxSize, leaseTimeout, hosts, repositories));
+    }
+    return partitions;
+  }
+
+  private static Set<String> toSet(final String value) {
+    Set<String> values = new HashSet<>();
+    LIST_SPLITTER.split(value).forEach(values::add);
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "{" +
+        "name='" + name + '\'' +
+        ", size=" + size +
+        ", maxSize=" + maxSize +
+        ", leaseTimeout=" + leaseTimeout +
+        ", hosts=" + hosts +
+        ", repositories=" + repositories +
+        '}';
+  }
+}
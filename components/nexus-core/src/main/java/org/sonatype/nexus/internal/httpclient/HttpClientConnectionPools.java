@@ -0,0 +1,381 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.httpclient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.goodies.common.Time;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
+import org.sonatype.nexus.jmx.reflect.ManagedObject;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Suppliers;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Outbound connection pools: the {@link SharedHttpClientConnectionManager shared pool} and any configured
+ * {@link ConnectionPoolPartition partitions}, each with its own limits so a slow upstream cannot exhaust the
+ * connections every other repository relies on.
+ *
+ * Connections are leased from the partition the client's repository is assigned to, otherwise from the partition
+ * serving the upstream host, otherwise from the shared pool. Leased, available and pending connections and lease
+ * wait times are registered per pool and route in the shared {@link MetricRegistry} as
+ * {@code org.sonatype.nexus.httpclient.connectionpool.<pool>.<host:port>.<metric>}; a summary is also available
+ * over JMX.
+ *
+ * @since 3.71
+ */
+@Named
+@Singleton
+@ManagedObject
+public class HttpClientConnectionPools
+    extends ComponentSupport
+{
+  static final String SHARED = "shared";
+
+  private static final String PREFIX = "org.sonatype.nexus.httpclient.connectionpool";
+
+  private final MetricRegistry metricRegistry;
+
+  private final Pool shared;
+
+  private final Map<String, Pool> partitions = new LinkedHashMap<>();
+
+  private final ConcurrentMap<String, RouteMetrics> routeMetrics = new ConcurrentHashMap<>();
+
+  @Inject
+  public HttpClientConnectionPools(
+      final SharedHttpClientConnectionManager sharedConnectionManager,
+      final MetricRegistry metricRegistry,
+      @Named("${nexus.httpclient.connectionpool.partitions:-}") final String partitionsConfig)
+  {
+    checkNotNull(sharedConnectionManager);
+    this.metricRegistry = checkNotNull(metricRegistry);
+    this.shared = new Pool(SHARED, sharedConnectionManager, null);
+
+    for (ConnectionPoolPartition partition : ConnectionPoolPartition.parse(checkNotNull(partitionsConfig),
+        sharedConnectionManager.getDefaultMaxPerRoute(), sharedConnectionManager.getMaxTotal())) {
+      checkArgument(!SHARED.equals(partition.getName()), "Connection pool partition cannot be named %s", SHARED);
+      partitions.put(partition.getName(), new Pool(partition.getName(),
+          sharedConnectionManager.newPartition(partition.getSize(), partition.getMaxSize()), partition));
+      log.info("Connection pool partition: {}", partition);
+    }
+  }
+
+  void start() throws Exception {
+    shared.manager.start();
+    for (Pool pool : partitions.values()) {
+      pool.manager.start();
+    }
+  }
+
+  void stop() throws Exception {
+    for (Pool pool : partitions.values()) {
+      close(pool);
+    }
+    close(shared);
+  }
+
+  /**
+   * Stops the pool and drops the metrics of its routes, which would otherwise keep reporting on a closed pool.
+   */
+  private void close(final Pool pool) throws Exception {
+    pool.manager.stop();
+    routeMetrics.values().removeIf(metrics -> {
+      if (metrics.pool != pool) {
+        return false;
+      }
+      metrics.metricNames.forEach(metricRegistry::remove);
+      return true;
+    });
+  }
+
+  /**
+   * Returns a connection manager for a client, leasing from the partition the repository is assigned to, if any.
+   * The repository, which may be {@code null}, is only looked up when the first connection is requested, so it can be
+   * supplied once the client has been customized. The manager is not shut down when the client is closed, the pools
+   * being shared.
+   */
+  HttpClientConnectionManager connectionManager(final Supplier<String> repositoryName) {
+    checkNotNull(repositoryName);
+    return new PartitionedConnectionManager(Suppliers.memoize(() -> repositoryPool(repositoryName.get())));
+  }
+
+  @Nullable
+  private Pool repositoryPool(@Nullable final String repositoryName) {
+    return partitions.values().stream()
+        .filter(pool -> pool.partition.servesRepository(repositoryName))
+        .findFirst()
+        .orElse(null);
+  }
+
+  private Pool hostPool(final HttpRoute route) {
+    String host = route.getTargetHost().getHostName();
+    int port = route.getTargetHost().getPort();
+    return partitions.values().stream()
+        .filter(pool -> pool.partition.servesHost(host, port))
+        .findFirst()
+        .orElse(shared);
+  }
+
+  /**
+   * Lease wait timer of the given pool and upstream host, if a connection was requested from it.
+   */
+  @VisibleForTesting
+  @Nullable
+  Timer getLeaseWait(final String poolName, final String hostAndPort) {
+    RouteMetrics metrics = routeMetrics.get(poolName + ' ' + hostAndPort);
+    return metrics != null ? metrics.leaseWait : null;
+  }
+
+  /**
+   * Current statistics of the given pool and upstream host, if a connection was requested from it.
+   */
+  @VisibleForTesting
+  @Nullable
+  PoolStats getStats(final String poolName, final String hostAndPort) {
+    RouteMetrics metrics = routeMetrics.get(poolName + ' ' + hostAndPort);
+    return metrics != null ? metrics.stats() : null;
+  }
+
+  @ManagedAttribute(description = "Leased, available and pending connections per pool and upstream host")
+  public Map<String, String> getPoolStats() {
+    Map<String, String> summary = new TreeMap<>();
+    summary.put(SHARED, format(shared.manager.getTotalStats()));
+    partitions.forEach((name, pool) -> summary.put(name, format(pool.manager.getTotalStats())));
+    routeMetrics.forEach((key, metrics) -> {
+      Snapshot snapshot = metrics.leaseWait.getSnapshot();
+      summary.put(key, String.format("%s leaseWait.p50=%.2f leaseWait.p99=%.2f leaseWait.max=%.2f",
+          format(metrics.stats()), millis(snapshot.getMedian()), millis(snapshot.get99thPercentile()),
+          millis(snapshot.getMax())));
+    });
+    return summary;
+  }
+
+  private static String format(final PoolStats stats) {
+    return String.format("leased=%d available=%d pending=%d max=%d",
+        stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+  }
+
+  private static double millis(final double nanos) {
+    return nanos / MILLISECONDS.toNanos(1);
+  }
+
+  private RouteMetrics routeMetrics(final Pool pool, final HttpRoute route) {
+    String hostAndPort = route.getTargetHost().toHostString();
+    return routeMetrics.computeIfAbsent(pool.name + ' ' + hostAndPort, key -> {
+      String leaseWait = name(PREFIX, pool.name, hostAndPort, "leaseWait");
+      RouteMetrics metrics = new RouteMetrics(pool, route, metricRegistry.timer(leaseWait));
+      metrics.metricNames.add(leaseWait);
+      register(metrics, name(PREFIX, pool.name, hostAndPort, "leased"), () -> metrics.stats().getLeased());
+      register(metrics, name(PREFIX, pool.name, hostAndPort, "available"), () -> metrics.stats().getAvailable());
+      register(metrics, name(PREFIX, pool.name, hostAndPort, "pending"), () -> metrics.stats().getPending());
+      register(metrics, name(PREFIX, pool.name, hostAndPort, "max"), () -> metrics.stats().getMax());
+      return metrics;
+    });
+  }
+
+  private void register(final RouteMetrics metrics, final String metricName, final Gauge<Integer> gauge) {
+    metricRegistry.remove(metricName);
+    metricRegistry.register(metricName, gauge);
+    metrics.metricNames.add(metricName);
+  }
+
+  private static class Pool
+  {
+    final String name;
+
+    final SharedHttpClientConnectionManager manager;
+
+    @Nullable
+    final ConnectionPoolPartition partition;
+
+    Pool(final String name,
+         final SharedHttpClientConnectionManager manager,
+         @Nullable final ConnectionPoolPartition partition)
+    {
+      this.name = checkNotNull(name);
+      this.manager = checkNotNull(manager);
+      this.partition = partition;
+    }
+
+    /**
+     * Caps the time to wait for a connection to the partition's lease timeout; zero means waiting indefinitely.
+     */
+    long leaseTimeoutMillis(final long timeout, final TimeUnit unit) {
+      long requested = timeout > 0 ? unit.toMillis(timeout) : 0;
+      Time leaseTimeout = partition != null ? partition.getLeaseTimeout() : null;
+      if (leaseTimeout == null) {
+        return requested;
+      }
+      return requested > 0 ? Math.min(requested, leaseTimeout.toMillis()) : leaseTimeout.toMillis();
+    }
+  }
+
+  private static class RouteMetrics
+  {
+    final Pool pool;
+
+    final HttpRoute route;
+
+    final Timer leaseWait;
+
+    final List<String> metricNames = new ArrayList<>();
+
+    RouteMetrics(final Pool pool, final HttpRoute route, final Timer leaseWait) {
+      this.pool = pool;
+      this.route = route;
+      this.leaseWait = leaseWait;
+    }
+
+    PoolStats stats() {
+      return pool.manager.getStats(route);
+    }
+  }
+
+  /**
+   * Leases each connection from the pool serving its route, and hands it back to the same pool.
+   */
+  private class PartitionedConnectionManager
+      implements HttpClientConnectionManager
+  {
+    private final Supplier<Pool> repositoryPool;
+
+    private final Map<HttpClientConnection, Pool> leased = new ConcurrentHashMap<>();
+
+    PartitionedConnectionManager(final Supplier<Pool> repositoryPool) {
+      this.repositoryPool = repositoryPool;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+      Pool assigned = repositoryPool.get();
+      Pool pool = assigned != null ? assigned : hostPool(route);
+      RouteMetrics metrics = routeMetrics(pool, route);
+      ConnectionRequest request = pool.manager.requestConnection(route, state);
+      return new ConnectionRequest()
+      {
+        @Override
+        public HttpClientConnection get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException
+        {
+          Stopwatch stopwatch = Stopwatch.createStarted();
+          try {
+            HttpClientConnection connection = request.get(pool.leaseTimeoutMillis(timeout, unit), MILLISECONDS);
+            leased.put(connection, pool);
+            return connection;
+          }
+          finally {
+            metrics.leaseWait.update(stopwatch.elapsed(NANOSECONDS), NANOSECONDS);
+          }
+        }
+
+        @Override
+        public boolean cancel() {
+          return request.cancel();
+        }
+      };
+    }
+
+    @Override
+    public void releaseConnection(
+        final HttpClientConnection connection,
+        final Object newState,
+        final long validDuration,
+        final TimeUnit timeUnit)
+    {
+      Pool pool = leased.remove(connection);
+      (pool != null ? pool : shared).manager.releaseConnection(connection, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(
+        final HttpClientConnection connection,
+        final HttpRoute route,
+        final int connectTimeout,
+        final HttpContext context) throws IOException
+    {
+      owner(connection).connect(connection, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(
+        final HttpClientConnection connection,
+        final HttpRoute route,
+        final HttpContext context) throws IOException
+    {
+      owner(connection).upgrade(connection, route, context);
+    }
+
+    @Override
+    public void routeComplete(
+        final HttpClientConnection connection,
+        final HttpRoute route,
+        final HttpContext context) throws IOException
+    {
+      owner(connection).routeComplete(connection, route, context);
+    }
+
+    private HttpClientConnectionManager owner(final HttpClientConnection connection) {
+      return leased.getOrDefault(connection, shared).manager;
+    }
+
+    @Override
+    public void closeIdleConnections(final long idletime, final TimeUnit unit) {
+      // idle connections are evicted by each pool
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+      // expired connections are evicted by each pool
+    }
+
+    @Override
+    public void shutdown() {
+      // the pools are shared, so must outlive the clients using them
+    }
+  }
+}
@@ -91,7 +91,7 @@ public class HttpClientManagerImpl
 
   private final Provider<HttpClientConfiguration> defaults;
 
-  private final SharedHttpClientConnectionManager sharedConnectionManager;
+  private final HttpClientConnectionPools connectionPools;
 
   private final DefaultsCustomizer defaultsCustomizer;
 
@@ -103,7 +103,7 @@ public class HttpClientManagerImpl
   public HttpClientManagerImpl(final EventManager eventManager,
       final HttpClientConfigurationStore store,
       @Named("initial") final Provider<HttpClientConfiguration> defaults,
-      final SharedHttpClientConnectionManager sharedConnectionManager,
+      final HttpClientConnectionPools connectionPools,
       final DefaultsCustomizer defaultsCustomizer)
   {
     this.eventManager = checkNotNull(eventManager);
@@ -114,7 +114,7 @@ public class HttpClientManagerImpl
     this.defaults = checkNotNull(defaults);
     log.debug("Defaults: {}", defaults);
 
-    this.sharedConnectionManager = checkNotNull(sharedConnectionManager);
+    this.connectionPools = checkNotNull(connectionPools);
     this.defaultsCustomizer = checkNotNull(defaultsCustomizer);
   }
 
@@ -124,12 +124,12 @@ public class HttpClientManagerImpl
 
   @Override
   protected void doStart() throws Exception {
-    sharedConnectionManager.start();
+    connectionPools.start();
   }
 
   @Override
   protected void doStop() throws Exception {
-    sharedConnectionManager.stop();
+    connectionPools.stop();
   }
 
   //
@@ -230,8 +230,12 @@ public class HttpClientManagerImpl
   public HttpClientBuilder prepare(@Nullable final Customizer customizer) {
     final HttpClientPlan plan = httpClientPlan();
 
-    // attach connection manager early, so customizer has chance to replace it if needed
-    plan.getClient().setConnectionManager(sharedConnectionManager);
+    // attach connection manager early, so customizer has chance to replace it if needed; clients of a repository
+    // assigned to a connection pool partition lease all their connections from it
+    plan.getClient().setConnectionManager(connectionPools.connectionManager(() -> {
+      Object repositoryName = plan.getAttributes().get(HttpClientPlan.REPOSITORY_NAME);
+      return repositoryName != null ? repositoryName.toString() : null;
+    }));
 
     // apply defaults
     defaultsCustomizer.customize(plan);
@@ -38,8 +38,6 @@ import static org.sonatype.nexus.common.app.ManagedLifecycleManager.isShuttingDo
 import static org.sonatype.nexus.httpclient.HttpSchemes.HTTP;
 import static org.sonatype.nexus.httpclient.HttpSchemes.HTTPS;
 
-// TODO: Restore JMX support for httpclient bits
-
 /**
  * Shared {@link PoolingHttpClientConnectionManager}.
  *
@@ -53,10 +51,16 @@ public class SharedHttpClientConnectionManager
 {
   private static final Logger log = LoggerFactory.getLogger(SharedHttpClientConnectionManager.class);
 
+  private final List<SSLContextSelector> sslContextSelectors;
+
   private final Time connectionPoolIdleTime;
 
   private final Time connectionPoolEvictingDelayTime;
 
+  private final Time connectionPoolValidateAfterInactivityTime;
+
+  private final Time defaultSocketTimeout;
+
   private ConnectionEvictionThread evictionThread;
 
   @Inject
@@ -76,6 +80,10 @@ public class SharedHttpClientConnectionManager
         TimeUnit.MILLISECONDS
     );
 
+    this.sslContextSelectors = sslContextSelectors;
+    this.connectionPoolValidateAfterInactivityTime = connectionPoolValidateAfterInactivityTime;
+    this.defaultSocketTimeout = defaultSocketTimeout;
+
     setMaxTotal(connectionPoolMaxSize);
     log.debug("Connection pool max-size: {}", connectionPoolMaxSize);
 
@@ -99,6 +107,17 @@ public class SharedHttpClientConnectionManager
     return builder.build();
   }
 
+  /**
+   * Creates a separate pool with the same settings as this one, apart from its size, to serve a partition.
+   *
+   * @since 3.71
+   */
+  SharedHttpClientConnectionManager newPartition(final int connectionPoolSize, final int connectionPoolMaxSize) {
+    return new SharedHttpClientConnectionManager(sslContextSelectors, connectionPoolSize, connectionPoolMaxSize,
+        connectionPoolIdleTime, connectionPoolEvictingDelayTime, connectionPoolValidateAfterInactivityTime,
+        defaultSocketTimeout);
+  }
+
   /**
    * Do nothing in order to avoid unwanted shutdown of shared connection manager.
    *
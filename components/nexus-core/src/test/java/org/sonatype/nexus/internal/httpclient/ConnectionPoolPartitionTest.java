@@ -0,0 +1,77 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.httpclient;
+
+import java.util.List;
+
+import org.sonatype.goodies.common.Time;
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ConnectionPoolPartitionTest
+    extends TestSupport
+{
+  @Test
+  public void parsesPartitions() {
+    List<ConnectionPoolPartition> partitions = ConnectionPoolPartition.parse(
+        "npm(size=10, maxSize=40, leaseTimeout=30s, hosts=registry.npmjs.org|*.example.com:8443, " +
+            "repositories=npm-proxy|npm-mirror); other()", 20, 200);
+
+    assertThat(partitions, hasSize(2));
+
+    ConnectionPoolPartition npm = partitions.get(0);
+    assertThat(npm.getName(), is("npm"));
+    assertThat(npm.getSize(), is(10));
+    assertThat(npm.getMaxSize(), is(40));
+    assertThat(npm.getLeaseTimeout(), is(Time.seconds(30)));
+    assertThat(npm.servesRepository("npm-mirror"), is(true));
+    assertThat(npm.servesRepository("maven-central"), is(false));
+    assertThat(npm.servesHost("Registry.NPMJS.org", 443), is(true));
+    assertThat(npm.servesHost("mirror.example.com", 8443), is(true));
+    assertThat(npm.servesHost("mirror.example.com", 443), is(false));
+    assertThat(npm.servesHost("example.com", 8443), is(false));
+
+    ConnectionPoolPartition other = partitions.get(1);
+    assertThat(other.getSize(), is(20));
+    assertThat(other.getMaxSize(), is(200));
+    assertThat(other.getLeaseTimeout(), nullValue());
+    assertThat(other.servesRepository(null), is(false));
+  }
+
+  @Test
+  public void sizeIsCappedByMaxSize() {
+    assertThat(ConnectionPoolPartition.parse("small(maxSize=5)", 20, 200).get(0).getSize(), is(5));
+  }
+
+  @Test
+  public void emptyConfigurationHasNoPartitions() {
+    assertThat(ConnectionPoolPartition.parse("", 20, 200), empty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownSettings() {
+    ConnectionPoolPartition.parse("npm(maxConnections=5)", 20, 200);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsDuplicatePartitions() {
+    ConnectionPoolPartition.parse("npm(size=1);npm(size=2)", 20, 200);
+  }
+}
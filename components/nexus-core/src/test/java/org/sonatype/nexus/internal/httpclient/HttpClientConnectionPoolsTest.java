@@ -0,0 +1,205 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.internal.httpclient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.sonatype.goodies.common.Time;
+import org.sonatype.goodies.httpfixture.server.fluent.Server;
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.codahale.metrics.MetricRegistry;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.sonatype.nexus.internal.httpclient.HttpClientConnectionPools.SHARED;
+
+/**
+ * Load tests of {@link HttpClientConnectionPools} against a slow local upstream.
+ */
+public class HttpClientConnectionPoolsTest
+    extends TestSupport
+{
+  private static final int SLOW_REQUESTS = 6;
+
+  private final CountDownLatch slowUpstream = new CountDownLatch(1);
+
+  private final MetricRegistry metricRegistry = new MetricRegistry();
+
+  private Server slowServer;
+
+  private Server fastServer;
+
+  private HttpClientConnectionPools underTest;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    slowServer = Server.server().serve("/*").withBehaviours((request, response, context) -> {
+      slowUpstream.await(30, TimeUnit.SECONDS);
+      response.setStatus(200);
+      return true;
+    }).start();
+    fastServer = Server.server().serve("/*").withBehaviours((request, response, context) -> {
+      response.setStatus(200);
+      return true;
+    }).start();
+
+    SharedHttpClientConnectionManager shared = new SharedHttpClientConnectionManager(emptyList(), 2, 4,
+        Time.seconds(30), Time.seconds(5), Time.seconds(2), Time.seconds(20));
+    underTest = new HttpClientConnectionPools(shared, metricRegistry,
+        "slow(size=2,maxSize=2,hosts=127.0.0.1:" + slowServer.getPort() + ");" +
+            "assigned(size=1,maxSize=1,leaseTimeout=100ms,repositories=npm-proxy)");
+    underTest.start();
+
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    slowUpstream.countDown();
+    executor.shutdownNow();
+    underTest.stop();
+    slowServer.stop();
+    fastServer.stop();
+  }
+
+  @Test
+  public void slowUpstreamDoesNotStallOtherUpstreams() throws Exception {
+    String slowHost = "127.0.0.1:" + slowServer.getPort();
+    String fastHost = "127.0.0.1:" + fastServer.getPort();
+
+    try (CloseableHttpClient client = HttpClients.custom()
+        .setConnectionManager(underTest.connectionManager(() -> null))
+        .build()) {
+
+      List<Future<Integer>> slowResponses = new ArrayList<>();
+      for (int i = 0; i < SLOW_REQUESTS; i++) {
+        slowResponses.add(executor.submit(() -> get(client, "http://" + slowHost + "/slow")));
+      }
+
+      // the slow partition is exhausted: every connection is leased and the other requests are waiting
+      awaitStats("slow", slowHost, 2, SLOW_REQUESTS - 2);
+
+      // while other upstreams are still served from the shared pool without waiting
+      for (int i = 0; i < 10; i++) {
+        long start = System.nanoTime();
+        assertThat(get(client, "http://" + fastHost + "/fast"), is(200));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(5000L));
+      }
+      assertThat(underTest.getStats(SHARED, fastHost).getPending(), is(0));
+
+      slowUpstream.countDown();
+      for (Future<Integer> response : slowResponses) {
+        assertThat(response.get(30, TimeUnit.SECONDS), is(200));
+      }
+    }
+
+    assertThat(underTest.getLeaseWait("slow", slowHost).getCount(), is((long) SLOW_REQUESTS));
+    assertThat(underTest.getLeaseWait(SHARED, fastHost).getCount(), is(10L));
+    assertThat(metricRegistry.getGauges(), hasKey(
+        "org.sonatype.nexus.httpclient.connectionpool.slow." + slowHost + ".leased"));
+    assertThat(underTest.getPoolStats(), hasKey("slow " + slowHost));
+  }
+
+  @Test(expected = ConnectionPoolTimeoutException.class)
+  public void leaseTimesOutInAssignedPartition() throws Exception {
+    try (CloseableHttpClient client = HttpClients.custom()
+        .setConnectionManager(underTest.connectionManager(() -> "npm-proxy"))
+        .build()) {
+      String fastHost = "127.0.0.1:" + fastServer.getPort();
+      String slowHost = "127.0.0.1:" + slowServer.getPort();
+
+      // the repository's partition is used whatever the upstream, so one slow request takes its only connection
+      executor.submit(() -> get(client, "http://" + slowHost + "/slow"));
+      awaitStats("assigned", slowHost, 1, 0);
+
+      get(client, "http://" + fastHost + "/fast");
+    }
+  }
+
+  @Test
+  public void routeMetricsAreDroppedWhenThePoolsStop() throws Exception {
+    MetricRegistry registry = new MetricRegistry();
+    SharedHttpClientConnectionManager shared = new SharedHttpClientConnectionManager(emptyList(), 2, 4,
+        Time.seconds(30), Time.seconds(5), Time.seconds(2), Time.seconds(20));
+    HttpClientConnectionPools pools = new HttpClientConnectionPools(shared, registry,
+        "assigned(size=1,maxSize=1,repositories=npm-proxy)");
+    pools.start();
+
+    String fastHost = "127.0.0.1:" + fastServer.getPort();
+    AtomicReference<String> repositoryName = new AtomicReference<>();
+    try (CloseableHttpClient client = HttpClients.custom()
+        .setConnectionManager(pools.connectionManager(repositoryName::get))
+        .build()) {
+      // the repository is only known once the client has been customized
+      repositoryName.set("npm-proxy");
+      assertThat(get(client, "http://" + fastHost + "/fast"), is(200));
+    }
+    assertThat(pools.getStats("assigned", fastHost), notNullValue());
+    assertThat(registry.getNames(), not(empty()));
+
+    pools.stop();
+
+    assertThat(pools.getStats("assigned", fastHost), nullValue());
+    assertThat(pools.getPoolStats(), not(hasKey("assigned " + fastHost)));
+    assertThat(registry.getNames(), empty());
+  }
+
+  private void awaitStats(final String pool, final String host, final int leased, final int pending)
+      throws InterruptedException
+  {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    PoolStats stats = underTest.getStats(pool, host);
+    while ((stats == null || stats.getLeased() != leased || stats.getPending() != pending)
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      stats = underTest.getStats(pool, host);
+    }
+    assertThat(stats, notNullValue());
+    assertThat(stats.getLeased(), is(leased));
+    assertThat(stats.getPending(), is(pending));
+  }
+
+  private static int get(final CloseableHttpClient client, final String url) throws Exception {
+    try (CloseableHttpResponse response = client.execute(new HttpGet(url))) {
+      EntityUtils.consume(response.getEntity());
+      return response.getStatusLine().getStatusCode();
+    }
+  }
+}
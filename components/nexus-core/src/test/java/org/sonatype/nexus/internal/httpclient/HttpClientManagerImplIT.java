@@ -90,7 +90,7 @@ public class HttpClientManagerImplIT
   @Before
   public void before() {
     underTest = new HttpClientManagerImpl(mock(EventManager.class), mock(HttpClientConfigurationStore.class),
-        () -> mock(HttpClientConfiguration.class), mock(SharedHttpClientConnectionManager.class),
+        () -> mock(HttpClientConfiguration.class), mock(HttpClientConnectionPools.class),
         mock(DefaultsCustomizer.class));
 
     resetCounts();
@@ -52,7 +52,7 @@ public class HttpClientManagerImplTest
   private HttpClientConfigurationStore configStore;
 
   @Mock
-  private SharedHttpClientConnectionManager connectionManager;
+  private HttpClientConnectionPools connectionPools;
 
   @Mock
   private DefaultsCustomizer defaultsCustomizer;
@@ -65,7 +65,7 @@ public class HttpClientManagerImplTest
   @Before
   public void setUp() {
     underTest = new HttpClientManagerImpl(eventManager, configStore, TestHttpClientConfiguration::new,
-        connectionManager,
+        connectionPools,
         defaultsCustomizer);
   }
 
@@ -37,6 +37,13 @@ import org.apache.http.impl.client.HttpClientBuilder;
 public class HttpClientPlan
     extends ComponentSupport
 {
+  /**
+   * Attribute naming the repository a client is built for, which may assign it to a connection pool partition.
+   *
+   * @since 3.71
+   */
+  public static final String REPOSITORY_NAME = "nexus.httpclient.repositoryName";
+
   private final HttpClientBuilder client;
 
   private final ConnectionConfig.Builder connection;
@@ -0,0 +1,273 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.pax.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.SharedMetricRegistries;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Hands request log events to a dedicated writer thread so the attached appenders format and write them off the
+ * request thread.
+ *
+ * Events wait in a bounded queue of {@code queueSize} entries and are written in batches of up to
+ * {@code maxBatchSize}; file appenders configured without {@code immediateFlush} are flushed once per batch. When the
+ * queue is full the request thread either waits for room or, with {@code neverBlock} set, drops the event and counts
+ * it under the {@code nexus} metric registry.
+ *
+ * @since 3.71
+ */
+public class AsyncAccessAppender
+    extends UnsynchronizedAppenderBase<IAccessEvent>
+    implements AppenderAttachable<IAccessEvent>
+{
+  public static final int DEFAULT_QUEUE_SIZE = 8192;
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+
+  public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+
+  private static final int DROP_WARNING_INTERVAL = 1000;
+
+  private final AppenderAttachableImpl<IAccessEvent> appenders = new AppenderAttachableImpl<>();
+
+  private int queueSize = DEFAULT_QUEUE_SIZE;
+
+  private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+  private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+
+  private boolean neverBlock;
+
+  private BlockingQueue<IAccessEvent> queue;
+
+  private Counter dropped;
+
+  private Thread writer;
+
+  public void setQueueSize(final int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public void setMaxBatchSize(final int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * How long, in milliseconds, {@link #stop()} waits for queued events to be written.
+   */
+  public void setMaxFlushTime(final int maxFlushTime) {
+    this.maxFlushTime = maxFlushTime;
+  }
+
+  public int getMaxFlushTime() {
+    return maxFlushTime;
+  }
+
+  /**
+   * Drop events rather than wait when the queue is full.
+   */
+  public void setNeverBlock(final boolean neverBlock) {
+    this.neverBlock = neverBlock;
+  }
+
+  public boolean isNeverBlock() {
+    return neverBlock;
+  }
+
+  public long getDroppedCount() {
+    return dropped != null ? dropped.getCount() : 0;
+  }
+
+  public int getQueuedCount() {
+    return queue != null ? queue.size() : 0;
+  }
+
+  @Override
+  public void start() {
+    if (isStarted()) {
+      return;
+    }
+    if (queueSize < 1) {
+      addError("Invalid queue size " + queueSize);
+      return;
+    }
+    if (!appenders.iteratorForAppenders().hasNext()) {
+      addError("No appender attached to " + getName());
+      return;
+    }
+    queue = new ArrayBlockingQueue<>(queueSize);
+    dropped = SharedMetricRegistries.getOrCreate("nexus")
+        .counter(name(AsyncAccessAppender.class, getName(), "dropped"));
+    writer = new Thread(this::drain, "request-log-writer-" + getName());
+    writer.setDaemon(true);
+    super.start();
+    writer.start();
+  }
+
+  @Override
+  public void stop() {
+    if (!isStarted()) {
+      return;
+    }
+    super.stop();
+    try {
+      writer.join(maxFlushTime);
+      if (writer.isAlive()) {
+        addWarn("Gave up writing " + queue.size() + " queued request log events after " + maxFlushTime + "ms");
+        writer.interrupt();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      writer.interrupt();
+    }
+    appenders.detachAndStopAllAppenders();
+  }
+
+  @Override
+  protected void append(final IAccessEvent event) {
+    // capture everything the layouts need while the request is still live
+    if (IAccessEvent.NA.equals(event.getThreadName())) {
+      event.setThreadName(Thread.currentThread().getName());
+    }
+    event.prepareForDeferredProcessing();
+
+    if (neverBlock) {
+      if (!queue.offer(event)) {
+        dropped.inc();
+        if (dropped.getCount() % DROP_WARNING_INTERVAL == 1) {
+          addWarn("Request log queue is full, " + dropped.getCount() + " events dropped so far");
+        }
+      }
+      return;
+    }
+
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          queue.put(event);
+          return;
+        }
+        catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void drain() {
+    List<IAccessEvent> batch = new ArrayList<>(maxBatchSize);
+    try {
+      while (isStarted() || !queue.isEmpty()) {
+        IAccessEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, maxBatchSize - 1);
+        for (IAccessEvent event : batch) {
+          appenders.appendLoopOnAppenders(event);
+        }
+        batch.clear();
+        flush();
+      }
+    }
+    catch (InterruptedException e) { // NOSONAR
+      addInfo("Request log writer interrupted with " + queue.size() + " events queued");
+    }
+  }
+
+  private void flush() {
+    Iterator<Appender<IAccessEvent>> it = appenders.iteratorForAppenders();
+    while (it.hasNext()) {
+      Appender<IAccessEvent> appender = it.next();
+      if (appender instanceof OutputStreamAppender && !((OutputStreamAppender<?>) appender).isImmediateFlush()) {
+        OutputStream out = ((OutputStreamAppender<?>) appender).getOutputStream();
+        try {
+          if (out != null) {
+            out.flush();
+          }
+        }
+        catch (IOException e) {
+          addError("Could not flush " + appender.getName(), e);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void addAppender(final Appender<IAccessEvent> newAppender) {
+    appenders.addAppender(newAppender);
+  }
+
+  @Override
+  public Iterator<Appender<IAccessEvent>> iteratorForAppenders() {
+    return appenders.iteratorForAppenders();
+  }
+
+  @Override
+  public Appender<IAccessEvent> getAppender(final String name) {
+    return appenders.getAppender(name);
+  }
+
+  @Override
+  public boolean isAttached(final Appender<IAccessEvent> appender) {
+    return appenders.isAttached(appender);
+  }
+
+  @Override
+  public void detachAndStopAllAppenders() {
+    appenders.detachAndStopAllAppenders();
+  }
+
+  @Override
+  public boolean detachAppender(final Appender<IAccessEvent> appender) {
+    return appenders.detachAppender(appender);
+  }
+
+  @Override
+  public boolean detachAppender(final String name) {
+    return appenders.detachAppender(name);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.pax.logging;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+
+import static org.sonatype.nexus.pax.logging.NexusUserIdConverter.ATTR_USER_ID;
+
+/**
+ * Lays out request log events as one JSON object per line, carrying the same fields as the default request log
+ * pattern, for log ingestion pipelines which would otherwise have to parse it.
+ *
+ * @since 3.71
+ */
+public class JsonLinesAccessLayout
+    extends LayoutBase<IAccessEvent>
+{
+  @Override
+  public String doLayout(final IAccessEvent event) {
+    StringBuilder sb = new StringBuilder(256);
+    sb.append('{');
+    field(sb, "timestamp", DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(event.getTimeStamp())));
+    field(sb, "clientHost", event.getRemoteHost());
+    field(sb, "user", event.getAttribute(ATTR_USER_ID));
+    field(sb, "request", event.getRequestURL());
+    number(sb, "status", event.getStatusCode());
+    field(sb, "contentLength", event.getRequestHeader("Content-Length"));
+    number(sb, "bytesSent", event.getContentLength());
+    number(sb, "elapsedTime", event.getElapsedTime());
+    field(sb, "userAgent", event.getRequestHeader("User-Agent"));
+    field(sb, "thread", event.getThreadName());
+    if (sb.charAt(sb.length() - 1) == ',') {
+      sb.setLength(sb.length() - 1);
+    }
+    sb.append('}').append(CoreConstants.LINE_SEPARATOR);
+    return sb.toString();
+  }
+
+  /**
+   * Appends a string field, leaving out values logback reports as not available.
+   */
+  private static void field(final StringBuilder sb, final String name, final String value) {
+    if (value == null || IAccessEvent.NA.equals(value)) {
+      return;
+    }
+    sb.append('"').append(name).append("\":\"");
+    escape(sb, value);
+    sb.append("\",");
+  }
+
+  private static void number(final StringBuilder sb, final String name, final long value) {
+    if (value >= 0) {
+      sb.append('"').append(name).append("\":").append(value).append(',');
+    }
+  }
+
+  private static void escape(final StringBuilder sb, final String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          }
+          else {
+            sb.append(c);
+          }
+      }
+    }
+  }
+}
@@ -16,7 +16,7 @@ import ch.qos.logback.access.pattern.AccessConverter;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 /**
- * Converter to include a thread ID
+ * Converter to include a thread ID, preferring the request thread recorded on events written asynchronously.
  *
  * @since 3.17
  */
@@ -24,7 +24,8 @@ public class NexusThreadConverter
     extends AccessConverter
 {
   public String convert(IAccessEvent accessEvent) {
-    return Thread.currentThread().getName();
+    String threadName = accessEvent.getThreadName();
+    return IAccessEvent.NA.equals(threadName) ? Thread.currentThread().getName() : threadName;
   }
 }
 
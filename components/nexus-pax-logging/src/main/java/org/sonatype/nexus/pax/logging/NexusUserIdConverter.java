@@ -28,7 +28,7 @@ public class NexusUserIdConverter
    *
    * @see org.sonatype.nexus.web.SecurityFilter
    */
-  private static final String ATTR_USER_ID = "nexus.user.id";
+  static final String ATTR_USER_ID = "nexus.user.id";
 
   public String convert(IAccessEvent accessEvent) {
     return accessEvent.getAttribute(ATTR_USER_ID);
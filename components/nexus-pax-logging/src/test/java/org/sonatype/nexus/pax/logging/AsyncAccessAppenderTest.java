@@ -0,0 +1,141 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.pax.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncAccessAppenderTest
+    extends TestSupport
+{
+  private final ContextBase context = new ContextBase();
+
+  private AsyncAccessAppender underTest;
+
+  @Before
+  public void setUp() {
+    underTest = new AsyncAccessAppender();
+    underTest.setContext(context);
+    underTest.setName("test-" + System.nanoTime());
+  }
+
+  @After
+  public void tearDown() {
+    underTest.stop();
+  }
+
+  @Test
+  public void writesEveryEventInOrderOffTheCallingThread() {
+    ListAppender<IAccessEvent> target = start(new ListAppender<>());
+
+    List<IAccessEvent> events = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      IAccessEvent event = event();
+      events.add(event);
+      underTest.doAppend(event);
+    }
+    underTest.stop();
+
+    assertThat(target.list, is(events));
+    assertThat(underTest.getDroppedCount(), is(0L));
+  }
+
+  @Test
+  public void recordsTheRequestThreadBeforeHandingOff() {
+    start(new ListAppender<>());
+
+    IAccessEvent event = event();
+    underTest.doAppend(event);
+
+    verify(event).setThreadName(Thread.currentThread().getName());
+    verify(event).prepareForDeferredProcessing();
+  }
+
+  @Test
+  public void dropsEventsWhenFullAndNeverBlocking() throws Exception {
+    BlockingAppender target = new BlockingAppender();
+    underTest.setQueueSize(2);
+    underTest.setMaxBatchSize(1);
+    underTest.setNeverBlock(true);
+    start(target);
+
+    underTest.doAppend(event());
+    assertThat(target.writing.await(5, TimeUnit.SECONDS), is(true));
+
+    // the writer is stuck on the first event, so two more fill the queue and the rest are dropped
+    for (int i = 0; i < 5; i++) {
+      underTest.doAppend(event());
+    }
+    assertThat(underTest.getDroppedCount(), is(3L));
+    assertThat(underTest.getQueuedCount(), is(2));
+
+    target.release.countDown();
+    underTest.stop();
+    assertThat(target.written, is(3));
+  }
+
+  private <A extends AppenderBase<IAccessEvent>> A start(final A target) {
+    target.setContext(context);
+    target.start();
+    underTest.addAppender(target);
+    underTest.start();
+    assertThat(underTest.isStarted(), is(true));
+    return target;
+  }
+
+  private static IAccessEvent event() {
+    IAccessEvent event = mock(IAccessEvent.class);
+    when(event.getThreadName()).thenReturn(IAccessEvent.NA);
+    return event;
+  }
+
+  private static class BlockingAppender
+      extends AppenderBase<IAccessEvent>
+  {
+    final CountDownLatch writing = new CountDownLatch(1);
+
+    final CountDownLatch release = new CountDownLatch(1);
+
+    volatile int written;
+
+    @Override
+    protected void append(final IAccessEvent event) {
+      writing.countDown();
+      try {
+        release.await();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      written++;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.pax.logging;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.core.CoreConstants;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JsonLinesAccessLayoutTest
+    extends TestSupport
+{
+  private final JsonLinesAccessLayout underTest = new JsonLinesAccessLayout();
+
+  @Test
+  public void laysOutOneObjectPerLine() {
+    IAccessEvent event = mock(IAccessEvent.class);
+    when(event.getTimeStamp()).thenReturn(1_700_000_000_123L);
+    when(event.getRemoteHost()).thenReturn("10.0.0.1");
+    when(event.getAttribute("nexus.user.id")).thenReturn("admin");
+    when(event.getRequestURL()).thenReturn("GET /repository/maven-public/a.jar HTTP/1.1");
+    when(event.getStatusCode()).thenReturn(200);
+    when(event.getRequestHeader("Content-Length")).thenReturn(IAccessEvent.NA);
+    when(event.getContentLength()).thenReturn(1024L);
+    when(event.getElapsedTime()).thenReturn(7L);
+    when(event.getRequestHeader("User-Agent")).thenReturn("Apache-Maven/3.9 \"quoted\"\tagent");
+    when(event.getThreadName()).thenReturn("qtp-42");
+
+    assertThat(underTest.doLayout(event), is("{\"timestamp\":\"2023-11-14T22:13:20.123Z\",\"clientHost\":\"10.0.0.1\","
+        + "\"user\":\"admin\",\"request\":\"GET /repository/maven-public/a.jar HTTP/1.1\",\"status\":200,"
+        + "\"bytesSent\":1024,\"elapsedTime\":7,\"userAgent\":\"Apache-Maven/3.9 \\\"quoted\\\"\\tagent\","
+        + "\"thread\":\"qtp-42\"}" + CoreConstants.LINE_SEPARATOR));
+  }
+}
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -151,6 +152,18 @@ public class RaptureWebResourceBundle
       URL url = getClass().getResource(template);
       return templateHelper.render(url, parameters).getBytes();
     }
+
+    /**
+     * Keys generated content by the request dependent inputs of its template; snapshot builds are never reused as
+     * their URL suffix changes on every request.
+     */
+    @Nullable
+    protected Object cacheKey(final Object... inputs) {
+      if (applicationVersion.getVersion().endsWith("SNAPSHOT")) {
+        return null;
+      }
+      return Arrays.asList(inputs);
+    }
   }
 
   @TemplateAccessible
@@ -182,6 +195,11 @@ public class RaptureWebResourceBundle
         return HTML;
       }
 
+      @Override
+      protected Object getCacheKey() {
+        return cacheKey(BaseUrlHolder.get(), BaseUrlHolder.getRelativePath(), isDebug());
+      }
+
       @Override
       protected byte[] generate() throws IOException {
         return render("index.vm", new TemplateParameters()
@@ -214,6 +232,11 @@ public class RaptureWebResourceBundle
         return JAVASCRIPT;
       }
 
+      @Override
+      protected Object getCacheKey() {
+        return cacheKey(BaseUrlHolder.get(), BaseUrlHolder.getRelativePath(), isDebug());
+      }
+
       @Override
       protected byte[] generate() throws IOException {
         return render("bootstrap.vm", new TemplateParameters()
@@ -243,6 +266,11 @@ public class RaptureWebResourceBundle
         return CSS;
       }
 
+      @Override
+      protected Object getCacheKey() {
+        return cacheKey(isDebug());
+      }
+
       @Override
       protected byte[] generate() throws IOException {
         return render("baseapp_css.vm", new TemplateParameters()
@@ -269,6 +297,11 @@ public class RaptureWebResourceBundle
         return HTML;
       }
 
+      @Override
+      protected Object getCacheKey() {
+        return cacheKey();
+      }
+
       @Override
       protected byte[] generate() throws IOException {
         String edition = "OSS".equals(applicationVersion.getEdition()) ? "oss" : "pro";
@@ -13,12 +13,18 @@
 package org.sonatype.nexus.repository.internal.blobstore;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -58,17 +64,23 @@ import org.sonatype.nexus.jmx.reflect.ManagedObject;
 import org.sonatype.nexus.repository.blobstore.BlobStoreConfigurationStore;
 import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.replication.ReplicationBlobStoreStatusManager;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.Subscribe;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport.State.STARTED;
 import static org.sonatype.nexus.distributed.event.service.api.EventType.DELETED;
 import static org.sonatype.nexus.distributed.event.service.api.EventType.UPDATED;
@@ -109,6 +121,8 @@ public class BlobStoreManagerImpl
 
   private final DefaultBlobStoreProvider defaultBlobstoreProvider;
 
+  private final int startupParallelism;
+
   @Inject
   public BlobStoreManagerImpl(final EventManager eventManager, //NOSONAR
                               final BlobStoreConfigurationStore store,
@@ -121,7 +135,8 @@ public class BlobStoreManagerImpl
                               final DefaultBlobStoreProvider defaultBlobstoreProvider,
                               final BlobStoreTaskService blobStoreTaskService,
                               final Provider<BlobStoreOverride> blobStoreOverrideProvider,
-                              final ReplicationBlobStoreStatusManager replicationBlobStoreStatusManager)
+                              final ReplicationBlobStoreStatusManager replicationBlobStoreStatusManager,
+                              @Named("${nexus.blobstore.startup.parallelism:-1}") final int startupParallelism)
   {
     this.eventManager = checkNotNull(eventManager);
     this.store = checkNotNull(store);
@@ -133,6 +148,8 @@ public class BlobStoreManagerImpl
     this.blobStoreOverrideProvider = blobStoreOverrideProvider;
     this.replicationBlobStoreStatusManager = checkNotNull(replicationBlobStoreStatusManager);
     this.defaultBlobstoreProvider = checkNotNull(defaultBlobstoreProvider);
+    checkArgument(startupParallelism > 0, "Must use a positive startup parallelism");
+    this.startupParallelism = startupParallelism;
 
     if (provisionDefaults != null) {
       // explicit true/false setting, so honour that
@@ -156,7 +173,7 @@ public class BlobStoreManagerImpl
     }
 
     log.debug("Restoring {} BlobStores", configurations.size());
-    for (BlobStoreConfiguration configuration : configurations) {
+    forEachConcurrently(configurations, configuration -> {
       log.debug("Restoring BlobStore: {}", configuration);
       BlobStore blobStore = null;
 
@@ -172,23 +189,55 @@ public class BlobStoreManagerImpl
       }
 
       // TODO - event publishing
-    }
+    });
 
     log.debug("Starting {} BlobStores", stores.size());
-    for (Map.Entry<String, BlobStore> entry : stores.entrySet()) {
+    forEachConcurrently(stores.entrySet(), entry -> {
       String name = entry.getKey();
       BlobStore blobStore = entry.getValue();
       log.debug("Starting BlobStore: {}", name);
+      long start = System.nanoTime();
       try {
         blobStore.start();
         eventManager.post(new BlobStoreStartedEvent(blobStore));
-
+        log.debug("Started BlobStore {} in {} ms", name, NANOSECONDS.toMillis(System.nanoTime() - start));
       }
       catch (Exception e) {
         log.error("Unable to start BlobStore {}", name, e);
       }
 
       // TODO - event publishing
+    });
+  }
+
+  /**
+   * Applies the action to each element, on up to {@code nexus.blobstore.startup.parallelism} threads. Blob stores are
+   * independent of each other so restoring and starting them concurrently hides the latency of remote stores.
+   */
+  private <T> void forEachConcurrently(final Collection<T> elements, final Consumer<T> action)
+      throws InterruptedException
+  {
+    if (startupParallelism == 1 || elements.size() <= 1) {
+      elements.forEach(action);
+      return;
+    }
+    ExecutorService executor = newFixedThreadPool(Math.min(startupParallelism, elements.size()),
+        new NexusThreadFactory("blobstore-startup", "blobstore-startup"));
+    try {
+      List<Future<Void>> futures = executor.invokeAll(elements.stream().map(element -> (Callable<Void>) () -> {
+        action.accept(element);
+        return null;
+      }).collect(toList()));
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    }
+    catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+    finally {
+      executor.shutdownNow();
     }
   }
 
@@ -20,6 +20,7 @@ import org.sonatype.nexus.blobstore.MockBlobStoreConfiguration
 import org.sonatype.nexus.blobstore.api.BlobStore
 import org.sonatype.nexus.blobstore.api.BlobStoreConfiguration
 import org.sonatype.nexus.blobstore.api.BlobStoreException
+import org.sonatype.nexus.blobstore.api.BlobStoreStartedEvent
 import org.sonatype.nexus.blobstore.api.tasks.BlobStoreTaskService
 import org.sonatype.nexus.common.app.FreezeService
 import org.sonatype.nexus.common.event.EventManager
@@ -100,11 +101,11 @@ class BlobStoreManagerImplTest
     underTest = newBlobStoreManager()
   }
 
-  private BlobStoreManagerImpl newBlobStoreManager(Boolean provisionDefaults = null) {
+  private BlobStoreManagerImpl newBlobStoreManager(Boolean provisionDefaults = null, int startupParallelism = 1) {
     spy(new BlobStoreManagerImpl(eventManager, store, [test: descriptor, File: descriptor],
         [test: provider, File: provider], freezeService, { -> repositoryManager } as Provider,
          nodeAccess, provisionDefaults, new DefaultFileBlobStoreProvider(), blobStoreTaskService,
-         blobStoreOverrideProvider, replicationBlobStoreStatusManager))
+         blobStoreOverrideProvider, replicationBlobStoreStatusManager, startupParallelism))
   }
 
   @Test
@@ -290,7 +291,7 @@ class BlobStoreManagerImplTest
     underTest = new BlobStoreManagerImpl(eventManager, store, [test: descriptor, File: descriptor],
         [test: provider, File: provider], freezeService, { -> repositoryManager } as Provider, nodeAccess, true,
          new DefaultFileBlobStoreProvider(),
-        blobStoreTaskService, blobStoreOverrideProvider, replicationBlobStoreStatusManager)
+        blobStoreTaskService, blobStoreOverrideProvider, replicationBlobStoreStatusManager, 1)
 
     BlobStore blobStore = mock(BlobStore)
     when(provider.get()).thenReturn(blobStore)
@@ -396,6 +397,25 @@ class BlobStoreManagerImplTest
     assert underTest.browse().toList() == [blobStore]
   }
 
+  @Test
+  void 'Can restore and start blob stores concurrently'() {
+    underTest = newBlobStoreManager(null, 4)
+    BlobStore first = mock(BlobStore)
+    BlobStore second = mock(BlobStore)
+    BlobStore failing = mock(BlobStore)
+    when(failing.start()).thenThrow(new IllegalStateException())
+    when(provider.get()).thenReturn(first, second, failing)
+    when(store.list()).thenReturn(Lists.newArrayList(createConfig('first'), createConfig('second'),
+        createConfig('failing')))
+
+    underTest.doStart()
+
+    assert underTest.browse().toSet() == [first, second, failing] as Set
+    verify(first).start()
+    verify(second).start()
+    verify(eventManager, times(2)).post(any(BlobStoreStartedEvent))
+  }
+
   private BlobStoreConfiguration createConfig(name = 'foo', type = 'test', attributes = [file: [path: 'baz']]) {
     def entity = new MockBlobStoreConfiguration(
         name: name,
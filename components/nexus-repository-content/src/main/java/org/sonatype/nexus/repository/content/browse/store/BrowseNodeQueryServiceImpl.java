@@ -13,12 +13,24 @@
 package org.sonatype.nexus.repository.content.browse.store;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -26,6 +38,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.sonatype.nexus.common.app.ManagedLifecycle;
 import org.sonatype.nexus.common.entity.EntityId;
 import org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport;
 import org.sonatype.nexus.common.template.EscapeHelper;
@@ -52,20 +65,25 @@ import org.sonatype.nexus.selector.JexlSelector;
 import org.sonatype.nexus.selector.SelectorConfiguration;
 import org.sonatype.nexus.selector.SelectorFilterBuilder;
 import org.sonatype.nexus.selector.SelectorManager;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 
 import com.google.common.base.Equivalence;
 import com.google.common.base.Equivalence.Wrapper;
 import com.google.common.collect.ImmutableList;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
+import static org.sonatype.nexus.common.app.ManagedLifecycle.Phase.SERVICES;
 import static org.sonatype.nexus.repository.browse.node.BrowsePath.SLASH;
 import static org.sonatype.nexus.repository.browse.node.BrowsePath.SLASH_CHAR;
 import static org.sonatype.nexus.repository.content.facet.ContentFacetFinder.findContentFacets;
 import static org.sonatype.nexus.repository.content.store.InternalIds.contentRepositoryId;
+import static org.sonatype.nexus.thread.NexusExecutorService.forCurrentSubject;
 
 /**
  * New-DB implementation of {@link BrowseNodeQueryService}.
@@ -74,6 +92,7 @@ import static org.sonatype.nexus.repository.content.store.InternalIds.contentRep
  */
 @Named
 @Singleton
+@ManagedLifecycle(phase = SERVICES)
 public class BrowseNodeQueryServiceImpl
     extends StateGuardLifecycleSupport
     implements BrowseNodeQueryService
@@ -98,6 +117,11 @@ public class BrowseNodeQueryServiceImpl
 
   private final SelectorFilterBuilder selectorFilterBuilder;
 
+  private final int memberQueryThreads;
+
+  private ThreadPoolExecutor memberQueryPool;
+
+  private volatile ExecutorService memberQueryExecutor;
 
   @Inject
   public BrowseNodeQueryServiceImpl(
@@ -107,7 +131,8 @@ public class BrowseNodeQueryServiceImpl
       final Map<String, BrowseNodeIdentity> browseNodeIdentities,
       final Map<String, BrowseNodeComparator> browseNodeComparators,
       final ContentAuthHelper contentAuthHelper,
-      final SelectorFilterBuilder selectorFilterBuilder)
+      final SelectorFilterBuilder selectorFilterBuilder,
+      @Named("${nexus.browse.group.memberQueryThreads:-8}") final int memberQueryThreads)
   {
     this.securityHelper = checkNotNull(securityHelper);
     this.selectorManager = checkNotNull(selectorManager);
@@ -117,6 +142,26 @@ public class BrowseNodeQueryServiceImpl
     this.defaultBrowseNodeComparator = checkNotNull(browseNodeComparators.get(DefaultBrowseNodeComparator.NAME));
     this.contentAuthHelper = checkNotNull(contentAuthHelper);
     this.selectorFilterBuilder = checkNotNull(selectorFilterBuilder);
+    this.memberQueryThreads = memberQueryThreads;
+  }
+
+  @Override
+  protected void doStart() {
+    if (memberQueryThreads > 1) {
+      memberQueryPool = new ThreadPoolExecutor(memberQueryThreads, memberQueryThreads, 60L, SECONDS,
+          new LinkedBlockingQueue<>(), new NexusThreadFactory("browse-group", "Group browse member queries"));
+      memberQueryPool.allowCoreThreadTimeOut(true);
+      memberQueryExecutor = forCurrentSubject(memberQueryPool);
+    }
+  }
+
+  @Override
+  protected void doStop() {
+    memberQueryExecutor = null;
+    if (memberQueryPool != null) {
+      memberQueryPool.shutdownNow();
+      memberQueryPool = null;
+    }
   }
 
   @Override
@@ -150,15 +195,23 @@ public class BrowseNodeQueryServiceImpl
       BrowseNodeFilter filter = browseNodeFilters.getOrDefault(format, (node, name) -> true);
 
       // overlay member results, first-one-wins if there are any nodes with the same name
-      results = members(repository)
-          .map(m -> selectByPath(m, displayPath, maxNodes, contentFilter, filterParameters, hasJexl))
-          .flatMap(List::stream)
-          .map(browseNodeEquivalence::wrap)
-          .distinct()
-          .map(Wrapper::get)
-          .filter(node -> filter.test(node, repositoryId == ((BrowseNodeData) node).repositoryId))
-          .limit(maxNodes)
-          .collect(toList());
+      Set<Wrapper<BrowseNode>> seen = new HashSet<>();
+      List<BrowseNode> merged = new ArrayList<>();
+      Function<Repository, List<BrowseNode>> query =
+          member -> selectByPath(member, displayPath, maxNodes, contentFilter, filterParameters, hasJexl);
+      forEachMemberResult(repository, query, nodes -> {
+        for (BrowseNode node : nodes) {
+          if (merged.size() >= maxNodes) {
+            return false;
+          }
+          if (seen.add(browseNodeEquivalence.wrap(node))
+              && filter.test(node, repositoryId == ((BrowseNodeData) node).repositoryId)) {
+            merged.add(node);
+          }
+        }
+        return merged.size() < maxNodes;
+      });
+      results = merged;
     }
     else {
       results = selectByPath(repository, displayPath, maxNodes, contentFilter, filterParameters, hasJexl);
@@ -186,16 +239,69 @@ public class BrowseNodeQueryServiceImpl
 
     if (hasJexl) {
       // additional filtering that we couldn't do in SQL
-      String repositoryName = repository.getName();
-      String format = repository.getFormat().getValue();
+      Predicate<String> pathPermitted =
+          contentAuthHelper.pathPermissionsJexlOnly(repository.getFormat().getValue(), repository.getName());
       nodes = nodes.stream()
-          .filter(node -> contentAuthHelper.checkPathPermissionsJexlOnly(node.getPath(), format, repositoryName))
+          .filter(node -> pathPermitted.test(node.getPath()))
           .collect(toList());
     }
 
     return nodes;
   }
 
+  /**
+   * Queries the members of the group concurrently, handing their results to the consumer in member order until it
+   * returns {@code false}. At most {@link #memberQueryThreads} members are queried ahead of the member being
+   * consumed, and any queries still outstanding once the consumer is done are cancelled. Members are queried one
+   * after another when concurrent queries are disabled or the service is not started.
+   */
+  private void forEachMemberResult(
+      final Repository group,
+      final Function<Repository, List<BrowseNode>> query,
+      final Predicate<List<BrowseNode>> consumer)
+  {
+    Iterator<Repository> members = members(group).iterator();
+    ExecutorService executor = memberQueryExecutor;
+    if (executor == null) {
+      while (members.hasNext()) {
+        if (!consumer.test(query.apply(members.next()))) {
+          return;
+        }
+      }
+      return;
+    }
+
+    Deque<Future<List<BrowseNode>>> pending = new ArrayDeque<>();
+    try {
+      while (members.hasNext() || !pending.isEmpty()) {
+        while (members.hasNext() && pending.size() < memberQueryThreads) {
+          Repository member = members.next();
+          pending.add(executor.submit(() -> query.apply(member)));
+        }
+        if (!consumer.test(getMemberResult(pending.remove()))) {
+          return;
+        }
+      }
+    }
+    finally {
+      pending.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private static List<BrowseNode> getMemberResult(final Future<List<BrowseNode>> future) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while browsing group members", e);
+    }
+    catch (ExecutionException e) {
+      throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
   /**
    * Does the current user have permission to browse the full repository?
    */
@@ -13,10 +13,12 @@
 package org.sonatype.nexus.repository.content.maintenance.internal;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -27,27 +29,41 @@ import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.browse.node.BrowseNode;
 import org.sonatype.nexus.repository.browse.node.BrowseNodeConfiguration;
 import org.sonatype.nexus.repository.browse.node.BrowseNodeQueryService;
-import org.sonatype.nexus.repository.content.Asset;
 import org.sonatype.nexus.repository.content.AssetBlob;
 import org.sonatype.nexus.repository.content.facet.ContentFacet;
+import org.sonatype.nexus.repository.content.facet.ContentFacetSupport;
 import org.sonatype.nexus.repository.content.fluent.FluentAsset;
 import org.sonatype.nexus.repository.content.fluent.FluentComponent;
 import org.sonatype.nexus.repository.content.maintenance.ContentMaintenanceFacet;
+import org.sonatype.nexus.repository.security.BulkContentPermission;
 import org.sonatype.nexus.repository.security.ContentPermissionChecker;
 import org.sonatype.nexus.repository.security.RepositoryViewPermission;
 import org.sonatype.nexus.repository.security.VariableResolverAdapter;
 import org.sonatype.nexus.repository.security.VariableResolverAdapterManager;
 import org.sonatype.nexus.security.SecurityHelper;
-import org.sonatype.nexus.selector.VariableSource;
+import org.sonatype.nexus.transaction.Transactional;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.time.OffsetDateTime.now;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.sonatype.nexus.repository.content.store.InternalIds.toInternalId;
 import static org.sonatype.nexus.scheduling.CancelableHelper.checkCancellation;
 import static org.sonatype.nexus.security.BreadActions.DELETE;
 
 /**
+ * Deletes the content under a folder of the browse tree.
+ *
+ * The browse tree is still walked one folder at a time to discover the leaves, but the assets and components found
+ * there are loaded, permission checked and deleted in batches: one query loads a whole batch, the delete permission
+ * and content selectors are resolved once for the request, and each batch is deleted in a single transaction.
+ *
  * @since 3.26
  */
 @Named
@@ -66,30 +82,42 @@ public class DeleteFolderServiceImpl
 
   private final SecurityHelper securityHelper;
 
+  private final int batchSize;
+
   @Inject
   public DeleteFolderServiceImpl(
       final BrowseNodeQueryService browseNodeQueryService,
       final BrowseNodeConfiguration configuration,
       final ContentPermissionChecker contentPermissionChecker,
       final VariableResolverAdapterManager variableResolverAdapterManager,
-      final SecurityHelper securityHelper)
+      final SecurityHelper securityHelper,
+      @Named("${nexus.deleteFolder.batchSize:-1000}") final int batchSize)
   {
     this.browseNodeQueryService = checkNotNull(browseNodeQueryService);
     this.configuration = checkNotNull(configuration);
     this.contentPermissionChecker = checkNotNull(contentPermissionChecker);
     this.variableResolverAdapterManager = checkNotNull(variableResolverAdapterManager);
     this.securityHelper = checkNotNull(securityHelper);
+    checkArgument(batchSize > 0, "nexus.deleteFolder.batchSize must be greater than 0");
+    this.batchSize = batchSize;
   }
 
   @Override
   public void deleteFolder(final Repository repository, final String treePath, final OffsetDateTime timestamp) {
+    String format = repository.getFormat().getValue();
 
-    ContentFacet contentFacet = repository.facet(ContentFacet.class);
-    ContentMaintenanceFacet contentMaintenance = repository.facet(ContentMaintenanceFacet.class);
-    int maxNodes = configuration.getMaxNodes();
+    BulkContentPermission deletePermission =
+        contentPermissionChecker.getBulkPermission(singleton(repository.getName()), format, DELETE);
+    if (deletePermission.isNonePermitted()) {
+      log.debug("Not permitted to delete any content in repository {}", repository.getName());
+      return;
+    }
 
     boolean canDeleteComponent = securityHelper.isPermitted(new RepositoryViewPermission(repository, DELETE))[0];
 
+    FolderDeletion deletion = new FolderDeletion(repository, treePath, timestamp, deletePermission);
+    int maxNodes = configuration.getMaxNodes();
+
     Queue<String> pathQueue = new PriorityQueue<>();
     pathQueue.add(treePath);
 
@@ -108,58 +136,153 @@ public class DeleteFolderServiceImpl
           pathQueue.offer(nodePath + "/" + node.getName());
         }
         else if (canDeleteComponent && node.getAssetId() == null && node.getComponentId() != null) {
-          contentFacet.components().find(node.getComponentId()).ifPresent(
-              component -> deleteComponent(component, timestamp, contentMaintenance));
+          deletion.addComponent(toInternalId(node.getComponentId()));
         }
 
         if (node.getAssetId() != null) {
-          contentFacet.assets().find(node.getAssetId()).ifPresent(
-              asset -> deleteAsset(repository, asset, timestamp, contentMaintenance));
+          deletion.addAsset(toInternalId(node.getAssetId()));
         }
       }
     }
-  }
 
-  private void deleteComponent(
-      final FluentComponent component,
-      final OffsetDateTime timestamp,
-      final ContentMaintenanceFacet contentMaintenance)
-  {
-    OffsetDateTime lastUpdated = component.lastUpdated();
-    if (timestamp.isAfter(lastUpdated)) {
-      contentMaintenance.deleteComponent(component);
+    if (checkCancellation()) {
+      deletion.flush();
     }
+
+    log.info("Deleted {} assets and {} components under {} in repository {}",
+        deletion.deletedAssets, deletion.deletedComponents, treePath, repository.getName());
   }
 
-  private void deleteAsset(
-      final Repository repository,
-      final FluentAsset asset,
-      final OffsetDateTime timestamp,
-      final ContentMaintenanceFacet contentMaintenance)
+  /**
+   * Collects the assets and components found under the folder and deletes them a batch at a time.
+   */
+  private class FolderDeletion
   {
-    String repositoryName = repository.getName();
-    String format = repository.getFormat().getValue();
+    private final Repository repository;
 
-    VariableResolverAdapter variableResolverAdapter = variableResolverAdapterManager.get(format);
+    private final String treePath;
+
+    private final OffsetDateTime timestamp;
+
+    private final BulkContentPermission deletePermission;
+
+    private final String format;
+
+    private final VariableResolverAdapter variableResolverAdapter;
+
+    private final ContentFacet contentFacet;
+
+    private final ContentMaintenanceFacet contentMaintenance;
+
+    private final List<Integer> assetIds = new ArrayList<>();
+
+    private final List<Integer> componentIds = new ArrayList<>();
+
+    private int deletedAssets;
+
+    private int deletedComponents;
+
+    FolderDeletion(
+        final Repository repository,
+        final String treePath,
+        final OffsetDateTime timestamp,
+        final BulkContentPermission deletePermission)
+    {
+      this.repository = repository;
+      this.treePath = treePath;
+      this.timestamp = timestamp;
+      this.deletePermission = deletePermission;
+      this.format = repository.getFormat().getValue();
+      this.variableResolverAdapter = variableResolverAdapterManager.get(format);
+      this.contentFacet = repository.facet(ContentFacet.class);
+      this.contentMaintenance = repository.facet(ContentMaintenanceFacet.class);
+    }
 
-    if (timestamp.isAfter(asset.blob().map(AssetBlob::blobCreated).orElse(now()))
-        && canDeleteAsset(repositoryName, format, variableResolverAdapter, asset)) {
+    void addAsset(final int assetId) {
+      assetIds.add(assetId);
+      if (assetIds.size() >= batchSize) {
+        deleteAssets();
+      }
+    }
+
+    void addComponent(final int componentId) {
+      componentIds.add(componentId);
+      if (componentIds.size() >= batchSize) {
+        deleteComponents();
+      }
+    }
+
+    void flush() {
+      deleteAssets();
+      deleteComponents();
+    }
+
+    private void deleteAssets() {
+      if (assetIds.isEmpty()) {
+        return;
+      }
+
+      List<FluentAsset> assets = contentFacet.assets()
+          .byFilter(idFilter("asset_id", assetIds), emptyMap())
+          .browse(assetIds.size(), null)
+          .stream()
+          .filter(asset -> deletePermission.test(variableResolverAdapter.fromPath(asset.path(), format)))
+          .filter(asset -> timestamp.isAfter(asset.blob().map(AssetBlob::blobCreated).orElse(now())))
+          .collect(toList());
+      assetIds.clear();
+
+      deletedAssets += deleteBatch(assets, contentMaintenance::deleteAsset, "asset");
+      log.debug("Deleted {} assets so far under {} in repository {}", deletedAssets, treePath, repository.getName());
+    }
+
+    private void deleteComponents() {
+      if (componentIds.isEmpty()) {
+        return;
+      }
+
+      List<FluentComponent> components = contentFacet.components()
+          .byFilter(idFilter("component_id", componentIds) + " AND last_updated < #{filterParams.timestamp}",
+              singletonMap("timestamp", timestamp))
+          .browse(componentIds.size(), null)
+          .stream()
+          .collect(toList());
+      componentIds.clear();
+
+      deletedComponents += deleteBatch(components, contentMaintenance::deleteComponent, "component");
+    }
+
+    /**
+     * Deletes the batch in one transaction, falling back to deleting one item at a time so a single bad item does
+     * not prevent the rest of the batch from being deleted.
+     */
+    private <T> int deleteBatch(final List<T> batch, final Consumer<T> delete, final String type) {
+      if (batch.isEmpty()) {
+        return 0;
+      }
       try {
-        contentMaintenance.deleteAsset(asset);
+        Transactional.operation.withStore(((ContentFacetSupport) contentFacet).stores().assetStore)
+            .run(() -> batch.forEach(delete));
+        return batch.size();
       }
-      catch (Exception e) {
-        log.error("Failed to delete an asset - skipping.", e);
+      catch (RuntimeException e) {
+        log.warn("Could not delete a batch of {} {}s in repository {}, deleting them one at a time",
+            batch.size(), type, repository.getName(), log.isDebugEnabled() ? e : null);
       }
+      int deleted = 0;
+      for (T item : batch) {
+        try {
+          delete.accept(item);
+          deleted++;
+        }
+        catch (Exception e) {
+          log.error("Failed to delete {} - skipping.", type, e);
+        }
+      }
+      return deleted;
     }
   }
 
-  private boolean canDeleteAsset(
-      final String repositoryName,
-      final String format,
-      final VariableResolverAdapter variableResolverAdapter,
-      final Asset asset)
-  {
-    VariableSource source = variableResolverAdapter.fromPath(asset.path(), format);
-    return contentPermissionChecker.isPermitted(repositoryName, format, DELETE, source);
+  private static String idFilter(final String column, final List<Integer> ids) {
+    return column + " IN (" + Joiner.on(',').join(ids) + ")";
   }
 }
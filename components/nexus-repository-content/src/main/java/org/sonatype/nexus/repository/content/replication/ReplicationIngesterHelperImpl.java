@@ -13,6 +13,8 @@
 package org.sonatype.nexus.repository.content.replication;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
@@ -26,9 +28,14 @@ import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
 import org.sonatype.nexus.common.app.FeatureFlag;
 import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.content.facet.ContentFacet;
+import org.sonatype.nexus.repository.content.facet.ContentFacetSupport;
 import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.repository.replication.ReplicationBatchResult;
+import org.sonatype.nexus.repository.replication.ReplicationBlob;
 import org.sonatype.nexus.repository.replication.ReplicationIngesterHelper;
 import org.sonatype.nexus.repository.replication.ReplicationIngestionException;
+import org.sonatype.nexus.transaction.Transactional;
 
 import static org.sonatype.nexus.blobstore.api.BlobStore.BLOB_NAME_HEADER;
 import static org.sonatype.nexus.blobstore.api.BlobStore.REPO_NAME_HEADER;
@@ -94,6 +101,74 @@ public class ReplicationIngesterHelperImpl
     replicationFacet.replicateDelete(normalizePath(path));
   }
 
+  /**
+   * Applies the whole batch in one transaction against the repository's content store. Should any change fail the
+   * transaction is rolled back and the changes are applied one by one instead, so only the failing ones are reported.
+   *
+   * @since 3.71
+   */
+  @Override
+  public void replicateBatch(
+      final String repositoryName,
+      final String blobStoreName,
+      final List<ReplicationBlob> blobs,
+      final ReplicationBatchResult result)
+  {
+    Repository repository = repositoryManager.get(repositoryName);
+    if (repository == null) {
+      blobs.forEach(blob -> result.failed(blob.getEvent(), new ReplicationIngestionException(
+          String.format("Can't replicate blob %s as the repository %s doesn't exist", blob.getEvent().getBlobId(),
+              repositoryName))));
+      return;
+    }
+
+    // blob attributes live in the blob store, so tag them before the content transaction starts
+    List<ReplicationBlob> tagged = new ArrayList<>(blobs.size());
+    for (ReplicationBlob blob : blobs) {
+      try {
+        if (!blob.isDelete()) {
+          blob.getBlobAttributes().getHeaders().put(REPO_NAME_HEADER, repositoryName);
+          blob.getBlobAttributes().store();
+        }
+        tagged.add(blob);
+      }
+      catch (IOException | RuntimeException e) {
+        result.failed(blob.getEvent(), e);
+      }
+    }
+
+    ReplicationFacet replicationFacet = repository.facet(ReplicationFacet.class);
+    ContentFacetSupport contentFacet = (ContentFacetSupport) repository.facet(ContentFacet.class);
+    try {
+      Transactional.operation.withStore(contentFacet.stores().assetStore)
+          .run(() -> tagged.forEach(blob -> apply(replicationFacet, blob)));
+      tagged.forEach(blob -> result.succeeded(blob.getEvent()));
+    }
+    catch (RuntimeException e) {
+      log.warn("Could not replicate a batch of {} blobs to repository {}, replicating them one at a time",
+          tagged.size(), repositoryName, log.isDebugEnabled() ? e : null);
+      for (ReplicationBlob blob : tagged) {
+        try {
+          apply(replicationFacet, blob);
+          result.succeeded(blob.getEvent());
+        }
+        catch (RuntimeException e1) {
+          result.failed(blob.getEvent(), e1);
+        }
+      }
+    }
+  }
+
+  private void apply(final ReplicationFacet replicationFacet, final ReplicationBlob blob) {
+    String path = normalizePath(blob.getPath());
+    if (blob.isDelete()) {
+      replicationFacet.replicateDelete(path);
+    }
+    else {
+      replicationFacet.replicate(path, blob.getBlob(), blob.getAssetAttributes(), blob.getComponentAttributes());
+    }
+  }
+
   private String normalizePath(final String path) {
     if (path.startsWith("/")) {
       return path;
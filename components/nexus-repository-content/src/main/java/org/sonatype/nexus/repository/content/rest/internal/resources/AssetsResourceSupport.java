@@ -52,9 +52,10 @@ abstract class AssetsResourceSupport
     List<FluentAsset> permittedAssets = new ArrayList<>();
     String internalToken = toInternalToken(continuationToken);
     Continuation<FluentAsset> assetContinuation = getAssets(repository, internalToken);
+    Predicate<FluentAsset> permitted = assetsPermitted(repository.getFormat().getValue(), repository.getName());
 
     while (permittedAssets.size() < PAGE_SIZE && !assetContinuation.isEmpty()) {
-      permittedAssets.addAll(removeAssetsNotPermitted(repository, assetContinuation));
+      permittedAssets.addAll(removeAssetsNotPermitted(assetContinuation, permitted));
       assetContinuation = getAssets(repository, assetContinuation.nextContinuationToken());
     }
     return trim(permittedAssets, PAGE_SIZE);
@@ -69,12 +70,12 @@ abstract class AssetsResourceSupport
     return repository.facet(ContentFacet.class).assets().browse(LIMIT, continuationToken);
   }
 
-  private List<FluentAsset> removeAssetsNotPermitted(
-      final Repository repository,
-      final Continuation<FluentAsset> assets)
+  private static List<FluentAsset> removeAssetsNotPermitted(
+      final Continuation<FluentAsset> assets,
+      final Predicate<FluentAsset> permitted)
   {
     return assets.stream()
-        .filter(assetPermitted(repository.getFormat().getValue(), repository.getName()))
+        .filter(permitted)
         .collect(toList());
   }
 
@@ -82,6 +83,17 @@ abstract class AssetsResourceSupport
     return asset -> contentAuthHelper.checkPathPermissions(asset.path(), format, repositoryNames);
   }
 
+  /**
+   * Like {@link #assetPermitted(String, String...)} but resolves the user's permissions and content selectors once up
+   * front, so checking a batch of assets only evaluates the selectors the user actually relies on.
+   *
+   * @since 3.71
+   */
+  Predicate<FluentAsset> assetsPermitted(final String format, final String... repositoryNames) {
+    Predicate<String> pathPermitted = contentAuthHelper.pathPermissions(format, repositoryNames);
+    return asset -> pathPermitted.test(asset.path());
+  }
+
   static String toInternalToken(final String continuationToken) {
     if (continuationToken != null) {
       return toInternalId(EntityHelper.id(continuationToken)) + EMPTY;
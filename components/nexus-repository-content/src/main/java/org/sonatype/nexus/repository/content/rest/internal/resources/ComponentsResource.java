@@ -12,10 +12,15 @@
  */
 package org.sonatype.nexus.repository.content.rest.internal.resources;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -35,13 +40,16 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.sonatype.nexus.common.app.FeatureFlag;
 import org.sonatype.nexus.common.entity.DetachedEntityId;
 import org.sonatype.nexus.repository.IllegalOperationException;
 import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.content.facet.ContentFacet;
+import org.sonatype.nexus.repository.content.fluent.FluentAsset;
 import org.sonatype.nexus.repository.content.fluent.FluentComponent;
 import org.sonatype.nexus.repository.content.maintenance.MaintenanceService;
 import org.sonatype.nexus.repository.content.rest.ComponentsResourceExtension;
@@ -58,6 +66,11 @@ import org.sonatype.nexus.rest.Page;
 import org.sonatype.nexus.rest.Resource;
 import org.sonatype.nexus.rest.WebApplicationMessageException;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
@@ -89,6 +102,17 @@ public class ComponentsResource
 
   static final int PAGE_SIZE = 10;
 
+  public static final String NDJSON = "application/x-ndjson";
+
+  static final int EXPORT_BATCH_SIZE = 1000;
+
+  private static final ObjectWriter EXPORT_WRITER = new ObjectMapper()
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+      .writer();
+
+  private static final byte[] NEWLINE = {'\n'};
+
   private final RepositoryManagerRESTAdapter repositoryManagerRESTAdapter;
 
   private final MaintenanceService maintenanceService;
@@ -137,6 +161,53 @@ public class ComponentsResource
     return new Page<>(toComponentXOs(components, repository), nextContinuationToken(components));
   }
 
+  /**
+   * Streams every component in the repository, with its assets, as newline-delimited JSON. Components are fetched in
+   * large batches and flushed to the client as each batch is written, so the whole repository can be enumerated in a
+   * single request without holding it in memory.
+   *
+   * @since 3.71
+   */
+  @Override
+  @GET
+  @Path("/export")
+  @Produces(NDJSON)
+  public Response exportComponents(@QueryParam("repository") final String repositoryId,
+                                   @Nullable @QueryParam("updatedSince") final String updatedSince)
+  {
+    Repository repository = repositoryManagerRESTAdapter.getRepository(repositoryId);
+    OffsetDateTime since = parseUpdatedSince(updatedSince);
+
+    StreamingOutput streamingOutput = output -> {
+      Predicate<FluentAsset> assetPermitted = assetsPermitted(repository);
+      OutputStream out = new BufferedOutputStream(output);
+      export(repository, since, EXPORT_BATCH_SIZE, components -> {
+        for (FluentComponent component : components) {
+          EXPORT_WRITER.writeValue(out, fromComponent(component, repository, assetPermitted));
+          out.write(NEWLINE);
+        }
+        out.flush();
+      });
+      out.flush();
+    };
+
+    return Response.ok(streamingOutput, NDJSON).build();
+  }
+
+  @Nullable
+  private static OffsetDateTime parseUpdatedSince(@Nullable final String updatedSince) {
+    if (updatedSince == null) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(updatedSince);
+    }
+    catch (DateTimeParseException e) {
+      throw new WebApplicationMessageException(Status.BAD_REQUEST,
+          "\"Parameter 'updatedSince' must be an ISO-8601 date-time with offset\"", MediaType.APPLICATION_JSON);
+    }
+  }
+
   /**
    * @since 3.26
    */
@@ -203,18 +274,27 @@ public class ComponentsResource
     }
   }
   private List<ComponentXO> toComponentXOs(final List<FluentComponent> components, final Repository repository) {
+    Predicate<FluentAsset> assetPermitted = assetsPermitted(repository);
     return components.stream()
-        .map(component -> fromComponent(component, repository))
+        .map(component -> fromComponent(component, repository, assetPermitted))
         .collect(toList());
   }
 
   private ComponentXO fromComponent(final FluentComponent component, final Repository repository) {
+    return fromComponent(component, repository, assetPermitted(repository));
+  }
+
+  private ComponentXO fromComponent(
+      final FluentComponent component,
+      final Repository repository,
+      final Predicate<FluentAsset> assetPermitted)
+  {
     String externalId = toExternalId(internalComponentId(component)).getValue();
 
     ComponentXO componentXO = componentXOFactory.createComponentXO();
 
     componentXO.setAssets(component.assets().stream()
-        .filter(assetPermitted(repository))
+        .filter(assetPermitted)
         .map(asset -> fromAsset(asset, repository, this.assetDescriptors))
         .collect(Collectors.toList()));
 
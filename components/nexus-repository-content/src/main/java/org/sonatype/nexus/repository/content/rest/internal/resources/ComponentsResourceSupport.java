@@ -12,23 +12,31 @@
  */
 package org.sonatype.nexus.repository.content.rest.internal.resources;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 
+import javax.annotation.Nullable;
+
 import org.sonatype.goodies.common.ComponentSupport;
 import org.sonatype.nexus.common.entity.Continuation;
 import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.content.facet.ContentFacet;
 import org.sonatype.nexus.repository.content.fluent.FluentAsset;
 import org.sonatype.nexus.repository.content.fluent.FluentComponent;
+import org.sonatype.nexus.repository.content.fluent.FluentQuery;
+import org.sonatype.nexus.repository.group.GroupFacet;
 import org.sonatype.nexus.repository.rest.api.RepositoryManagerRESTAdapter;
 import org.sonatype.nexus.repository.selector.ContentAuthHelper;
 import org.sonatype.nexus.repository.types.GroupType;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.stream.Collectors.toList;
 import static org.sonatype.nexus.repository.content.rest.internal.resources.AssetsResourceSupport.toInternalToken;
 import static org.sonatype.nexus.repository.content.rest.internal.resources.AssetsResourceSupport.trim;
@@ -62,14 +70,58 @@ abstract class ComponentsResourceSupport
     List<FluentComponent> permittedComponents = new ArrayList<>();
     String internalToken = toInternalToken(continuationToken);
     Continuation<FluentComponent> componentContinuation = getComponents(browsedRepository, internalToken);
+    Predicate<FluentComponent> permitted = componentsPermitted(browsedRepository);
 
     while (permittedComponents.size() < PAGE_SIZE && !componentContinuation.isEmpty()) {
-      permittedComponents.addAll(removeComponentsNotPermitted(browsedRepository, componentContinuation));
+      permittedComponents.addAll(removeComponentsNotPermitted(componentContinuation, permitted));
       componentContinuation = getComponents(browsedRepository, componentContinuation.nextContinuationToken());
     }
     return trim(permittedComponents, PAGE_SIZE);
   }
 
+  /**
+   * Walks every component in the repository (or, for groups, in each leaf member) in batches of {@code batchSize},
+   * fetching components together with their assets and handing each permitted batch to the consumer before the next
+   * one is fetched, so memory use is bounded by the batch size rather than the size of the repository.
+   *
+   * @since 3.71
+   */
+  void export(
+      final Repository repository,
+      @Nullable final OffsetDateTime updatedSince,
+      final int batchSize,
+      final BatchConsumer<FluentComponent> consumer) throws IOException
+  {
+    Predicate<FluentComponent> permitted = componentsPermitted(repository);
+
+    List<Repository> contentRepositories = GroupType.NAME.equals(repository.getType().getValue())
+        ? repository.facet(GroupFacet.class).leafMembers()
+        : singletonList(repository);
+
+    for (Repository contentRepository : contentRepositories) {
+      FluentQuery<FluentComponent> query = exportQuery(contentRepository, updatedSince);
+      Continuation<FluentComponent> batch = query.browseEager(batchSize, null);
+      while (!batch.isEmpty()) {
+        List<FluentComponent> permittedComponents = batch.stream().filter(permitted).collect(toList());
+        if (!permittedComponents.isEmpty()) {
+          consumer.accept(permittedComponents);
+        }
+        batch = query.browseEager(batchSize, batch.nextContinuationToken());
+      }
+    }
+  }
+
+  private static FluentQuery<FluentComponent> exportQuery(
+      final Repository repository,
+      @Nullable final OffsetDateTime updatedSince)
+  {
+    if (updatedSince == null) {
+      return repository.facet(ContentFacet.class).components();
+    }
+    return repository.facet(ContentFacet.class).components()
+        .byFilter("last_updated > #{filterParams.updatedSince}", singletonMap("updatedSince", updatedSince));
+  }
+
   private Continuation<FluentComponent> getComponents(Repository repository, final String continuationToken) {
     if(GroupType.NAME.equals(repository.getType().getValue())) {
       return repository.facet(ContentFacet.class).components().withOnlyGroupMemberContent()
@@ -78,12 +130,12 @@ abstract class ComponentsResourceSupport
     return repository.facet(ContentFacet.class).components().browse(LIMIT, continuationToken);
   }
 
-  private List<FluentComponent> removeComponentsNotPermitted(
-      final Repository repository,
-      final Continuation<FluentComponent> assets)
+  private static List<FluentComponent> removeComponentsNotPermitted(
+      final Continuation<FluentComponent> components,
+      final Predicate<FluentComponent> permitted)
   {
-    return assets.stream()
-        .filter(componentPermitted(repository.getFormat().getValue(), repository.getName()))
+    return components.stream()
+        .filter(permitted)
         .collect(toList());
   }
 
@@ -91,6 +143,32 @@ abstract class ComponentsResourceSupport
     return component -> contentAuthHelper.checkPathPermissions(component.name(), format, repositoryName);
   }
 
+  /**
+   * Like {@link #componentPermitted(String, String)} but resolves the user's permissions and content selectors once up
+   * front, so checking a batch of components only evaluates the selectors the user actually relies on.
+   *
+   * @since 3.71
+   */
+  Predicate<FluentComponent> componentsPermitted(final Repository repository) {
+    Predicate<String> pathPermitted =
+        contentAuthHelper.pathPermissions(repository.getFormat().getValue(), repository.getName());
+    return component -> pathPermitted.test(component.name());
+  }
+
+  /**
+   * Like {@link #assetPermitted(Repository)} but resolves the user's permissions and content selectors once up front,
+   * so checking a batch of assets only evaluates the selectors the user actually relies on.
+   *
+   * @since 3.71
+   */
+  Predicate<FluentAsset> assetsPermitted(final Repository repository) {
+    Set<String> repoNames = new HashSet<>(repositoryManagerRESTAdapter.findContainingGroups(repository.getName()));
+    repoNames.add(repository.getName());
+    Predicate<String> pathPermitted =
+        contentAuthHelper.pathPermissions(repository.getFormat().getValue(), repoNames.toArray(new String[0]));
+    return asset -> pathPermitted.test(asset.path());
+  }
+
   Predicate<FluentAsset> assetPermitted(Repository repository) {
     String repositoryName = repository.getName();
     Set<String> repoNames = new HashSet<>(repositoryManagerRESTAdapter.findContainingGroups(repositoryName));
@@ -99,4 +177,15 @@ abstract class ComponentsResourceSupport
         contentAuthHelper.checkPathPermissions(asset.path(), repository.getFormat().getValue(),
             repoNames.toArray(new String[0]));
   }
+
+  /**
+   * Receives batches of exported items; may throw {@link IOException} when writing them out fails.
+   *
+   * @since 3.71
+   */
+  @FunctionalInterface
+  interface BatchConsumer<T>
+  {
+    void accept(List<T> batch) throws IOException;
+  }
 }
@@ -15,6 +15,7 @@ package org.sonatype.nexus.repository.content.rest.internal.resources.doc;
 import java.io.IOException;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.Response;
 
 import org.sonatype.nexus.repository.rest.api.ComponentXO;
 import org.sonatype.nexus.rest.Page;
@@ -49,6 +50,25 @@ public interface ComponentsResourceDoc
       @ApiParam(value = "Repository from which you would like to retrieve components", required = true)
       final String repository);
 
+  /**
+   * @since 3.71
+   */
+  @ApiOperation(value = "Export all components of a repository as newline-delimited JSON",
+      notes = "Streams one component, including its assets, per line. Intended for inventory and synchronisation " +
+          "jobs which would otherwise page through the list components endpoint.")
+  @ApiResponses(value = {
+      @ApiResponse(code = 400, message = "Malformed 'updatedSince' parameter"),
+      @ApiResponse(code = 403, message = "Insufficient permissions to list components"),
+      @ApiResponse(code = 422, message = "Parameter 'repository' is required")
+  })
+  Response exportComponents(
+      @ApiParam(value = "Repository from which you would like to export components", required = true)
+      final String repository,
+
+      @ApiParam(value = "If present, only components updated after this ISO-8601 date-time are exported, " +
+          "for example 2024-01-31T00:00:00Z")
+      final String updatedSince);
+
   /**
    * @since 3.26
    */
@@ -132,6 +132,33 @@ public interface AssetBlobDAO
    */
   void setCreatedByIP(@Param("blobRef") BlobRef blobRef, @Param("createdByIP") String createdByIP);
 
+  /**
+   * Browse the asset blobs of a repository which have no checksum for the given algorithm in a paged fashion.
+   *
+   * On PostgreSQL a missing sha256 is found through a partial index; other algorithms, and H2, have to look at the
+   * checksums of every asset blob in the repository.
+   *
+   * @param repositoryId the repository containing the assets
+   * @param algorithm the name of the hash algorithm
+   * @param limit maximum number of asset blobs to return
+   * @param continuationToken optional token to continue from a previous request
+   * @return collection of asset blobs and the next continuation token
+   *
+   * @since 3.71
+   */
+  Continuation<AssetBlob> browseAssetBlobsWithoutChecksum(
+      @Param("repositoryId") int repositoryId,
+      @Param("algorithm") String algorithm,
+      @Param("limit") int limit,
+      @Param("continuationToken") @Nullable String continuationToken);
+
+  /**
+   * Sets the checksums of a batch of asset blobs to those held by each asset blob, in a single statement.
+   *
+   * @since 3.71
+   */
+  void setChecksumsBatch(@Param("assetBlobs") Collection<AssetBlob> assetBlobs);
+
   /**
    * Browse asset blobs with legacy blobRef format {@code store-name:blob-id@node-id} in a paged fashion.
    *
@@ -22,6 +22,7 @@ import javax.inject.Named;
 
 import org.sonatype.nexus.blobstore.api.BlobRef;
 import org.sonatype.nexus.common.entity.Continuation;
+import org.sonatype.nexus.common.hash.HashAlgorithm;
 import org.sonatype.nexus.datastore.api.DataSessionSupplier;
 import org.sonatype.nexus.repository.content.AssetBlob;
 import org.sonatype.nexus.transaction.Transactional;
@@ -143,6 +144,39 @@ public class AssetBlobStore<T extends AssetBlobDAO>
     dao().setChecksums(blob.blobRef(), checksums);
   }
 
+  /**
+   * Browse the asset blobs of a repository which have no checksum for the given algorithm in a paged fashion.
+   *
+   * @param repositoryId the repository containing the assets
+   * @param algorithm the hash algorithm
+   * @param limit maximum number of asset blobs to return
+   * @param continuationToken optional token to continue from a previous request
+   * @return collection of asset blobs and the next continuation token
+   *
+   * @since 3.71
+   */
+  @Transactional
+  public Continuation<AssetBlob> browseAssetBlobsWithoutChecksum(
+      final int repositoryId,
+      final HashAlgorithm algorithm,
+      final int limit,
+      @Nullable final String continuationToken)
+  {
+    return dao().browseAssetBlobsWithoutChecksum(repositoryId, algorithm.name(), limit, continuationToken);
+  }
+
+  /**
+   * Sets the checksums of a batch of asset blobs, in a single transaction, to those held by each asset blob.
+   *
+   * @since 3.71
+   */
+  @Transactional
+  public void setChecksums(final Collection<AssetBlob> assetBlobs) {
+    if (!assetBlobs.isEmpty()) {
+      dao().setChecksumsBatch(assetBlobs);
+    }
+  }
+
   /**
    * Generally it is recommended that this method not be called and let stores manage this value.
    *
@@ -13,15 +13,18 @@
 package org.sonatype.nexus.repository.content.store.internal;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.blobstore.api.BlobId;
 import org.sonatype.nexus.blobstore.api.BlobRef;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
@@ -37,6 +40,9 @@ import org.sonatype.nexus.thread.NexusThreadFactory;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
 import static org.sonatype.nexus.common.property.SystemPropertiesHelper.getBoolean;
 import static org.sonatype.nexus.common.property.SystemPropertiesHelper.getInteger;
 import static org.sonatype.nexus.common.property.SystemPropertiesHelper.getString;
@@ -197,7 +203,7 @@ public class AssetBlobCleanupTask
       }
       log.debug("Found {} unused {} blobs in {}", unusedAssetBlobs.size(), format, contentStore);
       List<BlobRef> blobRefAll = extractBlobRefsFromAssetBlobs(unusedAssetBlobs);
-      deleteAssetBlobsExecutorService(blobRefAll);
+      deleteBlobContentBatch(blobRefAll);
 
       String[] blobRefIds = blobRefAll.stream()
           .map(BlobRefTypeHandler::toPersistableString)
@@ -236,29 +242,41 @@ public class AssetBlobCleanupTask
   }
 
   /**
-   * Deletes batch of {@link Blob}.
+   * Deletes batch of {@link Blob}, handing each {@link BlobStore} its share of the batch in a single bulk delete.
    */
-  private void deleteAssetBlobsExecutorService(final List<BlobRef> blobRefs) {
-    CountDownLatch latch = new CountDownLatch(blobRefs.size());
-    for (BlobRef blobRef : blobRefs) {
-      batchDeleteExecutorService.submit(() -> {
-        latch.countDown();
-        BlobStore blobStore = blobStoreManager.get(blobRef.getStore());
-        if (blobStore == null) {
-          // postpone delete if the store is temporarily AWOL
-          log.warn("Could not find blob store for {}", blobRef);
-        }
-        else if (!deleteBlobContent(blobStore, blobRef)) {
-          // still report asset blob as deleted...
-          log.warn("Could not delete blob content under {}", blobRef);
+  private void deleteBlobContentBatch(final List<BlobRef> blobRefs) {
+    Map<String, List<BlobId>> blobIdsByStore = blobRefs.stream()
+        .collect(groupingBy(BlobRef::getStore, LinkedHashMap::new, mapping(BlobRef::getBlobId, toList())));
+
+    List<Future<?>> deletions = new ArrayList<>(blobIdsByStore.size());
+    blobIdsByStore.forEach((blobStoreName, blobIds) -> deletions.add(batchDeleteExecutorService.submit(() -> {
+      BlobStore blobStore = blobStoreManager.get(blobStoreName);
+      if (blobStore == null) {
+        // postpone delete if the store is temporarily AWOL
+        log.warn("Could not find blob store {} for {} blobs", blobStoreName, blobIds.size());
+      }
+      else {
+        int deleted = deleteBlobContent(blobStore, blobIds);
+        if (deleted < blobIds.size()) {
+          // still report asset blobs as deleted...
+          log.warn("Could not delete content of {} of {} blobs in {}", blobIds.size() - deleted, blobIds.size(),
+              blobStoreName);
         }
-      });
-    }
-    try {
-      latch.await();
-    }
-    catch (InterruptedException ex) {
-      log.debug("CountDownLatch interrupted", ex);
+      }
+    })));
+
+    for (Future<?> deletion : deletions) {
+      try {
+        deletion.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.debug("Interrupted while deleting blob content", e);
+        return;
+      }
+      catch (ExecutionException e) {
+        log.warn("Could not delete blob content", e.getCause());
+      }
     }
   }
 
@@ -276,11 +294,25 @@ public class AssetBlobCleanupTask
     }
   }
 
+  /**
+   * Deletes the {@link Blob}s from their {@link BlobStore}.
+   *
+   * @return count of deleted blobs
+   */
+  private int deleteBlobContent(final BlobStore blobStore, final List<BlobId> blobIds) {
+    if (HARD_DELETE) {
+      return blobStore.deleteAllHard(blobIds);
+    }
+    else {
+      return blobStore.deleteAll(blobIds, "Removing unused asset blob");
+    }
+  }
+
   private List<BlobRef> extractBlobRefsFromAssetBlobs(final Continuation<AssetBlob> assetBlobs) {
     return assetBlobs.stream()
         .map(AssetBlob::blobRef)
         .filter(blobRef -> blobStoreManager.get(blobRef.getStore()) != null)
-        .collect(Collectors.toList());
+        .collect(toList());
   }
 
   @Override
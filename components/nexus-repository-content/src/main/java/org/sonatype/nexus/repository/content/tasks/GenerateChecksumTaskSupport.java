@@ -14,10 +14,20 @@ package org.sonatype.nexus.repository.content.tasks;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 
@@ -33,25 +43,43 @@ import org.sonatype.nexus.repository.RepositoryTaskSupport;
 import org.sonatype.nexus.repository.content.AssetBlob;
 import org.sonatype.nexus.repository.content.facet.ContentFacet;
 import org.sonatype.nexus.repository.content.facet.ContentFacetSupport;
-import org.sonatype.nexus.repository.content.fluent.FluentAsset;
+import org.sonatype.nexus.repository.content.kv.global.GlobalKeyValueStore;
+import org.sonatype.nexus.repository.content.kv.global.NexusKeyValue;
+import org.sonatype.nexus.repository.content.kv.global.ValueType;
 import org.sonatype.nexus.repository.content.store.AssetBlobStore;
 import org.sonatype.nexus.scheduling.Cancelable;
 import org.sonatype.nexus.scheduling.CancelableHelper;
 import org.sonatype.nexus.scheduling.TaskInterruptedException;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 
-import com.google.common.hash.HashCode;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sonatype.nexus.repository.config.ConfigurationConstants.BLOB_STORE_NAME;
 import static org.sonatype.nexus.repository.config.ConfigurationConstants.STORAGE;
 
 /**
- * Support class for a task to generate sha256 hashes
+ * Support class for a task to generate missing checksums, sha256 unless the task is configured with another
+ * {@link HashAlgorithm}.
+ *
+ * Only the asset blobs missing the checksum are selected, they are hashed on a bounded pool of threads and their
+ * checksums are written back a page at a time. The last completed page is kept as a checkpoint so that a canceled or
+ * interrupted run carries on from there the next time the task runs.
  */
 public abstract class GenerateChecksumTaskSupport
     extends RepositoryTaskSupport
     implements Cancelable
 {
+  /**
+   * Name of the {@link HashAlgorithm} to generate, sha256 when unset.
+   *
+   * @since 3.71
+   */
+  public static final String HASH_ALGORITHM_FIELD_ID = "hashAlgorithm";
+
   private static class ResultCount
   {
     int updated;
@@ -65,20 +93,44 @@ public abstract class GenerateChecksumTaskSupport
 
   private static final int ASSET_BROWSE_LIMIT = 100;
 
+  private static final String CHECKPOINT_KEY = "checksums.%s.%s.checkpoint";
+
   private int bufferSize;
 
   private BlobStoreManager blobStoreManager;
 
-  private MessageDigest messageDigest;
+  private GlobalKeyValueStore globalKeyValueStore;
+
+  private int threads = 1;
+
+  private Set<String> parallelBlobStores = ImmutableSet.of();
 
   @Inject
   public void init(@Named("${nexus.calculateChecksums.bufferSize:-32768}") final int bufferSize,
-      final BlobStoreManager blobStoreManager) throws NoSuchAlgorithmException {
+      final BlobStoreManager blobStoreManager) {
     // Ensure at least a 4K buffer
     this.bufferSize = Math.max(4096, bufferSize);
     this.blobStoreManager = checkNotNull(blobStoreManager);
+  }
 
-    messageDigest = MessageDigest.getInstance(HashAlgorithm.SHA256.name());
+  /**
+   * @param threads            the number of blobs to hash concurrently
+   * @param parallelBlobStores comma separated names of the blob stores with enough spare I/O to be hashed
+   *                           concurrently, blobs in other blob stores are hashed one at a time; all blob stores
+   *                           when empty
+   * @since 3.71
+   */
+  @Inject
+  public void initBackfill(
+      @Named("${nexus.calculateChecksums.threads:-4}") final int threads,
+      @Named("${nexus.calculateChecksums.parallelBlobStores:-}") final String parallelBlobStores,
+      final GlobalKeyValueStore globalKeyValueStore)
+  {
+    checkArgument(threads > 0, "nexus.calculateChecksums.threads must be positive");
+    this.threads = threads;
+    this.parallelBlobStores = ImmutableSet.copyOf(
+        Splitter.on(',').omitEmptyStrings().trimResults().split(parallelBlobStores));
+    this.globalKeyValueStore = checkNotNull(globalKeyValueStore);
   }
 
   private BlobStore getBlobStore(final Repository repository) {
@@ -86,95 +138,150 @@ public abstract class GenerateChecksumTaskSupport
     return blobStoreManager.get(name);
   }
 
+  /**
+   * The checksum algorithm this task generates.
+   *
+   * @since 3.71
+   */
+  protected HashAlgorithm getHashAlgorithm() {
+    String name = getConfiguration().getString(HASH_ALGORITHM_FIELD_ID, HashAlgorithm.SHA256.name());
+    return HashAlgorithm.getHashAlgorithm(name)
+        .orElseThrow(() -> new IllegalArgumentException("Unknown hash algorithm: " + name));
+  }
+
   @Override
   protected void execute(final Repository repository) {
-    log.info("Checking for missing SHA256 checksums in repository: {}", repository.getName());
+    HashAlgorithm algorithm = getHashAlgorithm();
+    log.info("Checking for missing {} checksums in repository: {}", algorithm.name(), repository.getName());
     ContentFacetSupport contentFacet = (ContentFacetSupport) repository.facet(ContentFacet.class);
     BlobStore blobStore = getBlobStore(repository);
     AssetBlobStore<?> assetBlobStore = contentFacet.stores().assetBlobStore;
-    Continuation<FluentAsset> assets = contentFacet.assets().browse(ASSET_BROWSE_LIMIT, null);
+    int repositoryId = contentFacet.contentRepositoryId();
+
+    String checkpointKey = String.format(CHECKPOINT_KEY, repository.getName(), algorithm.name());
+    String checkpoint = getCheckpoint(checkpointKey);
+    if (checkpoint != null) {
+      log.info("Resuming from checkpoint {}", checkpoint);
+    }
+
     ResultCount resultCount = new ResultCount();
+    ExecutorService executor = newExecutor(repository, blobStore);
     try (ProgressLogIntervalHelper progressLogger = new ProgressLogIntervalHelper(log, 60)) {
-      while (!isCanceled() && !assets.isEmpty()) {
-        assets.forEach(asset -> processAssetChecksums(blobStore, assetBlobStore, asset, resultCount, progressLogger));
-        assets = contentFacet.assets().browse(ASSET_BROWSE_LIMIT, assets.nextContinuationToken());
+      Continuation<AssetBlob> assetBlobs =
+          assetBlobStore.browseAssetBlobsWithoutChecksum(repositoryId, algorithm, ASSET_BROWSE_LIMIT, checkpoint);
+      while (!assetBlobs.isEmpty()) {
+        CancelableHelper.checkCancellation();
+
+        assetBlobStore.setChecksums(generateChecksums(executor, blobStore, algorithm, assetBlobs, resultCount));
+
+        checkpoint = assetBlobs.nextContinuationToken();
+        setCheckpoint(checkpointKey, checkpoint);
+        progressLogger.info("Elapsed time: {}. Processed {} assets. {} updated, {} skipped, {} errors.",
+            progressLogger.getElapsed(), resultCount.total, resultCount.updated, resultCount.skipped,
+            resultCount.error);
+
+        assetBlobs =
+            assetBlobStore.browseAssetBlobsWithoutChecksum(repositoryId, algorithm, ASSET_BROWSE_LIMIT, checkpoint);
       }
+      globalKeyValueStore.removeKey(checkpointKey);
     }
     catch (TaskInterruptedException ex) {
       log.warn("Task interrupted. Processed {} assets. {} updated, {} skipped, {} errors.",
           resultCount.total, resultCount.updated, resultCount.skipped, resultCount.error);
       throw ex;
     }
+    finally {
+      executor.shutdownNow();
+    }
     log.info("Completed processing a total of {} assets. {} updated, {} skipped, {} errors.",
         resultCount.total, resultCount.updated, resultCount.skipped, resultCount.error);
   }
 
-  private void processAssetChecksums(
-      final BlobStore blobStore, final AssetBlobStore<?> assetBlobStore,
-      final FluentAsset asset, final ResultCount resultCount,
-      final ProgressLogIntervalHelper progressLogger)
+  /**
+   * Hashes a page of asset blobs concurrently, returning those whose checksums were updated.
+   */
+  private List<AssetBlob> generateChecksums(
+      final ExecutorService executor,
+      final BlobStore blobStore,
+      final HashAlgorithm algorithm,
+      final Continuation<AssetBlob> assetBlobs,
+      final ResultCount resultCount)
   {
-    CancelableHelper.checkCancellation();
-    String assetPath = asset.path();
-    log.debug("Checking asset: {}", assetPath);
-    AssetBlob assetBlob = asset.blob().orElse(null);
-    if (assetBlob != null) {
-      Map<String, String> checksums = assetBlob.checksums();
-      if (!checksums.containsKey(HashAlgorithm.SHA256.name())) {
-        BlobId blobId = assetBlob.blobRef().getBlobId();
-        Blob blob = blobStore.get(blobId);
-        if (blob != null) {
-          String sha256 = calculateBlobChecksum(blob, assetPath);
-          if (sha256 != null) {
-            checksums.put(HashAlgorithm.SHA256.name(), sha256);
-            log.debug("Updating blob SHA256 checksum for asset: {}, blobID: {}, checksum: {}",
-                assetPath, blobId, sha256);
-            assetBlobStore.setChecksums(assetBlob, checksums);
-            resultCount.updated++;
-          }
-          else {
-            log.debug("Unable to create SHA256 checksum for asset: {}, blobID: {}", assetPath, blobId);
-            resultCount.error++;
-          }
+    Map<AssetBlob, Future<String>> checksums = new LinkedHashMap<>();
+    assetBlobs.forEach(assetBlob -> checksums.put(assetBlob,
+        executor.submit(() -> calculateBlobChecksum(blobStore, algorithm, assetBlob))));
+
+    List<AssetBlob> updated = new ArrayList<>();
+    for (Entry<AssetBlob, Future<String>> entry : checksums.entrySet()) {
+      AssetBlob assetBlob = entry.getKey();
+      BlobId blobId = assetBlob.blobRef().getBlobId();
+      try {
+        String checksum = entry.getValue().get();
+        if (checksum != null) {
+          log.debug("Updating blob {} checksum for blobID: {}, checksum: {}", algorithm.name(), blobId, checksum);
+          assetBlob.checksums().put(algorithm.name(), checksum);
+          updated.add(assetBlob);
+          resultCount.updated++;
         }
         else {
-          log.debug("No Blob associated with asset: {}. Skipping", assetPath);
+          log.debug("No Blob found for blobID: {}. Skipping", blobId);
           resultCount.skipped++;
         }
       }
+      catch (ExecutionException e) {
+        log.warn("Exception whilst calculating {} checksum for blobID {}: {}", algorithm.name(), blobId,
+            e.getCause().getLocalizedMessage(), log.isDebugEnabled() ? e.getCause() : null);
+        resultCount.error++;
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new TaskInterruptedException("Interrupted while generating checksums", true);
+      }
+      resultCount.total++;
     }
-    else {
-      log.debug("SHA256 checksum already present for asset: {}. Skipping", assetPath);
-      resultCount.skipped++;
-    }
-    resultCount.total++;
-    progressLogger.info("Elapsed time: {}. Processed {} assets. {} updated, {} skipped, {} errors.",
-        progressLogger.getElapsed(), resultCount.total, resultCount.updated, resultCount.skipped, resultCount.error);
+    return updated;
   }
 
-  private String calculateBlobChecksum(final Blob blob, final String assetPath) {
-    log.debug("Calculating SHA256 checksum for {}", assetPath);
+  @Nullable
+  private String calculateBlobChecksum(
+      final BlobStore blobStore,
+      final HashAlgorithm algorithm,
+      final AssetBlob assetBlob) throws IOException
+  {
+    Blob blob = blobStore.get(assetBlob.blobRef().getBlobId());
+    if (blob == null) {
+      return null;
+    }
+    log.debug("Calculating {} checksum for {}", algorithm.name(), blob.getId());
+    Hasher hasher = algorithm.function().newHasher();
     try (InputStream inputStream = blob.getInputStream()) {
-      int bytesRead = 0;
       byte[] buffer = new byte[bufferSize];
-      while (bytesRead != -1) {
-        bytesRead = inputStream.read(buffer);
-        if (bytesRead > 0) {
-          messageDigest.update(buffer, 0, bytesRead);
-        }
+      int bytesRead;
+      while ((bytesRead = inputStream.read(buffer)) != -1) {
+        hasher.putBytes(buffer, 0, bytesRead);
       }
-      return HashCode.fromBytes(messageDigest.digest()).toString();
     }
-    catch (IOException e) {
-      log.warn(String.format("Exception whilst calculating SHA256 checksum for %s: %s", assetPath,
-              e.getLocalizedMessage()),
-          log.isDebugEnabled() ? e : null);
-    }
-    return null;
+    return hasher.hash().toString();
+  }
+
+  private ExecutorService newExecutor(final Repository repository, final BlobStore blobStore) {
+    String blobStoreName = blobStore.getBlobStoreConfiguration().getName();
+    int poolSize = parallelBlobStores.isEmpty() || parallelBlobStores.contains(blobStoreName) ? threads : 1;
+    return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+        new NexusThreadFactory("checksums-" + repository.getName(), "Generate checksums"));
+  }
+
+  @Nullable
+  private String getCheckpoint(final String key) {
+    return globalKeyValueStore.getKey(key).map(NexusKeyValue::getAsString).orElse(null);
+  }
+
+  private void setCheckpoint(final String key, final String checkpoint) {
+    globalKeyValueStore.setKey(new NexusKeyValue(key, ValueType.CHARACTER, checkpoint));
   }
 
   @Override
   public String getMessage() {
-    return "Generating sha256 hashes";
+    return "Generating " + getHashAlgorithm().name() + " hashes";
   }
 }
@@ -0,0 +1,75 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.tasks.backfill;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * The data part of an upgrade which is too large to run while Nexus starts.
+ *
+ * A migration step applies the cheap schema changes during startup and schedules the backfill, which then rewrites
+ * the existing rows in the background, a chunk at a time. Partitions, usually one per format, are independent of each
+ * other and are backfilled in parallel; after each chunk a checkpoint is stored so that an interrupted backfill picks
+ * up where it stopped instead of starting over.
+ *
+ * @see DataBackfillRunner
+ * @since 3.71
+ */
+public interface DataBackfill
+{
+  /**
+   * Unique name of this backfill, used to select it and to key its checkpoints.
+   */
+  String getName();
+
+  /**
+   * The independent parts of the data which still need to be backfilled, in the order they should be started. A
+   * partition is no longer listed once it has been {@link #completed}; the backfill alone keeps track of that, while
+   * the runner only keeps the checkpoints of partitions in progress.
+   */
+  List<String> getPartitions();
+
+  /**
+   * Backfills the next chunk of a partition.
+   *
+   * @param partition  the partition to backfill
+   * @param checkpoint the checkpoint returned by the previous chunk, {@code null} for the first one
+   * @param chunkSize  the maximum number of rows to process
+   * @return the checkpoint to continue from, or nothing when the partition is complete
+   */
+  Optional<String> backfill(String partition, @Nullable String checkpoint, int chunkSize);
+
+  /**
+   * The number of rows of a partition which still need to be backfilled, for progress reporting; negative if unknown.
+   */
+  default long remaining(final String partition) {
+    return -1;
+  }
+
+  /**
+   * Called before the first chunk of a partition is backfilled by a run, whether it starts afresh or resumes from a
+   * checkpoint.
+   */
+  default void started(final String partition) {
+    // no-op
+  }
+
+  /**
+   * Called once every chunk of a partition has been backfilled; records that the partition is complete, so that it is
+   * no longer listed by {@link #getPartitions}.
+   */
+  void completed(String partition);
+}
@@ -0,0 +1,271 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.tasks.backfill;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.logging.task.ProgressLogIntervalHelper;
+import org.sonatype.nexus.repository.content.kv.global.GlobalKeyValueStore;
+import org.sonatype.nexus.repository.content.kv.global.NexusKeyValue;
+import org.sonatype.nexus.repository.content.kv.global.ValueType;
+import org.sonatype.nexus.thread.NexusThreadFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.thread.NexusExecutorService.forCurrentSubject;
+
+/**
+ * Runs a {@link DataBackfill} in chunks, one worker per partition, keeping a checkpoint for each partition in the
+ * {@link GlobalKeyValueStore} so that a backfill interrupted by a restart or cancellation resumes from its last chunk.
+ * Which partitions are complete is up to the backfill itself; the checkpoint of a partition is dropped once it is.
+ *
+ * @since 3.71
+ */
+@Named
+@Singleton
+public class DataBackfillRunner
+    extends ComponentSupport
+{
+  private static final String CHECKPOINT_KEY = "backfill.%s.%s.checkpoint";
+
+  private final GlobalKeyValueStore globalKeyValueStore;
+
+  private final int threads;
+
+  private final int chunkSize;
+
+  @Inject
+  public DataBackfillRunner(
+      final GlobalKeyValueStore globalKeyValueStore,
+      @Named("${nexus.upgrade.backfill.threads:-4}") final int threads,
+      @Named("${nexus.upgrade.backfill.chunkSize:-1000}") final int chunkSize)
+  {
+    this.globalKeyValueStore = checkNotNull(globalKeyValueStore);
+    checkArgument(threads > 0, "nexus.upgrade.backfill.threads must be positive");
+    checkArgument(chunkSize > 0, "nexus.upgrade.backfill.chunkSize must be positive");
+    this.threads = threads;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Whether every partition of the backfill has been completed.
+   */
+  public boolean isComplete(final DataBackfill backfill) {
+    return backfill.getPartitions().isEmpty();
+  }
+
+  /**
+   * Backfills every incomplete partition, returning once they are all complete or {@code canceled} is raised.
+   *
+   * @param backfill the backfill to run
+   * @param canceled checked before each chunk, stops the backfill at its last checkpoint when it returns {@code true}
+   * @param progress receives a summary of the progress after each chunk
+   * @return {@code true} if every partition is complete
+   */
+  public boolean run(final DataBackfill backfill, final BooleanSupplier canceled, final Consumer<String> progress) {
+    List<String> partitions = backfill.getPartitions();
+
+    if (partitions.isEmpty()) {
+      log.debug("Nothing left to backfill for {}", backfill.getName());
+      return true;
+    }
+
+    Progress tracker = new Progress(backfill.getName(), partitions, progress);
+    ExecutorService executor = newExecutor(backfill, partitions.size());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (String partition : partitions) {
+        futures.add(executor.submit(() -> backfillPartition(backfill, partition, canceled, tracker)));
+      }
+      awaitAll(backfill, futures);
+    }
+    finally {
+      executor.shutdownNow();
+      tracker.close();
+    }
+    return isComplete(backfill);
+  }
+
+  private void backfillPartition(
+      final DataBackfill backfill,
+      final String partition,
+      final BooleanSupplier canceled,
+      final Progress tracker)
+  {
+    tracker.started(partition, backfill.remaining(partition));
+    backfill.started(partition);
+
+    String checkpoint = getCheckpoint(backfill, partition);
+    if (checkpoint != null) {
+      log.info("Resuming {} partition {} from checkpoint {}", backfill.getName(), partition, checkpoint);
+    }
+
+    while (!canceled.getAsBoolean()) {
+      Optional<String> next = backfill.backfill(partition, checkpoint, chunkSize);
+      if (!next.isPresent()) {
+        backfill.completed(partition);
+        globalKeyValueStore.removeKey(checkpointKey(backfill, partition));
+        tracker.completed(partition);
+        return;
+      }
+      checkpoint = next.get();
+      setCheckpoint(backfill, partition, checkpoint);
+      tracker.chunk(partition, chunkSize);
+    }
+    log.info("Stopped {} partition {} at checkpoint {}", backfill.getName(), partition, checkpoint);
+  }
+
+  private void awaitAll(final DataBackfill backfill, final List<Future<?>> futures) {
+    RuntimeException failure = null;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while running backfill " + backfill.getName(), e);
+      }
+      catch (ExecutionException e) {
+        // let the other partitions carry on, they will be retried from their checkpoints next time anyway
+        RuntimeException cause = e.getCause() instanceof RuntimeException
+            ? (RuntimeException) e.getCause()
+            : new IllegalStateException(e.getCause());
+        if (failure == null) {
+          failure = cause;
+        }
+        else {
+          failure.addSuppressed(cause);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private ExecutorService newExecutor(final DataBackfill backfill, final int partitions) {
+    int poolSize = Math.min(threads, partitions);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), new NexusThreadFactory("backfill-" + backfill.getName(), "Data backfill"));
+    return forCurrentSubject(executor);
+  }
+
+  @Nullable
+  @VisibleForTesting
+  String getCheckpoint(final DataBackfill backfill, final String partition) {
+    return globalKeyValueStore.getKey(checkpointKey(backfill, partition))
+        .map(NexusKeyValue::getAsString)
+        .orElse(null);
+  }
+
+  private void setCheckpoint(final DataBackfill backfill, final String partition, final String checkpoint) {
+    globalKeyValueStore.setKey(new NexusKeyValue(checkpointKey(backfill, partition), ValueType.CHARACTER, checkpoint));
+  }
+
+  private static String checkpointKey(final DataBackfill backfill, final String partition) {
+    return String.format(CHECKPOINT_KEY, backfill.getName(), partition);
+  }
+
+  /**
+   * Progress of the partitions being backfilled, logged at intervals and summarised for the task.
+   */
+  private class Progress
+  {
+    private final String name;
+
+    private final Map<String, PartitionProgress> partitions = new LinkedHashMap<>();
+
+    private final Consumer<String> consumer;
+
+    private final ProgressLogIntervalHelper progressLogger;
+
+    Progress(final String name, final List<String> partitions, final Consumer<String> consumer) {
+      this.name = name;
+      partitions.forEach(partition -> this.partitions.put(partition, new PartitionProgress()));
+      this.consumer = consumer;
+      this.progressLogger = new ProgressLogIntervalHelper(log, 60);
+    }
+
+    synchronized void started(final String partition, final long remaining) {
+      partitions.get(partition).total = remaining;
+      log.info("Backfilling {} partition {}, {} rows to process", name, partition,
+          remaining < 0 ? "unknown" : remaining);
+    }
+
+    synchronized void chunk(final String partition, final int rows) {
+      PartitionProgress current = partitions.get(partition);
+      current.processed = current.total < 0 ? current.processed + rows : Math.min(current.processed + rows,
+          current.total);
+      report();
+    }
+
+    synchronized void completed(final String partition) {
+      partitions.get(partition).complete = true;
+      log.info("Completed {} partition {} - elapsed : {}", name, partition, progressLogger.getElapsed());
+      report();
+    }
+
+    private void report() {
+      String summary = partitions.entrySet().stream()
+          .map(entry -> entry.getKey() + " " + entry.getValue())
+          .collect(Collectors.joining(", "));
+      progressLogger.info("{} progress : {} - elapsed : {}", name, summary, progressLogger.getElapsed());
+      consumer.accept(name + ": " + summary);
+    }
+
+    void close() {
+      progressLogger.close();
+    }
+  }
+
+  private static class PartitionProgress
+  {
+    long processed;
+
+    long total = -1;
+
+    boolean complete;
+
+    @Override
+    public String toString() {
+      if (complete) {
+        return "complete";
+      }
+      if (total <= 0) {
+        return processed + " processed";
+      }
+      return Math.round(100.0 * processed / total) + "% (" + processed + " of " + total + ")";
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.tasks.backfill;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.sonatype.nexus.logging.task.TaskLogType;
+import org.sonatype.nexus.logging.task.TaskLogging;
+import org.sonatype.nexus.scheduling.Cancelable;
+import org.sonatype.nexus.scheduling.TaskInterruptedException;
+import org.sonatype.nexus.scheduling.TaskSupport;
+import org.sonatype.nexus.scheduling.spi.TaskResultStateStore;
+
+import com.google.common.base.Splitter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.repository.content.tasks.backfill.DataBackfillTaskDescriptor.BACKFILLS_FIELD_ID;
+
+/**
+ * System task which runs the data backfills scheduled by upgrades in the background.
+ *
+ * @since 3.71
+ */
+@Named
+@TaskLogging(TaskLogType.TASK_LOG_ONLY_WITH_PROGRESS)
+public class DataBackfillTask
+    extends TaskSupport
+    implements Cancelable
+{
+  private final List<DataBackfill> backfills;
+
+  private final DataBackfillRunner runner;
+
+  private final TaskResultStateStore taskResultStateStore;
+
+  @Inject
+  public DataBackfillTask(
+      final List<DataBackfill> backfills,
+      final DataBackfillRunner runner,
+      final TaskResultStateStore taskResultStateStore)
+  {
+    this.backfills = checkNotNull(backfills);
+    this.runner = checkNotNull(runner);
+    this.taskResultStateStore = checkNotNull(taskResultStateStore);
+  }
+
+  @Override
+  public String getMessage() {
+    return "Backfilling data for " + getConfiguration().getString(BACKFILLS_FIELD_ID, "all upgrades");
+  }
+
+  @Override
+  protected Object execute() throws Exception {
+    Set<String> names = Splitter.on(',').omitEmptyStrings().trimResults()
+        .splitToStream(getConfiguration().getString(BACKFILLS_FIELD_ID, ""))
+        .collect(Collectors.toSet());
+
+    for (DataBackfill backfill : backfills) {
+      if (!names.isEmpty() && !names.contains(backfill.getName())) {
+        continue;
+      }
+      runner.run(backfill, this::isCanceled, progress -> updateProgress(taskResultStateStore, progress));
+      if (isCanceled()) {
+        throw new TaskInterruptedException("Backfill " + backfill.getName() + " was canceled", true);
+      }
+    }
+    return null;
+  }
+}
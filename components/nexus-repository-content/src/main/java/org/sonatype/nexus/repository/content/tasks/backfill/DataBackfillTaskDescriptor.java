@@ -0,0 +1,46 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.tasks.backfill;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.nexus.common.upgrade.AvailabilityVersion;
+import org.sonatype.nexus.scheduling.TaskDescriptorSupport;
+
+/**
+ * Descriptor for {@link DataBackfillTask}, which upgrades schedule to rewrite existing data in the background.
+ *
+ * @since 3.71
+ */
+@AvailabilityVersion(from = "1.0")
+@Named
+@Singleton
+public class DataBackfillTaskDescriptor
+    extends TaskDescriptorSupport
+{
+  public static final String TYPE_ID = "data.backfill";
+
+  /**
+   * Comma separated names of the {@link DataBackfill}s to run; all of them when unset.
+   */
+  public static final String BACKFILLS_FIELD_ID = "backfills";
+
+  public DataBackfillTaskDescriptor() {
+    super(TYPE_ID,
+        DataBackfillTask.class,
+        "Admin - Backfill upgraded data",
+        NOT_VISIBLE,
+        NOT_EXPOSED);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.tasks.normalize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.common.entity.Continuation;
+import org.sonatype.nexus.common.event.EventManager;
+import org.sonatype.nexus.repository.Format;
+import org.sonatype.nexus.repository.content.kv.global.GlobalKeyValueStore;
+import org.sonatype.nexus.repository.content.kv.global.NexusKeyValue;
+import org.sonatype.nexus.repository.content.kv.global.ValueType;
+import org.sonatype.nexus.repository.content.store.ComponentData;
+import org.sonatype.nexus.repository.content.store.ComponentStore;
+import org.sonatype.nexus.repository.content.store.FormatStoreManager;
+import org.sonatype.nexus.repository.content.tasks.backfill.DataBackfill;
+import org.sonatype.nexus.repository.search.normalize.VersionNormalizerService;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static org.sonatype.nexus.datastore.api.DataStoreManager.DEFAULT_DATASTORE_NAME;
+import static org.sonatype.nexus.repository.content.tasks.normalize.NormalizeComponentVersionTask.KEY_FORMAT;
+
+/**
+ * Populates the normalized_version column on the {format}_component tables, one partition per format.
+ *
+ * @since 3.71
+ */
+@Named(ComponentNormalizedVersionBackfill.NAME)
+@Singleton
+public class ComponentNormalizedVersionBackfill
+    extends ComponentSupport
+    implements DataBackfill
+{
+  public static final String NAME = "component.normalized.version";
+
+  private final NormalizationPriorityService normalizationPriorityService;
+
+  private final VersionNormalizerService versionNormalizerService;
+
+  private final GlobalKeyValueStore globalKeyValueStore;
+
+  private final EventManager eventManager;
+
+  @Inject
+  public ComponentNormalizedVersionBackfill(
+      final NormalizationPriorityService normalizationPriorityService,
+      final VersionNormalizerService versionNormalizerService,
+      final GlobalKeyValueStore globalKeyValueStore,
+      final EventManager eventManager)
+  {
+    this.normalizationPriorityService = checkNotNull(normalizationPriorityService);
+    this.versionNormalizerService = checkNotNull(versionNormalizerService);
+    this.globalKeyValueStore = checkNotNull(globalKeyValueStore);
+    this.eventManager = checkNotNull(eventManager);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  /**
+   * The formats in priority order, skipping those already normalized by earlier releases.
+   */
+  @Override
+  public List<String> getPartitions() {
+    List<String> partitions = new ArrayList<>();
+    for (Format format : normalizationPriorityService.getPrioritizedFormats().keySet()) {
+      if (isFormatNormalized(format.getValue())) {
+        log.debug("skipping {} format since is already normalized.", format.getValue());
+      }
+      else {
+        partitions.add(format.getValue());
+      }
+    }
+    return partitions;
+  }
+
+  @Override
+  public long remaining(final String partition) {
+    return componentStore(partition).countUnnormalized();
+  }
+
+  @Override
+  public Optional<String> backfill(final String partition, @Nullable final String checkpoint, final int chunkSize) {
+    Map.Entry<Format, FormatStoreManager> format = find(partition);
+    ComponentStore<?> componentStore = format.getValue().componentStore(DEFAULT_DATASTORE_NAME);
+
+    Continuation<ComponentData> page = componentStore.browseUnnormalized(chunkSize, checkpoint);
+    page.forEach(component -> {
+      component.setNormalizedVersion(
+          versionNormalizerService.getNormalizedVersionByFormat(component.version(), format.getKey()));
+      componentStore.updateComponentNormalizedVersion(component);
+    });
+
+    if (page.size() < chunkSize) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(page.nextContinuationToken());
+  }
+
+  @Override
+  public void started(final String partition) {
+    //initially set normalization state as false
+    setNormalizationState(partition, false);
+  }
+
+  @Override
+  public void completed(final String partition) {
+    //once normalization is done set state as true
+    setNormalizationState(partition, true);
+    //publish an event to let interested know the format has been normalized
+    eventManager.post(new FormatVersionNormalizedEvent(find(partition).getKey()));
+  }
+
+  private boolean isFormatNormalized(final String format) {
+    return globalKeyValueStore.getKey(format(KEY_FORMAT, format))
+        .map(NexusKeyValue::getAsBoolean)
+        .orElse(false);
+  }
+
+  private void setNormalizationState(final String format, final boolean value) {
+    globalKeyValueStore.setKey(new NexusKeyValue(format(KEY_FORMAT, format), ValueType.BOOLEAN, value));
+  }
+
+  private ComponentStore<?> componentStore(final String partition) {
+    return find(partition).getValue().componentStore(DEFAULT_DATASTORE_NAME);
+  }
+
+  private Map.Entry<Format, FormatStoreManager> find(final String partition) {
+    return normalizationPriorityService.getPrioritizedFormats().entrySet().stream()
+        .filter(entry -> entry.getKey().getValue().equals(partition))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown format " + partition));
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.browse.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.Format;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.Type;
+import org.sonatype.nexus.repository.browse.node.BrowseNode;
+import org.sonatype.nexus.repository.browse.node.BrowseNodeComparator;
+import org.sonatype.nexus.repository.browse.node.DefaultBrowseNodeComparator;
+import org.sonatype.nexus.repository.content.browse.BrowseFacet;
+import org.sonatype.nexus.repository.content.facet.ContentFacet;
+import org.sonatype.nexus.repository.group.GroupFacet;
+import org.sonatype.nexus.repository.selector.ContentAuthHelper;
+import org.sonatype.nexus.repository.types.GroupType;
+import org.sonatype.nexus.repository.types.HostedType;
+import org.sonatype.nexus.security.SecurityHelper;
+import org.sonatype.nexus.selector.SelectorFilterBuilder;
+import org.sonatype.nexus.selector.SelectorManager;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BrowseNodeQueryServiceImplTest
+    extends TestSupport
+{
+  private static final List<String> PATH = Arrays.asList("org", "example");
+
+  @Mock
+  private SecurityHelper securityHelper;
+
+  @Mock
+  private SelectorManager selectorManager;
+
+  @Mock
+  private ContentAuthHelper contentAuthHelper;
+
+  @Mock
+  private SelectorFilterBuilder selectorFilterBuilder;
+
+  @Mock
+  private BrowseNodeComparator comparator;
+
+  private final Format format = new Format("raw") { };
+
+  private BrowseNodeQueryServiceImpl underTest;
+
+  @Before
+  public void setUp() {
+    Subject subject = mock(Subject.class);
+    when(subject.associateWith(any(Runnable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(subject.associateWith(any(Callable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    ThreadContext.bind(subject);
+
+    when(securityHelper.anyPermitted(any())).thenReturn(true);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (underTest != null) {
+      underTest.stop();
+    }
+    ThreadContext.unbindSubject();
+  }
+
+  @Test
+  public void groupMembersAreMergedInMemberOrder() throws Exception {
+    assertGroupMembersAreMergedInMemberOrder(1);
+  }
+
+  @Test
+  public void concurrentlyQueriedGroupMembersAreMergedInMemberOrder() throws Exception {
+    assertGroupMembersAreMergedInMemberOrder(4);
+  }
+
+  private void assertGroupMembersAreMergedInMemberOrder(final int threads) throws Exception {
+    List<BrowseFacet> facets = new ArrayList<>();
+    Repository group = group(facets,
+        nodes("a", "b"),
+        nodes("b", "c"),
+        nodes("d"));
+
+    Iterable<BrowseNode> results = underTest(threads).getByPath(group, PATH, 10);
+
+    assertThat(names(results), contains("a", "b", "c", "d"));
+  }
+
+  @Test
+  public void groupBrowseStopsOnceEnoughNodesAreFound() throws Exception {
+    List<BrowseFacet> facets = new ArrayList<>();
+    Repository group = group(facets,
+        nodes("a", "b"),
+        nodes("c"),
+        nodes("d"),
+        nodes("e"),
+        nodes("f"));
+
+    Iterable<BrowseNode> results = underTest(2).getByPath(group, PATH, 2);
+
+    assertThat(names(results), contains("a", "b"));
+    // at most one member is queried ahead of the one being merged
+    verify(facets.get(3), never()).getByDisplayPath(anyList(), anyInt(), any(), any());
+    verify(facets.get(4), never()).getByDisplayPath(anyList(), anyInt(), any(), any());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void memberFailuresArePropagated() throws Exception {
+    List<BrowseFacet> facets = new ArrayList<>();
+    Repository group = group(facets, nodes("a"), nodes("b"));
+    when(facets.get(1).getByDisplayPath(anyList(), anyInt(), any(), any()))
+        .thenThrow(new IllegalArgumentException("expected"));
+
+    underTest(4).getByPath(group, PATH, 10);
+  }
+
+  private BrowseNodeQueryServiceImpl underTest(final int memberQueryThreads) throws Exception {
+    underTest = new BrowseNodeQueryServiceImpl(securityHelper, selectorManager, emptyMap(), emptyMap(),
+        ImmutableMap.of(DefaultBrowseNodeComparator.NAME, comparator), contentAuthHelper, selectorFilterBuilder,
+        memberQueryThreads);
+    underTest.start();
+    return underTest;
+  }
+
+  @SafeVarargs
+  private final Repository group(final List<BrowseFacet> facets, final List<BrowseNode>... memberNodes) {
+    List<Repository> members = new ArrayList<>();
+    for (List<BrowseNode> nodes : memberNodes) {
+      BrowseFacet browseFacet = mock(BrowseFacet.class);
+      when(browseFacet.getByDisplayPath(anyList(), anyInt(), any(), any())).thenReturn(nodes);
+      facets.add(browseFacet);
+
+      Repository member = repository("member-" + members.size(), new HostedType());
+      when(member.optionalFacet(BrowseFacet.class)).thenReturn(Optional.of(browseFacet));
+      members.add(member);
+    }
+
+    GroupFacet groupFacet = mock(GroupFacet.class);
+    when(groupFacet.allMembers()).thenReturn(members);
+
+    Repository group = repository("group", new GroupType());
+    when(group.facet(GroupFacet.class)).thenReturn(groupFacet);
+    when(group.optionalFacet(ContentFacet.class)).thenReturn(Optional.empty());
+    return group;
+  }
+
+  private Repository repository(final String name, final Type type) {
+    Repository repository = mock(Repository.class);
+    when(repository.getName()).thenReturn(name);
+    when(repository.getFormat()).thenReturn(format);
+    when(repository.getType()).thenReturn(type);
+    return repository;
+  }
+
+  private static List<BrowseNode> nodes(final String... names) {
+    return Arrays.stream(names).map(name -> {
+      BrowseNodeData node = new BrowseNodeData();
+      node.setDisplayName(name);
+      node.setRepositoryId(1);
+      return (BrowseNode) node;
+    }).collect(toList());
+  }
+
+  private static List<String> names(final Iterable<BrowseNode> nodes) {
+    List<String> names = new ArrayList<>();
+    nodes.forEach(node -> names.add(node.getName()));
+    return names;
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.maintenance.internal;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.common.entity.Continuation;
+import org.sonatype.nexus.datastore.api.DataSession;
+import org.sonatype.nexus.repository.Format;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.browse.node.BrowseNode;
+import org.sonatype.nexus.repository.browse.node.BrowseNodeConfiguration;
+import org.sonatype.nexus.repository.browse.node.BrowseNodeQueryService;
+import org.sonatype.nexus.repository.content.AssetBlob;
+import org.sonatype.nexus.repository.content.facet.ContentFacet;
+import org.sonatype.nexus.repository.content.facet.ContentFacetStores;
+import org.sonatype.nexus.repository.content.facet.ContentFacetSupport;
+import org.sonatype.nexus.repository.content.fluent.FluentAsset;
+import org.sonatype.nexus.repository.content.fluent.FluentAssets;
+import org.sonatype.nexus.repository.content.fluent.FluentComponent;
+import org.sonatype.nexus.repository.content.fluent.FluentComponents;
+import org.sonatype.nexus.repository.content.fluent.FluentQuery;
+import org.sonatype.nexus.repository.content.maintenance.ContentMaintenanceFacet;
+import org.sonatype.nexus.repository.content.store.AssetStore;
+import org.sonatype.nexus.repository.content.store.FormatStoreManager;
+import org.sonatype.nexus.repository.security.BulkContentPermission;
+import org.sonatype.nexus.repository.security.ContentPermissionChecker;
+import org.sonatype.nexus.repository.security.RepositoryViewPermission;
+import org.sonatype.nexus.repository.security.VariableResolverAdapter;
+import org.sonatype.nexus.repository.security.VariableResolverAdapterManager;
+import org.sonatype.nexus.security.SecurityHelper;
+import org.sonatype.nexus.selector.VariableSource;
+import org.sonatype.nexus.transaction.Transaction;
+
+import com.google.common.collect.ForwardingCollection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.content.store.InternalIds.toExternalId;
+import static org.sonatype.nexus.security.BreadActions.DELETE;
+
+public class DeleteFolderServiceImplTest
+    extends TestSupport
+{
+  private static final OffsetDateTime NOW = OffsetDateTime.now();
+
+  @Mock
+  private BrowseNodeQueryService browseNodeQueryService;
+
+  @Mock
+  private BrowseNodeConfiguration configuration;
+
+  @Mock
+  private ContentPermissionChecker contentPermissionChecker;
+
+  @Mock
+  private VariableResolverAdapterManager variableResolverAdapterManager;
+
+  @Mock
+  private VariableResolverAdapter variableResolverAdapter;
+
+  @Mock
+  private SecurityHelper securityHelper;
+
+  @Mock
+  private BulkContentPermission deletePermission;
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private ContentMaintenanceFacet contentMaintenance;
+
+  @Mock
+  private FluentAssets fluentAssets;
+
+  @Mock
+  private FluentQuery<FluentAsset> assetQuery;
+
+  @Mock
+  private FluentComponents fluentComponents;
+
+  @Mock
+  private FluentQuery<FluentComponent> componentQuery;
+
+  @Mock
+  private Transaction tx;
+
+  private final List<BrowseNode> browseNodes = new ArrayList<>();
+
+  private final List<FluentAsset> assets = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    when(repository.getName()).thenReturn("repo");
+    when(repository.getFormat()).thenReturn(new Format("maven2") { });
+    when(repository.facet(ContentMaintenanceFacet.class)).thenReturn(contentMaintenance);
+    when(configuration.getMaxNodes()).thenReturn(100);
+    when(browseNodeQueryService.getByPath(repository, asList("com", "sonatype"), 100)).thenReturn(browseNodes);
+    when(variableResolverAdapterManager.get("maven2")).thenReturn(variableResolverAdapter);
+    when(variableResolverAdapter.fromPath(anyString(), eq("maven2"))).thenReturn(mock(VariableSource.class));
+    when(contentPermissionChecker.getBulkPermission(singleton("repo"), "maven2", DELETE)).thenReturn(deletePermission);
+    when(deletePermission.test(any())).thenReturn(true);
+    when(securityHelper.isPermitted(new RepositoryViewPermission(repository, DELETE)))
+        .thenReturn(new boolean[]{false});
+
+    ContentFacetSupport contentFacet = mockContentFacet();
+    when(contentFacet.assets()).thenReturn(fluentAssets);
+    when(fluentAssets.byFilter(anyString(), anyMap())).thenReturn(assetQuery);
+    when(assetQuery.browse(anyInt(), isNull())).thenAnswer(invocation -> new TestContinuation<>(assets));
+    when(contentFacet.components()).thenReturn(fluentComponents);
+    when(fluentComponents.byFilter(anyString(), anyMap())).thenReturn(componentQuery);
+  }
+
+  @Test
+  public void deletesAssetsUnderTheFolderInOneBatch() {
+    FluentAsset asset1 = mockAsset(1, "/com/sonatype/a", NOW.minusHours(1));
+    FluentAsset asset2 = mockAsset(2, "/com/sonatype/b", NOW.minusHours(1));
+    FluentAsset asset3 = mockAsset(3, "/com/sonatype/c", NOW.minusHours(1));
+
+    underTest(1000).deleteFolder(repository, "com/sonatype", NOW);
+
+    verify(fluentAssets).byFilter(eq("asset_id IN (1,2,3)"), anyMap());
+    verify(contentMaintenance).deleteAsset(asset1);
+    verify(contentMaintenance).deleteAsset(asset2);
+    verify(contentMaintenance).deleteAsset(asset3);
+    verify(tx).begin();
+    verify(tx).commit();
+  }
+
+  @Test
+  public void splitsLargeFoldersIntoBatches() {
+    mockAsset(1, "/com/sonatype/a", NOW.minusHours(1));
+    mockAsset(2, "/com/sonatype/b", NOW.minusHours(1));
+    mockAsset(3, "/com/sonatype/c", NOW.minusHours(1));
+
+    underTest(2).deleteFolder(repository, "com/sonatype", NOW);
+
+    verify(fluentAssets).byFilter(eq("asset_id IN (1,2)"), anyMap());
+    verify(fluentAssets).byFilter(eq("asset_id IN (3)"), anyMap());
+    verify(tx, times(2)).commit();
+  }
+
+  @Test
+  public void skipsAssetsCreatedAfterTheTimestampOrNotPermitted() {
+    FluentAsset newer = mockAsset(1, "/com/sonatype/newer", NOW.plusHours(1));
+    FluentAsset forbidden = mockAsset(2, "/com/sonatype/forbidden", NOW.minusHours(1));
+    FluentAsset permitted = mockAsset(3, "/com/sonatype/permitted", NOW.minusHours(1));
+    VariableSource forbiddenSource = mock(VariableSource.class);
+    when(variableResolverAdapter.fromPath("/com/sonatype/forbidden", "maven2")).thenReturn(forbiddenSource);
+    when(deletePermission.test(forbiddenSource)).thenReturn(false);
+
+    underTest(1000).deleteFolder(repository, "com/sonatype", NOW);
+
+    verify(contentMaintenance, never()).deleteAsset(newer);
+    verify(contentMaintenance, never()).deleteAsset(forbidden);
+    verify(contentMaintenance).deleteAsset(permitted);
+  }
+
+  @Test
+  public void fallsBackToDeletingOneAtATimeWhenTheBatchFails() {
+    FluentAsset asset1 = mockAsset(1, "/com/sonatype/a", NOW.minusHours(1));
+    FluentAsset broken = mockAsset(2, "/com/sonatype/b", NOW.minusHours(1));
+    FluentAsset asset3 = mockAsset(3, "/com/sonatype/c", NOW.minusHours(1));
+    doThrow(new IllegalStateException("broken")).when(contentMaintenance).deleteAsset(broken);
+
+    underTest(1000).deleteFolder(repository, "com/sonatype", NOW);
+
+    verify(tx).rollback();
+    verify(contentMaintenance, times(2)).deleteAsset(asset1);
+    verify(contentMaintenance, times(2)).deleteAsset(broken);
+    verify(contentMaintenance).deleteAsset(asset3);
+  }
+
+  @Test
+  public void deletesComponentsWhenPermitted() {
+    when(securityHelper.isPermitted(new RepositoryViewPermission(repository, DELETE)))
+        .thenReturn(new boolean[]{true});
+    BrowseNode node = mock(BrowseNode.class);
+    when(node.isLeaf()).thenReturn(true);
+    when(node.getComponentId()).thenReturn(toExternalId(7));
+    browseNodes.add(node);
+    FluentComponent component = mock(FluentComponent.class);
+    when(componentQuery.browse(anyInt(), isNull())).thenReturn(new TestContinuation<>(singletonList(component)));
+
+    underTest(1000).deleteFolder(repository, "com/sonatype", NOW);
+
+    verify(fluentComponents).byFilter(eq("component_id IN (7) AND last_updated < #{filterParams.timestamp}"),
+        eq(singletonMap("timestamp", NOW)));
+    verify(contentMaintenance).deleteComponent(component);
+  }
+
+  @Test
+  public void doesNothingWhenNoContentMayBeDeleted() {
+    mockAsset(1, "/com/sonatype/a", NOW.minusHours(1));
+    when(deletePermission.isNonePermitted()).thenReturn(true);
+
+    underTest(1000).deleteFolder(repository, "com/sonatype", NOW);
+
+    verifyNoInteractions(browseNodeQueryService, fluentAssets, contentMaintenance);
+  }
+
+  private DeleteFolderServiceImpl underTest(final int batchSize) {
+    return new DeleteFolderServiceImpl(browseNodeQueryService, configuration, contentPermissionChecker,
+        variableResolverAdapterManager, securityHelper, batchSize);
+  }
+
+  private FluentAsset mockAsset(final int id, final String path, final OffsetDateTime blobCreated) {
+    BrowseNode node = mock(BrowseNode.class);
+    when(node.isLeaf()).thenReturn(true);
+    when(node.getAssetId()).thenReturn(toExternalId(id));
+    browseNodes.add(node);
+
+    AssetBlob blob = mock(AssetBlob.class);
+    when(blob.blobCreated()).thenReturn(blobCreated);
+    FluentAsset asset = mock(FluentAsset.class);
+    when(asset.path()).thenReturn(path);
+    when(asset.blob()).thenReturn(Optional.of(blob));
+    assets.add(asset);
+    return asset;
+  }
+
+  private ContentFacetSupport mockContentFacet() {
+    FormatStoreManager formatStoreManager = mock(FormatStoreManager.class);
+    AssetStore<?> assetStore = mock(AssetStore.class);
+    DataSession<?> session = mock(DataSession.class);
+    doReturn(assetStore).when(formatStoreManager).assetStore("content");
+    doReturn(session).when(assetStore).openSession(any());
+    doReturn(tx).when(session).getTransaction();
+
+    ContentFacetStores stores =
+        new ContentFacetStores(mock(BlobStoreManager.class), "default", formatStoreManager, "content");
+    ContentFacetSupport contentFacet = mock(ContentFacetSupport.class);
+    when(contentFacet.stores()).thenReturn(stores);
+    when(repository.facet(ContentFacet.class)).thenReturn(contentFacet);
+    return contentFacet;
+  }
+
+  private static class TestContinuation<E>
+      extends ForwardingCollection<E>
+      implements Continuation<E>
+  {
+    private final Collection<E> collection;
+
+    TestContinuation(final Collection<E> collection) {
+      this.collection = collection;
+    }
+
+    @Override
+    protected Collection<E> delegate() {
+      return collection;
+    }
+
+    @Override
+    public String nextContinuationToken() {
+      return null;
+    }
+  }
+}
@@ -13,6 +13,8 @@
 package org.sonatype.nexus.repository.content.replication;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,19 +24,39 @@ import org.sonatype.nexus.blobstore.api.BlobAttributes;
 import org.sonatype.nexus.blobstore.api.BlobId;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.datastore.api.DataSession;
 import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.content.facet.ContentFacet;
+import org.sonatype.nexus.repository.content.facet.ContentFacetStores;
+import org.sonatype.nexus.repository.content.facet.ContentFacetSupport;
+import org.sonatype.nexus.repository.content.store.AssetStore;
+import org.sonatype.nexus.repository.content.store.FormatStoreManager;
 import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.repository.replication.BlobEvent;
+import org.sonatype.nexus.repository.replication.BlobEventType;
+import org.sonatype.nexus.repository.replication.ReplicationBatchResult;
+import org.sonatype.nexus.repository.replication.ReplicationBlob;
 import org.sonatype.nexus.repository.replication.ReplicationIngestionException;
+import org.sonatype.nexus.transaction.Transaction;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.times;
@@ -116,6 +138,53 @@ public class ReplicationIngesterHelperImplTest extends TestSupport
     assertThat(componentAttributesCaptor.getValue(), is(componentAttributes));
   }
 
+  @Test
+  public void testReplicateBatchAppliesChangesInOneTransaction() throws IOException {
+    Transaction tx = mockContentTransaction();
+
+    ReplicationBatchResult result = new ReplicationBatchResult();
+    underTest.replicateBatch("repoName", "blobStoreName",
+        Arrays.asList(replicationBlob("a", "a.txt", BlobEventType.ADDED), replicationBlob("b", "a.txt",
+            BlobEventType.DELETED), replicationBlob("c", "a.txt", BlobEventType.ADDED)), result);
+
+    InOrder inOrder = inOrder(replicationFacet);
+    inOrder.verify(replicationFacet).replicate(eq("/a.txt"), eq(blob), anyMap(), anyMap());
+    inOrder.verify(replicationFacet).replicateDelete("/a.txt");
+    inOrder.verify(replicationFacet).replicate(eq("/a.txt"), eq(blob), anyMap(), anyMap());
+    verify(tx, times(1)).begin();
+    verify(tx, times(1)).commit();
+    assertThat(result.getSucceeded(), is(3));
+    assertThat(result.getFailed(), is(0));
+  }
+
+  @Test
+  public void testReplicateBatchIsolatesFailingChanges() throws IOException {
+    mockContentTransaction();
+    doThrow(new IllegalStateException("broken"))
+        .when(replicationFacet).replicate(eq("/bad.txt"), any(), anyMap(), anyMap());
+
+    ReplicationBatchResult result = new ReplicationBatchResult();
+    underTest.replicateBatch("repoName", "blobStoreName",
+        Arrays.asList(replicationBlob("a", "good.txt", BlobEventType.ADDED),
+            replicationBlob("b", "bad.txt", BlobEventType.ADDED)), result);
+
+    verify(replicationFacet, times(2)).replicate(eq("/good.txt"), eq(blob), anyMap(), anyMap());
+    assertThat(result.getSucceeded(), is(1));
+    assertThat(result.getFailed(), is(1));
+    assertThat(result.getFailures(), hasKey("b"));
+  }
+
+  @Test
+  public void testReplicateBatchNullRepo() {
+    when(repositoryManager.get("repoName")).thenReturn(null);
+
+    ReplicationBatchResult result = new ReplicationBatchResult();
+    underTest.replicateBatch("repoName", "blobStoreName",
+        Collections.singletonList(replicationBlob("a", "a.txt", BlobEventType.ADDED)), result);
+
+    assertThat(result.getFailures().get("a"), is("Can't replicate blob a as the repository repoName doesn't exist"));
+  }
+
   @Test
   public void testDeleteReplicationNullRepo() {
     when(repositoryManager.get("repoName")).thenReturn(null);
@@ -133,4 +202,30 @@ public class ReplicationIngesterHelperImplTest extends TestSupport
     verify(replicationFacet).replicateDelete(pathCaptor.capture());
     assertThat(pathCaptor.getValue(), is("/path"));
   }
+
+  private Transaction mockContentTransaction() {
+    FormatStoreManager formatStoreManager = mock(FormatStoreManager.class);
+    AssetStore<?> assetStore = mock(AssetStore.class);
+    DataSession<?> session = mock(DataSession.class);
+    Transaction tx = mock(Transaction.class);
+    doReturn(assetStore).when(formatStoreManager).assetStore("content");
+    doReturn(session).when(assetStore).openSession(any());
+    doReturn(tx).when(session).getTransaction();
+
+    ContentFacetStores stores =
+        new ContentFacetStores(blobStoreManager, "blobStoreName", formatStoreManager, "content");
+    ContentFacetSupport contentFacet = mock(ContentFacetSupport.class);
+    when(contentFacet.stores()).thenReturn(stores);
+    when(repository.facet(ContentFacet.class)).thenReturn(contentFacet);
+    return tx;
+  }
+
+  private ReplicationBlob replicationBlob(final String blobId, final String path, final BlobEventType eventType) {
+    BlobAttributes attributes = mock(BlobAttributes.class);
+    Map<String, String> blobHeaders = new HashMap<>();
+    blobHeaders.put(BlobStore.BLOB_NAME_HEADER, path);
+    when(attributes.getHeaders()).thenReturn(blobHeaders);
+    BlobEvent event = new BlobEvent().withBlobId(blobId).withRepositoryName("repoName").withBlobEventType(eventType);
+    return new ReplicationBlob(event, blob, attributes, new HashMap<>(), new HashMap<>());
+  }
 }
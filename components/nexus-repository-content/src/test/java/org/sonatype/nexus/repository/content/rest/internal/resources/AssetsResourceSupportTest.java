@@ -14,6 +14,7 @@ package org.sonatype.nexus.repository.content.rest.internal.resources;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.common.entity.Continuation;
@@ -87,6 +88,9 @@ public class AssetsResourceSupportTest
   @Mock
   private ContentAuthHelper contentAuthHelper;
 
+  @Mock
+  private Predicate<String> pathPermitted;
+
   @Mock
   private FluentAssets fluentAssets;
 
@@ -109,6 +113,7 @@ public class AssetsResourceSupportTest
     mockRepository();
     mockContentFacet();
     mockFluentAssets();
+    when(contentAuthHelper.pathPermissions(A_FORMAT, REPOSITORY_NAME)).thenReturn(pathPermitted);
     underTest = new AssetsResource(repositoryManagerRESTAdapter, maintenanceService, contentAuthHelper, null);
   }
 
@@ -120,19 +125,19 @@ public class AssetsResourceSupportTest
 
     assertThat(assets, empty());
     verify(fluentAssets).browse(LIMIT, null);
-    verify(contentAuthHelper, never()).checkPathPermissions(ASSET_PATH, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, never()).test(ASSET_PATH);
   }
 
   @Test
   public void browseShouldBeEmptyWhenNoPermittedAssets() {
     when(assetContinuation.isEmpty()).thenReturn(false).thenReturn(true);
-    when(contentAuthHelper.checkPathPermissions(ASSET_PATH, A_FORMAT, REPOSITORY_NAME)).thenReturn(false);
+    when(pathPermitted.test(ASSET_PATH)).thenReturn(false);
 
     List<FluentAsset> assets = underTest.browse(repository, null);
 
     assertThat(assets, empty());
     verify(fluentAssets, times(2)).browse(LIMIT, null);
-    verify(contentAuthHelper, times(NUMBER_OF_ASSETS)).checkPathPermissions(ASSET_PATH, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, times(NUMBER_OF_ASSETS)).test(ASSET_PATH);
   }
 
   @Test
@@ -141,25 +146,26 @@ public class AssetsResourceSupportTest
     int numberOfPermittedAssets = NUMBER_OF_ASSETS - numberOfAssetsNotPermitted;
 
     when(assetContinuation.isEmpty()).thenReturn(false).thenReturn(true);
-    when(contentAuthHelper.checkPathPermissions(ASSET_PATH, A_FORMAT, REPOSITORY_NAME))
+    when(pathPermitted.test(ASSET_PATH))
         .thenReturn(false).thenReturn(false, false, false, true);
 
     List<FluentAsset> assets = underTest.browse(repository, null);
 
     assertThat(assets, hasSize(numberOfPermittedAssets));
     verify(fluentAssets, times(2)).browse(LIMIT, null);
-    verify(contentAuthHelper, times(NUMBER_OF_ASSETS)).checkPathPermissions(ASSET_PATH, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, times(NUMBER_OF_ASSETS)).test(ASSET_PATH);
+    verify(contentAuthHelper).pathPermissions(A_FORMAT, REPOSITORY_NAME);
   }
 
   @Test
   public void shouldTrimNumberOfAssetsToLimit() {
     when(assetContinuation.isEmpty()).thenReturn(false);
-    when(contentAuthHelper.checkPathPermissions(ASSET_PATH, A_FORMAT, REPOSITORY_NAME)).thenReturn(true);
+    when(pathPermitted.test(ASSET_PATH)).thenReturn(true);
 
     List<FluentAsset> assets = underTest.browse(repository, null);
 
     assertThat(assets, hasSize(AssetsResource.PAGE_SIZE));
-    verify(contentAuthHelper, times(NUMBER_OF_ASSETS)).checkPathPermissions(ASSET_PATH, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, times(NUMBER_OF_ASSETS)).test(ASSET_PATH);
   }
 
   @Test
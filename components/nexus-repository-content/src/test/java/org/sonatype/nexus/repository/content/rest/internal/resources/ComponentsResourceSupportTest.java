@@ -12,7 +12,9 @@
  */
 package org.sonatype.nexus.repository.content.rest.internal.resources;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.common.entity.Continuation;
@@ -46,11 +48,14 @@ import static java.util.stream.IntStream.range;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonatype.nexus.repository.content.rest.internal.resources.AssetsResourceSupport.LIMIT;
+import static org.sonatype.nexus.repository.content.rest.internal.resources.ComponentsResource.EXPORT_BATCH_SIZE;
 
 public class ComponentsResourceSupportTest
     extends TestSupport
@@ -69,6 +74,8 @@ public class ComponentsResourceSupportTest
 
   private static final int A_REPOSITORY_ID = 1;
 
+  private static final String NEXT_EXPORT_PAGE = "next-export-page";
+
   @Mock
   private ContentFacetSupport contentFacetSupport;
 
@@ -81,6 +88,9 @@ public class ComponentsResourceSupportTest
   @Mock
   private ContentAuthHelper contentAuthHelper;
 
+  @Mock
+  private Predicate<String> pathPermitted;
+
   @Mock
   private RepositoryManagerRESTAdapter repositoryManagerRESTAdapter;
 
@@ -114,6 +124,7 @@ public class ComponentsResourceSupportTest
     mockRepository();
     mockContentFacet();
     mockFluentComponents();
+    when(contentAuthHelper.pathPermissions(A_FORMAT, REPOSITORY_NAME)).thenReturn(pathPermitted);
 
     underTest = new ComponentsResource(repositoryManagerRESTAdapter, maintenanceService, uploadManager,
         uploadConfiguration, componentXOFactory, contentAuthHelper, ImmutableSet.of(componentsResourceExtension), null);
@@ -127,20 +138,19 @@ public class ComponentsResourceSupportTest
 
     assertThat(components, empty());
     verify(fluentComponents).browse(LIMIT, null);
-    verify(contentAuthHelper, never()).checkPathPermissions(COMPONENT_NAME, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, never()).test(COMPONENT_NAME);
   }
 
   @Test
   public void browseShouldBeEmptyWhenNoPermittedComponents() {
     when(componentContinuation.isEmpty()).thenReturn(false).thenReturn(true);
-    when(contentAuthHelper.checkPathPermissions(COMPONENT_NAME, A_FORMAT, REPOSITORY_NAME)).thenReturn(false);
+    when(pathPermitted.test(COMPONENT_NAME)).thenReturn(false);
 
     List<FluentComponent> components = underTest.browse(repository, null);
 
     assertThat(components, empty());
     verify(fluentComponents, times(2)).browse(LIMIT, null);
-    verify(contentAuthHelper, times(NUMBER_OF_COMPONENTS))
-        .checkPathPermissions(COMPONENT_NAME, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, times(NUMBER_OF_COMPONENTS)).test(COMPONENT_NAME);
   }
 
   @Test
@@ -149,27 +159,70 @@ public class ComponentsResourceSupportTest
     int numberOfPermittedComponents = NUMBER_OF_COMPONENTS - numberOfComponentsNotPermitted;
 
     when(componentContinuation.isEmpty()).thenReturn(false).thenReturn(true);
-    when(contentAuthHelper.checkPathPermissions(COMPONENT_NAME, A_FORMAT, REPOSITORY_NAME))
+    when(pathPermitted.test(COMPONENT_NAME))
         .thenReturn(false).thenReturn(false, false, false, true);
 
     List<FluentComponent> components = underTest.browse(repository, null);
 
     assertThat(components, hasSize(numberOfPermittedComponents));
     verify(fluentComponents, times(2)).browse(LIMIT, null);
-    verify(contentAuthHelper, times(NUMBER_OF_COMPONENTS))
-        .checkPathPermissions(COMPONENT_NAME, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, times(NUMBER_OF_COMPONENTS)).test(COMPONENT_NAME);
+    verify(contentAuthHelper).pathPermissions(A_FORMAT, REPOSITORY_NAME);
   }
 
   @Test
   public void shouldTrimNumberOfComponentsToLimit() {
     when(componentContinuation.isEmpty()).thenReturn(false);
-    when(contentAuthHelper.checkPathPermissions(COMPONENT_NAME, A_FORMAT, REPOSITORY_NAME)).thenReturn(true);
+    when(pathPermitted.test(COMPONENT_NAME)).thenReturn(true);
 
     List<FluentComponent> components = underTest.browse(repository, null);
 
     assertThat(components, hasSize(AssetsResource.PAGE_SIZE));
-    verify(contentAuthHelper, times(NUMBER_OF_COMPONENTS))
-        .checkPathPermissions(COMPONENT_NAME, A_FORMAT, REPOSITORY_NAME);
+    verify(pathPermitted, times(NUMBER_OF_COMPONENTS)).test(COMPONENT_NAME);
+  }
+
+  @Test
+  public void exportShouldResolvePermissionsOnce() throws Exception {
+    when(componentContinuation.isEmpty()).thenReturn(false).thenReturn(true);
+    when(componentContinuation.nextContinuationToken()).thenReturn(NEXT_EXPORT_PAGE);
+    when(fluentComponents.browseEager(EXPORT_BATCH_SIZE, NEXT_EXPORT_PAGE))
+        .thenReturn(new FluentContinuation<>(componentContinuation, asset -> aFluentComponent()));
+    when(pathPermitted.test(COMPONENT_NAME)).thenReturn(true);
+
+    List<List<FluentComponent>> batches = new ArrayList<>();
+    underTest.export(repository, null, EXPORT_BATCH_SIZE, batches::add);
+
+    assertThat(batches, hasSize(1));
+    assertThat(batches.get(0), hasSize(NUMBER_OF_COMPONENTS));
+    verify(fluentComponents).browseEager(EXPORT_BATCH_SIZE, null);
+    verify(fluentComponents).browseEager(EXPORT_BATCH_SIZE, NEXT_EXPORT_PAGE);
+    verify(contentAuthHelper).pathPermissions(A_FORMAT, REPOSITORY_NAME);
+    verify(contentAuthHelper, never()).checkPathPermissions(any(), any(), any());
+  }
+
+  @Test
+  public void exportShouldOnlyReturnPermittedComponents() throws Exception {
+    when(componentContinuation.isEmpty()).thenReturn(false).thenReturn(true);
+    when(pathPermitted.test(COMPONENT_NAME))
+        .thenReturn(false, false, false, false, true);
+
+    List<List<FluentComponent>> batches = new ArrayList<>();
+    underTest.export(repository, null, EXPORT_BATCH_SIZE, batches::add);
+
+    assertThat(batches, hasSize(1));
+    assertThat(batches.get(0).size(), is(NUMBER_OF_COMPONENTS - 4));
+    verify(pathPermitted, times(NUMBER_OF_COMPONENTS)).test(COMPONENT_NAME);
+  }
+
+  @Test
+  public void exportShouldNotEmitEmptyBatches() throws Exception {
+    when(componentContinuation.isEmpty()).thenReturn(true);
+
+    List<List<FluentComponent>> batches = new ArrayList<>();
+    underTest.export(repository, null, EXPORT_BATCH_SIZE, batches::add);
+
+    assertThat(batches, empty());
+    verify(fluentComponents).browseEager(EXPORT_BATCH_SIZE, null);
   }
 
   private void mockRepository() {
@@ -189,6 +242,8 @@ public class ComponentsResourceSupportTest
   private void mockFluentComponents() {
     when(fluentComponents.browse(LIMIT, null))
         .thenReturn(new FluentContinuation<>(componentContinuation, asset -> aFluentComponent()));
+    when(fluentComponents.browseEager(EXPORT_BATCH_SIZE, null))
+        .thenReturn(new FluentContinuation<>(componentContinuation, asset -> aFluentComponent()));
 
     List<FluentComponent> fluentComponentList =
         range(0, NUMBER_OF_COMPONENTS).mapToObj(i -> aFluentComponent()).collect(toList());
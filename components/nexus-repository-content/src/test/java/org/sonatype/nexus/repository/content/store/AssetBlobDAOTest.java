@@ -25,10 +25,12 @@ import org.sonatype.nexus.datastore.api.DataSession;
 import org.sonatype.nexus.datastore.api.DuplicateKeyException;
 import org.sonatype.nexus.repository.content.AssetBlob;
 import org.sonatype.nexus.repository.content.store.example.TestAssetBlobDAO;
+import org.sonatype.nexus.repository.content.store.example.TestAssetDAO;
 
 import com.google.common.collect.ImmutableMap;
 import org.junit.Test;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
@@ -267,6 +269,59 @@ public class AssetBlobDAOTest
     }
   }
 
+  @Test
+  public void testBrowseWithoutChecksumAndSetChecksumsBatch() {
+    generateConfiguration();
+    generateRandomRepositories(1);
+    int repositoryId = generatedRepositories().get(0).repositoryId;
+
+    AssetBlobData sha1Only = randomAssetBlob();
+    sha1Only.setChecksums(ImmutableMap.of("sha1", "a"));
+    AssetBlobData complete = randomAssetBlob();
+    complete.setChecksums(ImmutableMap.of("sha1", "b", "sha256", "c"));
+    AssetBlobData none = randomAssetBlob();
+
+    try (DataSession<?> session = sessionRule.openSession(DEFAULT_DATASTORE_NAME)) {
+      AssetBlobDAO dao = session.access(TestAssetBlobDAO.class);
+      TestAssetDAO assetDao = session.access(TestAssetDAO.class);
+      int i = 0;
+      for (AssetBlobData assetBlob : asList(sha1Only, complete, none)) {
+        dao.createAssetBlob(assetBlob);
+        AssetData asset = generateAsset(repositoryId, "/path/" + i++);
+        assetDao.createAsset(asset, false);
+        asset.setAssetBlob(assetBlob);
+        assetDao.updateAssetBlobLink(asset, false);
+      }
+      // an asset blob which is not used by the repository
+      dao.createAssetBlob(randomAssetBlob());
+      session.getTransaction().commit();
+    }
+
+    try (DataSession<?> session = sessionRule.openSession(DEFAULT_DATASTORE_NAME)) {
+      AssetBlobDAO dao = session.access(TestAssetBlobDAO.class);
+
+      Continuation<AssetBlob> missing = dao.browseAssetBlobsWithoutChecksum(repositoryId, "sha256", 10, null);
+      assertThat(missing, contains(sameBlob(sha1Only), sameBlob(none)));
+      assertThat(dao.browseAssetBlobsWithoutChecksum(repositoryId, "sha256", 1, null), contains(sameBlob(sha1Only)));
+      assertThat(dao.browseAssetBlobsWithoutChecksum(repositoryId, "sha256", 10,
+          dao.browseAssetBlobsWithoutChecksum(repositoryId, "sha256", 1, null).nextContinuationToken()),
+          contains(sameBlob(none)));
+      assertThat(dao.browseAssetBlobsWithoutChecksum(repositoryId, "sha1", 10, null), contains(sameBlob(none)));
+      assertThat(dao.browseAssetBlobsWithoutChecksum(repositoryId + 1, "sha256", 10, null), empty());
+
+      missing.forEach(assetBlob -> ((AssetBlobData) assetBlob).setChecksums(ImmutableMap.of("sha256", "d")));
+      dao.setChecksumsBatch(missing);
+      session.getTransaction().commit();
+    }
+
+    try (DataSession<?> session = sessionRule.openSession(DEFAULT_DATASTORE_NAME)) {
+      AssetBlobDAO dao = session.access(TestAssetBlobDAO.class);
+
+      assertThat(dao.browseAssetBlobsWithoutChecksum(repositoryId, "sha256", 10, null), empty());
+      assertThat(dao.readAssetBlob(none.blobRef()).get().checksums(), is(ImmutableMap.of("sha256", "d")));
+    }
+  }
+
   private void prepareLegacyFormatAssetBlobs(final int assetsCount, final int legacyAssetsCount) throws SQLException {
     try (DataSession<?> session = sessionRule.openSession(DEFAULT_DATASTORE_NAME);
          Connection connection = sessionRule.openConnection(DEFAULT_DATASTORE_NAME)) {
@@ -13,6 +13,7 @@
 package org.sonatype.nexus.repository.content.store.internal;
 
 import java.lang.reflect.Field;
+import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 
@@ -36,9 +37,12 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentCaptor.forClass;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -209,18 +213,24 @@ public class AssetBlobCleanupTaskTest
     task.configure(taskConfiguration);
 
     ArgumentCaptor<String[]> blobRefIdCaptor = forClass(String[].class);
-    InOrder inOrder = Mockito.inOrder(assetBlobStore);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Collection<BlobId>> blobIdsCaptor = forClass(Collection.class);
+    InOrder inOrder = Mockito.inOrder(assetBlobStore, blobStore);
 
     task.execute();
 
-    // first page
+    // first page, the blob with a missing blob store is left alone
     inOrder.verify(assetBlobStore)
         .browseUnusedAssetBlobs(BATCH_SIZE, BLOB_CREATED_DELAY_MINUTE, null);
+    inOrder.verify(blobStore).deleteAll(blobIdsCaptor.capture(), eq(EXPECTED_REASON));
+    assertThat(blobIdsCaptor.getValue(), hasSize(4));
     inOrder.verify(assetBlobStore).deleteAssetBlobBatch(blobRefIdCaptor.capture());
     when(assetBlobStore.deleteAssetBlobBatch(
         new String[]{blobRefBecomesUsed.getBlobId().toString()})).thenReturn(false);
     inOrder.verify(assetBlobStore)
         .browseUnusedAssetBlobs(BATCH_SIZE, BLOB_CREATED_DELAY_MINUTE, "NEXT");
+    inOrder.verify(blobStore).deleteAll(blobIdsCaptor.capture(), eq(EXPECTED_REASON));
+    assertThat(blobIdsCaptor.getValue(), hasSize(3));
     inOrder.verify(assetBlobStore).deleteAssetBlobBatch(blobRefIdCaptor.capture());
     inOrder.verify(assetBlobStore)
         .browseUnusedAssetBlobs(BATCH_SIZE, BLOB_CREATED_DELAY_MINUTE, "EOL");
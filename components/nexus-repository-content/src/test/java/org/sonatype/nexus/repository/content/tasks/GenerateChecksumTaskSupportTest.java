@@ -0,0 +1,239 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.tasks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.blobstore.api.BlobId;
+import org.sonatype.nexus.blobstore.api.BlobRef;
+import org.sonatype.nexus.blobstore.api.BlobStore;
+import org.sonatype.nexus.blobstore.api.BlobStoreConfiguration;
+import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
+import org.sonatype.nexus.common.entity.Continuation;
+import org.sonatype.nexus.common.hash.HashAlgorithm;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.config.Configuration;
+import org.sonatype.nexus.repository.content.AssetBlob;
+import org.sonatype.nexus.repository.content.facet.ContentFacet;
+import org.sonatype.nexus.repository.content.facet.ContentFacetStores;
+import org.sonatype.nexus.repository.content.facet.ContentFacetSupport;
+import org.sonatype.nexus.repository.content.kv.global.GlobalKeyValueStore;
+import org.sonatype.nexus.repository.content.kv.global.NexusKeyValue;
+import org.sonatype.nexus.repository.content.kv.global.ValueType;
+import org.sonatype.nexus.repository.content.store.AssetBlobStore;
+import org.sonatype.nexus.repository.content.store.FormatStoreManager;
+import org.sonatype.nexus.scheduling.TaskConfiguration;
+
+import com.google.common.collect.ForwardingCollection;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.config.ConfigurationConstants.BLOB_STORE_NAME;
+import static org.sonatype.nexus.repository.config.ConfigurationConstants.STORAGE;
+
+public class GenerateChecksumTaskSupportTest
+    extends TestSupport
+{
+  private static final String CHECKPOINT_KEY = "checksums.repo.sha256.checkpoint";
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private Configuration configuration;
+
+  @Mock
+  private BlobStoreManager blobStoreManager;
+
+  @Mock
+  private BlobStore blobStore;
+
+  @Mock
+  private GlobalKeyValueStore globalKeyValueStore;
+
+  @Mock
+  private AssetBlobStore<?> assetBlobStore;
+
+  private TestGenerateChecksumTask underTest;
+
+  @Before
+  public void setUp() {
+    when(repository.getName()).thenReturn("repo");
+    when(repository.getConfiguration()).thenReturn(configuration);
+    when(configuration.attributes(STORAGE))
+        .thenReturn(new NestedAttributesMap(STORAGE, ImmutableMap.of(BLOB_STORE_NAME, "default")));
+    when(blobStoreManager.get("default")).thenReturn(blobStore);
+    BlobStoreConfiguration blobStoreConfiguration = mock(BlobStoreConfiguration.class);
+    when(blobStoreConfiguration.getName()).thenReturn("default");
+    when(blobStore.getBlobStoreConfiguration()).thenReturn(blobStoreConfiguration);
+    when(globalKeyValueStore.getKey(any())).thenReturn(Optional.empty());
+
+    FormatStoreManager formatStoreManager = mock(FormatStoreManager.class);
+    doReturn(assetBlobStore).when(formatStoreManager).assetBlobStore("content");
+    ContentFacetStores stores = new ContentFacetStores(blobStoreManager, "default", formatStoreManager, "content");
+    ContentFacetSupport contentFacet = mock(ContentFacetSupport.class);
+    when(contentFacet.stores()).thenReturn(stores);
+    when(contentFacet.contentRepositoryId()).thenReturn(1);
+    when(repository.facet(ContentFacet.class)).thenReturn(contentFacet);
+
+    underTest = new TestGenerateChecksumTask();
+    underTest.init(4096, blobStoreManager);
+    underTest.initBackfill(2, "", globalKeyValueStore);
+  }
+
+  @Test
+  public void generatesMissingChecksumsAndWritesThemInBatches() throws Exception {
+    AssetBlob foo = mockAssetBlob("foo", "foo");
+    AssetBlob bar = mockAssetBlob("bar", "bar");
+    doReturn(page("2", foo, bar)).when(assetBlobStore)
+        .browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA256, 100, null);
+    doReturn(page(null)).when(assetBlobStore).browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA256, 100, "2");
+
+    underTest.execute(repository);
+
+    verify(assetBlobStore).setChecksums(asList(foo, bar));
+    assertThat(foo.checksums().get("sha256"), is(HashAlgorithm.SHA256.function().hashString("foo", UTF_8).toString()));
+    assertThat(bar.checksums().get("sha256"), is(HashAlgorithm.SHA256.function().hashString("bar", UTF_8).toString()));
+    ArgumentCaptor<NexusKeyValue> checkpoint = ArgumentCaptor.forClass(NexusKeyValue.class);
+    verify(globalKeyValueStore).setKey(checkpoint.capture());
+    assertThat(checkpoint.getValue().key(), is(CHECKPOINT_KEY));
+    assertThat(checkpoint.getValue().getAsString(), is("2"));
+    verify(globalKeyValueStore).removeKey(CHECKPOINT_KEY);
+  }
+
+  @Test
+  public void resumesFromTheCheckpoint() {
+    when(globalKeyValueStore.getKey(CHECKPOINT_KEY))
+        .thenReturn(Optional.of(new NexusKeyValue(CHECKPOINT_KEY, ValueType.CHARACTER, "42")));
+    doReturn(page(null)).when(assetBlobStore).browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA256, 100, "42");
+
+    underTest.execute(repository);
+
+    verify(assetBlobStore).browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA256, 100, "42");
+    verify(globalKeyValueStore).removeKey(CHECKPOINT_KEY);
+  }
+
+  @Test
+  public void generatesTheConfiguredAlgorithm() throws Exception {
+    TaskConfiguration taskConfiguration = new TaskConfiguration();
+    taskConfiguration.setId("id");
+    taskConfiguration.setTypeId("type");
+    taskConfiguration.setString(GenerateChecksumTaskSupport.HASH_ALGORITHM_FIELD_ID, "sha1");
+    underTest.configure(taskConfiguration);
+    AssetBlob foo = mockAssetBlob("foo", "foo");
+    doReturn(page("1", foo)).when(assetBlobStore).browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA1, 100, null);
+    doReturn(page(null)).when(assetBlobStore).browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA1, 100, "1");
+
+    underTest.execute(repository);
+
+    verify(assetBlobStore).setChecksums(asList(foo));
+    assertThat(foo.checksums().get("sha1"), is(HashAlgorithm.SHA1.function().hashString("foo", UTF_8).toString()));
+    assertThat(underTest.getMessage(), is("Generating sha1 hashes"));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void skipsMissingBlobsAndFailures() throws Exception {
+    AssetBlob missing = mockAssetBlob("missing", null);
+    AssetBlob broken = mockAssetBlob("broken", "broken");
+    InputStream brokenStream = mock(InputStream.class);
+    when(brokenStream.read(any())).thenThrow(new IOException("broken"));
+    when(blobStore.get(new BlobId("broken")).getInputStream()).thenReturn(brokenStream);
+    AssetBlob foo = mockAssetBlob("foo", "foo");
+    doReturn(page("3", missing, broken, foo)).when(assetBlobStore)
+        .browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA256, 100, null);
+    doReturn(page(null)).when(assetBlobStore).browseAssetBlobsWithoutChecksum(1, HashAlgorithm.SHA256, 100, "3");
+
+    underTest.execute(repository);
+
+    ArgumentCaptor<Collection<AssetBlob>> updated = ArgumentCaptor.forClass(Collection.class);
+    verify(assetBlobStore).setChecksums(updated.capture());
+    assertThat(updated.getValue(), contains(foo));
+  }
+
+  private AssetBlob mockAssetBlob(final String blobId, final String content) throws IOException {
+    AssetBlob assetBlob = mock(AssetBlob.class);
+    when(assetBlob.blobRef()).thenReturn(new BlobRef("node", "default", blobId));
+    when(assetBlob.checksums()).thenReturn(new HashMap<>());
+    if (content != null) {
+      Blob blob = mock(Blob.class);
+      when(blob.getId()).thenReturn(new BlobId(blobId));
+      when(blob.getInputStream()).thenReturn(new ByteArrayInputStream(content.getBytes(UTF_8)));
+      when(blobStore.get(new BlobId(blobId))).thenReturn(blob);
+    }
+    return assetBlob;
+  }
+
+  private static Continuation<AssetBlob> page(final String continuationToken, final AssetBlob... assetBlobs) {
+    return new TestContinuation<>(assetBlobs.length == 0 ? emptyList() : asList(assetBlobs), continuationToken);
+  }
+
+  private static class TestGenerateChecksumTask
+      extends GenerateChecksumTaskSupport
+  {
+    @Override
+    protected boolean appliesTo(final Repository repository) {
+      return true;
+    }
+  }
+
+  private static class TestContinuation<E>
+      extends ForwardingCollection<E>
+      implements Continuation<E>
+  {
+    private final List<E> list;
+
+    private final String continuationToken;
+
+    TestContinuation(final List<E> list, final String continuationToken) {
+      this.list = new ArrayList<>(list);
+      this.continuationToken = continuationToken;
+    }
+
+    @Override
+    protected Collection<E> delegate() {
+      return list;
+    }
+
+    @Override
+    public String nextContinuationToken() {
+      return continuationToken;
+    }
+  }
+}
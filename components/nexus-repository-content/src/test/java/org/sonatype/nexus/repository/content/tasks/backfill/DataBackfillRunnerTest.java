@@ -0,0 +1,202 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.content.tasks.backfill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.content.kv.global.GlobalKeyValueStore;
+import org.sonatype.nexus.repository.content.kv.global.NexusKeyValue;
+
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DataBackfillRunnerTest
+    extends TestSupport
+{
+  @Mock
+  private GlobalKeyValueStore globalKeyValueStore;
+
+  private final Map<String, NexusKeyValue> keyValues = new ConcurrentHashMap<>();
+
+  private DataBackfillRunner underTest;
+
+  @Before
+  public void setUp() {
+    Subject subject = mock(Subject.class);
+    when(subject.associateWith(any(Runnable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    ThreadContext.bind(subject);
+
+    when(globalKeyValueStore.getKey(anyString()))
+        .thenAnswer(invocation -> Optional.ofNullable(keyValues.get(invocation.<String>getArgument(0))));
+    doAnswer(invocation -> {
+      NexusKeyValue keyValue = invocation.getArgument(0);
+      keyValues.put(keyValue.key(), keyValue);
+      return null;
+    }).when(globalKeyValueStore).setKey(any());
+    when(globalKeyValueStore.removeKey(anyString()))
+        .thenAnswer(invocation -> keyValues.remove(invocation.<String>getArgument(0)) != null);
+
+    underTest = new DataBackfillRunner(globalKeyValueStore, 2, 10);
+  }
+
+  @After
+  public void tearDown() {
+    ThreadContext.unbindSubject();
+  }
+
+  @Test
+  public void backfillsEveryPartitionInChunks() {
+    CountingBackfill backfill = new CountingBackfill(25, "maven2", "npm", "pypi");
+    List<String> progress = Collections.synchronizedList(new ArrayList<>());
+
+    assertThat(underTest.run(backfill, () -> false, progress::add), is(true));
+
+    assertThat(backfill.completed, containsInAnyOrder("maven2", "npm", "pypi"));
+    assertThat(backfill.chunks.get("maven2"), contains(null, "10", "20"));
+    assertThat(underTest.isComplete(backfill), is(true));
+    assertThat(underTest.getCheckpoint(backfill, "maven2"), is(nullValue()));
+    assertThat(progress.get(progress.size() - 1), is("test: maven2 complete, npm complete, pypi complete"));
+
+    // nothing left to do the next time round
+    backfill.chunks.clear();
+    assertThat(underTest.run(backfill, () -> false, progress::add), is(true));
+    assertThat(backfill.chunks.isEmpty(), is(true));
+  }
+
+  @Test
+  public void resumesFromTheLastCheckpoint() {
+    CountingBackfill backfill = new CountingBackfill(25, "maven2");
+    AtomicBoolean canceled = new AtomicBoolean();
+    backfill.afterChunk = canceled::set;
+
+    assertThat(underTest.run(backfill, canceled::get, progress -> { }), is(false));
+    assertThat(underTest.getCheckpoint(backfill, "maven2"), is("10"));
+    assertThat(backfill.completed.isEmpty(), is(true));
+
+    CountingBackfill resumed = new CountingBackfill(25, "maven2");
+    assertThat(underTest.run(resumed, () -> false, progress -> { }), is(true));
+    assertThat(resumed.started, contains("maven2"));
+    assertThat(resumed.chunks.get("maven2"), contains("10", "20"));
+    assertThat(resumed.completed, contains("maven2"));
+  }
+
+  @Test
+  public void failingPartitionDoesNotStopTheOthers() {
+    CountingBackfill backfill = new CountingBackfill(25, "maven2", "npm");
+    backfill.failing = "npm";
+
+    try {
+      underTest.run(backfill, () -> false, progress -> { });
+      fail("Expected the failure to be reported");
+    }
+    catch (IllegalStateException e) {
+      assertThat(e.getMessage(), is("npm failed"));
+    }
+
+    assertThat(backfill.completed, contains("maven2"));
+    assertThat(backfill.getPartitions(), contains("npm"));
+    assertThat(underTest.isComplete(backfill), is(false));
+    assertThat(underTest.getCheckpoint(backfill, "npm"), is("10"));
+  }
+
+  /**
+   * Processes a fixed number of rows per partition, using the row offset as checkpoint.
+   */
+  private static class CountingBackfill
+      implements DataBackfill
+  {
+    final int rows;
+
+    final List<String> partitions;
+
+    final Map<String, List<String>> chunks = new ConcurrentHashMap<>();
+
+    final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    final List<String> completed = Collections.synchronizedList(new ArrayList<>());
+
+    String failing;
+
+    Consumer<Boolean> afterChunk = ignored -> { };
+
+    CountingBackfill(final int rows, final String... partitions) {
+      this.rows = rows;
+      this.partitions = Arrays.asList(partitions);
+    }
+
+    @Override
+    public String getName() {
+      return "test";
+    }
+
+    @Override
+    public List<String> getPartitions() {
+      return partitions.stream().filter(partition -> !completed.contains(partition)).collect(Collectors.toList());
+    }
+
+    @Override
+    public long remaining(final String partition) {
+      return rows;
+    }
+
+    @Override
+    public Optional<String> backfill(final String partition, @Nullable final String checkpoint, final int chunkSize) {
+      chunks.computeIfAbsent(partition, key -> Collections.synchronizedList(new ArrayList<>())).add(checkpoint);
+      int offset = checkpoint == null ? 0 : Integer.parseInt(checkpoint);
+      if (partition.equals(failing) && offset > 0) {
+        throw new IllegalStateException(partition + " failed");
+      }
+      afterChunk.accept(true);
+      int next = offset + chunkSize;
+      return next >= rows ? Optional.empty() : Optional.of(String.valueOf(next));
+    }
+
+    @Override
+    public void started(final String partition) {
+      started.add(partition);
+    }
+
+    @Override
+    public void completed(final String partition) {
+      completed.add(partition);
+    }
+  }
+}
@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.repository.manager.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -20,6 +21,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -38,6 +43,7 @@ import org.sonatype.nexus.common.event.EventManager;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport;
 import org.sonatype.nexus.distributed.event.service.api.common.RepositoryRemoteConnectionStatusEvent;
+import org.sonatype.nexus.jmx.reflect.ManagedAttribute;
 import org.sonatype.nexus.jmx.reflect.ManagedObject;
 import org.sonatype.nexus.repository.Recipe;
 import org.sonatype.nexus.repository.Repository;
@@ -57,15 +63,20 @@ import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.manager.RepositoryRestoredEvent;
 import org.sonatype.nexus.repository.manager.RepositoryUpdatedEvent;
 import org.sonatype.nexus.repository.view.ViewFacet;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.Subscribe;
 import org.joda.time.DateTime;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.StreamSupport.stream;
 import static org.sonatype.nexus.blobstore.api.BlobStoreManager.DEFAULT_BLOBSTORE_NAME;
 import static org.sonatype.nexus.common.app.ManagedLifecycle.Phase.REPOSITORIES;
@@ -123,6 +134,10 @@ public class RepositoryManagerImpl
 
   private final List<ConfigurationValidator> configurationValidators;
 
+  private final int startupParallelism;
+
+  private final Map<String, Long> startupMillis = Maps.newConcurrentMap();
+
   @Inject
   public RepositoryManagerImpl(final EventManager eventManager,
                                final ConfigurationStore store,
@@ -135,7 +150,8 @@ public class RepositoryManagerImpl
                                @Named("${nexus.skipDefaultRepositories:-false}") final boolean skipDefaultRepositories,
                                final BlobStoreManager blobStoreManager,
                                final GroupMemberMappingCache groupMemberMappingCache,
-                               final List<ConfigurationValidator> configurationValidators)
+                               final List<ConfigurationValidator> configurationValidators,
+                               @Named("${nexus.repository.startup.parallelism:-1}") final int startupParallelism)
   {
     this.eventManager = checkNotNull(eventManager);
     this.store = checkNotNull(store);
@@ -149,6 +165,8 @@ public class RepositoryManagerImpl
     this.blobStoreManager = checkNotNull(blobStoreManager);
     this.groupMemberMappingCache = checkNotNull(groupMemberMappingCache);
     this.configurationValidators = checkNotNull(configurationValidators);
+    checkArgument(startupParallelism > 0, "Must use a positive startup parallelism");
+    this.startupParallelism = startupParallelism;
   }
 
   /**
@@ -278,14 +296,74 @@ public class RepositoryManagerImpl
     }
   }
 
+  /**
+   * Starts repositories in dependency order, group members before their groups. Repositories which don't depend on
+   * each other are started concurrently when {@code nexus.repository.startup.parallelism} is greater than one.
+   */
   private void startRepositories() throws Exception {
-    log.debug("Starting {} repositories", repositories.size());
-    for (Repository repository : repositories.values()) {
-      log.debug("Starting repository: {}", repository);
-      repository.start();
+    List<List<Repository>> waves = RepositoryStartupOrder.waves(repositories.values());
+    log.debug("Starting {} repositories in {} waves using {} threads", repositories.size(), waves.size(),
+        startupParallelism);
+
+    startupMillis.clear();
+    long start = System.nanoTime();
+    ExecutorService executor = startupParallelism > 1
+        ? newFixedThreadPool(startupParallelism, new NexusThreadFactory("repository-startup", "repository-startup"))
+        : null;
+    try {
+      for (List<Repository> wave : waves) {
+        if (executor == null || wave.size() == 1) {
+          for (Repository repository : wave) {
+            startRepository(repository);
+          }
+        }
+        else {
+          startConcurrently(executor, wave);
+        }
+      }
+    }
+    finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+    log.info("Started {} repositories in {} ms", repositories.size(), NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
 
-      eventManager.post(new RepositoryRestoredEvent(repository));
+  private void startConcurrently(final ExecutorService executor, final List<Repository> wave) throws Exception {
+    List<Future<Void>> futures = new ArrayList<>(wave.size());
+    for (Repository repository : wave) {
+      futures.add(executor.submit(() -> {
+        startRepository(repository);
+        return null;
+      }));
     }
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      }
+      catch (ExecutionException e) {
+        Throwables.throwIfInstanceOf(e.getCause(), Exception.class);
+        Throwables.throwIfUnchecked(e.getCause());
+        throw e;
+      }
+    }
+  }
+
+  private void startRepository(final Repository repository) throws Exception {
+    log.debug("Starting repository: {}", repository);
+    long start = System.nanoTime();
+    repository.start();
+    long elapsed = NANOSECONDS.toMillis(System.nanoTime() - start);
+    startupMillis.put(repository.getName(), elapsed);
+    log.debug("Started repository {} in {} ms", repository.getName(), elapsed);
+
+    eventManager.post(new RepositoryRestoredEvent(repository));
+  }
+
+  @ManagedAttribute(description = "Time in milliseconds each repository took to start")
+  public Map<String, Long> getRepositoryStartupMillis() {
+    return new TreeMap<>(startupMillis);
   }
 
   @Override
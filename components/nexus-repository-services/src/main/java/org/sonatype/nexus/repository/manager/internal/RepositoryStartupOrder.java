@@ -0,0 +1,90 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.manager.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.group.GroupFacet;
+import org.sonatype.nexus.repository.group.GroupFacetImpl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Orders repositories for startup so that group members are started before the groups which contain them.
+ *
+ * Repositories are split into waves; every repository in a wave only depends on repositories of earlier waves, so
+ * the repositories of one wave may be started concurrently. Members which form a cycle are started together in a
+ * final wave rather than failing startup.
+ *
+ * @since 3.71
+ */
+final class RepositoryStartupOrder
+{
+  private static final Logger log = LoggerFactory.getLogger(RepositoryStartupOrder.class);
+
+  private static final String MEMBER_NAMES = "memberNames";
+
+  private RepositoryStartupOrder() {
+    // no instances
+  }
+
+  static List<List<Repository>> waves(final Collection<Repository> repositories) {
+    Map<String, Repository> byName = new LinkedHashMap<>();
+    repositories.forEach(repository -> byName.put(repository.getName().toLowerCase(), repository));
+
+    Map<String, Set<String>> pending = new LinkedHashMap<>();
+    byName.forEach((name, repository) -> pending.put(name, memberNames(repository).stream()
+        .map(String::toLowerCase)
+        .filter(member -> !member.equals(name) && byName.containsKey(member))
+        .collect(Collectors.toSet())));
+
+    List<List<Repository>> waves = new ArrayList<>();
+    while (!pending.isEmpty()) {
+      List<String> ready = pending.entrySet().stream()
+          .filter(entry -> entry.getValue().isEmpty())
+          .map(Entry::getKey)
+          .collect(Collectors.toList());
+
+      if (ready.isEmpty()) {
+        log.warn("Group membership cycle detected between {}; starting them together", pending.keySet());
+        ready.addAll(pending.keySet());
+      }
+
+      waves.add(ready.stream().map(byName::get).collect(Collectors.toList()));
+
+      ready.forEach(pending::remove);
+      pending.values().forEach(members -> members.removeAll(ready));
+    }
+    return waves;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<String> memberNames(final Repository repository) {
+    if (!repository.optionalFacet(GroupFacet.class).isPresent()) {
+      return new ArrayList<>();
+    }
+    Collection<String> memberNames = repository.getConfiguration()
+        .attributes(GroupFacetImpl.CONFIG_KEY)
+        .get(MEMBER_NAMES, Collection.class);
+    return memberNames != null ? memberNames : new ArrayList<>();
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The HTTP client of a proxy repository as handed to {@link ProxyFacetSupport#execute} for a mirror on another host
+ * than the remote. Every request is sent in a {@link MirrorHttpClientContext}, and any authorization header added for
+ * the remote, whether by the request builder or by an override of {@code execute}, is dropped on the way out.
+ *
+ * @since 3.71
+ */
+class MirrorHttpClient
+    implements HttpClient
+{
+  private final HttpClient delegate;
+
+  MirrorHttpClient(final HttpClient delegate) {
+    this.delegate = checkNotNull(delegate);
+  }
+
+  @Override
+  @Deprecated
+  public HttpParams getParams() {
+    return delegate.getParams();
+  }
+
+  @Override
+  @Deprecated
+  public ClientConnectionManager getConnectionManager() {
+    return delegate.getConnectionManager();
+  }
+
+  @Override
+  public HttpResponse execute(final HttpUriRequest request) throws IOException {
+    return execute(request, (HttpContext) null);
+  }
+
+  @Override
+  public HttpResponse execute(final HttpUriRequest request, @Nullable final HttpContext context) throws IOException {
+    return delegate.execute(withoutAuthorization(request), mirrorContext(context));
+  }
+
+  @Override
+  public HttpResponse execute(final HttpHost target, final HttpRequest request) throws IOException {
+    return execute(target, request, (HttpContext) null);
+  }
+
+  @Override
+  public HttpResponse execute(
+      final HttpHost target,
+      final HttpRequest request,
+      @Nullable final HttpContext context) throws IOException
+  {
+    return delegate.execute(target, withoutAuthorization(request), mirrorContext(context));
+  }
+
+  @Override
+  public <T> T execute(
+      final HttpUriRequest request,
+      final ResponseHandler<? extends T> responseHandler) throws IOException
+  {
+    return execute(request, responseHandler, null);
+  }
+
+  @Override
+  public <T> T execute(
+      final HttpUriRequest request,
+      final ResponseHandler<? extends T> responseHandler,
+      @Nullable final HttpContext context) throws IOException
+  {
+    return delegate.execute(withoutAuthorization(request), responseHandler, mirrorContext(context));
+  }
+
+  @Override
+  public <T> T execute(
+      final HttpHost target,
+      final HttpRequest request,
+      final ResponseHandler<? extends T> responseHandler) throws IOException
+  {
+    return execute(target, request, responseHandler, null);
+  }
+
+  @Override
+  public <T> T execute(
+      final HttpHost target,
+      final HttpRequest request,
+      final ResponseHandler<? extends T> responseHandler,
+      @Nullable final HttpContext context) throws IOException
+  {
+    return delegate.execute(target, withoutAuthorization(request), responseHandler, mirrorContext(context));
+  }
+
+  private static <R extends HttpRequest> R withoutAuthorization(final R request) {
+    request.removeHeaders(HttpHeaders.AUTHORIZATION);
+    return request;
+  }
+
+  private static MirrorHttpClientContext mirrorContext(@Nullable final HttpContext context) {
+    if (context == null) {
+      return new MirrorHttpClientContext();
+    }
+    if (context instanceof MirrorHttpClientContext) {
+      return (MirrorHttpClientContext) context;
+    }
+    return new MirrorHttpClientContext(context);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "{" +
+        "delegate=" + delegate +
+        '}';
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.RouteInfo;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Context for requests to a mirror of a proxy remote which withholds the remote's credentials from the mirror.
+ *
+ * The HTTP client of a proxy repository registers the remote's credentials for any host, since it normally only talks
+ * to the remote. When the client installs its credentials provider into this context it is wrapped so that only the
+ * credentials of an outbound HTTP proxy are given out. Nothing is sent to the mirror, or to any host it redirects to,
+ * neither in answer to a challenge nor preemptively.
+ *
+ * @since 3.71
+ */
+class MirrorHttpClientContext
+    extends HttpClientContext
+{
+  MirrorHttpClientContext() {
+    super();
+  }
+
+  /**
+   * Sends a mirror request in the given context, wrapping any credentials provider it already holds.
+   */
+  MirrorHttpClientContext(final HttpContext context) {
+    super(context);
+    Object credentialsProvider = getAttribute(CREDS_PROVIDER);
+    if (credentialsProvider != null) {
+      setAttribute(CREDS_PROVIDER, credentialsProvider);
+    }
+  }
+
+  @Override
+  public void setAttribute(final String id, final Object obj) {
+    if (CREDS_PROVIDER.equals(id) && obj instanceof CredentialsProvider && !(obj instanceof MirrorCredentials)) {
+      super.setAttribute(id, new MirrorCredentials((CredentialsProvider) obj));
+    }
+    else {
+      super.setAttribute(id, obj);
+    }
+  }
+
+  private class MirrorCredentials
+      implements CredentialsProvider
+  {
+    private final CredentialsProvider delegate;
+
+    MirrorCredentials(final CredentialsProvider delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Credentials getCredentials(final AuthScope authScope) {
+      RouteInfo route = getHttpRoute();
+      HttpHost proxy = route != null ? route.getProxyHost() : null;
+      if (proxy != null && proxy.getHostName().equalsIgnoreCase(authScope.getHost())) {
+        return delegate.getCredentials(authScope);
+      }
+      return null;
+    }
+
+    @Override
+    public void setCredentials(final AuthScope authScope, final Credentials credentials) {
+      delegate.setCredentials(authScope, credentials);
+    }
+
+    @Override
+    public void clear() {
+      delegate.clear();
+    }
+  }
+}
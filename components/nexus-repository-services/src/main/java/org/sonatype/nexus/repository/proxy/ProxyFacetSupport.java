@@ -13,13 +13,28 @@
 package org.sonatype.nexus.repository.proxy;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -43,14 +58,19 @@ import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.config.ConfigurationFacet;
 import org.sonatype.nexus.repository.httpclient.HttpClientFacet;
 import org.sonatype.nexus.repository.httpclient.RemoteBlockedIOException;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatus;
 import org.sonatype.nexus.repository.replication.PullReplicationSupport;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Context;
 import org.sonatype.nexus.repository.view.payloads.HttpEntityPayload;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 import org.sonatype.nexus.transaction.RetryDeniedException;
 import org.sonatype.nexus.validation.constraint.Url;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.io.Closeables;
@@ -71,7 +91,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Boolean.TRUE;
 import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.sonatype.nexus.common.app.FeatureFlags.DATASTORE_CLUSTERED_ENABLED_NAMED;
+import static org.sonatype.nexus.common.property.SystemPropertiesHelper.getInteger;
+import static org.sonatype.nexus.thread.NexusExecutorService.forCurrentSubject;
 
 /**
  * A support class which implements basic payload logic; subclasses provide format-specific operations.
@@ -112,6 +136,22 @@ public abstract class ProxyFacetSupport
     @NotNull
     public Integer metadataMaxAge = (int) Duration.ofHours(24).toMinutes();
 
+    /**
+     * Further mirrors of the remote, tried after {@link #remoteUrl} until their latency is known.
+     *
+     * @since 3.71
+     */
+    @Nullable
+    public List<@Url @NotNull URI> mirrorUrls;
+
+    /**
+     * Milliseconds to wait for the preferred mirror before also asking the next one; unset or zero disables hedging.
+     *
+     * @since 3.71
+     */
+    @Nullable
+    public Integer hedgeDelay;
+
     /**
      * Content max-age.
      */
@@ -136,10 +176,34 @@ public abstract class ProxyFacetSupport
       return remoteUrl;
     }
 
+    /**
+     * The remote URI followed by any further mirrors.
+     *
+     * @since 3.71
+     */
+    @Override
+    public List<URI> getMirrorURLs() {
+      List<URI> urls = new ArrayList<>();
+      urls.add(remoteUrl);
+      if (mirrorUrls != null) {
+        mirrorUrls.stream().filter(url -> !urls.contains(url)).forEach(urls::add);
+      }
+      return urls;
+    }
+
+    /**
+     * @since 3.71
+     */
+    public Duration getHedgeDelay() {
+      return Duration.ofMillis(hedgeDelay != null ? hedgeDelay : 0);
+    }
+
     @Override
     public String toString() {
       return getClass().getSimpleName() + "{" +
           "remoteUrl=" + remoteUrl +
+          ", mirrorUrls=" + mirrorUrls +
+          ", hedgeDelay=" + hedgeDelay +
           ", contentMaxAge=" + contentMaxAge +
           '}';
     }
@@ -147,12 +211,23 @@ public abstract class ProxyFacetSupport
 
   private static final ThreadLocal<Boolean> downloading = new ThreadLocal<>();
 
+  /**
+   * Runs hedged mirror fetches; created on start and shut down on stop.
+   */
+  private ExecutorService hedgeExecutor;
+
   private ProxyConfig config;
 
   private HttpClientFacet httpClient;
 
   private boolean remoteUrlChanged;
 
+  /**
+   * Health of the mirrors, when more than one is configured.
+   */
+  @Nullable
+  private ProxyMirrors mirrors;
+
   protected CacheControllerHolder cacheControllerHolder;
 
   private Cooperation2Factory.Builder cooperationBuilder;
@@ -244,6 +319,17 @@ public abstract class ProxyFacetSupport
 
     // normalize URL path to contain trailing slash
     config.remoteUrl = normalizeURLPath(config.remoteUrl);
+    if (config.mirrorUrls != null) {
+      config.mirrorUrls = config.mirrorUrls.stream().map(this::normalizeURLPath).collect(Collectors.toList());
+    }
+
+    List<URI> mirrorUrls = config.getMirrorURLs();
+    if (mirrorUrls.size() < 2) {
+      mirrors = null;
+    }
+    else if (mirrors == null || !mirrors.urls().equals(mirrorUrls)) {
+      mirrors = new ProxyMirrors(mirrorUrls, Ticker.systemTicker());
+    }
 
     log.debug("Config: {}", config);
   }
@@ -259,19 +345,21 @@ public abstract class ProxyFacetSupport
   @Override
   protected void doUpdate(final Configuration configuration) throws Exception {
     // detect URL changes
-    URI previousUrl = config.remoteUrl;
+    List<URI> previousUrls = config.getMirrorURLs();
     super.doUpdate(configuration);
-    remoteUrlChanged = !config.remoteUrl.equals(previousUrl);
+    remoteUrlChanged = !config.getMirrorURLs().equals(previousUrls);
   }
 
   @Override
   protected void doDestroy() throws Exception {
     config = null;
+    mirrors = null;
   }
 
   @Override
   protected void doStart() throws Exception {
     httpClient = facet(HttpClientFacet.class);
+    hedgeExecutor = newHedgeExecutor();
 
     if (remoteUrlChanged) {
       remoteUrlChanged = false;
@@ -283,6 +371,8 @@ public abstract class ProxyFacetSupport
   @Override
   protected void doStop() throws Exception {
     httpClient = null;
+    hedgeExecutor.shutdown();
+    hedgeExecutor = null;
   }
 
   @Override
@@ -290,6 +380,17 @@ public abstract class ProxyFacetSupport
     return config.remoteUrl;
   }
 
+  /**
+   * The connection status of each mirror, as tracked for choosing where to fetch from. Empty unless more than one
+   * mirror is configured, in which case the status of the {@link HttpClientFacet} covers the primary remote only.
+   *
+   * @since 3.71
+   */
+  public Map<URI, RemoteConnectionStatus> getMirrorStatuses() {
+    ProxyMirrors current = mirrors;
+    return current != null ? current.statuses() : Collections.emptyMap();
+  }
+
   @Override
   public Content get(final Context context) throws IOException {
     checkNotNull(context);
@@ -499,29 +600,20 @@ public abstract class ProxyFacetSupport
     checkState(config.remoteUrl.isAbsolute(),
         "Invalid remote URL '%s' for proxy repository %s, please fix your configuration", config.remoteUrl,
         getRepository().getName());
-    URI uri;
-    try {
-      uri = config.remoteUrl.resolve(encodeUrl(url));
-    }
-    catch (IllegalArgumentException e) { // NOSONAR
-      log.warn("Unable to resolve url. Reason: {}", e.getMessage());
-      throw new BadRequestException("Invalid repository path");
+
+    HttpRequestBase request;
+    HttpResponse response;
+    ProxyMirrors currentMirrors = mirrors;
+    if (currentMirrors == null) {
+      request = buildFetchRequest(config.remoteUrl, url, context, stale);
+      response = execute(context, client, request);
     }
-    HttpRequestBase request = buildFetchHttpRequest(uri, context);
-    if (stale != null) {
-      final DateTime lastModified = stale.getAttributes().get(Content.CONTENT_LAST_MODIFIED, DateTime.class);
-      if (lastModified != null) {
-        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(lastModified.toDate()));
-      }
-      final String etag = stale.getAttributes().get(Content.CONTENT_ETAG, String.class);
-      if (etag != null) {
-        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETagHeaderUtils.quote(etag));
-      }
+    else {
+      MirrorAttempt attempt = executeOnMirrors(currentMirrors, url, context, client, stale);
+      request = attempt.request;
+      response = attempt.response;
     }
-    log.debug("Fetching: {}", request);
-    log.debug("Fetching Request Headers: {}", Arrays.toString(request.getAllHeaders()));
-
-    HttpResponse response = execute(context, client, request);
+    URI uri = request.getURI();
     log.debug("Response: {}", response);
 
     StatusLine status = response.getStatusLine();
@@ -568,6 +660,221 @@ public abstract class ProxyFacetSupport
     return null;
   }
 
+  private HttpRequestBase buildFetchRequest(
+      final URI remoteUrl,
+      final String url,
+      final Context context,
+      @Nullable final Content stale) throws IOException
+  {
+    URI uri;
+    try {
+      uri = remoteUrl.resolve(encodeUrl(url));
+    }
+    catch (IllegalArgumentException e) { // NOSONAR
+      log.warn("Unable to resolve url. Reason: {}", e.getMessage());
+      throw new BadRequestException("Invalid repository path");
+    }
+    HttpRequestBase request = buildFetchHttpRequest(uri, context);
+    if (stale != null) {
+      final DateTime lastModified = stale.getAttributes().get(Content.CONTENT_LAST_MODIFIED, DateTime.class);
+      if (lastModified != null) {
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(lastModified.toDate()));
+      }
+      final String etag = stale.getAttributes().get(Content.CONTENT_ETAG, String.class);
+      if (etag != null) {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETagHeaderUtils.quote(etag));
+      }
+    }
+    log.debug("Fetching: {}", request);
+    log.debug("Fetching Request Headers: {}", Arrays.toString(request.getAllHeaders()));
+    return request;
+  }
+
+  /**
+   * Fetches from the mirrors in ranked order, moving on to the next mirror when one fails, answers with a server error
+   * or does not have the content (a mirror may lag behind the remote). When a hedge delay is configured the next mirror
+   * is also asked whenever the ones already asked have not answered in time; the first successful answer wins and the
+   * other requests are aborted. If no mirror has the content the last answer is returned, or the last failure thrown.
+   */
+  private MirrorAttempt executeOnMirrors(
+      final ProxyMirrors mirrors,
+      final String url,
+      final Context context,
+      final HttpClient client,
+      @Nullable final Content stale) throws IOException
+  {
+    Deque<URI> remaining = new ArrayDeque<>(mirrors.ranked());
+    long hedgeDelay = config.getHedgeDelay().toNanos();
+    CompletionService<MirrorAttempt> completion = new ExecutorCompletionService<>(hedgeExecutor);
+    List<MirrorAttempt> inFlight = new ArrayList<>();
+    MirrorAttempt last = null;
+    try {
+      while (!remaining.isEmpty() || !inFlight.isEmpty()) {
+        MirrorAttempt attempt;
+        if (hedgeDelay <= 0) {
+          attempt = new MirrorAttempt(mirrors, remaining.remove(), url, context, client, stale).call();
+        }
+        else {
+          if (inFlight.isEmpty()) {
+            MirrorAttempt next = new MirrorAttempt(mirrors, remaining.remove(), url, context, client, stale);
+            inFlight.add(submit(completion, next));
+          }
+          attempt = awaitAttempt(remaining.isEmpty() ? completion.take() : completion.poll(hedgeDelay, NANOSECONDS));
+          if (attempt == null) {
+            log.debug("No answer within {}ms, hedging fetch of {}", config.hedgeDelay, url);
+            MirrorAttempt hedge = new MirrorAttempt(mirrors, remaining.remove(), url, context, client, stale);
+            inFlight.add(submit(completion, hedge));
+            continue;
+          }
+          inFlight.remove(attempt);
+        }
+
+        if (attempt.succeeded()) {
+          if (last != null) {
+            last.discard();
+          }
+          return attempt;
+        }
+        // keep the last answer from a mirror in preference to a failure to reach one
+        if (last == null || attempt.response != null || last.response == null) {
+          if (last != null) {
+            last.discard();
+          }
+          last = attempt;
+        }
+        else {
+          attempt.discard();
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while fetching " + url);
+    }
+    finally {
+      inFlight.forEach(MirrorAttempt::discard);
+    }
+
+    if (last.response != null) {
+      return last;
+    }
+    throw last.failure;
+  }
+
+  private static MirrorAttempt submit(final CompletionService<MirrorAttempt> completion, final MirrorAttempt attempt) {
+    completion.submit(attempt);
+    return attempt;
+  }
+
+  @Nullable
+  private static MirrorAttempt awaitAttempt(@Nullable final Future<MirrorAttempt> future)
+      throws InterruptedException
+  {
+    if (future == null) {
+      return null;
+    }
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private ExecutorService newHedgeExecutor() {
+    // runs attempts on the calling thread when saturated, which still fails over but no longer hedges; unlike the
+    // CallerRunsPolicy this also holds once the pool is shut down, so a fetch racing a stop never loses an attempt
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(0, getInteger("nexus.proxy.mirror.hedgeThreads", 50),
+        60L, SECONDS, new SynchronousQueue<>(),
+        new NexusThreadFactory("proxy-mirror", "Proxy mirror fetches"),
+        (attempt, pool) -> attempt.run());
+    return forCurrentSubject(executor);
+  }
+
+  /**
+   * A fetch from one mirror, recording its outcome in the mirror statistics.
+   */
+  private class MirrorAttempt
+      implements Callable<MirrorAttempt>
+  {
+    private final ProxyMirrors mirrors;
+
+    private final URI mirror;
+
+    private final Context context;
+
+    private final HttpClient client;
+
+    private final HttpRequestBase request;
+
+    private volatile HttpResponse response;
+
+    private IOException failure;
+
+    private volatile boolean discarded;
+
+    MirrorAttempt(
+        final ProxyMirrors mirrors,
+        final URI mirror,
+        final String url,
+        final Context context,
+        final HttpClient client,
+        @Nullable final Content stale) throws IOException
+    {
+      this.mirrors = mirrors;
+      this.mirror = mirror;
+      this.context = context;
+      this.client = client;
+      this.request = buildFetchRequest(mirror, url, context, stale);
+    }
+
+    @Override
+    public MirrorAttempt call() {
+      Stopwatch stopwatch = mirrors.stopwatch();
+      try {
+        response = execute(context, isRemoteHost(mirror) ? client : new MirrorHttpClient(client), request);
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+          mirrors.failed(mirror, "HTTP " + statusCode);
+        }
+        else {
+          mirrors.succeeded(mirror, stopwatch.elapsed());
+        }
+        if (discarded) {
+          HttpClientUtils.closeQuietly(response);
+        }
+      }
+      catch (IOException e) {
+        if (!discarded) {
+          // an aborted request says nothing about the mirror
+          log.debug("Fetch from mirror {} failed", mirror, e);
+          mirrors.failed(mirror, e.getClass().getName() + ": " + e.getMessage());
+        }
+        failure = e;
+      }
+      return this;
+    }
+
+    boolean succeeded() {
+      if (response == null) {
+        return false;
+      }
+      int statusCode = response.getStatusLine().getStatusCode();
+      return statusCode != HttpStatus.SC_NOT_FOUND && statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    void discard() {
+      discarded = true;
+      request.abort();
+      HttpClientUtils.closeQuietly(response);
+    }
+  }
+
+  private boolean isRemoteHost(final URI mirror) {
+    return config.remoteUrl.getHost() != null && config.remoteUrl.getHost().equalsIgnoreCase(mirror.getHost());
+  }
+
   protected String encodeUrl(final String url) throws UnsupportedEncodingException { //NOSONAR
     // some formats can use special characters in url
     // override this method if necessary
@@ -606,7 +913,8 @@ public abstract class ProxyFacetSupport
   }
 
   /**
-   * Execute http client request.
+   * Execute http client request. Requests to mirrors on other hosts than the remote are given a client which keeps the
+   * remote's credentials from them.
    */
   protected HttpResponse execute(final Context context, final HttpClient client, final HttpRequestBase request)
       throws IOException
@@ -0,0 +1,182 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.common.Time;
+import org.sonatype.nexus.common.sequence.FibonacciNumberSequence;
+import org.sonatype.nexus.common.sequence.NumberSequence;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatus;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
+import org.joda.time.DateTime;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.AUTO_BLOCKED_UNAVAILABLE;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.AVAILABLE;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.READY;
+
+/**
+ * Tracks the health of the mirrors of a proxy repository and ranks them for the next fetch.
+ *
+ * Each mirror keeps a moving average of its response latency and error rate. Healthy mirrors are ranked by latency,
+ * weighted by their error rate, with the configured order breaking ties; a mirror which keeps failing is auto-blocked
+ * for a growing period, as the HTTP client does for a single remote, and is only tried once every other mirror has
+ * failed.
+ *
+ * @since 3.71
+ */
+class ProxyMirrors
+{
+  private static final double SMOOTHING = 0.2;
+
+  /**
+   * How much a mirror which always fails is penalised compared to one which never does.
+   */
+  private static final double ERROR_PENALTY = 10.0;
+
+  private final List<Mirror> mirrors = new ArrayList<>();
+
+  private final Ticker ticker;
+
+  ProxyMirrors(final List<URI> urls, final Ticker ticker) {
+    checkArgument(!urls.isEmpty(), "At least one mirror is required");
+    this.ticker = checkNotNull(ticker);
+    for (URI url : urls) {
+      mirrors.add(new Mirror(url, mirrors.size()));
+    }
+  }
+
+  List<URI> urls() {
+    return mirrors.stream().map(mirror -> mirror.url).collect(Collectors.toList());
+  }
+
+  /**
+   * The mirrors in the order they should be tried: healthy ones first, fastest first.
+   */
+  synchronized List<URI> ranked() {
+    long now = ticker.read();
+    return mirrors.stream()
+        .sorted(Comparator.<Mirror>comparingInt(mirror -> mirror.isBlocked(now) ? 1 : 0)
+            .thenComparingDouble(Mirror::score)
+            .thenComparingInt(mirror -> mirror.position))
+        .map(mirror -> mirror.url)
+        .collect(Collectors.toList());
+  }
+
+  Stopwatch stopwatch() {
+    return Stopwatch.createStarted(ticker);
+  }
+
+  synchronized void succeeded(final URI url, final Duration latency) {
+    Mirror mirror = find(url);
+    double millis = latency.toNanos() / 1_000_000.0;
+    mirror.latencyMillis = mirror.latencyMillis < 0 ? millis : average(mirror.latencyMillis, millis);
+    mirror.errorRate = average(mirror.errorRate, 0.0);
+    mirror.blockedUntil = null;
+    mirror.blockSequence.reset();
+    mirror.lastFailure = null;
+  }
+
+  synchronized void failed(final URI url, final String reason) {
+    Mirror mirror = find(url);
+    mirror.errorRate = average(mirror.errorRate, 1.0);
+    mirror.lastFailure = reason;
+    long now = ticker.read();
+    if (!mirror.isBlocked(now)) {
+      mirror.blockedUntil = now + MILLISECONDS.toNanos(mirror.blockSequence.next());
+    }
+  }
+
+  /**
+   * The connection status of every mirror, in configured order.
+   */
+  synchronized Map<URI, RemoteConnectionStatus> statuses() {
+    long now = ticker.read();
+    Map<URI, RemoteConnectionStatus> statuses = new LinkedHashMap<>();
+    for (Mirror mirror : mirrors) {
+      RemoteConnectionStatus status;
+      if (mirror.isBlocked(now)) {
+        status = new RemoteConnectionStatus(AUTO_BLOCKED_UNAVAILABLE, mirror.lastFailure)
+            .setBlockedUntil(DateTime.now().plus(NANOSECONDS.toMillis(mirror.blockedUntil - now)));
+      }
+      else if (mirror.latencyMillis < 0 && mirror.lastFailure == null) {
+        status = new RemoteConnectionStatus(READY);
+      }
+      else {
+        status = new RemoteConnectionStatus(AVAILABLE, mirror.lastFailure);
+      }
+      statuses.put(mirror.url, status.setRequestUrl(mirror.url.toString()));
+    }
+    return statuses;
+  }
+
+  private Mirror find(final URI url) {
+    return mirrors.stream()
+        .filter(mirror -> mirror.url.equals(url))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown mirror " + url));
+  }
+
+  private static double average(final double average, final double sample) {
+    return average + SMOOTHING * (sample - average);
+  }
+
+  private static class Mirror
+  {
+    final URI url;
+
+    final int position;
+
+    final NumberSequence blockSequence = new FibonacciNumberSequence(Time.seconds(40).toMillis());
+
+    /**
+     * Average latency in milliseconds, negative until the first successful fetch.
+     */
+    double latencyMillis = -1;
+
+    double errorRate;
+
+    Long blockedUntil;
+
+    String lastFailure;
+
+    Mirror(final URI url, final int position) {
+      this.url = checkNotNull(url);
+      this.position = position;
+    }
+
+    boolean isBlocked(final long now) {
+      return blockedUntil != null && blockedUntil - now > 0;
+    }
+
+    /**
+     * Mirrors never fetched from score zero, so they are tried as soon as the faster ones are known.
+     */
+    double score() {
+      return Math.max(latencyMillis, 0) * (1 + ERROR_PENALTY * errorRate);
+    }
+  }
+}
@@ -14,6 +14,8 @@ package org.sonatype.nexus.repository.proxy;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 
 import org.sonatype.nexus.repository.types.ProxyType;
 
@@ -36,4 +38,13 @@ public interface ProxyRepositoryConfiguration
    * The remote URI of the proxy repository.
    */
   URI getRemoteURL();
+
+  /**
+   * The remote URI followed by any further mirrors of it, in configured order.
+   *
+   * @since 3.71
+   */
+  default List<URI> getMirrorURLs() {
+    return Collections.singletonList(getRemoteURL());
+  }
 }
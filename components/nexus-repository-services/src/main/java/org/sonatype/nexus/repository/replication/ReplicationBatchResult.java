@@ -0,0 +1,87 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.replication;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.base.Stopwatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Outcome of ingesting a batch of blob events: how many were ingested, which failed and why, and how long it took.
+ *
+ * Safe to update from several threads while the batch is in flight.
+ *
+ * @since 3.71
+ */
+public class ReplicationBatchResult
+{
+  private final Stopwatch stopwatch = Stopwatch.createStarted();
+
+  private final Map<String, String> failures = new LinkedHashMap<>();
+
+  private int succeeded;
+
+  public synchronized void succeeded(final BlobEvent event) {
+    succeeded++;
+  }
+
+  public synchronized void failed(final BlobEvent event, final Throwable cause) {
+    failures.put(event.getBlobId(), cause.getMessage() != null ? cause.getMessage() : cause.toString());
+  }
+
+  /**
+   * Stops the clock on the batch.
+   */
+  public synchronized ReplicationBatchResult complete() {
+    if (stopwatch.isRunning()) {
+      stopwatch.stop();
+    }
+    return this;
+  }
+
+  public synchronized int getSucceeded() {
+    return succeeded;
+  }
+
+  public synchronized int getFailed() {
+    return failures.size();
+  }
+
+  /**
+   * The reason each failed blob was not ingested, keyed by blob id.
+   */
+  public synchronized Map<String, String> getFailures() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+  }
+
+  public synchronized long getElapsedMillis() {
+    return stopwatch.elapsed(MILLISECONDS);
+  }
+
+  /**
+   * Blobs ingested per second.
+   */
+  public synchronized double getThroughput() {
+    return succeeded * 1000.0 / Math.max(stopwatch.elapsed(MILLISECONDS), 1);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("%d succeeded, %d failed in %d ms (%.1f blobs/s)", succeeded, failures.size(),
+        getElapsedMillis(), getThroughput());
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.replication;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.blobstore.api.BlobAttributes;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.blobstore.api.BlobStore.BLOB_NAME_HEADER;
+
+/**
+ * A replicated blob fetched ahead of ingestion, with the asset and component attributes unpacked from its properties.
+ *
+ * @since 3.71
+ */
+public class ReplicationBlob
+{
+  private final BlobEvent event;
+
+  private final Blob blob;
+
+  private final BlobAttributes blobAttributes;
+
+  private final Map<String, Object> assetAttributes;
+
+  private final Map<String, Object> componentAttributes;
+
+  public ReplicationBlob(
+      final BlobEvent event,
+      final Blob blob,
+      final BlobAttributes blobAttributes,
+      final Map<String, Object> assetAttributes,
+      final Map<String, Object> componentAttributes)
+  {
+    this.event = checkNotNull(event);
+    this.blob = checkNotNull(blob);
+    this.blobAttributes = checkNotNull(blobAttributes);
+    this.assetAttributes = checkNotNull(assetAttributes);
+    this.componentAttributes = checkNotNull(componentAttributes);
+  }
+
+  /**
+   * A deleted blob only needs its path, so its attributes are not unpacked.
+   */
+  public static ReplicationBlob deleted(final BlobEvent event, final Blob blob, final BlobAttributes blobAttributes) {
+    return new ReplicationBlob(event, blob, blobAttributes, Collections.emptyMap(), Collections.emptyMap());
+  }
+
+  public BlobEvent getEvent() {
+    return event;
+  }
+
+  public Blob getBlob() {
+    return blob;
+  }
+
+  public BlobAttributes getBlobAttributes() {
+    return blobAttributes;
+  }
+
+  public Map<String, Object> getAssetAttributes() {
+    return assetAttributes;
+  }
+
+  public Map<String, Object> getComponentAttributes() {
+    return componentAttributes;
+  }
+
+  public String getPath() {
+    return blobAttributes.getHeaders().get(BLOB_NAME_HEADER);
+  }
+
+  public boolean isDelete() {
+    return event.getBlobEventType() == BlobEventType.DELETED;
+  }
+}
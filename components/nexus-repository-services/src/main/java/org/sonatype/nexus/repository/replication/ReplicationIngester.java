@@ -12,6 +12,8 @@
  */
 package org.sonatype.nexus.repository.replication;
 
+import java.util.List;
+
 /**
  * @since 3.31
  */
@@ -34,4 +36,25 @@ public interface ReplicationIngester
       final String blobStoreId,
       final String repositoryName,
       final BlobEventType eventType) throws ReplicationIngestionException;
+
+  /**
+   * Ingests a batch of blob events from one blob store. Events for the same repository are applied in the order
+   * given, so a delete and a later re-upload of the same path end with the asset present; a failed event is reported
+   * in the result and does not stop the rest of the batch.
+   *
+   * @since 3.71
+   */
+  default ReplicationBatchResult ingestBlobs(final String blobStoreId, final List<BlobEvent> events) {
+    ReplicationBatchResult result = new ReplicationBatchResult();
+    for (BlobEvent event : events) {
+      try {
+        ingestBlob(event.getBlobId(), blobStoreId, event.getRepositoryName(), event.getBlobEventType());
+        result.succeeded(event);
+      }
+      catch (RuntimeException e) {
+        result.failed(event, e);
+      }
+    }
+    return result.complete();
+  }
 }
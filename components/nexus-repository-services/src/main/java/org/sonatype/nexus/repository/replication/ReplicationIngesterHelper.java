@@ -13,6 +13,7 @@
 package org.sonatype.nexus.repository.replication;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import org.sonatype.nexus.blobstore.api.Blob;
@@ -28,4 +29,33 @@ public interface ReplicationIngesterHelper {
       throws IOException;
 
   void deleteReplication(String path, String repositoryName);
+
+  /**
+   * Applies the changes of a batch to one repository in the order given, recording each outcome in the result.
+   * Implementations may group the changes into fewer transactions.
+   *
+   * @since 3.71
+   */
+  default void replicateBatch(
+      final String repositoryName,
+      final String blobStoreName,
+      final List<ReplicationBlob> blobs,
+      final ReplicationBatchResult result)
+  {
+    for (ReplicationBlob blob : blobs) {
+      try {
+        if (blob.isDelete()) {
+          deleteReplication(blob.getPath(), repositoryName);
+        }
+        else {
+          replicate(blobStoreName, blob.getBlob(), blob.getAssetAttributes(), blob.getComponentAttributes(),
+              repositoryName, blobStoreName);
+        }
+        result.succeeded(blob.getEvent());
+      }
+      catch (IOException | RuntimeException e) {
+        result.failed(blob.getEvent(), e);
+      }
+    }
+  }
 }
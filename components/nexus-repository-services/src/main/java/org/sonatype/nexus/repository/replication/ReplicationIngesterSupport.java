@@ -14,12 +14,23 @@ package org.sonatype.nexus.repository.replication;
 
 import java.io.IOException;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.sonatype.goodies.common.ComponentSupport;
 import org.sonatype.nexus.blobstore.api.Blob;
@@ -27,11 +38,14 @@ import org.sonatype.nexus.blobstore.api.BlobAttributes;
 import org.sonatype.nexus.blobstore.api.BlobId;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.thread.NexusThreadFactory;
 
 import org.joda.time.DateTime;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.sonatype.nexus.blobstore.api.BlobStore.BLOB_NAME_HEADER;
+import static org.sonatype.nexus.thread.NexusExecutorService.forCurrentSubject;
 
 /**
  * @since 3.31
@@ -44,12 +58,24 @@ public abstract class ReplicationIngesterSupport
 
   private final ReplicationIngesterHelper replicationIngesterHelper;
 
+  private int prefetchThreads = 8;
+
+  private ExecutorService prefetchExecutor;
+
   public ReplicationIngesterSupport(final BlobStoreManager blobstoreManager,
                                     final ReplicationIngesterHelper replicationIngesterHelper) {
     this.blobStoreManager = checkNotNull(blobstoreManager);
     this.replicationIngesterHelper = checkNotNull(replicationIngesterHelper);
   }
 
+  /**
+   * @since 3.71
+   */
+  @Inject
+  public void setPrefetchThreads(@Named("${nexus.replication.ingest.prefetchThreads:-8}") final int prefetchThreads) {
+    this.prefetchThreads = prefetchThreads;
+  }
+
   public Map<String, Object> extractAssetAttributesFromProperties(final Properties props) {
     return extractAttributesFromProperties(props, ASSET_ATTRIBUTES_PREFIX);
   }
@@ -114,6 +140,87 @@ public abstract class ReplicationIngesterSupport
     }
   }
 
+  /**
+   * Fetches the blobs and attributes of the whole batch concurrently, then hands the changes of each repository to
+   * the helper in their original order so it can apply them together.
+   *
+   * @since 3.71
+   */
+  @Override
+  public ReplicationBatchResult ingestBlobs(final String blobStoreId, final List<BlobEvent> events) {
+    ReplicationBatchResult result = new ReplicationBatchResult();
+    BlobStore blobStore = blobStoreManager.get(blobStoreId);
+    if (blobStore == null) {
+      events.forEach(event -> result.failed(event, new ReplicationIngestionException(
+          String.format("Can't ingest blob %s, the blob store %s doesn't exist", event.getBlobId(), blobStoreId))));
+      return result.complete();
+    }
+
+    List<Future<ReplicationBlob>> fetches = new ArrayList<>(events.size());
+    ExecutorService executor = prefetchExecutor();
+    for (BlobEvent event : events) {
+      fetches.add(executor.submit(() -> fetch(blobStore, event)));
+    }
+
+    Map<String, List<ReplicationBlob>> byRepository = new LinkedHashMap<>();
+    for (int i = 0; i < events.size(); i++) {
+      BlobEvent event = events.get(i);
+      try {
+        ReplicationBlob blob = fetches.get(i).get();
+        byRepository.computeIfAbsent(event.getRepositoryName(), name -> new ArrayList<>()).add(blob);
+      }
+      catch (ExecutionException e) {
+        result.failed(event, e.getCause());
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fetches.forEach(fetch -> fetch.cancel(true));
+        events.subList(i, events.size()).forEach(pending -> result.failed(pending, e));
+        return result.complete();
+      }
+    }
+
+    byRepository.forEach((repositoryName, blobs) -> {
+      log.debug("Ingesting {} blobs in repository {} and blob store {}.", blobs.size(), repositoryName, blobStoreId);
+      replicationIngesterHelper.replicateBatch(repositoryName, blobStoreId, blobs, result);
+    });
+
+    result.complete();
+    if (result.getFailed() > 0) {
+      log.warn("Ingested a batch of {} blobs from blob store {}: {}", events.size(), blobStoreId, result);
+      log.debug("Blobs which failed to ingest: {}", result.getFailures());
+    }
+    else {
+      log.info("Ingested a batch of {} blobs from blob store {}: {}", events.size(), blobStoreId, result);
+    }
+    return result;
+  }
+
+  private ReplicationBlob fetch(final BlobStore blobStore, final BlobEvent event) {
+    BlobId blobId = new BlobId(event.getBlobId());
+    Blob blob = blobStore.get(blobId);
+    BlobAttributes blobAttributes = blobStore.getBlobAttributes(blobId);
+    validateBlob(blob, blobAttributes, blobId);
+
+    if (event.getBlobEventType() == BlobEventType.DELETED) {
+      return ReplicationBlob.deleted(event, blob, blobAttributes);
+    }
+    return new ReplicationBlob(event, blob, blobAttributes,
+        extractAssetAttributesFromProperties(blobAttributes.getProperties()),
+        extractComponentAttributesFromProperties(blobAttributes.getProperties()));
+  }
+
+  private synchronized ExecutorService prefetchExecutor() {
+    if (prefetchExecutor == null) {
+      int threads = Math.max(prefetchThreads, 1);
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, SECONDS, new LinkedBlockingQueue<>(),
+          new NexusThreadFactory("replication-" + getFormat(), "Replication blob prefetch"));
+      executor.allowCoreThreadTimeOut(true);
+      prefetchExecutor = forCurrentSubject(executor);
+    }
+    return prefetchExecutor;
+  }
+
   private void validateBlobStore(final BlobStore blobStore, final BlobId blobId, final String blobStoreId) {
     if (blobStore == null) {
       throw new ReplicationIngestionException(
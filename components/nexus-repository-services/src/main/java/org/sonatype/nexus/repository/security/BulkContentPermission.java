@@ -0,0 +1,53 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.security;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.sonatype.nexus.selector.SelectorConfiguration;
+import org.sonatype.nexus.selector.VariableSource;
+
+/**
+ * The content permissions of the current subject on some repositories, resolved once so that a batch of items can be
+ * checked without looking up the same permissions and content selectors again for every item.
+ *
+ * @see ContentPermissionChecker#getBulkPermission
+ * @since 3.71
+ */
+public interface BulkContentPermission
+    extends Predicate<VariableSource>
+{
+  /**
+   * True when the view permission is permitted, so every item is permitted regardless of content.
+   */
+  boolean isViewPermitted();
+
+  /**
+   * The content selectors through which items may be permitted; empty when {@link #isViewPermitted()}.
+   */
+  List<SelectorConfiguration> getSelectors();
+
+  /**
+   * True when no item can be permitted at all.
+   */
+  default boolean isNonePermitted() {
+    return !isViewPermitted() && getSelectors().isEmpty();
+  }
+
+  /**
+   * Whether an item is permitted, only evaluating the selectors resolved up front.
+   */
+  @Override
+  boolean test(VariableSource variableSource);
+}
@@ -23,6 +23,17 @@ import org.sonatype.nexus.selector.VariableSource;
  */
 public interface ContentPermissionChecker
 {
+  /**
+   * Ensure that the view permission is permitted for any of the desired repositories, without consulting content
+   * selectors. Useful for bulk operations which can skip per-item selector evaluation when this is granted.
+   * If any of the actions are permitted, return true
+   *
+   * @since 3.71
+   */
+  boolean isViewPermitted(Set<String> repositoryNames,
+                          String repositoryFormat,
+                          String... actions);
+
   /**
    * Ensure that either the view permission or the content selector permission is permitted
    */
@@ -85,4 +96,24 @@ public interface ContentPermissionChecker
                            String repositoryFormat,
                            VariableSource variableSource,
                            String... actions);
+
+  /**
+   * Resolves the view permission and the content selector permissions for the desired repositories once, for checking
+   * a batch of items. If any of the actions are permitted, the item is permitted.
+   *
+   * @since 3.71
+   */
+  BulkContentPermission getBulkPermission(Set<String> repositoryNames,
+                                          String repositoryFormat,
+                                          String... actions);
+
+  /**
+   * Like {@link #getBulkPermission(Set, String, String...)} but only considers JEXL content selectors, for callers
+   * which already applied the CSEL ones in SQL.
+   *
+   * @since 3.71
+   */
+  BulkContentPermission getBulkPermissionJexlOnly(Set<String> repositoryNames,
+                                                  String repositoryFormat,
+                                                  String... actions);
 }
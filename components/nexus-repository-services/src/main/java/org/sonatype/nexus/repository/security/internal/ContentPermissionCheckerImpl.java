@@ -15,6 +15,7 @@ package org.sonatype.nexus.repository.security.internal;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -23,6 +24,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.security.BulkContentPermission;
 import org.sonatype.nexus.repository.security.ContentPermissionChecker;
 import org.sonatype.nexus.repository.security.RepositoryContentSelectorPermission;
 import org.sonatype.nexus.repository.security.RepositoryViewPermission;
@@ -36,6 +38,7 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.shiro.authz.Permission;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
 
 /**
  * @since 3.1
@@ -67,7 +70,7 @@ public class ContentPermissionCheckerImpl
     return securityHelper.anyPermitted(permissionsFor(repositoryName, repositoryFormat, actions));
   }
 
-  @VisibleForTesting
+  @Override
   public boolean isViewPermitted(final Set<String> repoNames, final String repositoryFormat, final String... actions) {
     return securityHelper.anyPermitted(permissionsFor(repoNames, repositoryFormat, actions));
   }
@@ -310,4 +313,85 @@ public class ContentPermissionCheckerImpl
     return selectorManager.browse().stream()
         .anyMatch(config -> isContentPermittedAnyOf(repositoryNames, repositoryFormat, config, variableSource, actions));
   }
+
+  @Override
+  public BulkContentPermission getBulkPermission(
+      final Set<String> repositoryNames,
+      final String repositoryFormat,
+      final String... actions)
+  {
+    return bulkPermission(repositoryNames, repositoryFormat, false, actions);
+  }
+
+  @Override
+  public BulkContentPermission getBulkPermissionJexlOnly(
+      final Set<String> repositoryNames,
+      final String repositoryFormat,
+      final String... actions)
+  {
+    return bulkPermission(repositoryNames, repositoryFormat, true, actions);
+  }
+
+  private BulkContentPermission bulkPermission(
+      final Set<String> repositoryNames,
+      final String repositoryFormat,
+      final boolean jexlOnly,
+      final String... actions)
+  {
+    if (repositoryNames.isEmpty()) {
+      return new BulkContentPermissionImpl(false, Collections.emptyList());
+    }
+    if (isViewPermitted(repositoryNames, repositoryFormat, actions)) {
+      return new BulkContentPermissionImpl(true, Collections.emptyList());
+    }
+    // check the selector permissions once per selector rather than once per item
+    List<SelectorConfiguration> selectors = (jexlOnly ? selectorManager.browseJexl() : selectorManager.browse())
+        .stream()
+        .filter(config -> securityHelper.anyPermitted(repositoryNames.stream()
+            .flatMap(repoName -> contentPermissionsStreamFor(config.getName(), repositoryFormat, repoName, actions))
+            .toArray(Permission[]::new)))
+        .collect(toList());
+    return new BulkContentPermissionImpl(false, selectors);
+  }
+
+  private class BulkContentPermissionImpl
+      implements BulkContentPermission
+  {
+    private final boolean viewPermitted;
+
+    private final List<SelectorConfiguration> selectors;
+
+    BulkContentPermissionImpl(final boolean viewPermitted, final List<SelectorConfiguration> selectors) {
+      this.viewPermitted = viewPermitted;
+      this.selectors = selectors;
+    }
+
+    @Override
+    public boolean isViewPermitted() {
+      return viewPermitted;
+    }
+
+    @Override
+    public List<SelectorConfiguration> getSelectors() {
+      return selectors;
+    }
+
+    @Override
+    public boolean test(final VariableSource variableSource) {
+      if (viewPermitted) {
+        return true;
+      }
+      for (SelectorConfiguration selector : selectors) {
+        try {
+          if (selectorManager.evaluate(selector, variableSource)) {
+            return true;
+          }
+        }
+        catch (SelectorEvaluationException e) {
+          logMsgAndMaybeException(e);
+        }
+      }
+      return false;
+    }
+  }
 }
@@ -12,15 +12,20 @@
  */
 package org.sonatype.nexus.repository.selector;
 
+import java.util.function.Predicate;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.sonatype.nexus.repository.security.BulkContentPermission;
 import org.sonatype.nexus.repository.security.ContentPermissionChecker;
 import org.sonatype.nexus.repository.security.VariableResolverAdapter;
 import org.sonatype.nexus.repository.security.VariableResolverAdapterManager;
 import org.sonatype.nexus.selector.VariableSource;
 
+import com.google.common.collect.ImmutableSet;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Arrays.stream;
 import static org.sonatype.nexus.security.BreadActions.BROWSE;
@@ -55,6 +60,15 @@ public class ContentAuthHelper
         repositoryName -> contentPermissionChecker.isPermittedAnyOf(repositoryName, format, variableSource, BROWSE, READ));
   }
 
+  /**
+   * Checks whether the user can browse or read the whole of any of the given repositories, regardless of content.
+   *
+   * @since 3.71
+   */
+  public boolean checkRepositoryPermissions(final String format, final String... repositoryNames) {
+    return contentPermissionChecker.isViewPermitted(ImmutableSet.copyOf(repositoryNames), format, BROWSE, READ);
+  }
+
   public boolean checkPathPermissionsJexlOnly(final String path, final String format, final String... repositoryNames) {
     VariableResolverAdapter variableResolverAdapter = variableResolverAdapterManager.get(format);
     VariableSource variableSource = variableResolverAdapter.fromPath(path, format);
@@ -62,4 +76,37 @@ public class ContentAuthHelper
         repositoryName -> contentPermissionChecker.isPermittedJexlOnlyAnyOf(repositoryName, format, variableSource, BROWSE, READ));
   }
 
+  /**
+   * Returns a filter equivalent to {@link #checkPathPermissions(String, String, String...)} for checking many paths,
+   * which resolves the user's permissions and content selectors once rather than for every path.
+   *
+   * @since 3.71
+   */
+  public Predicate<String> pathPermissions(final String format, final String... repositoryNames) {
+    return pathFilter(format,
+        contentPermissionChecker.getBulkPermission(ImmutableSet.copyOf(repositoryNames), format, BROWSE, READ));
+  }
+
+  /**
+   * Returns a filter equivalent to {@link #checkPathPermissionsJexlOnly(String, String, String...)} for checking many
+   * paths, which resolves the user's permissions and content selectors once rather than for every path.
+   *
+   * @since 3.71
+   */
+  public Predicate<String> pathPermissionsJexlOnly(final String format, final String... repositoryNames) {
+    return pathFilter(format,
+        contentPermissionChecker.getBulkPermissionJexlOnly(ImmutableSet.copyOf(repositoryNames), format, BROWSE, READ));
+  }
+
+  private Predicate<String> pathFilter(final String format, final BulkContentPermission permission) {
+    if (permission.isViewPermitted()) {
+      return path -> true;
+    }
+    if (permission.isNonePermitted()) {
+      return path -> false;
+    }
+    VariableResolverAdapter variableResolverAdapter = variableResolverAdapterManager.get(format);
+    return path -> permission.test(variableResolverAdapter.fromPath(path, format));
+  }
+
 }
@@ -51,6 +51,7 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.Test.None;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 
 import static com.google.common.collect.Iterables.size;
@@ -69,6 +70,7 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -195,6 +197,8 @@ public class RepositoryManagerImplTest
   @Mock
   private GroupMemberMappingCache groupMemberMappingCache;
 
+  private int startupParallelism = 1;
+
   //Subject of the test
   private RepositoryManagerImpl repositoryManager;
 
@@ -303,7 +307,7 @@ public class RepositoryManagerImplTest
     repositoryManager = new RepositoryManagerImpl(eventManager, configurationStore, repositoryFactory,
         configurationFacetProvider, ImmutableMap.of(recipeName, recipe), securityContributor,
         defaultRepositoriesContributorList, freezeService, skipDefaultRepositories, blobStoreManager,
-        groupMemberMappingCache, Collections.emptyList());
+        groupMemberMappingCache, Collections.emptyList(), startupParallelism);
 
     repositoryManager.doStart();
     return repositoryManager;
@@ -341,6 +345,25 @@ public class RepositoryManagerImplTest
     verify(thirdPartyRepository).start();
   }
 
+  @Test
+  public void testStartup_startsGroupMembersBeforeGroups() throws Exception {
+    startupParallelism = 4;
+    repositoryManager = buildRepositoryManagerImpl(true);
+
+    InOrder inOrder = inOrder(mavenCentralRepository, apacheSnapshotsRepository, groupRepository,
+        parentGroupRepository);
+    inOrder.verify(mavenCentralRepository).start();
+    inOrder.verify(groupRepository).start();
+    inOrder.verify(parentGroupRepository).start();
+    inOrder = inOrder(apacheSnapshotsRepository, groupRepository);
+    inOrder.verify(apacheSnapshotsRepository).start();
+    inOrder.verify(groupRepository).start();
+
+    verify(cycleGroupA).start();
+    verify(cycleGroupB).start();
+    assertThat(repositoryManager.getRepositoryStartupMillis().size(), equalTo(8));
+  }
+
   @Test
   public void testStartup_createsDefaultRepositoriesWhenEmpty() throws Exception {
     repositoryManager = buildRepositoryManagerImpl(false);
@@ -0,0 +1,70 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests for {@link MirrorHttpClientContext}.
+ */
+public class MirrorHttpClientContextTest
+    extends TestSupport
+{
+  private final MirrorHttpClientContext underTest = new MirrorHttpClientContext();
+
+  private final HttpHost proxy = new HttpHost("proxy.example.com", 3128);
+
+  @Before
+  public void setUp() {
+    CredentialsProvider clientCredentials = new BasicCredentialsProvider();
+    clientCredentials.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials("remote", "secret"));
+    clientCredentials.setCredentials(new AuthScope(proxy), new UsernamePasswordCredentials("proxy", "secret"));
+    // as the client does when it executes a request with this context
+    underTest.setCredentialsProvider(clientCredentials);
+  }
+
+  @Test
+  public void remoteCredentialsAreNotGivenToTheMirror() {
+    underTest.setAttribute(MirrorHttpClientContext.HTTP_ROUTE,
+        new HttpRoute(new HttpHost("mirror.example.com"), null, proxy, false));
+
+    CredentialsProvider credentials = underTest.getCredentialsProvider();
+
+    assertThat(credentials.getCredentials(new AuthScope("mirror.example.com", 80)), is(nullValue()));
+    assertThat(credentials.getCredentials(new AuthScope("cdn.example.com", 443)), is(nullValue()));
+    assertThat(credentials.getCredentials(AuthScope.ANY), is(nullValue()));
+    assertThat(credentials.getCredentials(new AuthScope(proxy)).getUserPrincipal().getName(), is("proxy"));
+  }
+
+  @Test
+  public void nothingIsGivenOutWithoutAProxy() {
+    underTest.setAttribute(MirrorHttpClientContext.HTTP_ROUTE, new HttpRoute(new HttpHost("mirror.example.com")));
+
+    assertThat(underTest.getCredentialsProvider(), is(notNullValue()));
+    assertThat(underTest.getCredentialsProvider().getCredentials(new AuthScope(proxy)), is(nullValue()));
+  }
+}
@@ -15,9 +15,18 @@ package org.sonatype.nexus.repository.proxy;
 import java.io.IOException;
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.common.collect.AttributesMap;
@@ -35,34 +44,52 @@ import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.config.ConfigurationFacet;
 import org.sonatype.nexus.repository.httpclient.HttpClientFacet;
 import org.sonatype.nexus.repository.httpclient.RemoteBlockedIOException;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Context;
 import org.sonatype.nexus.repository.view.Request;
 import org.sonatype.nexus.transaction.RetryDeniedException;
 
+import com.google.common.net.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.HttpClientUtils;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Spy;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -493,6 +520,152 @@ public class ProxyFacetSupportTest
     }
   }
 
+  @Test
+  public void fetchFailsOverToTheNextMirror() throws Exception {
+    HttpClient httpClient = configureMirrors(null);
+    doThrow(new IOException("Connection refused")).when(underTest)
+        .execute(eq(cachedContext), eq(httpClient), argThat(request -> "first".equals(request.getURI().getHost())));
+    when(httpClient.execute(argThat(request -> "second".equals(request.getURI().getHost())),
+        any(HttpContext.class))).thenReturn(okResponse());
+
+    assertThat(underTest.fetch("some/path", cachedContext, null), is(notNullValue()));
+
+    // the failed mirror is now tried last
+    assertThat(underTest.getMirrorStatuses().keySet(), contains(URI.create("http://first/"),
+        URI.create("http://second/")));
+    assertThat(underTest.getMirrorStatuses().get(URI.create("http://first/")).getType(),
+        is(RemoteConnectionStatusType.AUTO_BLOCKED_UNAVAILABLE));
+    underTest.fetch("some/path", cachedContext, null);
+    verify(underTest, times(1))
+        .execute(eq(cachedContext), eq(httpClient), argThat(request -> "first".equals(request.getURI().getHost())));
+  }
+
+  @Test
+  public void hedgedFetchTakesTheFirstAnswer() throws Exception {
+    Subject subject = mock(Subject.class);
+    when(subject.associateWith(any(Callable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(subject.associateWith(any(Runnable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    ThreadContext.bind(subject);
+    try {
+      HttpClient httpClient = configureMirrors(50);
+      CountDownLatch slowMirror = new CountDownLatch(1);
+      List<HttpRequestBase> slowRequests = new ArrayList<>();
+      doAnswer(invocation -> {
+        slowRequests.add(invocation.getArgument(2));
+        slowMirror.await(10, TimeUnit.SECONDS);
+        throw new IOException("Aborted");
+      }).when(underTest)
+          .execute(eq(cachedContext), eq(httpClient), argThat(request -> "first".equals(request.getURI().getHost())));
+      when(httpClient.execute(argThat(request -> "second".equals(request.getURI().getHost())),
+          any(HttpContext.class))).thenReturn(okResponse());
+
+      Content fetched = underTest.fetch("some/path", cachedContext, null);
+      slowMirror.countDown();
+
+      assertThat(fetched, is(notNullValue()));
+      assertThat(slowRequests.get(0).isAborted(), is(true));
+    }
+    finally {
+      ThreadContext.unbindSubject();
+    }
+  }
+
+  @Test
+  public void fetchMovesOnWhenAMirrorDoesNotHaveTheContent() throws Exception {
+    HttpClient httpClient = configureMirrors(null);
+    doReturn(new BasicHttpResponse(new ProtocolVersion("HTTP", 1, 1), 404, "Not Found")).when(underTest)
+        .execute(eq(cachedContext), eq(httpClient), argThat(request -> "first".equals(request.getURI().getHost())));
+    when(httpClient.execute(argThat(request -> "second".equals(request.getURI().getHost())),
+        any(HttpContext.class))).thenReturn(okResponse());
+
+    assertThat(underTest.fetch("some/path", cachedContext, null), is(notNullValue()));
+
+    // a missing file says nothing about the health of the mirror
+    assertThat(underTest.getMirrorStatuses().get(URI.create("http://first/")).getType(),
+        is(RemoteConnectionStatusType.AVAILABLE));
+  }
+
+  @Test
+  public void remoteCredentialsAreWithheldFromOtherMirrors() throws Exception {
+    HttpClient httpClient = configureMirrors(null);
+    doThrow(new IOException("Connection refused")).when(underTest)
+        .execute(eq(cachedContext), eq(httpClient), argThat(request -> "first".equals(request.getURI().getHost())));
+    doAnswer(invocation -> {
+      HttpRequestBase request = (HttpRequestBase) invocation.callRealMethod();
+      request.addHeader(HttpHeaders.AUTHORIZATION, "Basic c2VjcmV0");
+      return request;
+    }).when(underTest).buildFetchHttpRequest(any(URI.class), eq(cachedContext));
+    ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+    ArgumentCaptor<HttpContext> context = ArgumentCaptor.forClass(HttpContext.class);
+    when(httpClient.execute(request.capture(), context.capture())).thenReturn(okResponse());
+
+    underTest.fetch("some/path", cachedContext, null);
+
+    assertThat(request.getValue().getURI().getHost(), is("second"));
+    assertThat(request.getValue().containsHeader(HttpHeaders.AUTHORIZATION), is(false));
+    assertThat(context.getValue(), is(instanceOf(MirrorHttpClientContext.class)));
+  }
+
+  @Test
+  public void mirrorRequestsGoThroughTheExecuteHook() throws Exception {
+    HttpClient httpClient = configureMirrors(null);
+    doThrow(new IOException("Connection refused")).when(underTest)
+        .execute(eq(cachedContext), eq(httpClient), argThat(request -> "first".equals(request.getURI().getHost())));
+    doAnswer(invocation -> {
+      HttpRequestBase request = invocation.getArgument(2);
+      request.addHeader(HttpHeaders.AUTHORIZATION, "Basic c2VjcmV0");
+      return invocation.callRealMethod();
+    }).when(underTest).execute(eq(cachedContext), any(MirrorHttpClient.class),
+        argThat(request -> "second".equals(request.getURI().getHost())));
+    ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+    when(httpClient.execute(request.capture(), any(MirrorHttpClientContext.class))).thenReturn(okResponse());
+
+    assertThat(underTest.fetch("some/path", cachedContext, null), is(notNullValue()));
+
+    assertThat(request.getValue().getURI().getHost(), is("second"));
+    assertThat(request.getValue().containsHeader(HttpHeaders.AUTHORIZATION), is(false));
+  }
+
+  @Test
+  public void mirrorUrlsMustBeHttpUrls() throws Exception {
+    ProxyFacetSupport.ProxyConfig config = new ProxyFacetSupport.ProxyConfig();
+    config.remoteUrl = new URI("http://first");
+    config.mirrorUrls = asList(new URI("https://second"), new URI("ftp://third"));
+    Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    Set<ConstraintViolation<ProxyFacetSupport.ProxyConfig>> violations = validator.validate(config);
+
+    assertThat(violations, hasSize(1));
+    assertThat(violations.iterator().next().getPropertyPath().toString(), startsWith("mirrorUrls["));
+  }
+
+  private HttpClient configureMirrors(@Nullable final Integer hedgeDelay) throws Exception {
+    HttpClientFacet httpClientFacet = mock(HttpClientFacet.class);
+    HttpClient httpClient = mock(HttpClient.class);
+    ConfigurationFacet configurationFacet = mock(ConfigurationFacet.class);
+    ProxyFacetSupport.ProxyConfig config = new ProxyFacetSupport.ProxyConfig();
+    config.remoteUrl = new URI("http://first");
+    config.mirrorUrls = singletonList(new URI("http://second"));
+    config.hedgeDelay = hedgeDelay;
+
+    when(repository.facet(HttpClientFacet.class)).thenReturn(httpClientFacet);
+    when(httpClientFacet.getHttpClient()).thenReturn(httpClient);
+    when(repository.facet(ConfigurationFacet.class)).thenReturn(configurationFacet);
+    when(configurationFacet.readSection(any(Configuration.class), anyString(), eq(ProxyFacetSupport.ProxyConfig.class)))
+        .thenReturn(config);
+    when(cacheController.current()).thenReturn(cacheInfo);
+
+    underTest.doConfigure(mock(Configuration.class));
+    underTest.doStart();
+    return httpClient;
+  }
+
+  private static HttpResponse okResponse() {
+    HttpResponse response = new BasicHttpResponse(new ProtocolVersion("HTTP", 1, 1), 200, "OK");
+    response.setEntity(new StringEntity("content", UTF_8));
+    return response;
+  }
+
   @Test
   public void normalizeURLPath() throws Exception {
     assertEquals(
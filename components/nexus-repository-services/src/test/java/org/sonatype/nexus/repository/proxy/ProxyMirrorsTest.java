@@ -0,0 +1,106 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.proxy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.AUTO_BLOCKED_UNAVAILABLE;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.AVAILABLE;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.READY;
+
+public class ProxyMirrorsTest
+    extends TestSupport
+{
+  private static final URI FIRST = URI.create("http://first/");
+
+  private static final URI SECOND = URI.create("http://second/");
+
+  private static final URI THIRD = URI.create("http://third/");
+
+  private final FakeTicker ticker = new FakeTicker();
+
+  private final ProxyMirrors underTest = new ProxyMirrors(Arrays.asList(FIRST, SECOND, THIRD), ticker);
+
+  @Test
+  public void unknownMirrorsKeepTheirConfiguredOrder() {
+    assertThat(underTest.ranked(), contains(FIRST, SECOND, THIRD));
+  }
+
+  @Test
+  public void fasterMirrorsAreRankedFirst() {
+    underTest.succeeded(FIRST, Duration.ofMillis(300));
+    underTest.succeeded(SECOND, Duration.ofMillis(100));
+    underTest.succeeded(THIRD, Duration.ofMillis(200));
+
+    assertThat(underTest.ranked(), contains(SECOND, THIRD, FIRST));
+  }
+
+  @Test
+  public void failingMirrorsAreBlockedUntilTheirBackOffExpires() {
+    underTest.succeeded(FIRST, Duration.ofMillis(100));
+    underTest.succeeded(SECOND, Duration.ofMillis(200));
+    underTest.succeeded(THIRD, Duration.ofMillis(250));
+
+    underTest.failed(FIRST, "Connection refused");
+
+    assertThat(underTest.ranked(), contains(SECOND, THIRD, FIRST));
+    assertThat(underTest.statuses().get(FIRST).getType(), is(AUTO_BLOCKED_UNAVAILABLE));
+    assertThat(underTest.statuses().get(FIRST).getReason(), is("Connection refused"));
+
+    ticker.advance(Duration.ofSeconds(41));
+
+    assertThat(underTest.statuses().get(FIRST).getType(), is(AVAILABLE));
+    // still penalised for its error rate
+    assertThat(underTest.ranked(), contains(SECOND, THIRD, FIRST));
+
+    for (int i = 0; i < 5; i++) {
+      underTest.succeeded(FIRST, Duration.ofMillis(100));
+    }
+
+    assertThat(underTest.ranked(), contains(FIRST, SECOND, THIRD));
+  }
+
+  @Test
+  public void statusesReflectWhatIsKnownAboutEachMirror() {
+    underTest.succeeded(SECOND, Duration.ofMillis(100));
+
+    assertThat(underTest.statuses().get(FIRST).getType(), is(READY));
+    assertThat(underTest.statuses().get(SECOND).getType(), is(AVAILABLE));
+    assertThat(underTest.statuses().get(SECOND).getRequestUrl(), is(SECOND.toString()));
+  }
+
+  private static class FakeTicker
+      extends Ticker
+  {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(final Duration duration) {
+      nanos += duration.toNanos();
+    }
+  }
+}
@@ -13,9 +13,12 @@
 package org.sonatype.nexus.repository.replication;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.blobstore.api.Blob;
@@ -24,14 +27,24 @@ import org.sonatype.nexus.blobstore.api.BlobId;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
 
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -57,6 +70,9 @@ public class ReplicationIngesterSupportTest
   @Mock
   private BlobAttributes blobAttributes;
 
+  @Mock
+  private Subject subject;
+
   private Map<String, String> blobHeaders;
 
   private Properties properties;
@@ -69,6 +85,14 @@ public class ReplicationIngesterSupportTest
     when(blobStore.getBlobAttributes(any(BlobId.class))).thenReturn(blobAttributes);
     when(blobAttributes.getHeaders()).thenReturn(getHeaders());
     underTest = new TestReplicationIngester(blobStoreManager, replicationIngesterHelper);
+
+    when(subject.associateWith(any(Callable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    ThreadContext.bind(subject);
+  }
+
+  @After
+  public void tearDown() {
+    ThreadContext.unbindSubject();
   }
 
   @Test
@@ -115,6 +139,65 @@ public class ReplicationIngesterSupportTest
         .replicate(any(String.class), any(Blob.class), any(Map.class), any(Map.class), any(String.class), any(String.class));
   }
 
+  @Test
+  public void testIngestBlobs_groupsEventsByRepositoryInOrder() {
+    BlobEvent first = event("blob1", "repo1", BlobEventType.ADDED);
+    BlobEvent second = event("blob2", "repo2", BlobEventType.ADDED);
+    BlobEvent third = event("blob3", "repo1", BlobEventType.DELETED);
+
+    underTest.ingestBlobs("blobStoreId", Arrays.asList(first, second, third));
+
+    ArgumentCaptor<List<ReplicationBlob>> repo1 = ArgumentCaptor.forClass(List.class);
+    ArgumentCaptor<List<ReplicationBlob>> repo2 = ArgumentCaptor.forClass(List.class);
+    verify(replicationIngesterHelper).replicateBatch(eq("repo1"), eq("blobStoreId"), repo1.capture(), any());
+    verify(replicationIngesterHelper).replicateBatch(eq("repo2"), eq("blobStoreId"), repo2.capture(), any());
+    assertThat(repo1.getValue().stream().map(ReplicationBlob::getEvent).toArray(), is(new Object[]{first, third}));
+    assertThat(repo2.getValue().stream().map(ReplicationBlob::getEvent).toArray(), is(new Object[]{second}));
+    assertThat(repo1.getValue().get(0).getAssetAttributes(), hasKey("checksum"));
+  }
+
+  @Test
+  public void testIngestBlobs_reportsBlobsWhichCannotBeFetched() {
+    when(blobStore.get(new BlobId("missing"))).thenReturn(null);
+    doCallRealMethod().when(replicationIngesterHelper).replicateBatch(any(), any(), any(), any());
+
+    ReplicationBatchResult result = underTest.ingestBlobs("blobStoreId",
+        Arrays.asList(event("blob1", "repo1", BlobEventType.ADDED), event("missing", "repo1", BlobEventType.ADDED),
+            event("blob3", "repo1", BlobEventType.DELETED)));
+
+    assertThat(result.getSucceeded(), is(2));
+    assertThat(result.getFailures().keySet(), contains("missing"));
+    verify(replicationIngesterHelper).deleteReplication("blobName", "repo1");
+  }
+
+  @Test
+  public void testIngestBlobs_continuesPastFailedChanges() throws IOException {
+    doCallRealMethod().when(replicationIngesterHelper).replicateBatch(any(), any(), any(), any());
+    doThrow(new IOException("disk full")).when(replicationIngesterHelper)
+        .replicate(any(), any(), any(), any(), eq("repo1"), any());
+
+    ReplicationBatchResult result = underTest.ingestBlobs("blobStoreId",
+        Arrays.asList(event("blob1", "repo1", BlobEventType.ADDED), event("blob2", "repo2", BlobEventType.UPDATED)));
+
+    assertThat(result.getSucceeded(), is(1));
+    assertThat(result.getFailures().get("blob1"), is("disk full"));
+  }
+
+  @Test
+  public void testIngestBlobs_failsWholeBatchIfBlobstoreNotPresent() {
+    when(blobStoreManager.get(anyString())).thenReturn(null);
+
+    ReplicationBatchResult result =
+        underTest.ingestBlobs("blobStoreId", Arrays.asList(event("blob1", "repo1", BlobEventType.ADDED)));
+
+    assertThat(result.getFailed(), is(1));
+    verify(replicationIngesterHelper, never()).replicateBatch(any(), any(), any(), any());
+  }
+
+  private static BlobEvent event(final String blobId, final String repositoryName, final BlobEventType eventType) {
+    return new BlobEvent().withBlobId(blobId).withRepositoryName(repositoryName).withBlobEventType(eventType);
+  }
+
   private void verifyExtractedProperties(final Map<String, Object> extractedProperties) {
     assertThat(extractedProperties.size(), is(3));
     assertThat(((Map<String, Object>) extractedProperties.get("checksum")).size(), is(4));
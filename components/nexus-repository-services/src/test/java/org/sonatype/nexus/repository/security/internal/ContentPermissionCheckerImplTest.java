@@ -17,6 +17,7 @@ import java.util.Collections;
 import java.util.Set;
 
 import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.security.BulkContentPermission;
 import org.sonatype.nexus.repository.security.RepositoryContentSelectorPermission;
 import org.sonatype.nexus.repository.security.RepositoryViewPermission;
 import org.sonatype.nexus.security.BreadActions;
@@ -33,9 +34,13 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -275,4 +280,65 @@ public class ContentPermissionCheckerImplTest
 
     assertThat(impl.isPermitted(Sets.newHashSet("repoName", "repoName2"), "repoFormat", BreadActions.READ, variableSource), is(false));
   }
+
+  @Test
+  public void testGetBulkPermission_viewPermitted() throws Exception {
+    when(securityHelper
+        .anyPermitted(
+            eq(new RepositoryViewPermission("repoFormat", "repoName", Arrays.asList(BreadActions.BROWSE))),
+            eq(new RepositoryViewPermission("repoFormat", "repoName", Arrays.asList(BreadActions.READ)))))
+        .thenReturn(true);
+
+    BulkContentPermission permission = impl.getBulkPermission(Collections.singleton("repoName"), "repoFormat",
+        BreadActions.BROWSE, BreadActions.READ);
+
+    assertThat(permission.isViewPermitted(), is(true));
+    assertThat(permission.test(variableSource), is(true));
+    verify(selectorManager, never()).browse();
+    verify(selectorManager, never()).evaluate(any(), any());
+  }
+
+  @Test
+  public void testGetBulkPermission_selectorPermissionCheckedOnce() throws Exception {
+    SelectorConfiguration otherConfig = new OrientSelectorConfiguration();
+    otherConfig.setName("other");
+    otherConfig.setType(JexlSelector.TYPE);
+    otherConfig.setAttributes(Collections.singletonMap("expression", "true"));
+
+    when(securityHelper
+        .anyPermitted(
+            eq(new RepositoryContentSelectorPermission("selector", "repoFormat", "repoName", Arrays.asList(BreadActions.READ))),
+            eq(new RepositoryContentSelectorPermission("selector", "repoFormat", "repoName2", Arrays.asList(BreadActions.READ)))))
+        .thenReturn(true);
+    when(selectorManager.browse()).thenReturn(Arrays.asList(config, otherConfig));
+    when(selectorManager.evaluate(config, variableSource)).thenReturn(true);
+
+    BulkContentPermission permission = impl.getBulkPermission(
+        Sets.newLinkedHashSet(Arrays.asList("repoName", "repoName2")), "repoFormat", BreadActions.READ);
+
+    assertThat(permission.isViewPermitted(), is(false));
+    assertThat(permission.getSelectors(), contains(config));
+    for (int i = 0; i < 3; i++) {
+      assertThat(permission.test(variableSource), is(true));
+    }
+
+    verify(securityHelper).anyPermitted(
+        eq(new RepositoryContentSelectorPermission("selector", "repoFormat", "repoName", Arrays.asList(BreadActions.READ))),
+        eq(new RepositoryContentSelectorPermission("selector", "repoFormat", "repoName2", Arrays.asList(BreadActions.READ))));
+    verify(selectorManager, times(3)).evaluate(config, variableSource);
+    verify(selectorManager, never()).evaluate(eq(otherConfig), any());
+  }
+
+  @Test
+  public void testGetBulkPermissionJexlOnly_nonePermitted() throws Exception {
+    when(selectorManager.browseJexl()).thenReturn(Arrays.asList(config));
+
+    BulkContentPermission permission = impl.getBulkPermissionJexlOnly(Collections.singleton("repoName"), "repoFormat",
+        BreadActions.READ);
+
+    assertThat(permission.getSelectors(), is(empty()));
+    assertThat(permission.isNonePermitted(), is(true));
+    assertThat(permission.test(variableSource), is(false));
+    verify(selectorManager, never()).browse();
+  }
 }
@@ -0,0 +1,112 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sonatype.nexus.repository.view.Payload;
+
+import com.google.common.collect.Range;
+import com.google.common.io.ByteSource;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * A wrapper {@link Payload} that returns several portions of the original payload as a {@code multipart/byteranges}
+ * body (RFC 7233, appendix A). Each part is only read from the original payload when the body reaches it.
+ *
+ * @since 3.71
+ */
+class MultipartByteRangesPayload
+    implements Payload
+{
+  private final Payload payload;
+
+  private final String boundary;
+
+  private final ByteSource body;
+
+  private final long size;
+
+  /**
+   * The endpoints of each Range are interpreted as the first and last byte positions to send.
+   */
+  public MultipartByteRangesPayload(final Payload payload, final List<Range<Long>> rangesToSend, final String boundary) {
+    this.payload = checkNotNull(payload);
+    this.boundary = checkNotNull(boundary);
+    checkArgument(!rangesToSend.isEmpty(), "At least one range is required");
+
+    String contentType = payload.getContentType();
+    List<ByteSource> parts = new ArrayList<>();
+    long bodySize = 0;
+    for (Range<Long> range : rangesToSend) {
+      StringBuilder header = new StringBuilder()
+          .append("\r\n--").append(boundary).append("\r\n");
+      if (contentType != null) {
+        header.append("Content-Type: ").append(contentType).append("\r\n");
+      }
+      header.append("Content-Range: bytes ")
+          .append(range.lowerEndpoint()).append('-').append(range.upperEndpoint())
+          .append('/').append(payload.getSize()).append("\r\n\r\n");
+
+      byte[] headerBytes = header.toString().getBytes(US_ASCII);
+      long partSize = 1 + range.upperEndpoint() - range.lowerEndpoint();
+      parts.add(ByteSource.wrap(headerBytes));
+      parts.add(new RangeByteSource(range.lowerEndpoint(), partSize));
+      bodySize += headerBytes.length + partSize;
+    }
+    byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(US_ASCII);
+    parts.add(ByteSource.wrap(trailer));
+
+    this.body = ByteSource.concat(parts);
+    this.size = bodySize + trailer.length;
+  }
+
+  @Override
+  public InputStream openInputStream() throws IOException {
+    return body.openStream();
+  }
+
+  @Override
+  public long getSize() {
+    return size;
+  }
+
+  @Override
+  public String getContentType() {
+    return "multipart/byteranges; boundary=" + boundary;
+  }
+
+  private class RangeByteSource
+      extends ByteSource
+  {
+    private final long offset;
+
+    private final long length;
+
+    RangeByteSource(final long offset, final long length) {
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+      return payload.openInputStream(offset, length);
+    }
+  }
+}
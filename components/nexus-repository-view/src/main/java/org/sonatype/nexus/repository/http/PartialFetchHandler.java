@@ -12,8 +12,11 @@
  */
 package org.sonatype.nexus.repository.http;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -37,7 +40,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Implements partial-fetch semantics (as per RFC 2616) for {@link Status#isSuccessful() successful}
- * responses with payloads.
+ * responses with payloads. Requests for several ranges are answered with a multipart/byteranges body.
  *
  * @since 3.0
  */
@@ -46,6 +49,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class PartialFetchHandler
     implements Handler
 {
+  /**
+   * The most disjoint ranges served as a multipart/byteranges response.
+   */
+  private static final int MAX_RANGES = 64;
+
   private final RangeParser rangeParser;
 
   @Inject
@@ -95,19 +103,23 @@ public class PartialFetchHandler
       return response;
     }
 
-    if (ranges.size() > 1) {
-      return HttpResponses.notImplemented("Multiple ranges not supported.");
-    }
-
     final String ifRangeHeader = getHeaderValue(context.getRequest(), HttpHeaders.IF_RANGE);
     if (ifRangeHeader != null && !ifRangeHeaderMatches(response, ifRangeHeader)) {
       return response;
     }
 
-    Range<Long> requestedRange = ranges.get(0);
+    final List<Range<Long>> requestedRanges = coalesce(ranges);
+
+    if (requestedRanges.size() > MAX_RANGES) {
+      // Too many disjoint ranges cost more to serve than the whole payload, so ignore the header as RFC 7233 allows
+      return response;
+    }
 
     // Mutate the response
-    return partialResponse(response, payload, requestedRange);
+    if (requestedRanges.size() == 1) {
+      return partialResponse(response, payload, requestedRanges.get(0));
+    }
+    return multipartResponse(response, payload, requestedRanges);
   }
 
   /**
@@ -131,6 +143,48 @@ public class PartialFetchHandler
     return builder.build();
   }
 
+  /**
+   * Mutate the response into one that returns several parts of the payload as a multipart/byteranges body.
+   */
+  private Response multipartResponse(final Response response,
+                                     final Payload payload,
+                                     final List<Range<Long>> requestedRanges)
+  {
+    Response.Builder builder = new Response.Builder()
+        .copy(response)
+        .status(Status.success(HttpStatus.PARTIAL_CONTENT));
+
+    // ResponseSender takes care of Content-Type and Content-Length headers, via the payload
+    builder.payload(new MultipartByteRangesPayload(payload, requestedRanges, UUID.randomUUID().toString()));
+
+    return builder.build();
+  }
+
+  /**
+   * Sorts the ranges and merges those which overlap or are adjacent, so no byte is sent twice.
+   */
+  private static List<Range<Long>> coalesce(final List<Range<Long>> ranges) {
+    if (ranges.size() == 1) {
+      return ranges;
+    }
+    List<Range<Long>> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparing(Range::lowerEndpoint));
+
+    List<Range<Long>> coalesced = new ArrayList<>();
+    Range<Long> current = sorted.get(0);
+    for (Range<Long> next : sorted.subList(1, sorted.size())) {
+      if (next.lowerEndpoint() <= current.upperEndpoint() + 1) {
+        current = Range.closed(current.lowerEndpoint(), Math.max(current.upperEndpoint(), next.upperEndpoint()));
+      }
+      else {
+        coalesced.add(current);
+        current = next;
+      }
+    }
+    coalesced.add(current);
+    return coalesced;
+  }
+
   private static boolean ifRangeHeaderMatches(final Response response, final String ifRangeHeader) {
     // If the if-range header starts with " it is an ETag
     if (ifRangeHeader.startsWith("\"")) {
@@ -14,6 +14,7 @@ package org.sonatype.nexus.repository.http;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 import javax.annotation.Nullable;
 
@@ -21,8 +22,6 @@ import org.sonatype.nexus.repository.view.Payload;
 
 import com.google.common.collect.Range;
 
-import static com.google.common.io.ByteStreams.limit;
-
 /**
  * A wrapper {@link Payload} that returns only a portion of the original payload.
  *
@@ -48,9 +47,17 @@ class PartialPayload
 
   @Override
   public InputStream openInputStream() throws IOException {
-    final InputStream payloadStream = payload.openInputStream();
-    payloadStream.skip(rangeToSend.lowerEndpoint());
-    return limit(payloadStream, partialSize);
+    return payload.openInputStream(rangeToSend.lowerEndpoint(), partialSize);
+  }
+
+  @Nullable
+  @Override
+  public FileChannel openFileChannel() throws IOException {
+    FileChannel channel = payload.openFileChannel();
+    if (channel != null) {
+      channel.position(channel.position() + rangeToSend.lowerEndpoint());
+    }
+    return channel;
   }
 
   @Override
@@ -12,16 +12,18 @@
  */
 package org.sonatype.nexus.repository.http;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.sonatype.goodies.common.ComponentSupport;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.Range;
 
-import static java.util.Collections.singletonList;
-
 /**
  * Parses the "Range" request header.
  *
@@ -36,6 +38,8 @@ class RangeParser
 
   public static final List<Range<Long>> WHOLE_RANGE = Collections.emptyList();
 
+  private static final Splitter RANGE_SPLITTER = Splitter.on(',').trimResults();
+
   /**
    * Returns a list of {@link Range}s, each indicating a range of byte indices (inclusive).
    *
@@ -43,40 +47,34 @@ class RangeParser
    * Range: bytes=500-999 (from byte 500 to byte 999)
    * Range: bytes=500- (from byte 500 to the end)
    * Range: bytes=-500 (the last 500 bytes, per the RFC)
+   * Range: bytes=0-10,500-999 (several ranges, in the order requested)
    *
-   * @return {@code null} if the requested range cannot be satisfied given the size of the content, or an empty list in
-   * the case of parsing errors
+   * Ranges which fall outside the content are dropped, as long as at least one of the requested ranges is satisfiable.
+   *
+   * @return {@code null} if none of the requested ranges can be satisfied given the size of the content, or an empty
+   * list in the case of parsing errors
    */
   public List<Range<Long>> parseRangeSpec(final String rangeHeader, long size) {
     Range<Long> content = Range.closed(0L, size - 1L);
 
-    // TODO: Current limitation: only one Range of bytes supported in forms of "-X", "X-Y" (where X<Y) and "X-".
     if (!Strings.isNullOrEmpty(rangeHeader)) {
       try {
-        if (rangeHeader.startsWith("bytes=") && rangeHeader.length() > 6 && !rangeHeader.contains(",")) {
-          final String rangeSpec = rangeHeader.substring(6, rangeHeader.length());
-          if (rangeSpec.startsWith("-")) {
-            final long byteCount = Long.parseLong(rangeSpec.substring(1));
-            if (byteCount > size) {
-              return UNSATISFIABLE;
+        if (rangeHeader.startsWith("bytes=") && rangeHeader.length() > 6) {
+          List<Range<Long>> ranges = new ArrayList<>();
+          for (String rangeSpec : RANGE_SPLITTER.split(rangeHeader.substring(6))) {
+            Range<Long> requested = parseRange(rangeSpec, size);
+            if (requested == null) {
+              log.warn("Malformed HTTP Range value: {}, ignoring it", rangeHeader);
+              return WHOLE_RANGE;
+            }
+            if (requested.isConnected(content) && !requested.intersection(content).isEmpty()) {
+              ranges.add(requested.intersection(content));
             }
-            final Range<Long> suffix = Range.atLeast(size - byteCount);
-            return ensureSatisfiable(suffix, content);
-          }
-          else if (rangeSpec.endsWith("-")) {
-            final Range<Long> requested = Range.atLeast(Long.parseLong(rangeSpec.substring(0, rangeSpec.length() - 1)));
-            return ensureSatisfiable(requested, content);
-          }
-          else if (rangeSpec.contains("-")) {
-            final String[] parts = rangeSpec.split("-");
-            return ensureSatisfiable(Range.closed(Long.parseLong(parts[0]), Long.parseLong(parts[1])), content);
-          }
-          else {
-            log.warn("Malformed HTTP Range value: {}, ignoring it", rangeHeader);
           }
+          return ranges.isEmpty() ? UNSATISFIABLE : ranges;
         }
         else {
-          log.warn("Unsupported non-byte or multiple HTTP Ranges: {}; sending complete content", rangeHeader);
+          log.warn("Unsupported non-byte HTTP Ranges: {}; sending complete content", rangeHeader);
         }
       }
       catch (Exception e) {
@@ -92,13 +90,24 @@ class RangeParser
     return WHOLE_RANGE;
   }
 
-  private List<Range<Long>> ensureSatisfiable(Range<Long> requested, Range<Long> content) {
-    if (requested.isConnected(content)) {
-      return singletonList(requested.intersection(content));
+  /**
+   * Parses a single "-X", "X-Y" or "X-" range spec; returns {@code null} when the spec is malformed.
+   */
+  @Nullable
+  private Range<Long> parseRange(final String rangeSpec, final long size) {
+    if (rangeSpec.startsWith("-")) {
+      final long byteCount = Long.parseLong(rangeSpec.substring(1));
+      // a suffix longer than the content can't be satisfied; an empty range is dropped by the caller
+      return byteCount > size ? Range.closedOpen(size, size) : Range.atLeast(size - byteCount);
+    }
+    else if (rangeSpec.endsWith("-")) {
+      return Range.atLeast(Long.parseLong(rangeSpec.substring(0, rangeSpec.length() - 1)));
     }
-    else {
-      return UNSATISFIABLE;
+    else if (rangeSpec.contains("-")) {
+      final String[] parts = rangeSpec.split("-");
+      return Range.closed(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
     }
+    return null;
   }
 
   private boolean isSatisfiable(final Range<Long> range, final long contentSize) {
@@ -87,8 +87,23 @@ public class BlockingHttpClient
                             final RemoteConnectionStatusObserver statusObserver,
                             final boolean repositoryOnline,
                             final AutoBlockConfiguration autoBlockConfiguration)
+  {
+    this(delegate, config, statusObserver, repositoryOnline, autoBlockConfiguration, null);
+  }
+
+  /**
+   * @param mainTarget the only target which is blocked, or {@code null} to use the first target accessed
+   * @since 3.71
+   */
+  public BlockingHttpClient(final CloseableHttpClient delegate,
+                            final Config config,
+                            final RemoteConnectionStatusObserver statusObserver,
+                            final boolean repositoryOnline,
+                            final AutoBlockConfiguration autoBlockConfiguration,
+                            @Nullable final HttpHost mainTarget)
   {
     super(delegate);
+    this.mainTarget = mainTarget;
     checkNotNull(config);
     this.statusObserver = checkNotNull(statusObserver);
     this.autoBlockConfiguration = checkNotNull(autoBlockConfiguration);
@@ -106,7 +121,7 @@ public class BlockingHttpClient
   }
 
   protected CloseableHttpResponse filter(final HttpHost target, final Filterable filterable) throws IOException {
-    // main target is the first accessed target
+    // main target is the configured one, otherwise the first accessed target
     if (mainTarget == null) {
       mainTarget = target;
     }
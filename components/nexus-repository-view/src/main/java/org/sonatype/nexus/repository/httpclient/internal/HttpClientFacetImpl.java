@@ -13,6 +13,7 @@
 package org.sonatype.nexus.repository.httpclient.internal;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.Base64;
 import java.util.Map;
 
@@ -25,6 +26,7 @@ import org.sonatype.nexus.common.event.EventHelper;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.distributed.event.service.api.common.RepositoryRemoteConnectionStatusEvent;
 import org.sonatype.nexus.httpclient.HttpClientManager;
+import org.sonatype.nexus.httpclient.HttpClientPlan;
 import org.sonatype.nexus.httpclient.config.AuthenticationConfiguration;
 import org.sonatype.nexus.httpclient.config.BearerTokenAuthenticationConfiguration;
 import org.sonatype.nexus.httpclient.config.ConfigurationCustomizer;
@@ -46,8 +48,10 @@ import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusObserver;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.eventbus.Subscribe;
 import org.apache.http.Header;
+import org.apache.http.HttpHost;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.RedirectStrategy;
+import org.apache.http.client.utils.URIUtils;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.TargetAuthenticationStrategy;
 import org.apache.http.message.BasicHeader;
@@ -79,6 +83,10 @@ public class HttpClientFacetImpl
   @VisibleForTesting
   static final String CONFIG_KEY = "httpclient";
 
+  private static final String PROXY_CONFIG_KEY = "proxy";
+
+  private static final String REMOTE_URL_KEY = "remoteUrl";
+
   private final Map<String, AutoBlockConfiguration> autoBlockConfiguration;
 
   private final Map<String, RedirectStrategy> redirectStrategy;
@@ -282,14 +290,39 @@ public class HttpClientFacetImpl
 
   private void createHttpClient() {
     HttpClientConfiguration delegateConfig = getHttpClientConfiguration(httpClientManager, config);
-    CloseableHttpClient delegate = httpClientManager.create(new ConfigurationCustomizer(delegateConfig));
+    String repositoryName = getRepository().getName();
+    CloseableHttpClient delegate = httpClientManager.create(plan -> {
+      new ConfigurationCustomizer(delegateConfig).customize(plan);
+      plan.getAttributes().put(HttpClientPlan.REPOSITORY_NAME, repositoryName);
+    });
 
     boolean online = getRepository().getConfiguration().isOnline();
     // wrap delegate with auto-block aware client
-    httpClient = new BlockingHttpClient(delegate, config, this, online, getAutoBlockConfiguration());
+    httpClient = new BlockingHttpClient(delegate, config, this, online, getAutoBlockConfiguration(), remoteTarget());
     log.debug("Created HTTP client: {}", httpClient);
   }
 
+  /**
+   * The host of the proxy remote URL, so blocking follows the remote rather than whichever mirror of it is asked first.
+   */
+  @Nullable
+  private HttpHost remoteTarget() {
+    Map<String, Object> proxy = ofNullable(getRepository().getConfiguration().getAttributes())
+        .map(attributes -> attributes.get(PROXY_CONFIG_KEY))
+        .orElse(null);
+    Object remoteUrl = proxy != null ? proxy.get(REMOTE_URL_KEY) : null;
+    if (remoteUrl == null) {
+      return null;
+    }
+    try {
+      return URIUtils.extractHost(URI.create(remoteUrl.toString()));
+    }
+    catch (IllegalArgumentException e) { // NOSONAR
+      log.debug("Unable to determine remote host of {}", remoteUrl);
+      return null;
+    }
+  }
+
   protected HttpClientConfiguration getHttpClientConfiguration(
       final HttpClientManager httpClientManager,
       final Config config)
@@ -15,6 +15,7 @@ package org.sonatype.nexus.repository.view;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -80,6 +81,11 @@ public class Content
     return payload.openInputStream();
   }
 
+  @Override
+  public InputStream openInputStream(final long offset, final long length) throws IOException {
+    return payload.openInputStream(offset, length);
+  }
+
   @Override
   public long getSize() {
     return payload.getSize();
@@ -96,6 +102,12 @@ public class Content
     payload.close();
   }
 
+  @Nullable
+  @Override
+  public FileChannel openFileChannel() throws IOException {
+    return payload.openFileChannel();
+  }
+
   @Override
   public void copy(final InputStream inputStream, final OutputStream outputStream) throws IOException {
     payload.copy(inputStream, outputStream);
@@ -16,6 +16,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import javax.annotation.Nullable;
 
@@ -33,6 +34,25 @@ public interface Payload
 
   InputStream openInputStream() throws IOException;
 
+  /**
+   * Opens an input stream to part of this payload's content, starting {@code offset} bytes into the content and ending
+   * after at most {@code length} bytes. By default the content before the offset is read and discarded; payloads whose
+   * content can be read from a position, such as blobs, override this so only the requested bytes are read.
+   *
+   * @since 3.71
+   */
+  default InputStream openInputStream(final long offset, final long length) throws IOException {
+    InputStream inputStream = openInputStream();
+    try {
+      ByteStreams.skipFully(inputStream, offset);
+    }
+    catch (IOException e) {
+      inputStream.close();
+      throw e;
+    }
+    return ByteStreams.limit(inputStream, length);
+  }
+
   long getSize();
 
   @Nullable
@@ -49,6 +69,20 @@ public interface Payload
     // no underlying resources to clean-up by default
   }
 
+  /**
+   * Opens a read-only {@link FileChannel} over this payload's content when it is held, unmodified, in a local file.
+   * The channel is positioned at the first byte of the content, which spans {@link #getSize()} bytes, allowing callers
+   * to send it using zero-copy transfers instead of {@link #openInputStream()}. Payloads which transform their content
+   * on read, or customize {@link #copy(InputStream, OutputStream)}, must not return a channel.
+   *
+   * @return the channel, or {@code null} if this payload is not backed by a local file
+   * @since 3.71
+   */
+  @Nullable
+  default FileChannel openFileChannel() throws IOException {
+    return null;
+  }
+
   /**
    * Provide a handle on the copying of the {@link InputStream} to the given {@link OutputStream}.
    * Callers are required to handle the flushing and closing of the streams. By default we
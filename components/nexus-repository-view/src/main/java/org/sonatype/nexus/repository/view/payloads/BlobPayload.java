@@ -14,6 +14,7 @@ package org.sonatype.nexus.repository.view.payloads;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 import javax.annotation.Nullable;
 
@@ -44,6 +45,17 @@ public class BlobPayload
     return blob.getInputStream();
   }
 
+  @Override
+  public InputStream openInputStream(final long offset, final long length) {
+    return blob.getInputStream(offset, length);
+  }
+
+  @Nullable
+  @Override
+  public FileChannel openFileChannel() {
+    return blob.openFileChannel();
+  }
+
   @Override
   public long getSize() {
     return blob.getMetrics().getContentSize();
@@ -48,6 +48,11 @@ public class DetachedBlobPayload
     return blob.getInputStream();
   }
 
+  @Override
+  public InputStream openInputStream(final long offset, final long length) {
+    return blob.getInputStream(offset, length);
+  }
+
   @Override
   public long getSize() {
     return blob.getMetrics().getContentSize();
@@ -12,6 +12,7 @@
  */
 package org.sonatype.nexus.repository.http;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.sonatype.goodies.testsupport.TestSupport;
@@ -21,6 +22,7 @@ import org.sonatype.nexus.repository.view.Request;
 import org.sonatype.nexus.repository.view.Request.Builder;
 import org.sonatype.nexus.repository.view.Response;
 import org.sonatype.nexus.repository.view.Status;
+import org.sonatype.nexus.repository.view.payloads.BytesPayload;
 import org.sonatype.nexus.repository.view.payloads.StringPayload;
 
 import com.google.common.collect.Range;
@@ -35,11 +37,13 @@ import static com.google.common.net.HttpHeaders.IF_RANGE;
 import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
 import static com.google.common.net.HttpHeaders.RANGE;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.apache.commons.lang.ArrayUtils.subarray;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.IsSame.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
@@ -47,7 +51,6 @@ import static org.mockito.Mockito.when;
 import static org.sonatype.nexus.repository.http.HttpMethods.GET;
 import static org.sonatype.nexus.repository.http.HttpMethods.POST;
 import static org.sonatype.nexus.repository.http.HttpStatus.INTERNAL_SERVER_ERROR;
-import static org.sonatype.nexus.repository.http.HttpStatus.NOT_IMPLEMENTED;
 import static org.sonatype.nexus.repository.http.HttpStatus.OK;
 import static org.sonatype.nexus.repository.http.HttpStatus.PARTIAL_CONTENT;
 import static org.sonatype.nexus.repository.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
@@ -142,17 +145,57 @@ public class PartialFetchHandlerTest
     assertThat(doHandle(request, response), is(sameInstance(response)));
   }
 
+  @Test
+  public void testHandleWhenRangeParserReturnsOverlappingRanges() throws Exception {
+    Request request = createGetRequestBuilder().header(RANGE, RANGE_HEADER).build();
+    Response response = createOkResponseBuilder()
+        .header(ETAG, ETAG_VALUE).header(LAST_MODIFIED, LAST_MODIFIED_VALUE).payload(PAYLOAD).build();
+    List<Range<Long>> multipleRanges = asList(ZERO_TO_TWO_RANGE, Range.closed(1L, 2L));
+    when(rangeParser.parseRangeSpec(RANGE_HEADER, PAYLOAD.getSize())).thenReturn(multipleRanges);
+
+    verifyHandleReturnsPartialResponse(request, response);
+  }
+
   @Test
   public void testHandleWhenRangeParserReturnsMultipleRanges() throws Exception {
     Request request = createGetRequestBuilder().header(RANGE, RANGE_HEADER).build();
     Response response = createOkResponseBuilder().payload(PAYLOAD).build();
-    List<Range<Long>> multipleRanges = asList(ZERO_TO_TWO_RANGE, ZERO_TO_TWO_RANGE);
+    List<Range<Long>> multipleRanges = asList(Range.closed(7L, 9L), ZERO_TO_TWO_RANGE);
     when(rangeParser.parseRangeSpec(RANGE_HEADER, PAYLOAD.getSize())).thenReturn(multipleRanges);
 
     Response actualResponse = doHandle(request, response);
 
-    assertThat(actualResponse.getStatus().getCode(), is(NOT_IMPLEMENTED));
-    assertThat(actualResponse.getStatus().getMessage(), is("Multiple ranges not supported."));
+    assertThat(actualResponse.getStatus().getCode(), is(PARTIAL_CONTENT));
+    assertThat(actualResponse.getHeaders().get(CONTENT_RANGE), is(nullValue()));
+
+    Payload payload = actualResponse.getPayload();
+    String boundary = payload.getContentType().substring("multipart/byteranges; boundary=".length());
+    String expectedBody = "\r\n--" + boundary + "\r\n" +
+        "Content-Type: text/plain\r\n" +
+        "Content-Range: bytes 0-2/10\r\n\r\n" +
+        "the" +
+        "\r\n--" + boundary + "\r\n" +
+        "Content-Type: text/plain\r\n" +
+        "Content-Range: bytes 7-9/10\r\n\r\n" +
+        "oad" +
+        "\r\n--" + boundary + "--\r\n";
+    byte[] body = bytesFromPayload(payload);
+    assertThat(new String(body, UTF_8), is(expectedBody));
+    assertThat(payload.getSize(), is((long) body.length));
+  }
+
+  @Test
+  public void testHandleWhenRangeParserReturnsTooManyRanges() throws Exception {
+    Request request = createGetRequestBuilder().header(RANGE, RANGE_HEADER).build();
+    Payload largePayload = new BytesPayload(new byte[1000], TEXT_PLAIN);
+    Response response = createOkResponseBuilder().payload(largePayload).build();
+    List<Range<Long>> manyRanges = new ArrayList<>();
+    for (long i = 0; i < 200; i += 2) {
+      manyRanges.add(Range.singleton(i));
+    }
+    when(rangeParser.parseRangeSpec(RANGE_HEADER, largePayload.getSize())).thenReturn(manyRanges);
+
+    assertThat(doHandle(request, response), is(sameInstance(response)));
   }
 
   @Test
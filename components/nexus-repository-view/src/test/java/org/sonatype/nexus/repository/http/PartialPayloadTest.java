@@ -13,9 +13,14 @@
 package org.sonatype.nexus.repository.http;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.repository.view.payloads.BytesPayload;
+import org.sonatype.nexus.repository.view.payloads.PathPayload;
 
 import com.google.common.collect.Range;
 import com.google.common.io.ByteStreams;
@@ -25,6 +30,7 @@ import org.junit.Test;
 import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
 
 /**
  * Tests {@link PartialPayload}.
@@ -57,6 +63,27 @@ public class PartialPayloadTest
     assertThat(output, is(input));
   }
 
+  @Test
+  public void fileChannelIsPositionedAtStartOfRange() throws IOException {
+    Path file = util.createTempFile().toPath();
+    Files.write(file, input);
+
+    try (PartialPayload partial = new PartialPayload(new PathPayload(file, "n/a"), Range.closed(3L, 5L));
+         FileChannel channel = partial.openFileChannel()) {
+      assertThat(channel.position(), is(3L));
+      ByteBuffer buffer = ByteBuffer.allocate((int) partial.getSize());
+      channel.read(buffer);
+      assertThat(buffer.array(), is(Bytes.toArray(asList(3, 4, 5))));
+    }
+  }
+
+  @Test
+  public void noFileChannelForInMemoryPayload() throws IOException {
+    try (PartialPayload partial = new PartialPayload(bytesPayload, Range.closed(0L, 2L))) {
+      assertThat(partial.openFileChannel(), nullValue());
+    }
+  }
+
   private byte[] partial(final BytesPayload bytes, final Range<Long> closed) throws IOException {
     try (final PartialPayload partial = new PartialPayload(bytes, closed)) {
       return ByteStreams.toByteArray(partial.openInputStream());
@@ -19,6 +19,8 @@ import org.sonatype.goodies.testsupport.TestSupport;
 import com.google.common.collect.Range;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -86,4 +88,26 @@ public class RangeParserTest
     final List<Range<Long>> ranges = parser.parseRangeSpec("bytes=5-100", 10L);
     assertThat(ranges.get(0), is(Range.closed(5L, 9L)));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void multipleRangesInRequestedOrder() {
+    final List<Range<Long>> ranges = parser.parseRangeSpec("bytes=500-599, 0-99,-10", 1000L);
+    assertThat(ranges, contains(Range.closed(500L, 599L), Range.closed(0L, 99L), Range.closed(990L, 999L)));
+  }
+
+  @Test
+  public void unsatisfiableRangesAreDroppedFromMultipleRanges() {
+    final List<Range<Long>> ranges = parser.parseRangeSpec("bytes=0-1,20-30", 10L);
+    assertThat(ranges, contains(Range.closed(0L, 1L)));
+  }
+
+  @Test
+  public void multipleUnsatisfiableRanges() {
+    assertThat(parser.parseRangeSpec("bytes=20-30,-50", 10L), is(nullValue()));
+  }
+
+  @Test
+  public void malformedRangeAmongMultipleRanges() {
+    assertThat(parser.parseRangeSpec("bytes=0-1,x", 10L), is(empty()));
+  }
+}
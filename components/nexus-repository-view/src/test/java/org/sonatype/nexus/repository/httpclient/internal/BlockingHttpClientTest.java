@@ -252,6 +252,24 @@ public class BlockingHttpClientTest
     verifyUpdateStatus(AVAILABLE);
   }
 
+  @Test
+  public void onlyTheConfiguredMainTargetIsBlocked() throws Exception {
+    Config config = new Config();
+    config.autoBlock = true;
+    BlockingHttpClient client = new BlockingHttpClient(httpClient, config, statusObserver, true,
+        autoBlockConfiguration, httpHost);
+    when(statusLine.getStatusCode()).thenReturn(SC_BAD_GATEWAY);
+
+    // a failing mirror asked before the remote neither becomes the main target nor blocks the remote
+    client.filter(HttpHost.create("mirror.example.com"), filterable);
+    client.filter(HttpHost.create("mirror.example.com"), filterable);
+    assertThat(client.getStatus().getType(), is(equalTo(READY)));
+
+    client.filter(httpHost, filterable);
+    assertThat(client.getStatus().getType(), is(equalTo(AUTO_BLOCKED_UNAVAILABLE)));
+    client.close();
+  }
+
   private void verifyUpdateStatus(final RemoteConnectionStatusType newType) {
     verifyUpdateStatus(newType, null);
   }
@@ -14,7 +14,9 @@ package org.sonatype.nexus.repository.storage;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -23,6 +25,7 @@ import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.blobstore.api.BlobId;
 import org.sonatype.nexus.blobstore.api.BlobRef;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
@@ -46,6 +49,8 @@ public class BucketDeleter
 {
   private static final long DELETE_BATCH_SIZE = 100L;
 
+  private static final String DELETE_REASON = "Deleting Bucket";
+
   private final Provider<DatabaseInstance> databaseInstanceProvider;
 
   private final BucketEntityAdapter bucketEntityAdapter;
@@ -155,20 +160,21 @@ public class BucketDeleter
 
     db.commit();
 
+    Map<String, List<BlobId>> blobIdsByStore = new LinkedHashMap<>();
     for (BlobRef blobRef : deletedBlobs) {
-      deleteBlob(deletedBlobStores, blobRef);
+      blobIdsByStore.computeIfAbsent(blobRef.getStore(), store -> new ArrayList<>()).add(blobRef.getBlobId());
     }
+    blobIdsByStore.forEach((blobStoreName, blobIds) -> deleteBlobs(deletedBlobStores, blobStoreName, blobIds));
 
     deletedBlobs.clear();
   }
 
-  private void deleteBlob(final Set<String> deletedBlobStores, final BlobRef blobRef) {
-    String blobStoreName = blobRef.getStore();
+  private void deleteBlobs(final Set<String> deletedBlobStores, final String blobStoreName, final List<BlobId> blobIds) {
     if (deletedBlobStores.contains(blobStoreName)) {
       return;
     }
 
-    BlobStore blobStore = blobStoreManager.get(blobRef.getStore());
+    BlobStore blobStore = blobStoreManager.get(blobStoreName);
     if (blobStore == null) {
       if (deletedBlobStores.add(blobStoreName)) {
         log.info("Not deleting blobs for blob store {}, blob store not found", blobStoreName);
@@ -177,7 +183,7 @@ public class BucketDeleter
     }
 
     try {
-      blobStore.delete(blobRef.getBlobId(), "Deleting Bucket");
+      blobStore.deleteAll(blobIds, DELETE_REASON);
     }
     catch (InvalidStateException e) {
       if (deletedBlobStores.add(blobStoreName)) {
@@ -186,7 +192,18 @@ public class BucketDeleter
       }
     }
     catch (Exception e) {
-      log.warn("Error deleting blob {}, skipping", blobRef, e);
+      log.warn("Error deleting {} blobs from blob store {}, deleting them individually", blobIds.size(), blobStoreName,
+          log.isDebugEnabled() ? e : null);
+      blobIds.forEach(blobId -> deleteBlob(blobStore, blobStoreName, blobId));
+    }
+  }
+
+  private void deleteBlob(final BlobStore blobStore, final String blobStoreName, final BlobId blobId) {
+    try {
+      blobStore.delete(blobId, DELETE_REASON);
+    }
+    catch (Exception e) {
+      log.warn("Error deleting blob {}@{}, skipping", blobId, blobStoreName, e);
     }
   }
 }
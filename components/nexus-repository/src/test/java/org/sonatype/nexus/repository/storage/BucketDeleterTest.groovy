@@ -23,10 +23,12 @@ import org.sonatype.nexus.orient.DatabaseInstance
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx
 import org.junit.Before
 import org.junit.Test
+import org.mockito.ArgumentCaptor
 import org.mockito.Mock
 import org.mockito.Mockito
 
 import static org.mockito.ArgumentMatchers.any
+import static org.mockito.ArgumentMatchers.eq
 import static org.mockito.Mockito.doThrow
 import static org.mockito.Mockito.mock
 import static org.mockito.Mockito.never
@@ -116,7 +118,10 @@ class BucketDeleterTest
 
     componentsWithAssets.each { component -> verify(componentEntityAdapter).deleteEntity(db, component) }
     allAssets.each { asset -> verify(assetEntityAdapter).deleteEntity(db, asset) }
-    allBlobIds.each { blobId -> verify(blobStore).delete(blobId, 'Deleting Bucket') }
+    ArgumentCaptor<Collection<BlobId>> deletedBlobIds = ArgumentCaptor.forClass(Collection)
+    verify(blobStore, times(6)).deleteAll(deletedBlobIds.capture(), eq('Deleting Bucket'))
+    assert deletedBlobIds.allValues.flatten() == allBlobIds
+    verify(blobStore, never()).delete(any(BlobId), any(String))
     verify(bucketEntityAdapter).deleteEntity(db, bucket)
     verify(db, times(8)).commit()
   }
@@ -134,7 +139,7 @@ class BucketDeleterTest
     underTest.deleteBucket(bucket)
 
     assets.each { asset -> verify(assetEntityAdapter).deleteEntity(db, asset) }
-    verify(blobStore, never()).delete(any(BlobId), any(String))
+    verify(blobStore, never()).deleteAll(any(Collection), any(String))
     verify(bucketEntityAdapter).deleteEntity(db, bucket)
     verify(db, times(4)).commit()
   }
@@ -146,14 +151,15 @@ class BucketDeleterTest
     List<Asset> assets = blobRefs.collect { blobRef -> mockAsset(blobRef) }
 
     when(blobStoreManager.get(BLOB_STORE_NAME)).thenReturn(blobStore)
-    doThrow(new InvalidStateException(STOPPED, STARTED)).when(blobStore).delete(any(BlobId), any(String))
+    doThrow(new InvalidStateException(STOPPED, STARTED)).when(blobStore).deleteAll(any(Collection), any(String))
     when(componentEntityAdapter.browseByBucket(db, bucket)).thenReturn([])
     when(assetEntityAdapter.browseByBucket(db, bucket)).thenReturn(assets)
 
     underTest.deleteBucket(bucket)
 
     assets.each { asset -> verify(assetEntityAdapter).deleteEntity(db, asset) }
-    verify(blobStore, times(1)).delete(any(BlobId), any(String))
+    verify(blobStore, times(1)).deleteAll(any(Collection), any(String))
+    verify(blobStore, never()).delete(any(BlobId), any(String))
     verify(bucketEntityAdapter).deleteEntity(db, bucket)
     verify(db, times(4)).commit()
   }
@@ -165,6 +171,7 @@ class BucketDeleterTest
     List<Asset> assets = blobRefs.collect { blobRef -> mockAsset(blobRef) }
 
     when(blobStoreManager.get(BLOB_STORE_NAME)).thenReturn(blobStore)
+    doThrow(new RuntimeException()).when(blobStore).deleteAll(any(Collection), any(String))
     doThrow(new RuntimeException()).when(blobStore).delete(any(BlobId), any(String))
     when(componentEntityAdapter.browseByBucket(db, bucket)).thenReturn([])
     when(assetEntityAdapter.browseByBucket(db, bucket)).thenReturn(assets)
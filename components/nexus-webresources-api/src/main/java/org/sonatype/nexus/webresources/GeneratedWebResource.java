@@ -16,6 +16,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import javax.annotation.Nullable;
+
 import org.sonatype.nexus.webresources.WebResource.Prepareable;
 
 import org.slf4j.Logger;
@@ -33,6 +35,8 @@ public abstract class GeneratedWebResource
 {
   protected final Logger log = LoggerFactory.getLogger(getClass());
 
+  private volatile Generated generated;
+
   @Override
   public boolean isCacheable() {
     return false;
@@ -55,16 +59,9 @@ public abstract class GeneratedWebResource
 
   @Override
   public WebResource prepare() throws IOException {
+    byte[] content = generateOrReuse();
     return new DelegatingWebResource(this)
     {
-      private final byte[] content;
-
-      {
-        content = generate();
-        checkState(content != null);
-        log.trace("Generated: {}, {} bytes", getPath(), content.length);
-      }
-
       @Override
       public long getSize() {
         return content.length;
@@ -77,5 +74,43 @@ public abstract class GeneratedWebResource
     };
   }
 
+  private byte[] generateOrReuse() throws IOException {
+    Object key = getCacheKey();
+    Generated previous = generated;
+    if (key != null && previous != null && key.equals(previous.key)) {
+      log.trace("Reusing: {}, {} bytes", getPath(), previous.content.length);
+      return previous.content;
+    }
+
+    byte[] content = generate();
+    checkState(content != null);
+    log.trace("Generated: {}, {} bytes", getPath(), content.length);
+    generated = key != null ? new Generated(key, content) : null;
+    return content;
+  }
+
+  /**
+   * Identifies the inputs of {@link #generate()}: content generated for a key is reused for as long as the key stays
+   * the same. Returns {@code null} by default, generating the content for every request.
+   *
+   * @since 3.71
+   */
+  @Nullable
+  protected Object getCacheKey() {
+    return null;
+  }
+
   protected abstract byte[] generate() throws IOException;
+
+  private static class Generated
+  {
+    private final Object key;
+
+    private final byte[] content;
+
+    private Generated(final Object key, final byte[] content) {
+      this.key = key;
+      this.content = content;
+    }
+  }
 }
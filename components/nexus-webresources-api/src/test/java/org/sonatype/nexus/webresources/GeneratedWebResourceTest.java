@@ -13,14 +13,19 @@
 package org.sonatype.nexus.webresources;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 
+import com.google.common.io.ByteStreams;
 import org.junit.Before;
 import org.junit.Test;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
@@ -93,4 +98,45 @@ public class GeneratedWebResourceTest
     assertThat(prepared, notNullValue());
     assertThat(prepared.getInputStream(), notNullValue());
   }
+
+  @Test
+  public void prepare_reusesContentWhileCacheKeyIsUnchanged() throws Exception {
+    AtomicInteger generated = new AtomicInteger();
+    AtomicReference<String> key = new AtomicReference<>("prod");
+    GeneratedWebResource keyed = new GeneratedWebResource() {
+      @Override
+      protected byte[] generate() throws IOException {
+        return (key.get() + generated.incrementAndGet()).getBytes();
+      }
+
+      @Override
+      protected Object getCacheKey() {
+        return key.get();
+      }
+
+      @Override
+      public String getPath() {
+        return "/keyed";
+      }
+
+      @Nullable
+      @Override
+      public String getContentType() {
+        return PLAIN;
+      }
+    };
+
+    assertThat(read(keyed.prepare()), is("prod1"));
+    assertThat(read(keyed.prepare()), is("prod1"));
+
+    key.set("debug");
+    assertThat(read(keyed.prepare()), is("debug2"));
+    assertThat(generated.get(), is(2));
+  }
+
+  private static String read(final WebResource resource) throws IOException {
+    try (InputStream in = resource.getInputStream()) {
+      return new String(ByteStreams.toByteArray(in), UTF_8);
+    }
+  }
 }
@@ -0,0 +1,106 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore.s3.internal;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.collect.AbstractIterator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * Lists the objects under a prefix like {@link com.amazonaws.services.s3.iterable.S3Objects}, but requests the next
+ * page of the listing while the current one is being consumed so that walks over large buckets are not stalled on
+ * each page boundary.
+ *
+ * @since 3.71
+ */
+class PrefetchingObjectListing
+    implements Iterable<S3ObjectSummary>
+{
+  private final AmazonS3 s3;
+
+  private final String bucket;
+
+  private final String prefix;
+
+  private final Executor executor;
+
+  /**
+   * @param executor runs the requests for the following pages, when {@code null} pages are fetched on demand
+   */
+  PrefetchingObjectListing(
+      final AmazonS3 s3,
+      final String bucket,
+      final String prefix,
+      @Nullable final Executor executor)
+  {
+    this.s3 = checkNotNull(s3);
+    this.bucket = checkNotNull(bucket);
+    this.prefix = checkNotNull(prefix);
+    this.executor = executor != null ? executor : directExecutor();
+  }
+
+  @Override
+  public Iterator<S3ObjectSummary> iterator() {
+    return new AbstractIterator<S3ObjectSummary>()
+    {
+      private Iterator<S3ObjectSummary> page;
+
+      private CompletableFuture<ObjectListing> nextPage;
+
+      @Override
+      protected S3ObjectSummary computeNext() {
+        if (page == null) {
+          nextPage(s3.listObjects(new ListObjectsRequest().withBucketName(bucket).withPrefix(prefix)));
+        }
+        while (!page.hasNext()) {
+          if (nextPage == null) {
+            return endOfData();
+          }
+          nextPage(join(nextPage));
+        }
+        return page.next();
+      }
+
+      private void nextPage(final ObjectListing listing) {
+        page = listing.getObjectSummaries().iterator();
+        nextPage = listing.isTruncated()
+            ? CompletableFuture.supplyAsync(() -> s3.listNextBatchOfObjects(listing), executor)
+            : null;
+      }
+    };
+  }
+
+  private static ObjectListing join(final CompletableFuture<ObjectListing> listing) {
+    try {
+      return listing.join();
+    }
+    catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
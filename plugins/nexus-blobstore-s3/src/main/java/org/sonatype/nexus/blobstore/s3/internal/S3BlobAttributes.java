@@ -40,6 +40,13 @@ public class S3BlobAttributes
     super(new S3PropertiesFile(s3, bucket, key), checkNotNull(headers), checkNotNull(metrics));
   }
 
+  /**
+   * @since 3.71
+   */
+  public String getKey() {
+    return propertiesFile.getKey();
+  }
+
   public boolean load() throws IOException {
     if (!propertiesFile.exists()) {
       return false;
@@ -12,6 +12,8 @@
  */
 package org.sonatype.nexus.blobstore.s3.internal;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
@@ -19,12 +21,23 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.locks.Lock;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -56,9 +69,14 @@ import org.sonatype.nexus.thread.NexusThreadFactory;
 
 import com.amazonaws.SdkBaseException;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.iterable.S3Objects;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.DeleteObjectsResult.DeletedObject;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.ObjectTagging;
 import com.amazonaws.services.s3.model.S3Object;
@@ -73,6 +91,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.common.hash.HashCode;
 import org.joda.time.DateTime;
 
@@ -81,9 +100,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.cache.CacheLoader.from;
+import static java.lang.Boolean.TRUE;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.Comparator.comparing;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.StreamSupport.stream;
 import static org.sonatype.nexus.blobstore.DirectPathLocationStrategy.DIRECT_PATH_ROOT;
@@ -151,14 +172,41 @@ public class S3BlobStore
 
   public static final String TYPE_V1 = "s3/1";
 
+  /**
+   * Metadata property recording where the properties of temporary blobs are kept.
+   *
+   * @since 3.71
+   */
+  public static final String TEMP_PROPERTIES_LOCATION_KEY = "tempPropertiesLocation";
+
+  /**
+   * Temporary blobs keep their properties under the temporary location, apart from their content, so listings can
+   * tell them from permanent blobs by key alone. Blob stores without this value may still hold temporary blobs with
+   * their properties next to the content.
+   *
+   * @since 3.71
+   */
+  public static final String TEMP_PROPERTIES_LOCATION_V1 = "tmp/1";
+
+  private static final String TEMP_PREFIX = "tmp/";
+
   private static final String CONTENT_PREFIX = "content";
 
+  private static final String VOLUME_PREFIX = "vol-";
+
   public static final String DIRECT_PATH_PREFIX = CONTENT_PREFIX + "/" + DIRECT_PATH_ROOT;
 
   public static final Tag DELETED_TAG = new Tag("deleted", "true");
 
   private static final String FILE_V1 = "file/1";
 
+  /**
+   * Each blob is two keys and {@code DeleteObjects} accepts up to 1000 keys per request.
+   */
+  private static final int MAX_BLOBS_PER_DELETE_REQUEST = 500;
+
+  private static final long MIGRATION_STOP_TIMEOUT_MILLIS = 30_000L;
+
   private final AmazonS3Factory amazonS3Factory;
 
   private final BucketManager bucketManager;
@@ -183,6 +231,10 @@ public class S3BlobStore
 
   private ExecutorService executorService;
 
+  private volatile boolean legacyTempBlobProperties;
+
+  private Thread tempPropertiesMigration;
+
   private static final String METRIC_NAME = "s3Blobstore";
 
   private final Timer existsTimer;
@@ -235,11 +287,14 @@ public class S3BlobStore
       String type = metadata.getProperty(TYPE_KEY);
       checkState(TYPE_V1.equals(type) || FILE_V1.equals(type), "Unsupported blob store type/version: %s in %s", type,
           metadata);
+      legacyTempBlobProperties = !TEMP_PROPERTIES_LOCATION_V1.equals(metadata.getProperty(TEMP_PROPERTIES_LOCATION_KEY));
     }
     else {
       // assumes new blobstore, write out type
       metadata.setProperty(TYPE_KEY, TYPE_V1);
+      metadata.setProperty(TEMP_PROPERTIES_LOCATION_KEY, TEMP_PROPERTIES_LOCATION_V1);
       metadata.store();
+      legacyTempBlobProperties = false;
     }
     liveBlobs = CacheBuilder.newBuilder().weakValues().build(from(S3Blob::new));
     metricsService.setBucket(getConfiguredBucket());
@@ -255,10 +310,18 @@ public class S3BlobStore
       this.executorService = newFixedThreadPool(8,
           new NexusThreadFactory("s3-blobstore", "async-ops"));
     }
+
+    // a migration which outlived the last stop is left to finish rather than run twice
+    if (legacyTempBlobProperties && (tempPropertiesMigration == null || !tempPropertiesMigration.isAlive())) {
+      tempPropertiesMigration = new NexusThreadFactory("s3-blobstore", "temp-properties-migration")
+          .newThread(() -> migrateTempBlobProperties(metadata));
+      tempPropertiesMigration.start();
+    }
   }
 
   @Override
   protected void doStop() throws Exception {
+    stopTempPropertiesMigration();
     liveBlobs = null;
     if (executorService != null) {
       executorService.shutdown();
@@ -268,6 +331,20 @@ public class S3BlobStore
     blobStoreQuotaUsageChecker.stop();
   }
 
+  private void stopTempPropertiesMigration() throws InterruptedException {
+    if (tempPropertiesMigration != null) {
+      tempPropertiesMigration.interrupt();
+      tempPropertiesMigration.join(MIGRATION_STOP_TIMEOUT_MILLIS);
+      if (tempPropertiesMigration.isAlive()) {
+        log.warn("Moving properties of temporary blobs in blob store {} is still stopping",
+            blobStoreConfiguration.getName());
+      }
+      else {
+        tempPropertiesMigration = null;
+      }
+    }
+  }
+
   public void useAmazonS3Config(final Consumer<S3Config> configConsumer) {
     configConsumer.accept(new S3Config(s3, getConfiguredBucket()));
   }
@@ -294,6 +371,18 @@ public class S3BlobStore
     return attributePath(blobId);
   }
 
+  /**
+   * Returns path for the attribute file of a temporary blob, which is kept apart from its content so listings can skip
+   * it by key.
+   */
+  private String tempAttributePath(final BlobId id) {
+    return getContentPrefix() + blobIdLocationResolver.getTemporaryLocation(id) + BLOB_FILE_ATTRIBUTES_SUFFIX;
+  }
+
+  private String getTempPrefix() {
+    return getContentPrefix() + TEMP_PREFIX;
+  }
+
   /**
    * Returns the location for a blob ID based on whether or not the blob ID is for a temporary or permanent blob.
    */
@@ -334,7 +423,8 @@ public class S3BlobStore
     final BlobId blobId = getBlobId(headers, assignedBlobId);
 
     final String blobPath = contentPath(blobId);
-    final String attributePath = attributePath(blobId);
+    final String attributePath =
+        headers.containsKey(TEMPORARY_BLOB_HEADER) ? tempAttributePath(blobId) : attributePath(blobId);
     final boolean isDirectPath = Boolean.parseBoolean(headers.getOrDefault(DIRECT_PATH_BLOB_HEADER, "false"));
     Long existingSize = null;
     if (isDirectPath) {
@@ -388,17 +478,22 @@ public class S3BlobStore
   @Override
   @Guarded(by = STARTED)
   @Timed
-  public Blob writeBlobProperties(final BlobId blobId, final Map<String, String> headers) {
-    S3Blob blob = ((S3Blob) checkNotNull(get(blobId)));
-    String blobPath = contentPath(blob.getId());
+  public Blob writeBlobProperties(final Blob existingBlob, final Map<String, String> headers) {
+    S3Blob blob = (S3Blob) checkNotNull(existingBlob);
+    BlobId blobId = blob.getId();
+    String blobPath = contentPath(blobId);
     String attributePath = attributePath(blobId);
     BlobMetrics metrics = blob.getMetrics();
 
     Lock lock = blob.lock();
     try {
       log.debug("Attempting to make blob with id: {} and path: {} permanent.", blobId, blobPath);
+      boolean wasTemporary = blob.getHeaders() != null && blob.getHeaders().containsKey(TEMPORARY_BLOB_HEADER);
       blob.refresh(headers, metrics);
       writeBlobAttributes(headers, attributePath, metrics);
+      if (wasTemporary) {
+        deleteQuietly(tempAttributePath(blobId));
+      }
       return blob;
     }
     catch (IOException e) {
@@ -427,6 +522,17 @@ public class S3BlobStore
 
     log.debug("Accessing blob {}", blobId);
 
+    return getLiveBlob(blobId, includeDeleted);
+  }
+
+  @Nullable
+  @Override
+  protected Blob lookupBlob(final BlobId blobId) {
+    return getLiveBlob(checkNotNull(blobId), false);
+  }
+
+  @Nullable
+  private S3Blob getLiveBlob(final BlobId blobId, final boolean includeDeleted) {
     final S3Blob blob = liveBlobs.getUnchecked(blobId);
 
     if (blob.isStale()) {
@@ -442,10 +548,9 @@ public class S3BlobStore
     Lock lock = blob.lock();
     try {
       if (blob.isStale()) {
-        S3BlobAttributes blobAttributes = new S3BlobAttributes(s3, getConfiguredBucket(), attributePath(blobId));
-        boolean loaded = blobAttributes.load();
-        if (!loaded) {
-          log.warn("Attempt to access non-existent blob {} ({})", blobId, blobAttributes);
+        S3BlobAttributes blobAttributes = loadBlobAttributes(blobId);
+        if (blobAttributes == null) {
+          log.warn("Attempt to access non-existent blob {} ({})", blobId, attributePath(blobId));
           return null;
         }
 
@@ -469,6 +574,21 @@ public class S3BlobStore
     }
   }
 
+  /**
+   * Loads the attributes of a blob, falling back to those of a temporary blob.
+   *
+   * @return the attributes or {@code null} if there are none
+   */
+  @Nullable
+  private S3BlobAttributes loadBlobAttributes(final BlobId blobId) throws IOException {
+    S3BlobAttributes blobAttributes = new S3BlobAttributes(s3, getConfiguredBucket(), attributePath(blobId));
+    if (blobAttributes.load()) {
+      return blobAttributes;
+    }
+    S3BlobAttributes tempBlobAttributes = new S3BlobAttributes(s3, getConfiguredBucket(), tempAttributePath(blobId));
+    return tempBlobAttributes.load() ? tempBlobAttributes : null;
+  }
+
   @Override
   @Timed
   protected boolean doDelete(final BlobId blobId, final String reason) {
@@ -498,7 +618,11 @@ public class S3BlobStore
       S3BlobAttributes blobAttributes = new S3BlobAttributes(s3, getConfiguredBucket(), attributePath(blobId));
 
       boolean loaded = blobAttributes.load();
-      if (!loaded) {
+      if (!loaded && s3.doesObjectExist(getConfiguredBucket(), tempAttributePath(blobId))) {
+        // temporary blobs are never kept around for undelete
+        return performHardDelete(blobId);
+      }
+      else if (!loaded) {
         // This could happen under some concurrent situations (two threads try to delete the same blob)
         // but it can also occur if the deleted index refers to a manually-deleted blob.
         log.warn("Attempt to mark-for-delete non-existent blob {}", blobId);
@@ -565,6 +689,146 @@ public class S3BlobStore
     }
   }
 
+  @Override
+  protected int doDeleteAll(final Collection<BlobId> blobIds, final String reason) {
+    if (!forceHardDelete && deleteByExpire()) {
+      return expireAll(blobIds, reason);
+    }
+    else {
+      return performHardDeleteAll(blobIds);
+    }
+  }
+
+  @Override
+  protected int doDeleteAllHard(final Collection<BlobId> blobIds) {
+    if (!forceHardDelete && preferExpire && deleteByExpire()) {
+      return expireAll(blobIds, "hard-delete");
+    }
+    else {
+      return performHardDeleteAll(blobIds);
+    }
+  }
+
+  /**
+   * Each soft delete is a chain of dependent requests on the properties and tags of one blob, so rather than running
+   * them back to back the chains of different blobs are overlapped on the async executor.
+   */
+  private int expireAll(final Collection<BlobId> blobIds, final String reason) {
+    Map<BlobId, Future<Boolean>> expirations = new LinkedHashMap<>();
+    for (BlobId blobId : blobIds) {
+      expirations.put(blobId, submitBulkOperation(() -> expire(blobId, reason)));
+    }
+
+    int deleted = 0;
+    for (Entry<BlobId, Future<Boolean>> expiration : expirations.entrySet()) {
+      if (TRUE.equals(getBulkOperationResult(expiration.getKey(), expiration.getValue()))) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Removes the content and attributes of up to {@link #MAX_BLOBS_PER_DELETE_REQUEST} blobs with each
+   * {@code DeleteObjects} request.
+   */
+  private int performHardDeleteAll(final Collection<BlobId> blobIds) {
+    int deleted = 0;
+    for (List<BlobId> batch : Iterables.partition(blobIds, MAX_BLOBS_PER_DELETE_REQUEST)) {
+      deleted += performHardDeleteBatch(batch);
+    }
+    return deleted;
+  }
+
+  /**
+   * Holds the locks of every blob in the batch while its attributes are read and the objects removed, just as
+   * {@link #performHardDelete(BlobId)} does for a single blob. The locks are taken in blob id order so two batches that
+   * share blobs cannot deadlock.
+   */
+  private int performHardDeleteBatch(final List<BlobId> blobIds) {
+    List<Lock> locks = new ArrayList<>(blobIds.size());
+    try (final Timer.Context performHardDeleteContext = hardDeleteTimer.time()) {
+      blobIds.stream()
+          .sorted(comparing(BlobId::asUniqueString))
+          .forEach(blobId -> locks.add(liveBlobs.getUnchecked(blobId).lock()));
+
+      log.debug("Hard deleting {} blobs", blobIds.size());
+
+      // the attributes have to be read before they go, do that in parallel to keep the batch moving
+      Map<BlobId, Future<S3BlobAttributes>> attributes = new LinkedHashMap<>();
+      for (BlobId blobId : blobIds) {
+        attributes.put(blobId, submitBulkOperation(() -> loadBlobAttributesForDeletion(blobId)));
+      }
+
+      Map<String, BlobId> blobIdsByContentPath = new HashMap<>();
+      Map<BlobId, Long> contentSizes = new HashMap<>();
+      List<KeyVersion> keys = new ArrayList<>(blobIds.size() * 2);
+      for (Entry<BlobId, Future<S3BlobAttributes>> entry : attributes.entrySet()) {
+        BlobId blobId = entry.getKey();
+        S3BlobAttributes blobAttributes = getBulkOperationResult(blobId, entry.getValue());
+        contentSizes.put(blobId, getContentSize(blobAttributes));
+
+        String blobPath = contentPath(blobId);
+        blobIdsByContentPath.put(blobPath, blobId);
+        keys.add(new KeyVersion(blobPath));
+        // temporary blobs keep their attributes apart from the content
+        keys.add(new KeyVersion(blobAttributes != null ? blobAttributes.getKey() : attributePath(blobId)));
+      }
+
+      List<DeletedObject> deletedObjects;
+      try {
+        deletedObjects = s3.deleteObjects(new DeleteObjectsRequest(getConfiguredBucket()).withKeys(keys))
+            .getDeletedObjects();
+      }
+      catch (MultiObjectDeleteException e) {
+        e.getErrors().forEach(error ->
+            log.warn("Unable to delete {}: {} {}", error.getKey(), error.getCode(), error.getMessage()));
+        deletedObjects = e.getDeletedObjects();
+      }
+
+      int deleted = 0;
+      for (DeletedObject deletedObject : deletedObjects) {
+        BlobId blobId = blobIdsByContentPath.get(deletedObject.getKey());
+        if (blobId != null) {
+          deleted++;
+          Long contentSize = contentSizes.get(blobId);
+          if (contentSize != null) {
+            metricsService.recordDeletion(contentSize);
+          }
+        }
+      }
+      return deleted;
+    }
+    finally {
+      locks.forEach(Lock::unlock);
+      blobIds.forEach(liveBlobs::invalidate);
+    }
+  }
+
+  private <T> Future<T> submitBulkOperation(final Callable<T> operation) {
+    if (executorService != null) {
+      return executorService.submit(operation);
+    }
+    FutureTask<T> future = new FutureTask<>(operation);
+    future.run();
+    return future;
+  }
+
+  @Nullable
+  private <T> T getBulkOperationResult(final BlobId blobId, final Future<T> future) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BlobStoreException(e, blobId);
+    }
+    catch (ExecutionException e) {
+      log.warn("Unable to delete blob {}", blobId, e.getCause());
+      return null;
+    }
+  }
+
   @Timed
   private boolean performHardDelete(final BlobId blobId) {
     final S3Blob blob = liveBlobs.getUnchecked(blobId);
@@ -572,9 +836,10 @@ public class S3BlobStore
     try (final Timer.Context performHardDeleteContext = hardDeleteTimer.time()) {
       log.debug("Hard deleting blob {}", blobId);
 
-      String attributePath = attributePath(blobId);
-      S3BlobAttributes blobAttributes = new S3BlobAttributes(s3, getConfiguredBucket(), attributePath);
-      Long contentSize = getContentSizeForDeletion(blobAttributes);
+      S3BlobAttributes blobAttributes = loadBlobAttributesForDeletion(blobId);
+      Long contentSize = getContentSize(blobAttributes);
+      // temporary blobs keep their attributes apart from the content
+      String attributePath = blobAttributes != null ? blobAttributes.getKey() : attributePath(blobId);
 
       String blobPath = contentPath(blobId);
       boolean blobDeleted = batchDelete(blobPath, attributePath);
@@ -591,6 +856,24 @@ public class S3BlobStore
     }
   }
 
+  @Nullable
+  private S3BlobAttributes loadBlobAttributesForDeletion(final BlobId blobId) {
+    try {
+      return loadBlobAttributes(blobId);
+    }
+    catch (Exception e) {
+      log.warn("Unable to load attributes of blob {}, delete will not be added to metrics.", blobId, e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Long getContentSize(@Nullable final S3BlobAttributes blobAttributes) {
+    return blobAttributes != null && blobAttributes.getMetrics() != null
+        ? blobAttributes.getMetrics().getContentSize()
+        : null;
+  }
+
   @Nullable
   @Timed
   private Long getContentSizeForDeletion(final S3BlobAttributes blobAttributes) {
@@ -689,6 +972,7 @@ public class S3BlobStore
   public void remove() {
     try {
       metricsService.remove();
+      removeOperationHistograms();
 
       boolean contentEmpty = s3.listObjects(getConfiguredBucket(), getContentPrefix()).getObjectSummaries().isEmpty();
       if (contentEmpty) {
@@ -727,6 +1011,21 @@ public class S3BlobStore
       S3Object object = s3.getObject(getConfiguredBucket(), contentPath(getId()));
       return performanceLogger.maybeWrapForPerformanceLogging(object.getObjectContent());
     }
+
+    /**
+     * Fetches only the requested bytes using a ranged GET, rather than downloading and discarding the content before
+     * the offset.
+     */
+    @Override
+    public InputStream getInputStream(final long offset, final long length) {
+      if (length == 0) {
+        return new ByteArrayInputStream(new byte[0]);
+      }
+      GetObjectRequest request = new GetObjectRequest(getConfiguredBucket(), contentPath(getId()))
+          .withRange(offset, offset + length - 1);
+      S3Object object = s3.getObject(request);
+      return new BufferedInputStream(performanceLogger.maybeWrapForPerformanceLogging(object.getObjectContent()));
+    }
   }
 
   private interface BlobIngester
@@ -737,8 +1036,59 @@ public class S3BlobStore
   @Override
   @Timed
   public Stream<BlobId> getBlobIdStream() {
-    Iterable<S3ObjectSummary> summaries = S3Objects.withPrefix(s3, getConfiguredBucket(), getContentPrefix());
-    return blobIdStream(stream(summaries.spliterator(), false));
+    return blobIdStream(listObjects(getContentPrefix()));
+  }
+
+  /**
+   * Partitions the content prefix by volume and chapter, and by its other top-level key prefixes (direct-path and so
+   * on), discovered with delimited listings, each keyed by its prefix under the content prefix. Keys sitting directly
+   * under the content prefix or a volume form one last partition, keyed by the empty prefix. The temporary location
+   * holds no permanent blobs and is not listed at all.
+   */
+  @Override
+  @Timed
+  public Map<String, Supplier<Stream<BlobId>>> getBlobIdStreamPartitions() {
+    Map<String, Supplier<Stream<BlobId>>> partitions = new LinkedHashMap<>();
+    List<S3ObjectSummary> shallowObjects = new ArrayList<>();
+    int contentPrefixLength = getContentPrefix().length();
+
+    for (String prefix : listCommonPrefixes(getContentPrefix(), shallowObjects)) {
+      if (prefix.equals(getTempPrefix())) {
+        continue;
+      }
+      if (prefix.startsWith(getContentPrefix() + VOLUME_PREFIX)) {
+        for (String chapter : listCommonPrefixes(prefix, shallowObjects)) {
+          partitions.put(chapter.substring(contentPrefixLength), () -> blobIdStream(listObjects(chapter)));
+        }
+      }
+      else {
+        partitions.put(prefix.substring(contentPrefixLength), () -> blobIdStream(listObjects(prefix)));
+      }
+    }
+
+    if (!shallowObjects.isEmpty()) {
+      partitions.put("", () -> blobIdStream(shallowObjects.stream()));
+    }
+    return partitions;
+  }
+
+  /**
+   * Lists the key prefixes directly under the given prefix, collecting the objects sitting directly under it.
+   */
+  private List<String> listCommonPrefixes(final String prefix, final List<S3ObjectSummary> objects) {
+    List<String> prefixes = new ArrayList<>();
+    ObjectListing listing = s3.listObjects(new ListObjectsRequest()
+        .withBucketName(getConfiguredBucket())
+        .withPrefix(prefix)
+        .withDelimiter("/"));
+    while (true) {
+      prefixes.addAll(listing.getCommonPrefixes());
+      objects.addAll(listing.getObjectSummaries());
+      if (!listing.isTruncated()) {
+        return prefixes;
+      }
+      listing = s3.listNextBatchOfObjects(listing);
+    }
   }
 
   @Override
@@ -747,10 +1097,9 @@ public class S3BlobStore
       throw new IllegalArgumentException("sinceDays must >= 0");
     }
     else {
-      Iterable<S3ObjectSummary> summaries = S3Objects.withPrefix(s3, getConfiguredBucket(), getContentPrefix());
       OffsetDateTime offsetDateTime = Instant.now().minus(sinceDays, ChronoUnit.DAYS).atOffset(ZoneOffset.UTC);
 
-      return blobIdStream(stream(summaries.spliterator(), false)
+      return blobIdStream(listObjects(getContentPrefix())
           .filter(s3objectSummary -> s3objectSummary.getLastModified().toInstant().atOffset(ZoneOffset.UTC).isAfter(offsetDateTime)));
     }
   }
@@ -759,17 +1108,23 @@ public class S3BlobStore
   @Timed
   public Stream<BlobId> getDirectPathBlobIdStream(final String prefix) {
     String subpath = getBucketPrefix() + format("%s/%s", DIRECT_PATH_PREFIX, prefix);
-    Iterable<S3ObjectSummary> summaries = S3Objects.withPrefix(s3, getConfiguredBucket(), subpath);
-    return stream(summaries.spliterator(), false)
+    return listObjects(subpath)
         .map(S3ObjectSummary::getKey)
         .filter(key -> key.endsWith(BLOB_FILE_ATTRIBUTES_SUFFIX))
         .map(this::attributePathToDirectPathBlobId);
   }
 
+  private Stream<S3ObjectSummary> listObjects(final String prefix) {
+    return stream(new PrefetchingObjectListing(s3, getConfiguredBucket(), prefix, executorService).spliterator(), false);
+  }
+
   private Stream<S3ObjectSummary> nonTempBlobPropertiesFileStream(final Stream<S3ObjectSummary> summaries) {
-    return summaries
+    String tempPrefix = getTempPrefix();
+    Stream<S3ObjectSummary> properties = summaries
         .filter(o -> o.getKey().endsWith(BLOB_FILE_ATTRIBUTES_SUFFIX))
-        .filter(this::isNotTempBlob);
+        .filter(o -> !o.getKey().startsWith(tempPrefix));
+    // until the properties of temporary blobs from earlier versions are moved, those have to be found one by one
+    return legacyTempBlobProperties ? properties.filter(this::isNotTempBlob) : properties;
   }
 
   private boolean isNotTempBlob(final S3ObjectSummary object) {
@@ -785,6 +1140,87 @@ public class S3BlobStore
     }
   }
 
+  /**
+   * Moves the properties of temporary blobs written by earlier versions from next to their content to under the
+   * temporary location, then records in the blob store metadata that listings no longer need to check each blob.
+   * Nothing is recorded when any properties could not be moved or the blob store was stopped, so the next start tries
+   * again.
+   */
+  private void migrateTempBlobProperties(final S3PropertiesFile metadata) {
+    String name = blobStoreConfiguration.getName();
+    log.info("Moving properties of temporary blobs in blob store {} under {}", name, getTempPrefix());
+    try {
+      String tempPrefix = getTempPrefix();
+      Iterator<S3ObjectSummary> objects = listObjects(getContentPrefix())
+          .filter(o -> o.getKey().endsWith(BLOB_FILE_ATTRIBUTES_SUFFIX))
+          .filter(o -> !o.getKey().startsWith(tempPrefix))
+          .iterator();
+      long moved = 0;
+      long failed = 0;
+      while (objects.hasNext()) {
+        if (Thread.currentThread().isInterrupted()) {
+          log.info("Stopped moving properties of temporary blobs in blob store {}, will retry on next start", name);
+          return;
+        }
+        S3ObjectSummary object = objects.next();
+        try {
+          if (moveTempBlobProperties(object)) {
+            moved++;
+          }
+        }
+        catch (Exception e) {
+          failed++;
+          log.warn("Unable to move properties {} of temporary blob", object.getKey(), log.isDebugEnabled() ? e : null);
+        }
+      }
+      if (failed > 0) {
+        log.warn("Moved properties of {} temporary blobs in blob store {}, {} could not be moved and will be retried " +
+            "on next start", moved, name, failed);
+        return;
+      }
+
+      metadata.setProperty(TEMP_PROPERTIES_LOCATION_KEY, TEMP_PROPERTIES_LOCATION_V1);
+      metadata.store();
+      legacyTempBlobProperties = false;
+      log.info("Moved properties of {} temporary blobs in blob store {}", moved, name);
+    }
+    catch (Exception e) {
+      log.warn("Unable to move properties of temporary blobs in blob store {}, will retry on next start", name,
+          log.isDebugEnabled() ? e : null);
+    }
+  }
+
+  /**
+   * @return whether the properties were moved, {@code false} when they are not those of a temporary blob or have
+   *         gone since they were listed
+   */
+
+  private boolean moveTempBlobProperties(final S3ObjectSummary object) {
+    String key = object.getKey();
+    BlobId blobId = new BlobId(getBlobIdFromAttributeFilePath(new S3AttributesLocation(object)));
+    S3Blob blob = liveBlobs.getUnchecked(blobId);
+    Lock lock = blob.lock();
+    try {
+      if (!s3.getObjectMetadata(getConfiguredBucket(), key).getUserMetadata().containsKey(TEMPORARY_BLOB_HEADER)) {
+        return false;
+      }
+      s3.copyObject(getConfiguredBucket(), key, getConfiguredBucket(), tempAttributePath(blobId));
+      s3.deleteObject(getConfiguredBucket(), key);
+      blob.markStale();
+      return true;
+    }
+    catch (AmazonS3Exception e) {
+      if (e.getStatusCode() == 404) {
+        log.debug("Properties {} of temporary blob were deleted before they could be moved", key);
+        return false;
+      }
+      throw e;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
   private Stream<BlobId> blobIdStream(final Stream<S3ObjectSummary> summaries) {
     return nonTempBlobPropertiesFileStream(summaries)
         .map(S3AttributesLocation::new)
@@ -797,8 +1233,7 @@ public class S3BlobStore
   @Timed
   public BlobAttributes getBlobAttributes(final BlobId blobId) {
     try {
-      S3BlobAttributes blobAttributes = new S3BlobAttributes(s3, getConfiguredBucket(), attributePath(blobId));
-      return blobAttributes.load() ? blobAttributes : null;
+      return loadBlobAttributes(blobId);
     }
     catch (Exception e) {
       log.error("Unable to load S3BlobAttributes for blob id: {}", blobId, e);
@@ -832,6 +1267,7 @@ public class S3BlobStore
   @Override
   @Timed
   protected void doUndelete(final BlobId blobId, final BlobAttributes attributes) {
+    // temporary blobs are hard deleted rather than tagged, see expire, so only permanent properties need untagging
     s3.setObjectTagging(untagAsDeleted(contentPath(blobId)));
     s3.setObjectTagging(untagAsDeleted(attributePath(blobId)));
     metricsService.recordAddition(attributes.getMetrics().getContentSize());
@@ -857,12 +1293,11 @@ public class S3BlobStore
   @Timed
   public boolean exists(final BlobId blobId) {
     checkNotNull(blobId);
-    S3BlobAttributes blobAttributes = new S3BlobAttributes(s3, getConfiguredBucket(), attributePath(blobId));
     try (final Timer.Context existsContext = existsTimer.time()) {
-      return blobAttributes.load();
+      return loadBlobAttributes(blobId) != null;
     }
     catch (IOException ioe) {
-      log.debug("Unable to load attributes {} during existence check, exception", blobAttributes, ioe);
+      log.debug("Unable to load attributes of {} during existence check, exception", blobId, ioe);
       return false;
     }
   }
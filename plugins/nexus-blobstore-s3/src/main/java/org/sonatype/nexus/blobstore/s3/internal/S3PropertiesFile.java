@@ -52,6 +52,13 @@ public class S3PropertiesFile
     this.key = checkNotNull(key);
   }
 
+  /**
+   * @since 3.71
+   */
+  public String getKey() {
+    return key;
+  }
+
   public void load() throws IOException {
     log.debug("Loading: {}/{}", bucket, key);
 
@@ -13,7 +13,10 @@
 package org.sonatype.nexus.blobstore.s3.internal
 
 import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.stream.Collectors
 
 import org.sonatype.nexus.blobstore.BlobIdLocationResolver
@@ -33,6 +36,7 @@ import com.amazonaws.services.s3.model.AmazonS3Exception
 import com.amazonaws.services.s3.model.DeleteObjectsRequest
 import com.amazonaws.services.s3.model.DeleteObjectsResult
 import com.amazonaws.services.s3.model.DeleteObjectsResult.DeletedObject
+import com.amazonaws.services.s3.model.GetObjectRequest
 import com.amazonaws.services.s3.model.ListObjectsRequest
 import com.amazonaws.services.s3.model.ObjectListing
 import com.amazonaws.services.s3.model.ObjectMetadata
@@ -122,7 +126,7 @@ class S3BlobStoreTest
 
         return listing
       }
-      1 * s3.getObjectMetadata('mybucket', _) >> new ObjectMetadata()
+      0 * s3.getObjectMetadata(*_)
 
     where:
       prefix     | expected
@@ -140,12 +144,12 @@ class S3BlobStoreTest
       s3.listObjects(_ as ListObjectsRequest) >> { listObjectsRequest ->
 
         def listing = new ObjectListing()
-        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: '/content/vol-01/chap-01/12345678-1234-1234-1234-123456789ghi.properties', lastModified: new Date())
-        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: '/content/vol-01/chap-01/12345678-1234-1234-1234-123456789ghi.bytes', lastModified: new Date())
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/tmp/12345678-1234-1234-1234-123456789ghi.properties', lastModified: new Date())
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789ghi.bytes', lastModified: new Date())
         listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'vol-01/chap-01/12345678-1234-1234-1234-123456789abc.properties', lastModified: new Date())
         listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'vol-01/chap-01/12345678-1234-1234-1234-123456789abc.bytes', lastModified: new Date())
-        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'vol-01/chap-01/12345678-1234-1234-1234-123456789def.properties', lastModified: new Date(System.currentTimeMillis() - 2))
-        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'vol-01/chap-01/12345678-1234-1234-1234-123456789def.bytes', lastModified: new Date(System.currentTimeMillis() - 2))
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'vol-01/chap-01/12345678-1234-1234-1234-123456789def.properties', lastModified: new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)))
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'vol-01/chap-01/12345678-1234-1234-1234-123456789def.bytes', lastModified: new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)))
         listing.truncated = false
 
         return listing
@@ -157,8 +161,145 @@ class S3BlobStoreTest
     then: 'only the blob updated in the last day will be returned'
       blobIds.size() == 1
       blobIds.get(0).asUniqueString() == "12345678-1234-1234-1234-123456789abc"
-      1 * s3.getObjectMetadata('mybucket', '/content/vol-01/chap-01/12345678-1234-1234-1234-123456789ghi.properties') >> getTempBlobMetadata()
-      1 * s3.getObjectMetadata('mybucket', 'vol-01/chap-01/12345678-1234-1234-1234-123456789abc.properties') >> new ObjectMetadata()
+      0 * s3.getObjectMetadata(*_)
+  }
+
+  def 'blob id streams check each blob until legacy temp blob properties are moved'() {
+    given: 'a blob store written before temp blob properties were kept under the temporary location'
+      def metadataStored = new CountDownLatch(1)
+      s3.doesObjectExist('mybucket', 'myPrefix/metadata.properties') >> true
+      s3.getObject('mybucket', 'myPrefix/metadata.properties') >> mockS3Object('type=s3/1')
+      s3.listObjects(_ as ListObjectsRequest) >> {
+        def listing = new ObjectListing()
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789abc.properties')
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789fed.properties')
+        listing.truncated = false
+        return listing
+      }
+      s3.getObjectMetadata('mybucket', 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789abc.properties') >> new ObjectMetadata()
+      s3.getObjectMetadata('mybucket', 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789fed.properties') >> getTempBlobMetadata()
+
+    when: 'the blob store is started'
+      blobStore.init(config)
+      blobStore.doStart()
+      def blobIds = blobStore.getBlobIdStream().collect(Collectors.toList())
+      def migrated = metadataStored.await(10, TimeUnit.SECONDS)
+
+    then: 'temp blobs are excluded from the stream'
+      blobIds*.asUniqueString() == ['12345678-1234-1234-1234-123456789abc']
+
+    and: 'the properties of the temp blob are moved and the move is recorded'
+      migrated
+      1 * s3.copyObject('mybucket', 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789fed.properties',
+          'mybucket', 'myPrefix/content/tmp/12345678-1234-1234-1234-123456789fed.properties')
+      1 * s3.deleteObject('mybucket', 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789fed.properties')
+      1 * s3.putObject('mybucket', 'myPrefix/metadata.properties', _, _) >> { bucket, key, InputStream bytes, metadata ->
+        assert bytes.text.contains("${S3BlobStore.TEMP_PROPERTIES_LOCATION_KEY}=${S3BlobStore.TEMP_PROPERTIES_LOCATION_V1}")
+        metadataStored.countDown()
+      }
+  }
+
+  def 'legacy temp blob properties are not recorded as moved while any move fails'() {
+    given: 'a blob store written before temp blob properties were kept under the temporary location'
+      def moveAttempted = new CountDownLatch(1)
+      def notFound = new AmazonS3Exception('Not Found')
+      notFound.statusCode = 404
+      def slowDown = new AmazonS3Exception('Slow Down')
+      slowDown.statusCode = 503
+      s3.doesObjectExist('mybucket', 'myPrefix/metadata.properties') >> true
+      s3.getObject('mybucket', 'myPrefix/metadata.properties') >> mockS3Object('type=s3/1')
+      s3.listObjects(_ as ListObjectsRequest) >> {
+        def listing = new ObjectListing()
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789abc.properties')
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789fed.properties')
+        listing.truncated = false
+        return listing
+      }
+      s3.getObjectMetadata('mybucket', 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789abc.properties') >> { throw notFound }
+      s3.getObjectMetadata('mybucket', 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789fed.properties') >> getTempBlobMetadata()
+
+    when: 'the blob store is started, then stopped once a move has been attempted'
+      blobStore.init(config)
+      blobStore.doStart()
+      moveAttempted.await(10, TimeUnit.SECONDS)
+      blobStore.doStop()
+
+    then: 'a blob which has gone is skipped but the failed move keeps the migration pending'
+      1 * s3.copyObject('mybucket', 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789fed.properties',
+          'mybucket', 'myPrefix/content/tmp/12345678-1234-1234-1234-123456789fed.properties') >> {
+        moveAttempted.countDown()
+        throw slowDown
+      }
+      0 * s3.deleteObject(*_)
+      0 * s3.putObject('mybucket', 'myPrefix/metadata.properties', _, _)
+  }
+
+  def 'exists finds blobs with temporary properties'() {
+    given: 'a temporary blob'
+      blobStore.init(config)
+      blobStore.doStart()
+      def blobId = new BlobId('temp-blob')
+      s3.doesObjectExist('mybucket', 'myPrefix/content/tmp/temp-blob.properties') >> true
+      s3.getObject('mybucket', 'myPrefix/content/tmp/temp-blob.properties') >> mockS3Object(attributesContents)
+
+    expect: 'it exists'
+      blobStore.exists(blobId)
+      !blobStore.exists(new BlobId('missing-blob'))
+  }
+
+  def 'blob id stream partitions split volumes by chapter'() {
+    given: 'a blob store with two chapters in one volume, a direct-path prefix and temporary blobs'
+      blobStore.init(config)
+      blobStore.doStart()
+      s3.listObjects({ it.prefix == 'myPrefix/content/' && it.delimiter == '/' } as ListObjectsRequest) >>
+          new ObjectListing(commonPrefixes: ['myPrefix/content/directpath/', 'myPrefix/content/tmp/',
+              'myPrefix/content/vol-01/'])
+      s3.listObjects({ it.prefix == 'myPrefix/content/vol-01/' && it.delimiter == '/' } as ListObjectsRequest) >>
+          new ObjectListing(commonPrefixes: ['myPrefix/content/vol-01/chap-01/', 'myPrefix/content/vol-01/chap-02/'])
+
+    when: 'the partitions are listed'
+      def partitions = blobStore.getBlobIdStreamPartitions()
+
+    then: 'each chapter and the direct-path prefix is a partition of its own, keyed by its prefix'
+      partitions.keySet() as List == ['directpath/', 'vol-01/chap-01/', 'vol-01/chap-02/']
+      0 * s3.listObjects({ it.prefix == 'myPrefix/content/tmp/' } as ListObjectsRequest)
+
+    when: 'the last chapter is walked'
+      def blobIds = partitions['vol-01/chap-02/'].get().collect(Collectors.toList())
+
+    then: 'only that chapter is listed'
+      1 * s3.listObjects({ it.prefix == 'myPrefix/content/vol-01/chap-02/' && !it.delimiter } as ListObjectsRequest) >> {
+        def listing = new ObjectListing()
+        listing.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-01/chap-02/12345678-1234-1234-1234-123456789abc.properties')
+        return listing
+      }
+      blobIds*.asUniqueString() == ['12345678-1234-1234-1234-123456789abc']
+  }
+
+  def 'blob id streams prefetch the next page of the listing'() {
+    given: 'a listing of two pages'
+      blobStore.init(config)
+      blobStore.doStart()
+      def firstPage = new ObjectListing(truncated: true)
+      firstPage.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-01/chap-01/12345678-1234-1234-1234-123456789abc.properties')
+      def secondPage = new ObjectListing(truncated: false)
+      secondPage.objectSummaries << new S3ObjectSummary(bucketName: 'mybucket', key: 'myPrefix/content/vol-02/chap-01/12345678-1234-1234-1234-123456789def.properties')
+
+    when: 'the first blob id is taken'
+      def blobIds = blobStore.getBlobIdStream().iterator()
+      def first = blobIds.next()
+
+    then: 'the second page has already been requested'
+      1 * s3.listObjects(_ as ListObjectsRequest) >> firstPage
+      1 * s3.listNextBatchOfObjects(firstPage) >> secondPage
+      first.asUniqueString() == '12345678-1234-1234-1234-123456789abc'
+
+    when: 'the rest of the stream is consumed'
+      def rest = blobIds.collect()
+
+    then: 'no further requests are made'
+      rest*.asUniqueString() == ['12345678-1234-1234-1234-123456789def']
+      0 * s3.listNextBatchOfObjects(_)
   }
 
   def 'getBlobIdUpdatedSinceStream throws exception if negative sinceDays is passed in'() {
@@ -204,6 +345,29 @@ class S3BlobStoreTest
       "prefix" | _
   }
 
+  def 'ranged reads only fetch the requested bytes'() {
+    given: 'A mocked S3 setup'
+      def cfg = new MockBlobStoreConfiguration()
+      cfg.attributes = [s3: [bucket: 'mybucket']]
+
+      def blobId = new BlobId('test')
+      def attributesS3Object = mockS3Object(attributesContents)
+      1 * s3.doesObjectExist('mybucket', propertiesLocation(blobId)) >> true
+      1 * s3.getObject('mybucket', propertiesLocation(blobId)) >> attributesS3Object
+
+    when: 'A range of an existing blob is read'
+      blobStore.init(cfg)
+      blobStore.doStart()
+      def text = blobStore.get(blobId).getInputStream(6, 5).text
+
+    then: 'Only that range is requested from s3'
+      1 * s3.getObject({ GetObjectRequest request ->
+        request.key == bytesLocation(blobId) && request.range == [6L, 10L] as long[]
+      }) >> mockS3Object('world')
+      0 * s3.getObject('mybucket', bytesLocation(blobId))
+      text == 'world'
+  }
+
   @Unroll
   def 'soft delete successful with bucket prefix #prefix'() {
     given: 'blob exists'
@@ -283,6 +447,79 @@ class S3BlobStoreTest
       2          || 0         | 2
   }
 
+  def 'deleteAll soft deletes each blob'() {
+    given: 'blobs exist'
+      def blobIds = [new BlobId('soft-delete-1'), new BlobId('soft-delete-2')]
+      blobStore.init(config)
+      blobStore.doStart()
+      blobIds.each { blobId ->
+        _ * s3.doesObjectExist('mybucket', 'myPrefix/' + propertiesLocation(blobId)) >> true
+        _ * s3.getObject('mybucket', 'myPrefix/' + propertiesLocation(blobId)) >> { mockS3Object(attributesContents) }
+      }
+
+    when: 'the blobs are deleted together'
+      def deleted = blobStore.deleteAll(blobIds, 'bulk test')
+
+    then: 'content and attributes of each blob are tagged'
+      deleted == 2
+      4 * s3.setObjectTagging({ it.tagging.tagSet == [S3BlobStore.DELETED_TAG] })
+      0 * s3.deleteObjects(_)
+  }
+
+  def 'deleteAll hard deletes with a single DeleteObjects request'() {
+    given: 'blobs exist in a store without expiry'
+      def blobIds = [new BlobId('hard-delete-1'), new BlobId('hard-delete-2'), new BlobId('hard-delete-3')]
+      def cfg = new MockBlobStoreConfiguration()
+      cfg.attributes = [s3: [bucket: 'mybucket', prefix: '', expiration: 0]]
+      blobStore.init(cfg)
+      blobStore.doStart()
+      blobIds.each { blobId ->
+        _ * s3.doesObjectExist('mybucket', propertiesLocation(blobId)) >> true
+        _ * s3.getObject('mybucket', propertiesLocation(blobId)) >> { mockS3Object(attributesContents) }
+      }
+
+    when: 'the blobs are deleted together'
+      def deleted = blobStore.deleteAll(blobIds, 'bulk test')
+
+    then: 'one request removes every key and only the deleted blobs are counted'
+      1 * s3.deleteObjects({ DeleteObjectsRequest request ->
+        request.keys*.key as Set == blobIds.collect { [bytesLocation(it), propertiesLocation(it)] }.flatten() as Set
+      }) >> new DeleteObjectsResult(blobIds.take(2).collect { new DeletedObject(key: bytesLocation(it)) })
+      deleted == 2
+      2 * storeMetrics.recordDeletion(11L)
+      0 * s3.setObjectTagging(_)
+  }
+
+  def 'deleteAll reads the sizes of the batch before removing their attributes'() {
+    given: 'blobs exist in a store without expiry'
+      def blobIds = [new BlobId('hard-delete-1'), new BlobId('hard-delete-2')]
+      def cfg = new MockBlobStoreConfiguration()
+      cfg.attributes = [s3: [bucket: 'mybucket', prefix: '', expiration: 0]]
+      blobStore.init(cfg)
+      blobStore.doStart()
+      def reads = new AtomicInteger()
+      def readsBeforeDelete = -1
+      blobIds.each { blobId ->
+        _ * s3.doesObjectExist('mybucket', propertiesLocation(blobId)) >> true
+        _ * s3.getObject('mybucket', propertiesLocation(blobId)) >> {
+          reads.incrementAndGet()
+          mockS3Object(attributesContents)
+        }
+      }
+
+    when: 'the blobs are deleted together'
+      def deleted = blobStore.deleteAll(blobIds, 'bulk test')
+
+    then: 'the attributes of every blob are read before the objects are removed'
+      1 * s3.deleteObjects(_) >> {
+        readsBeforeDelete = reads.get()
+        new DeleteObjectsResult(blobIds.collect { new DeletedObject(key: bytesLocation(it)) })
+      }
+      readsBeforeDelete == 2
+      2 * storeMetrics.recordDeletion(11L)
+      deleted == 2
+  }
+
   def 'undelete successful'() {
     given: 'blob store setup'
       Properties properties = ['@BlobStore.blob-name': 'my-blob']
@@ -612,8 +849,9 @@ class S3BlobStoreTest
     and: 'correct headers are present'
       blob.headers == headers
 
-    and: 'temp blob UserMetaData is present'
+    and: 'temp blob UserMetaData is present on properties kept under the temporary location'
       1 * s3.putObject('mybucket', _, _, _) >> { bucket, key, bytes, metadata ->
+        assert key ==~ 'myPrefix/content/tmp/[^/]+\\.properties'
         ObjectMetadata objectMetadata = metadata
         assert objectMetadata.userMetadata.get(TEMPORARY_BLOB_HEADER) == 'true'
       }
@@ -633,6 +871,43 @@ class S3BlobStoreTest
       }
   }
 
+  def 'makeBlobPermanent only rewrites the properties of a temp blob'() {
+    given: 'a temp blob'
+      blobStore.init(config)
+      blobStore.doStart()
+      def headers = [(CREATED_BY_HEADER): 'test', (CREATED_BY_IP_HEADER): '127.0.0.1',
+                     (BLOB_NAME_HEADER) : 'temp', (TEMPORARY_BLOB_HEADER): '']
+      def tempBlob = blobStore.create(new ByteArrayInputStream('hello world'.bytes), headers)
+
+    when: 'the blob is made permanent'
+      def blob = blobStore.makeBlobPermanent(tempBlob.id,
+          [(BLOB_NAME_HEADER): 'file.txt', (CREATED_BY_HEADER): 'test', (CREATED_BY_IP_HEADER): '127.0.0.1'])
+
+    then: 'the blob keeps its id and content'
+      blob.id == tempBlob.id
+      blob.metrics.sha1Hash == tempBlob.metrics.sha1Hash
+      blob.metrics.contentSize == tempBlob.metrics.contentSize
+
+    and: 'a single properties write is the only request made'
+      1 * s3.putObject('mybucket', { it.endsWith(BLOB_FILE_ATTRIBUTES_SUFFIX) }, _, _)
+      0 * s3.putObject(*_)
+      0 * s3.getObject(*_)
+      0 * s3.doesObjectExist(*_)
+      0 * s3.copyObject(*_)
+      1 * s3.deleteObject('mybucket', "myPrefix/content/tmp/${tempBlob.id.asUniqueString()}.properties")
+      0 * s3.deleteObjects(*_)
+      0 * uploader._
+      0 * copier._
+
+    when: 'the promoted blob is cleaned up as if it were still temporary'
+      def deleted = blobStore.deleteIfTemp(blob.id)
+
+    then: 'nothing is deleted'
+      !deleted
+      0 * s3.deleteObjects(*_)
+      0 * s3.deleteObject(*_)
+  }
+
   def 'makeBlobPermanent throws exception if temp blob header is passed in'() {
     given: 'blob store setup'
       blobStore.init(config)
@@ -12,12 +12,12 @@
  */
 package org.sonatype.nexus.blobstore.metrics.reconcile;
 
-import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.sonatype.nexus.blobstore.ParallelBlobIdWalker;
 import org.sonatype.nexus.blobstore.api.BlobAttributes;
 import org.sonatype.nexus.blobstore.api.BlobStore;
 import org.sonatype.nexus.blobstore.api.BlobStoreManager;
@@ -32,6 +32,7 @@ import org.sonatype.nexus.scheduling.CancelableHelper;
 
 import org.joda.time.DateTime;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sonatype.nexus.logging.task.TaskLogType.TASK_LOG_ONLY;
 
 @AvailabilityVersion(from = "1.0")
@@ -45,11 +46,15 @@ public class RecalculateBlobStoreSizeTask
 
   private static final String S3_TYPE = "S3";
 
-  private static final int CANCEL_CHECK_INTERVAL = 300;
+  private final ParallelBlobIdWalker blobIdWalker;
 
   @Inject
-  public RecalculateBlobStoreSizeTask(final BlobStoreManager blobStoreManager) {
+  public RecalculateBlobStoreSizeTask(
+      final BlobStoreManager blobStoreManager,
+      final ParallelBlobIdWalker blobIdWalker)
+  {
     super(blobStoreManager);
+    this.blobIdWalker = checkNotNull(blobIdWalker);
   }
 
   @Override
@@ -69,24 +74,21 @@ public class RecalculateBlobStoreSizeTask
     AtomicLong totalCount = new AtomicLong();
 
     try (ProgressLogIntervalHelper progressLogger = new ProgressLogIntervalHelper(log, LOGGING_INTERVAL)) {
-      blobStore.getBlobIdStream()
-          .map(blobStore::getBlobAttributes)
-          .filter(Objects::nonNull)
-          .filter(attributes -> isCreatedBefore(attributes, currentDate))
-          .filter(attributes -> includeSoftDeleted || !attributes.isDeleted())
-          .map(attributes -> attributes.getMetrics().getContentSize())
-          .forEach(blobSize -> {
-            totalSize.addAndGet(blobSize);
-            metricsService.recordAddition(blobSize);
-            if (totalCount.incrementAndGet() % CANCEL_CHECK_INTERVAL == 0) {
-              CancelableHelper.checkCancellation();
+      blobIdWalker.walk(blobStore, blobId -> {
+            BlobAttributes attributes = blobStore.getBlobAttributes(blobId);
+            if (attributes != null && isCreatedBefore(attributes, currentDate)
+                && (includeSoftDeleted || !attributes.isDeleted())) {
+              long blobSize = attributes.getMetrics().getContentSize();
+              totalSize.addAndGet(blobSize);
+              totalCount.incrementAndGet();
+              metricsService.recordAddition(blobSize);
             }
-
-            progressLogger.info("Re-calculating size metrics on blob store '{}', size : {} - blobs count : {}",
-                blobStore.getBlobStoreConfiguration().getName(), totalSize,
-                totalCount);
-          });
+          },
+          this::isCanceled,
+          visited -> progressLogger.info("Re-calculating size metrics on blob store '{}', size : {} - blobs count : {}",
+              blobStore.getBlobStoreConfiguration().getName(), totalSize, totalCount));
     }
+    CancelableHelper.checkCancellation();
   }
 
   @Override
@@ -0,0 +1,182 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.blobstore.restore.datastore;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Progress of a {@link RestoreMetadataTask} run against one blob store, saved periodically so that a run which is
+ * canceled or interrupted by a restart can resume where it stopped.
+ *
+ * The blob store is walked by {@link org.sonatype.nexus.blobstore.api.BlobStore#getBlobIdStreamPartitions()
+ * partition} and only completed partitions, recorded by their id, are skipped on resume; partitions which appeared
+ * since are walked as well. A partially processed partition is walked again from its start, since neither the order
+ * of its listing nor its blobs are stable between runs. The integrity check resumes at repository granularity.
+ *
+ * Instances are updated concurrently by the blob store walk and serialized to the global key-value store.
+ *
+ * @since 3.71
+ */
+public class RestoreMetadataCheckpoint
+{
+  private String configuration;
+
+  private int partitions;
+
+  private final Set<String> completedPartitions = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, Long> processedByPartition = new ConcurrentHashMap<>();
+
+  private final AtomicLong processed = new AtomicLong();
+
+  private final AtomicLong undeleted = new AtomicLong();
+
+  private final Set<String> touchedRepositories = ConcurrentHashMap.newKeySet();
+
+  private boolean restoreComplete;
+
+  private final Set<String> checkedRepositories = ConcurrentHashMap.newKeySet();
+
+  public RestoreMetadataCheckpoint() {
+    // for deserialization
+  }
+
+  public RestoreMetadataCheckpoint(final String configuration) {
+    this.configuration = checkNotNull(configuration);
+  }
+
+  /**
+   * Identifies the task settings the checkpoint was taken with, a run with other settings starts over.
+   */
+  public String getConfiguration() {
+    return configuration;
+  }
+
+  public void setConfiguration(final String configuration) {
+    this.configuration = configuration;
+  }
+
+  /**
+   * The number of partitions the blob store had when the walk was last resumed.
+   */
+  public int getPartitions() {
+    return partitions;
+  }
+
+  public void setPartitions(final int partitions) {
+    this.partitions = partitions;
+  }
+
+  /**
+   * Ids of the partitions which have been walked to their end.
+   */
+  public Set<String> getCompletedPartitions() {
+    return completedPartitions;
+  }
+
+  public void setCompletedPartitions(final Set<String> completedPartitions) {
+    this.completedPartitions.clear();
+    this.completedPartitions.addAll(completedPartitions);
+  }
+
+  public Map<String, Long> getProcessedByPartition() {
+    return processedByPartition;
+  }
+
+  public void setProcessedByPartition(final Map<String, Long> processedByPartition) {
+    this.processedByPartition.clear();
+    this.processedByPartition.putAll(processedByPartition);
+  }
+
+  public long getProcessed() {
+    return processed.get();
+  }
+
+  public void setProcessed(final long processed) {
+    this.processed.set(processed);
+  }
+
+  public long getUndeleted() {
+    return undeleted.get();
+  }
+
+  public void setUndeleted(final long undeleted) {
+    this.undeleted.set(undeleted);
+  }
+
+  /**
+   * Names of the repositories whose assets were restored, which still need their post-restore step.
+   */
+  public Set<String> getTouchedRepositories() {
+    return touchedRepositories;
+  }
+
+  public void setTouchedRepositories(final Set<String> touchedRepositories) {
+    this.touchedRepositories.clear();
+    this.touchedRepositories.addAll(touchedRepositories);
+  }
+
+  public boolean isRestoreComplete() {
+    return restoreComplete;
+  }
+
+  public void setRestoreComplete(final boolean restoreComplete) {
+    this.restoreComplete = restoreComplete;
+  }
+
+  /**
+   * Names of the repositories whose integrity check has completed.
+   */
+  public Set<String> getCheckedRepositories() {
+    return checkedRepositories;
+  }
+
+  public void setCheckedRepositories(final Set<String> checkedRepositories) {
+    this.checkedRepositories.clear();
+    this.checkedRepositories.addAll(checkedRepositories);
+  }
+
+  /**
+   * Prepares to resume the walk over the given partitions: forgets the blobs counted in partitions which did not
+   * complete, as those are walked again from their start, and completed partitions which no longer exist.
+   */
+  void resumeRestore(final Set<String> partitionIds) {
+    partitions = partitionIds.size();
+    processedByPartition.values().forEach(count -> processed.addAndGet(-count));
+    processedByPartition.clear();
+    completedPartitions.retainAll(partitionIds);
+  }
+
+  boolean isPartitionComplete(final String partition) {
+    return completedPartitions.contains(partition);
+  }
+
+  void blobProcessed(final String partition) {
+    processedByPartition.merge(partition, 1L, Long::sum);
+    processed.incrementAndGet();
+  }
+
+  void blobUndeleted() {
+    undeleted.incrementAndGet();
+  }
+
+  void partitionComplete(final String partition) {
+    completedPartitions.add(partition);
+    processedByPartition.remove(partition);
+  }
+}
@@ -12,16 +12,21 @@
  */
 package org.sonatype.nexus.blobstore.restore.datastore;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -29,6 +34,7 @@ import javax.inject.Named;
 
 import org.sonatype.nexus.repository.move.ChangeRepositoryBlobStoreConfiguration;
 import org.sonatype.nexus.repository.move.ChangeRepositoryBlobStoreStore;
+import org.sonatype.nexus.blobstore.ParallelBlobIdWalker;
 import org.sonatype.nexus.blobstore.api.Blob;
 import org.sonatype.nexus.blobstore.api.BlobAttributes;
 import org.sonatype.nexus.blobstore.api.BlobId;
@@ -40,21 +46,32 @@ import org.sonatype.nexus.common.log.DryRunPrefix;
 import org.sonatype.nexus.logging.task.ProgressLogIntervalHelper;
 import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.content.Asset;
+import org.sonatype.nexus.repository.content.kv.global.GlobalKeyValueStore;
+import org.sonatype.nexus.repository.content.kv.global.NexusKeyValue;
+import org.sonatype.nexus.repository.content.kv.global.ValueType;
 import org.sonatype.nexus.repository.content.maintenance.MaintenanceService;
 import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.types.GroupType;
 import org.sonatype.nexus.scheduling.Cancelable;
 import org.sonatype.nexus.scheduling.TaskSupport;
 import org.sonatype.nexus.scheduling.TaskUtils;
+import org.sonatype.nexus.scheduling.spi.TaskResultStateStore;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static java.util.Objects.isNull;
 import static java.util.Optional.ofNullable;
+import static java.util.Spliterator.ORDERED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.lang.time.DurationFormatUtils.formatDurationWords;
 import static org.sonatype.nexus.blobstore.api.BlobAttributesConstants.HEADER_PREFIX;
 import static org.sonatype.nexus.blobstore.api.BlobStore.REPO_NAME_HEADER;
 import static org.sonatype.nexus.blobstore.restore.BaseRestoreMetadataTaskDescriptor.BLOB_STORE_NAME_FIELD_ID;
@@ -67,6 +84,10 @@ import static org.sonatype.nexus.blobstore.restore.datastore.DefaultIntegrityChe
 import static org.sonatype.nexus.logging.task.TaskLoggingMarkers.TASK_LOG_ONLY;
 
 /**
+ * Restores asset metadata from the blobs of a blob store and checks the assets of its repositories against their
+ * blobs. Progress is saved to the {@link GlobalKeyValueStore} every {@code checkpointInterval} blobs, a later run with
+ * the same settings resumes from there.
+ *
  * @since 3.29
  */
 @Named
@@ -74,6 +95,10 @@ public class RestoreMetadataTask
     extends TaskSupport
     implements Cancelable
 {
+  private static final String CHECKPOINT_KEY = "blobstore.restore.%s.checkpoint";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   private final BlobStoreManager blobStoreManager;
 
   private final Optional<ChangeRepositoryBlobStoreStore> changeBlobstoreStore;
@@ -96,6 +121,16 @@ public class RestoreMetadataTask
 
   private final TaskUtils taskUtils;
 
+  private final ParallelBlobIdWalker blobIdWalker;
+
+  private final int parallelism;
+
+  private final GlobalKeyValueStore globalKeyValueStore;
+
+  private final TaskResultStateStore taskResultStateStore;
+
+  private final int checkpointInterval;
+
   private final Map<String, Boolean> formatAssetBlobRefMigrated;
 
   @Inject
@@ -109,7 +144,12 @@ public class RestoreMetadataTask
       final Map<String, IntegrityCheckStrategy> integrityCheckStrategies,
       final MaintenanceService maintenanceService,
       final AssetBlobRefFormatCheck assetBlobRefFormatCheck,
-      final TaskUtils taskUtils)
+      final TaskUtils taskUtils,
+      final ParallelBlobIdWalker blobIdWalker,
+      @Named("${nexus.blobstore.restore.parallelism:-1}") final int parallelism,
+      final GlobalKeyValueStore globalKeyValueStore,
+      final TaskResultStateStore taskResultStateStore,
+      @Named("${nexus.blobstore.restore.checkpointInterval:-1000}") final int checkpointInterval)
   {
     this.blobStoreManager = checkNotNull(blobStoreManager);
     this.changeBlobstoreStore = Optional.ofNullable(changeBlobstoreStore);
@@ -122,7 +162,14 @@ public class RestoreMetadataTask
     this.maintenanceService = checkNotNull(maintenanceService);
     this.assetBlobRefFormatCheck = checkNotNull(assetBlobRefFormatCheck);
     this.taskUtils = checkNotNull(taskUtils);
-    formatAssetBlobRefMigrated = new HashMap<>();
+    this.blobIdWalker = checkNotNull(blobIdWalker);
+    checkArgument(parallelism > 0, "Must use a positive parallelism");
+    this.parallelism = parallelism;
+    this.globalKeyValueStore = checkNotNull(globalKeyValueStore);
+    this.taskResultStateStore = checkNotNull(taskResultStateStore);
+    checkArgument(checkpointInterval > 0, "Must use a positive checkpoint interval");
+    this.checkpointInterval = checkpointInterval;
+    formatAssetBlobRefMigrated = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -167,19 +214,52 @@ public class RestoreMetadataTask
 
     BlobStore blobStore = blobStoreManager.get(blobStoreId);
 
-    restore(blobStore, restoreBlobs, undeleteBlobs, dryRun, sinceDays);
+    String checkpointKey = format(CHECKPOINT_KEY, blobStoreId);
+    String settings = format("restore=%s, undelete=%s, integrityCheck=%s, dryRun=%s, sinceDays=%s", restoreBlobs,
+        undeleteBlobs, integrityCheck, dryRun, sinceDays);
+    RestoreMetadataCheckpoint checkpoint = loadCheckpoint(checkpointKey, settings);
+
+    restore(blobStore, restoreBlobs, undeleteBlobs, dryRun, sinceDays, checkpointKey, checkpoint);
 
-    blobStoreIntegrityCheck(integrityCheck, blobStoreId, dryRun, sinceDays);
+    blobStoreIntegrityCheck(integrityCheck, blobStoreId, dryRun, sinceDays, checkpointKey, checkpoint);
+
+    if (!isCanceled()) {
+      globalKeyValueStore.removeKey(checkpointKey);
+    }
 
     return null;
   }
 
+  private RestoreMetadataCheckpoint loadCheckpoint(final String checkpointKey, final String settings) {
+    RestoreMetadataCheckpoint checkpoint = globalKeyValueStore.getKey(checkpointKey)
+        .map(keyValue -> keyValue.getAsObject(MAPPER, RestoreMetadataCheckpoint.class))
+        .orElse(null);
+
+    if (checkpoint == null) {
+      return new RestoreMetadataCheckpoint(settings);
+    }
+    if (!settings.equals(checkpoint.getConfiguration())) {
+      log.info("Ignoring checkpoint taken with different settings ({}), starting over", checkpoint.getConfiguration());
+      return new RestoreMetadataCheckpoint(settings);
+    }
+    log.info("Resuming from checkpoint: {} blobs processed, {} un-deleted, {} repositories checked",
+        checkpoint.getProcessed(), checkpoint.getUndeleted(), checkpoint.getCheckedRepositories().size());
+    return checkpoint;
+  }
+
+  private void saveCheckpoint(final String checkpointKey, final RestoreMetadataCheckpoint checkpoint) {
+    globalKeyValueStore.setKey(
+        new NexusKeyValue(checkpointKey, ValueType.OBJECT, MAPPER.convertValue(checkpoint, Map.class)));
+  }
+
   private void restore(
       final BlobStore blobStore,
       final boolean restore,
       final boolean undelete,
       final boolean dryRun,
-      final Integer sinceDays) // NOSONAR
+      final Integer sinceDays,
+      final String checkpointKey,
+      final RestoreMetadataCheckpoint checkpoint) // NOSONAR
   {
     if (!restore && !undelete) {
       log.warn("No repair/restore operations selected");
@@ -187,58 +267,158 @@ public class RestoreMetadataTask
     }
 
     String logPrefix = dryRun ? dryRunPrefix.get() : "";
-    long processed = 0;
-    long undeleted = 0;
     boolean updateAssets = !dryRun && restore;
-    Set<Repository> touchedRepositories = new HashSet<>();
 
     if (dryRun) {
       log.info("{}Actions will be logged, but no changes will be made.", logPrefix);
     }
 
+    if (checkpoint.isRestoreComplete()) {
+      log.info("{}Blobs were already processed by an earlier run", logPrefix);
+      updateAssets(checkpoint.getTouchedRepositories(), updateAssets);
+      return;
+    }
+
+    Map<String, Supplier<Stream<BlobId>>> partitions = getBlobIdPartitions(blobStore, sinceDays);
+    checkpoint.resumeRestore(partitions.keySet());
+
+    long expected = expectedBlobCount(blobStore);
+    long resumedAt = checkpoint.getProcessed();
+    AtomicLong lastSaved = new AtomicLong(resumedAt);
+    Stopwatch stopwatch = Stopwatch.createStarted();
+
     formatAssetBlobRefMigrated.clear();
     try (ProgressLogIntervalHelper progressLogger = new ProgressLogIntervalHelper(log, 60)) {
-      for (BlobId blobId : getBlobIdStream(blobStore, sinceDays)) {
-        try {
-          if (isCanceled()) {
-            log.info("Restore metadata task for {} was canceled", blobStore.getBlobStoreConfiguration().getName());
-            break;
-          }
-
-          Optional<Context> optionalContext = buildContext(blobStore, blobId);
-          if (optionalContext.isPresent()) {
-            Context context = optionalContext.get();
-
-            if (isAssetBlobRefNotMigrated(context.repository)) {
-              continue;
+      blobIdWalker.walk(resumePartitions(partitions, checkpoint), parallelism, blobId -> {
+            try {
+              Optional<Context> optionalContext = buildContext(blobStore, blobId);
+              if (optionalContext.isPresent()) {
+                Context context = optionalContext.get();
+
+                if (isAssetBlobRefNotMigrated(context.repository)) {
+                  return;
+                }
+
+                if (restore && context.restoreBlobStrategy != null && !context.blobAttributes.isDeleted()) {
+                  context.restoreBlobStrategy.restore(context.properties, context.blob, context.blobStore, dryRun);
+                }
+                if (undelete &&
+                    blobStore.undelete(blobStoreUsageChecker, context.blobId, context.blobAttributes, dryRun)) {
+                  checkpoint.blobUndeleted();
+                }
+
+                if (updateAssets) {
+                  checkpoint.getTouchedRepositories().add(context.repositoryName);
+                }
+              }
             }
-
-            if (restore && context.restoreBlobStrategy != null && !context.blobAttributes.isDeleted()) {
-              context.restoreBlobStrategy.restore(context.properties, context.blob, context.blobStore, dryRun);
+            catch (Exception e) {
+              log.error("Error restoring blob {}", blobId, e);
             }
-            if (undelete &&
-                blobStore.undelete(blobStoreUsageChecker, context.blobId, context.blobAttributes, dryRun)) {
-              undeleted++;
+          },
+          this::isCanceled,
+          visited -> {
+            long processed = checkpoint.getProcessed();
+            progressLogger.info("{}Elapsed time: {}, processed: {}, un-deleted: {}", logPrefix,
+                progressLogger.getElapsed(), processed, checkpoint.getUndeleted());
+            if (processed - lastSaved.get() >= checkpointInterval) {
+              lastSaved.set(processed);
+              saveCheckpoint(checkpointKey, checkpoint);
+              updateProgress(taskResultStateStore, describeRestoreProgress(checkpoint, expected,
+                  processed - resumedAt, stopwatch.elapsed(MILLISECONDS)));
             }
+          });
 
-            if (updateAssets) {
-              touchedRepositories.add(context.repository);
-            }
-          }
+      if (isCanceled()) {
+        log.info("Restore metadata task for {} was canceled", getConfiguration().getString(BLOB_STORE_NAME_FIELD_ID));
+        saveCheckpoint(checkpointKey, checkpoint);
+        return;
+      }
 
-          processed++;
+      checkpoint.setRestoreComplete(true);
+      saveCheckpoint(checkpointKey, checkpoint);
+      updateAssets(checkpoint.getTouchedRepositories(), updateAssets);
+    }
+  }
 
-          progressLogger
-              .info("{}Elapsed time: {}, processed: {}, un-deleted: {}", logPrefix, progressLogger.getElapsed(),
-                  processed, undeleted);
+  /**
+   * Skips the partitions the checkpoint has completed, recording the progress of the walk through the others in the
+   * checkpoint. Nothing finer than a completed partition is resumed: a listing of a live blob store need not return
+   * the same blobs in the same order twice, and with {@code sinceDays} the only partition moves with the clock.
+   */
+  private List<Supplier<Stream<BlobId>>> resumePartitions(
+      final Map<String, Supplier<Stream<BlobId>>> partitions,
+      final RestoreMetadataCheckpoint checkpoint)
+  {
+    List<Supplier<Stream<BlobId>>> remaining = new ArrayList<>();
+    partitions.forEach((partition, blobIds) -> {
+      if (!checkpoint.isPartitionComplete(partition)) {
+        remaining.add(() -> trackPartition(partition, blobIds.get(), checkpoint));
+      }
+    });
+    return remaining;
+  }
+
+  private static Stream<BlobId> trackPartition(
+      final String partition,
+      final Stream<BlobId> blobIds,
+      final RestoreMetadataCheckpoint checkpoint)
+  {
+    Iterator<BlobId> iterator = blobIds.iterator();
+    Iterator<BlobId> tracked = new AbstractIterator<BlobId>()
+    {
+      private boolean started;
+
+      @Override
+      protected BlobId computeNext() {
+        if (started) {
+          checkpoint.blobProcessed(partition);
         }
-        catch (Exception e) {
-          log.error("Error restoring blob {}", blobId, e);
+        if (!iterator.hasNext()) {
+          checkpoint.partitionComplete(partition);
+          return endOfData();
         }
+        started = true;
+        return iterator.next();
       }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(tracked, ORDERED), false).onClose(blobIds::close);
+  }
+
+  private long expectedBlobCount(final BlobStore blobStore) {
+    try {
+      return blobStore.getMetrics().getBlobCount();
+    }
+    catch (Exception e) {
+      log.debug("Unable to get the blob count of the blob store, remaining work will not be estimated", e);
+      return -1;
+    }
+  }
 
-      updateAssets(touchedRepositories, updateAssets);
+  private static String describeRestoreProgress(
+      final RestoreMetadataCheckpoint checkpoint,
+      final long expected,
+      final long processedThisRun,
+      final long elapsedMillis)
+  {
+    long processed = checkpoint.getProcessed();
+    StringBuilder progress = new StringBuilder("Processed ").append(processed);
+    if (expected > processed) {
+      long remaining = expected - processed;
+      progress.append(" of about ").append(expected).append(" blobs (").append(100 * processed / expected)
+          .append("%)");
+      if (processedThisRun > 0) {
+        progress.append(", about ")
+            .append(formatDurationWords(elapsedMillis * remaining / processedThisRun, true, true))
+            .append(" left");
+      }
+    }
+    else {
+      progress.append(" blobs");
     }
+    return progress.append(", ").append(checkpoint.getCompletedPartitions().size()).append(" of ")
+        .append(checkpoint.getPartitions()).append(" partitions complete, ").append(checkpoint.getUndeleted())
+        .append(" un-deleted").toString();
   }
 
   private boolean isAssetBlobRefNotMigrated(final Repository repository) {
@@ -253,20 +433,24 @@ public class RestoreMetadataTask
     }
   }
 
-  private Iterable<BlobId> getBlobIdStream(final BlobStore store, final Integer sinceDays) {
+  private Map<String, Supplier<Stream<BlobId>>> getBlobIdPartitions(final BlobStore store, final Integer sinceDays) {
     if (isNull(sinceDays) || sinceDays < 0) {
       log.info("Will process all blobs");
-      return store.getBlobIdStream()::iterator;
+      return store.getBlobIdStreamPartitions();
     }
-    return store.getBlobIdUpdatedSinceStream(sinceDays)::iterator;
+    return Collections.singletonMap("", () -> store.getBlobIdUpdatedSinceStream(sinceDays));
   }
 
-  private void updateAssets(final Set<Repository> repositories, final boolean updateAssets) {
-    for (Repository repository : repositories) {
+  private void updateAssets(final Set<String> repositoryNames, final boolean updateAssets) {
+    for (String repositoryName : repositoryNames) {
       if (isCanceled()) {
         break;
       }
 
+      Repository repository = repositoryManager.get(repositoryName);
+      if (repository == null) {
+        continue;
+      }
       ofNullable(restoreBlobStrategies.get(repository.getFormat().getValue()))
           .ifPresent(strategy -> strategy.after(updateAssets, repository));
     }
@@ -276,7 +460,9 @@ public class RestoreMetadataTask
       final boolean integrityCheck,
       final String blobStoreId,
       final boolean dryRun,
-      final int sinceDays)
+      final int sinceDays,
+      final String checkpointKey,
+      final RestoreMetadataCheckpoint checkpoint)
   {
     if (!integrityCheck) {
       log.warn("Integrity check operation not selected");
@@ -295,16 +481,32 @@ public class RestoreMetadataTask
     List<Repository> syncList = Collections.synchronizedList(StreamSupport.stream(repositories.spliterator(), false)
         .collect(Collectors.toList()));
 
-    syncList.stream()
+    List<Repository> toCheck = syncList.stream()
         .filter(Objects::nonNull)
         .filter(repository -> !(repository.getType() instanceof GroupType))
         .filter(Repository::isStarted)
-        .forEach(repository ->
-            integrityCheckStrategies
-                .getOrDefault(repository.getFormat().getValue(), defaultIntegrityCheckStrategy)
-                .check(repository, blobStore, this::isCanceled, sinceDays,
-                    a -> this.integrityCheckFailedHandler(repository, a, dryRun))
-        );
+        .collect(Collectors.toList());
+
+    for (Repository repository : toCheck) {
+      if (checkpoint.getCheckedRepositories().contains(repository.getName())) {
+        log.info("Integrity of repository '{}' was already checked by an earlier run", repository.getName());
+        continue;
+      }
+
+      integrityCheckStrategies
+          .getOrDefault(repository.getFormat().getValue(), defaultIntegrityCheckStrategy)
+          .check(repository, blobStore, this::isCanceled, sinceDays,
+              a -> this.integrityCheckFailedHandler(repository, a, dryRun));
+
+      if (isCanceled()) {
+        saveCheckpoint(checkpointKey, checkpoint);
+        return;
+      }
+      checkpoint.getCheckedRepositories().add(repository.getName());
+      saveCheckpoint(checkpointKey, checkpoint);
+      updateProgress(taskResultStateStore, format("Integrity check: %d of %d repositories checked",
+          checkpoint.getCheckedRepositories().size(), toCheck.size()));
+    }
   }
 
   protected void integrityCheckFailedHandler(final Repository repository, final Asset asset, final boolean isDryRun) {
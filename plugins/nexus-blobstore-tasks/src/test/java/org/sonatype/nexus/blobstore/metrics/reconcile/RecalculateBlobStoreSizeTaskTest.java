@@ -20,6 +20,7 @@ import java.util.stream.Stream;
 import org.sonatype.goodies.common.MultipleFailures.MultipleFailuresException;
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.nexus.blobstore.BlobAttributesSupport;
+import org.sonatype.nexus.blobstore.ParallelBlobIdWalker;
 import org.sonatype.nexus.blobstore.api.BlobId;
 import org.sonatype.nexus.blobstore.api.BlobMetrics;
 import org.sonatype.nexus.blobstore.api.BlobStore;
@@ -59,7 +60,7 @@ public class RecalculateBlobStoreSizeTaskTest
 
   @Before
   public void setUp() {
-    underTest = spy(new RecalculateBlobStoreSizeTask(blobStoreManager));
+    underTest = spy(new RecalculateBlobStoreSizeTask(blobStoreManager, new ParallelBlobIdWalker(0)));
   }
 
   @Test
@@ -128,6 +129,7 @@ public class RecalculateBlobStoreSizeTaskTest
     when(configuration.getType()).thenReturn(FileBlobStore.TYPE);
     when(blobStore.getBlobStoreConfiguration()).thenReturn(configuration);
     when(blobStore.getMetricsService()).thenReturn(metricsService);
+    when(blobStore.getBlobIdStreamPartitions()).thenCallRealMethod();
 
     if (throwException) {
       when(blobStore.getBlobIdStream()).thenThrow(new IllegalStateException("unavailable blobstore"));
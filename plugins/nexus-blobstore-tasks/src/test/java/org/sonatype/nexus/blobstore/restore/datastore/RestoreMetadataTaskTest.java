@@ -19,12 +19,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.stream.Stream;
 
 import org.sonatype.nexus.repository.move.ChangeRepositoryBlobStoreConfiguration;
 import org.sonatype.nexus.repository.move.ChangeRepositoryBlobStoreStore;
 import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.blobstore.ParallelBlobIdWalker;
 import org.sonatype.nexus.blobstore.api.Blob;
 import org.sonatype.nexus.blobstore.api.BlobAttributes;
 import org.sonatype.nexus.blobstore.api.BlobId;
@@ -37,21 +39,31 @@ import org.sonatype.nexus.blobstore.restore.RestoreBlobStrategy;
 import org.sonatype.nexus.common.log.DryRunPrefix;
 import org.sonatype.nexus.repository.Format;
 import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.content.kv.global.GlobalKeyValueStore;
+import org.sonatype.nexus.repository.content.kv.global.NexusKeyValue;
+import org.sonatype.nexus.repository.content.kv.global.ValueType;
 import org.sonatype.nexus.repository.content.maintenance.MaintenanceService;
 import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.types.GroupType;
 import org.sonatype.nexus.scheduling.TaskConfiguration;
+import org.sonatype.nexus.scheduling.TaskInfo;
 import org.sonatype.nexus.scheduling.TaskUtils;
+import org.sonatype.nexus.scheduling.spi.TaskResultStateStore;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
@@ -76,6 +88,8 @@ public class RestoreMetadataTaskTest
 {
   public static final String BLOBSTORE_NAME = "test";
 
+  private static final String CHECKPOINT_KEY = "blobstore.restore.test.checkpoint";
+
   public static final String MAVEN_2 = "maven2";
 
   @Mock
@@ -123,6 +137,15 @@ public class RestoreMetadataTaskTest
   @Mock
   TaskUtils taskUtils;
 
+  @Mock
+  GlobalKeyValueStore globalKeyValueStore;
+
+  @Mock
+  TaskResultStateStore taskResultStateStore;
+
+  @Mock
+  TaskInfo taskInfo;
+
   RestoreMetadataTask underTest;
 
   Map<String, IntegrityCheckStrategy> integrityCheckStrategies;
@@ -143,7 +166,7 @@ public class RestoreMetadataTaskTest
         new RestoreMetadataTask(blobStoreManager, changeBlobstoreStore, repositoryManager,
             ImmutableMap.of(MAVEN_2, restoreBlobStrategy),
             blobstoreUsageChecker, dryRunPrefix, integrityCheckStrategies, maintenanceService, assetBlobRefFormatCheck,
-            taskUtils);
+            taskUtils, new ParallelBlobIdWalker(0), 1, globalKeyValueStore, taskResultStateStore, 1000);
 
     reset(integrityCheckStrategies); // reset this mock so we more easily verify calls
 
@@ -153,7 +176,11 @@ public class RestoreMetadataTaskTest
     configuration.setId(BLOBSTORE_NAME);
     configuration.setTypeId(TYPE_ID);
 
+    when(taskInfo.getConfiguration()).thenReturn(configuration);
+    underTest.setTaskInfo(taskInfo);
+
     when(repositoryManager.get("maven-central")).thenReturn(repository);
+    when(repository.getName()).thenReturn("maven-central");
     when(repository.isStarted()).thenReturn(true);
     when(repository.getFormat()).thenReturn(mavenFormat);
     when(mavenFormat.getValue()).thenReturn(MAVEN_2);
@@ -164,6 +191,7 @@ public class RestoreMetadataTaskTest
     blobAttributes.load();
     blobId = new BlobId("86e20baa-0bca-4915-a7dc-9a4f34e72321");
     when(blobStore.getBlobIdStream()).thenReturn(Stream.of(blobId));
+    when(blobStore.getBlobIdStreamPartitions()).thenCallRealMethod();
     when(blobStore.getBlobIdUpdatedSinceStream(anyInt())).thenReturn(Stream.of(blobId));
     when(blobStoreManager.get(BLOBSTORE_NAME)).thenReturn(blobStore);
 
@@ -506,7 +534,7 @@ public class RestoreMetadataTaskTest
         new RestoreMetadataTask(blobStoreManager, changeBlobstoreStore, repositoryManager,
             ImmutableMap.of(MAVEN_2, restoreBlobStrategy),
             blobstoreUsageChecker, dryRunPrefix, integrityCheckStrategies, maintenanceService, assetBlobRefFormatCheck,
-            taskUtils)
+            taskUtils, new ParallelBlobIdWalker(0), 1, globalKeyValueStore, taskResultStateStore, 1000)
         {
           @Override
           public boolean isCanceled() {
@@ -651,4 +679,184 @@ public class RestoreMetadataTaskTest
     verify(blobStore).getBlobIdUpdatedSinceStream(2);
     verify(blobStore, never()).getBlobIdStream();
   }
+
+  @Test
+  public void checkpointIsSavedAndRemovedOnceTheTaskCompletes() throws Exception {
+    configuration.setBoolean(RESTORE_BLOBS, true);
+    configuration.setBoolean(INTEGRITY_CHECK, false);
+    underTest.configure(configuration);
+
+    underTest.execute();
+
+    ArgumentCaptor<NexusKeyValue> checkpoint = ArgumentCaptor.forClass(NexusKeyValue.class);
+    verify(globalKeyValueStore).setKey(checkpoint.capture());
+    RestoreMetadataCheckpoint saved = checkpoint.getValue().getAsObject(new ObjectMapper(),
+        RestoreMetadataCheckpoint.class);
+    assertThat(saved.isRestoreComplete(), is(true));
+    assertThat(saved.getProcessed(), is(1L));
+    assertThat(saved.getCompletedPartitions(), contains(""));
+    verify(globalKeyValueStore).removeKey(CHECKPOINT_KEY);
+  }
+
+  @Test
+  public void canceledTaskKeepsItsCheckpoint() throws Exception {
+    configuration.setBoolean(RESTORE_BLOBS, true);
+    configuration.setBoolean(INTEGRITY_CHECK, false);
+    RestoreMetadataTask underTest =
+        new RestoreMetadataTask(blobStoreManager, changeBlobstoreStore, repositoryManager,
+            ImmutableMap.of(MAVEN_2, restoreBlobStrategy),
+            blobstoreUsageChecker, dryRunPrefix, integrityCheckStrategies, maintenanceService, assetBlobRefFormatCheck,
+            taskUtils, new ParallelBlobIdWalker(0), 1, globalKeyValueStore, taskResultStateStore, 1000)
+        {
+          @Override
+          public boolean isCanceled() {
+            return true;
+          }
+        };
+    underTest.configure(configuration);
+
+    underTest.execute();
+
+    verify(globalKeyValueStore).setKey(any(NexusKeyValue.class));
+    verify(globalKeyValueStore, never()).removeKey(anyString());
+  }
+
+  @Test
+  public void restoreSkipsCompletedPartitionsAndWalksOthersFromTheirStart() throws Exception {
+    BlobId blobId2 = new BlobId("86e20baa-0bca-4915-a7dc-9a4f34e72322");
+    BlobId blobId3 = new BlobId("86e20baa-0bca-4915-a7dc-9a4f34e72323");
+    when(blobStore.getBlobIdStreamPartitions()).thenReturn(ImmutableMap.of(
+        "vol-01/chap-01", () -> Stream.of(blobId),
+        "vol-01/chap-02", () -> Stream.of(blobId3, blobId2)));
+
+    RestoreMetadataCheckpoint checkpoint = new RestoreMetadataCheckpoint(
+        "restore=true, undelete=false, integrityCheck=false, dryRun=false, sinceDays=-1");
+    checkpoint.setPartitions(2);
+    checkpoint.getCompletedPartitions().add("vol-01/chap-01");
+    // the second partition was part way through, but its listing need not come back in the same order
+    checkpoint.setProcessedByPartition(ImmutableMap.of("vol-01/chap-02", 1L));
+    checkpoint.setProcessed(2);
+    checkpoint.getTouchedRepositories().add("maven-central");
+    givenCheckpoint(checkpoint);
+
+    configuration.setBoolean(RESTORE_BLOBS, true);
+    configuration.setBoolean(INTEGRITY_CHECK, false);
+    underTest.configure(configuration);
+
+    underTest.execute();
+
+    verify(blobStore, never()).get(blobId, true);
+    verify(blobStore).get(blobId2, true);
+    verify(blobStore).get(blobId3, true);
+    verify(restoreBlobStrategy).after(true, repository);
+
+    ArgumentCaptor<NexusKeyValue> saved = ArgumentCaptor.forClass(NexusKeyValue.class);
+    verify(globalKeyValueStore).setKey(saved.capture());
+    assertThat(saved.getValue().getAsObject(new ObjectMapper(), RestoreMetadataCheckpoint.class).getProcessed(),
+        is(3L));
+  }
+
+  @Test
+  public void restoreFollowsPartitionsWhichAppearedOrDisappearedSinceTheCheckpoint() throws Exception {
+    BlobId blobId2 = new BlobId("86e20baa-0bca-4915-a7dc-9a4f34e72322");
+    BlobId blobId3 = new BlobId("86e20baa-0bca-4915-a7dc-9a4f34e72323");
+    // a chapter listed before the completed one has appeared, and another completed chapter has gone
+    when(blobStore.getBlobIdStreamPartitions()).thenReturn(ImmutableMap.of(
+        "vol-01/chap-01", () -> Stream.of(blobId2),
+        "vol-01/chap-02", () -> Stream.of(blobId),
+        "vol-01/chap-04", () -> Stream.of(blobId3)));
+
+    RestoreMetadataCheckpoint checkpoint = new RestoreMetadataCheckpoint(
+        "restore=true, undelete=false, integrityCheck=false, dryRun=false, sinceDays=-1");
+    checkpoint.setPartitions(3);
+    checkpoint.setCompletedPartitions(ImmutableSet.of("vol-01/chap-02", "vol-01/chap-03"));
+    checkpoint.setProcessed(2);
+    givenCheckpoint(checkpoint);
+
+    configuration.setBoolean(RESTORE_BLOBS, true);
+    configuration.setBoolean(INTEGRITY_CHECK, false);
+    underTest.configure(configuration);
+
+    underTest.execute();
+
+    verify(blobStore, never()).get(blobId, true);
+    verify(blobStore).get(blobId2, true);
+    verify(blobStore).get(blobId3, true);
+
+    ArgumentCaptor<NexusKeyValue> saved = ArgumentCaptor.forClass(NexusKeyValue.class);
+    verify(globalKeyValueStore).setKey(saved.capture());
+    RestoreMetadataCheckpoint resumed =
+        saved.getValue().getAsObject(new ObjectMapper(), RestoreMetadataCheckpoint.class);
+    assertThat(resumed.getCompletedPartitions(),
+        containsInAnyOrder("vol-01/chap-01", "vol-01/chap-02", "vol-01/chap-04"));
+    assertThat(resumed.getProcessed(), is(4L));
+  }
+
+  @Test
+  public void restoreSinceDaysWalksTheWholeWindowAgain() throws Exception {
+    BlobId blobId2 = new BlobId("86e20baa-0bca-4915-a7dc-9a4f34e72322");
+    when(blobStore.getBlobIdUpdatedSinceStream(2)).thenReturn(Stream.of(blobId, blobId2));
+
+    RestoreMetadataCheckpoint checkpoint = new RestoreMetadataCheckpoint(
+        "restore=true, undelete=false, integrityCheck=false, dryRun=false, sinceDays=2");
+    checkpoint.setPartitions(1);
+    checkpoint.setProcessedByPartition(ImmutableMap.of("", 1L));
+    checkpoint.setProcessed(1);
+    givenCheckpoint(checkpoint);
+
+    configuration.setBoolean(RESTORE_BLOBS, true);
+    configuration.setBoolean(INTEGRITY_CHECK, false);
+    configuration.setInteger(SINCE_DAYS, 2);
+    underTest.configure(configuration);
+
+    underTest.execute();
+
+    verify(blobStore).get(blobId, true);
+    verify(blobStore).get(blobId2, true);
+  }
+
+  @Test
+  public void checkpointWithOtherSettingsIsIgnored() throws Exception {
+    RestoreMetadataCheckpoint checkpoint = new RestoreMetadataCheckpoint(
+        "restore=true, undelete=true, integrityCheck=false, dryRun=false, sinceDays=-1");
+    checkpoint.setPartitions(1);
+    checkpoint.getCompletedPartitions().add("");
+    givenCheckpoint(checkpoint);
+
+    configuration.setBoolean(RESTORE_BLOBS, true);
+    configuration.setBoolean(INTEGRITY_CHECK, false);
+    underTest.configure(configuration);
+
+    underTest.execute();
+
+    verify(restoreBlobStrategy).restore(any(Properties.class), eq(blob), eq(blobStore), eq(false));
+  }
+
+  @Test
+  public void integrityCheckSkipsRepositoriesCheckedBeforeTheCheckpoint() throws Exception {
+    Repository repository2 = mock(Repository.class);
+    when(repository2.getName()).thenReturn("maven-central2");
+    when(repository2.isStarted()).thenReturn(true);
+    when(repository2.getFormat()).thenReturn(mavenFormat);
+    when(repositoryManager.browseForBlobStore(BLOBSTORE_NAME)).thenReturn(asList(repository, repository2));
+
+    RestoreMetadataCheckpoint checkpoint = new RestoreMetadataCheckpoint(
+        "restore=false, undelete=false, integrityCheck=true, dryRun=false, sinceDays=-1");
+    checkpoint.getCheckedRepositories().add("maven-central");
+    givenCheckpoint(checkpoint);
+
+    configuration.setBoolean(INTEGRITY_CHECK, true);
+    underTest.configure(configuration);
+
+    underTest.execute();
+
+    verify(testIntegrityCheckStrategy, never()).check(eq(repository), any(), any(), anyInt(), any());
+    verify(testIntegrityCheckStrategy).check(eq(repository2), eq(blobStore), any(), anyInt(), any());
+    assertThat(configuration.getProgress(), is("Integrity check: 2 of 2 repositories checked"));
+  }
+
+  private void givenCheckpoint(final RestoreMetadataCheckpoint checkpoint) {
+    when(globalKeyValueStore.getKey(CHECKPOINT_KEY)).thenReturn(Optional.of(new NexusKeyValue(CHECKPOINT_KEY,
+        ValueType.OBJECT, new ObjectMapper().convertValue(checkpoint, Map.class))));
+  }
 }
@@ -42,4 +42,25 @@ class RepositoryStatusXO
    * A reason for the status.
    */
   String reason
+
+  /**
+   * Status snapshot version at which this status last changed.
+   *
+   * @since 3.71
+   */
+  long version
+
+  /**
+   * Status snapshot epoch the version belongs to.
+   *
+   * @since 3.71
+   */
+  String epoch
+
+  /**
+   * Whether the repository has been deleted.
+   *
+   * @since 3.71
+   */
+  boolean removed
 }
@@ -0,0 +1,334 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.coreui.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.goodies.common.Time;
+import org.sonatype.nexus.common.event.EventAware;
+import org.sonatype.nexus.common.stateguard.InvalidStateException;
+import org.sonatype.nexus.common.time.Clock;
+import org.sonatype.nexus.coreui.RepositoryStatusXO;
+import org.sonatype.nexus.distributed.event.service.api.common.RepositoryRemoteConnectionStatusEvent;
+import org.sonatype.nexus.repository.MissingFacetException;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.config.Configuration;
+import org.sonatype.nexus.repository.RepositoryStartedEvent;
+import org.sonatype.nexus.repository.httpclient.HttpClientFacet;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatus;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusEvent;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType;
+import org.sonatype.nexus.repository.manager.RepositoryCreatedEvent;
+import org.sonatype.nexus.repository.manager.RepositoryDeletedEvent;
+import org.sonatype.nexus.repository.manager.RepositoryLoadedEvent;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.repository.manager.RepositoryRestoredEvent;
+import org.sonatype.nexus.repository.manager.RepositoryUpdatedEvent;
+import org.sonatype.nexus.repository.types.ProxyType;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * In-memory snapshot of the status of every repository, kept up to date from repository lifecycle and
+ * {@link RemoteConnectionStatusEvent}s, including those of other nodes, so status polls do not have to visit each
+ * repository.
+ *
+ * Every change is stamped with an increasing version, letting pollers ask only for what changed since their last
+ * poll. Versions only mean something within the epoch they were issued in, which is unique to this instance, so a
+ * poller carrying an epoch from before a restart or from another node is sent everything again. Deleted repositories
+ * leave a tombstone behind so pollers learn of the deletion; tombstones are evicted once they have been kept for the
+ * retention period, and a poller still carrying a version from before an evicted tombstone is sent everything again.
+ * The snapshot is filled on first use.
+ *
+ * @since 3.71
+ */
+@Named
+@Singleton
+public class RepositoryStatusSnapshot
+    extends ComponentSupport
+    implements EventAware
+{
+  private final RepositoryManager repositoryManager;
+
+  private final Clock clock;
+
+  private final long tombstoneRetentionMillis;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private final String epoch = UUID.randomUUID().toString();
+
+  private long version;
+
+  /**
+   * Version of the newest evicted tombstone; pollers carrying an older version may have missed a deletion.
+   */
+  private long evictedVersion;
+
+  private volatile boolean loaded;
+
+  @Inject
+  public RepositoryStatusSnapshot(
+      final RepositoryManager repositoryManager,
+      final Clock clock,
+      @Named("${nexus.coreui.repositoryStatus.tombstoneRetention:-10m}") final Time tombstoneRetention)
+  {
+    this.repositoryManager = checkNotNull(repositoryManager);
+    this.clock = checkNotNull(clock);
+    this.tombstoneRetentionMillis = checkNotNull(tombstoneRetention).toMillis();
+  }
+
+  /**
+   * The status of the named repository, if it is loaded.
+   */
+  public Optional<RepositoryStatusXO> get(final String repositoryName) {
+    ensureLoaded();
+    return Optional.ofNullable(entries.get(repositoryName)).filter(entry -> !entry.removed).map(this::toXO);
+  }
+
+  /**
+   * The status of every repository which changed after the given version, including tombstones for repositories
+   * deleted since then. A version from another epoch, or one ahead of the snapshot, returns every repository.
+   */
+  public List<RepositoryStatusXO> changedSince(@Nullable final String sinceEpoch, final long since) {
+    ensureLoaded();
+    synchronized (this) {
+      evictTombstones();
+      long from = epoch.equals(sinceEpoch) && since >= evictedVersion && since <= version ? since : 0;
+      return entries.values().stream()
+          .filter(entry -> entry.version > from && !(from == 0 && entry.removed))
+          .map(this::toXO)
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * The configuration the named repository had when it was deleted, if the snapshot holds a tombstone for it, so
+   * permission to see the deletion can still be checked.
+   */
+  @Nullable
+  Configuration removedConfiguration(final String repositoryName) {
+    Entry entry = entries.get(repositoryName);
+    return entry != null ? entry.removedConfiguration : null;
+  }
+
+  @VisibleForTesting
+  String epoch() {
+    return epoch;
+  }
+
+  @VisibleForTesting
+  synchronized long currentVersion() {
+    return version;
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RepositoryCreatedEvent event) {
+    refresh(event.getRepository());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RepositoryLoadedEvent event) {
+    refresh(event.getRepository());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RepositoryRestoredEvent event) {
+    refresh(event.getRepository());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RepositoryStartedEvent event) {
+    refresh(event.getRepository());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RepositoryUpdatedEvent event) {
+    refresh(event.getRepository());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RepositoryDeletedEvent event) {
+    remove(event.getRepository());
+  }
+
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RemoteConnectionStatusEvent event) {
+    Repository repository = event.getRepository();
+    update(repository.getName(), repository.getConfiguration().isOnline(), event.getStatus());
+  }
+
+  /**
+   * Statuses distributed by other nodes are set on the repository without a {@link RemoteConnectionStatusEvent}.
+   */
+  @Subscribe
+  @AllowConcurrentEvents
+  public void on(final RepositoryRemoteConnectionStatusEvent event) {
+    if (event.isLocal()) {
+      return;
+    }
+    Repository repository = repositoryManager.get(event.getRepositoryName());
+    if (repository != null) {
+      RemoteConnectionStatusType type =
+          RemoteConnectionStatusType.values()[event.getRemoteConnectionStatusTypeOrdinal()];
+      update(repository.getName(), repository.getConfiguration().isOnline(),
+          new RemoteConnectionStatus(type, event.getReason()));
+    }
+  }
+
+  private void ensureLoaded() {
+    if (!loaded) {
+      synchronized (this) {
+        if (!loaded) {
+          repositoryManager.browse().forEach(this::refresh);
+          loaded = true;
+        }
+      }
+    }
+  }
+
+  private void refresh(final Repository repository) {
+    update(repository.getName(), repository.getConfiguration().isOnline(), remoteStatus(repository));
+  }
+
+  private synchronized void update(
+      final String repositoryName,
+      final boolean online,
+      @Nullable final RemoteConnectionStatus remoteStatus)
+  {
+    Entry entry = new Entry(repositoryName, online, remoteStatus, version + 1, null, 0);
+    if (!entry.sameStatus(entries.get(repositoryName))) {
+      entries.put(repositoryName, entry);
+      version++;
+    }
+  }
+
+  private synchronized void remove(final Repository repository) {
+    // keep a tombstone rather than dropping the entry, otherwise pollers would never hear of the deletion
+    String repositoryName = repository.getName();
+    if (entries.containsKey(repositoryName)) {
+      version++;
+      entries.put(repositoryName,
+          new Entry(repositoryName, false, null, version, repository.getConfiguration(), clock.millis()));
+    }
+    evictTombstones();
+  }
+
+  private synchronized void evictTombstones() {
+    long cutoff = clock.millis() - tombstoneRetentionMillis;
+    entries.values().removeIf(entry -> {
+      if (entry.removed && entry.removedAt < cutoff) {
+        evictedVersion = Math.max(evictedVersion, entry.version);
+        return true;
+      }
+      return false;
+    });
+  }
+
+  private RepositoryStatusXO toXO(final Entry entry) {
+    RepositoryStatusXO statusXO = entry.toXO();
+    statusXO.setEpoch(epoch);
+    return statusXO;
+  }
+
+  @Nullable
+  private static RemoteConnectionStatus remoteStatus(final Repository repository) {
+    if (repository.getType() instanceof ProxyType) {
+      try {
+        return repository.facet(HttpClientFacet.class).getStatus();
+      }
+      catch (MissingFacetException | InvalidStateException e) { // NOSONAR
+        // no http client facet, or not started yet and a started event will follow
+      }
+    }
+    return null;
+  }
+
+  private static class Entry
+  {
+    final String repositoryName;
+
+    final boolean online;
+
+    final String description;
+
+    final String reason;
+
+    final long version;
+
+    final boolean removed;
+
+    final Configuration removedConfiguration;
+
+    final long removedAt;
+
+    Entry(
+        final String repositoryName,
+        final boolean online,
+        @Nullable final RemoteConnectionStatus remoteStatus,
+        final long version,
+        @Nullable final Configuration removedConfiguration,
+        final long removedAt)
+    {
+      this.repositoryName = repositoryName;
+      this.online = online;
+      this.description = remoteStatus != null ? remoteStatus.getDescription() : null;
+      this.reason = remoteStatus != null ? remoteStatus.getReason() : null;
+      this.version = version;
+      this.removed = removedConfiguration != null;
+      this.removedConfiguration = removedConfiguration;
+      this.removedAt = removedAt;
+    }
+
+    boolean sameStatus(@Nullable final Entry other) {
+      return other != null && !other.removed && online == other.online && Objects.equals(description, other.description) &&
+          Objects.equals(reason, other.reason);
+    }
+
+    RepositoryStatusXO toXO() {
+      RepositoryStatusXO statusXO = new RepositoryStatusXO();
+      statusXO.setRepositoryName(repositoryName);
+      statusXO.setOnline(online);
+      statusXO.setDescription(description);
+      if (reason != null) {
+        statusXO.setReason(reason);
+      }
+      statusXO.setVersion(version);
+      statusXO.setRemoved(removed);
+      return statusXO;
+    }
+  }
+}
@@ -55,8 +55,6 @@ import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.cache.RepositoryCacheInvalidationService;
 import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.config.ConfigurationStore;
-import org.sonatype.nexus.repository.httpclient.HttpClientFacet;
-import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatus;
 import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.rest.api.RepositoryMetricsService;
 import org.sonatype.nexus.repository.search.index.RebuildIndexTask;
@@ -64,7 +62,6 @@ import org.sonatype.nexus.repository.search.index.RebuildIndexTaskDescriptor;
 import org.sonatype.nexus.repository.security.RepositoryAdminPermission;
 import org.sonatype.nexus.repository.security.RepositoryPermissionChecker;
 import org.sonatype.nexus.repository.security.RepositorySelector;
-import org.sonatype.nexus.repository.types.ProxyType;
 import org.sonatype.nexus.scheduling.TaskConfiguration;
 import org.sonatype.nexus.scheduling.TaskInfo;
 import org.sonatype.nexus.scheduling.TaskScheduler;
@@ -77,6 +74,7 @@ import org.sonatype.nexus.validation.group.Update;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.shiro.authz.annotation.RequiresAuthentication;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -108,6 +106,8 @@ public class RepositoryUiService
 
   private final RepositoryPermissionChecker repositoryPermissionChecker;
 
+  private final RepositoryStatusSnapshot statusSnapshot;
+
   @Inject
   public RepositoryUiService(
       final RepositoryCacheInvalidationService repositoryCacheInvalidationService,
@@ -119,7 +119,8 @@ public class RepositoryUiService
       final TaskScheduler taskScheduler,
       final GlobalComponentLookupHelper typeLookup,
       final List<Format> formats,
-      final RepositoryPermissionChecker repositoryPermissionChecker)
+      final RepositoryPermissionChecker repositoryPermissionChecker,
+      final RepositoryStatusSnapshot statusSnapshot)
   {
     this.repositoryCacheInvalidationService = checkNotNull(repositoryCacheInvalidationService);
     this.repositoryManager = checkNotNull(repositoryManager);
@@ -131,6 +132,7 @@ public class RepositoryUiService
     this.typeLookup = checkNotNull(typeLookup);
     this.formats = checkNotNull(formats);
     this.repositoryPermissionChecker = checkNotNull(repositoryPermissionChecker);
+    this.statusSnapshot = checkNotNull(statusSnapshot);
   }
 
   public List<RepositoryXO> read() {
@@ -186,7 +188,7 @@ public class RepositoryUiService
     List<RepositoryReferenceXO> references = StreamSupport.stream(filter(parameters).spliterator(), false)
         .map(repository -> new RepositoryReferenceXO(repository.getRepositoryName(), repository.getRepositoryName(),
             getType(repository), getFormat(repository), getVersionPolicy(repository),
-            getUrl(repository.getRepositoryName()), buildStatus(repository)))
+            getUrl(repository.getRepositoryName()), buildStatus(repository.getRepositoryName(), repository.isOnline())))
         .collect(Collectors.toList());
     references = filterForAutocomplete(parameters, references);
     return references;
@@ -340,7 +342,7 @@ public class RepositoryUiService
     xo.setFormat(input.getFormat().getValue());
     xo.setOnline(input.getConfiguration().isOnline());
     xo.setRecipe(input.getConfiguration().getRecipeName());
-    xo.setStatus(buildStatus(input));
+    xo.setStatus(buildStatus(input.getName(), input.getConfiguration().isOnline()));
 
     String routingRuleId = Optional.of(input)
         .map(Repository::getConfiguration)
@@ -364,7 +366,7 @@ public class RepositoryUiService
     xo.setSize(getSize(input));
     xo.setOnline(input.isOnline());
     xo.setRecipe(input.getRecipeName());
-    xo.setStatus(buildStatus(input));
+    xo.setStatus(buildStatus(input.getRepositoryName(), input.isOnline()));
 
     String routingRuleId = Optional.of(input)
         .map(Configuration::getRoutingRuleId)
@@ -392,60 +394,45 @@ public class RepositoryUiService
     return attributes;
   }
 
+  /**
+   * Statuses of the repositories the user can read which changed after the {@code since} version of the
+   * {@code epoch} given in the parameters; all of them when there is none.
+   */
   @RequiresAuthentication
   public List<RepositoryStatusXO> readStatus(final Map<String, String> params) {
-    return StreamSupport.stream(browse().spliterator(), true)
-        .map(this::buildStatus)
-        .collect(Collectors.toList());
-  }
-
-  private RepositoryStatusXO buildStatus(final Repository repository) {
-    RepositoryStatusXO statusXO = new RepositoryStatusXO();
-    statusXO.setRepositoryName(repository.getName());
-    statusXO.setOnline(repository.getConfiguration().isOnline());
-
-    // TODO - should we try to aggregate status from group members?
-    if (repository.getType() instanceof ProxyType) {
-      try {
-        RemoteConnectionStatus remoteStatus = repository.facet(HttpClientFacet.class).getStatus();
-        statusXO.setDescription(remoteStatus.getDescription());
-        if (remoteStatus.getReason() != null) {
-          statusXO.setReason(remoteStatus.getReason());
-        }
-      }
-      catch (MissingFacetException e) {
-        // no http client facet (usually on proxies), no remote status
-      }
+    long since = params != null ? NumberUtils.toLong(params.get("since"), 0) : 0;
+    String epoch = params != null ? params.get("epoch") : null;
+    List<RepositoryStatusXO> changed = statusSnapshot.changedSince(epoch, since);
+    if (changed.isEmpty()) {
+      return changed;
     }
-    return statusXO;
-  }
 
-  private RepositoryStatusXO buildStatus(final Configuration configuration) {
-    RepositoryStatusXO statusXO = new RepositoryStatusXO();
-    statusXO.setRepositoryName(configuration.getRepositoryName());
-    statusXO.setOnline(configuration.isOnline());
+    List<Configuration> configurations = changed.stream()
+        .map(status -> status.isRemoved()
+            ? statusSnapshot.removedConfiguration(status.getRepositoryName())
+            : Optional.ofNullable(repositoryManager.get(status.getRepositoryName()))
+                .map(Repository::getConfiguration)
+                .orElse(null))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    Set<String> permitted = repositoryPermissionChecker
+        .userHasRepositoryAdminPermissionFor(configurations, BreadActions.READ)
+        .stream()
+        .map(Configuration::getRepositoryName)
+        .collect(Collectors.toSet());
+    return changed.stream()
+        .filter(status -> permitted.contains(status.getRepositoryName()))
+        .collect(Collectors.toList());
+  }
 
-    Recipe recipe = recipes.get(configuration.getRecipeName());
-    // TODO - should we try to aggregate status from group members?
-    if (recipe.getType() instanceof ProxyType) {
-      try {
-        boolean loaded = StreamSupport.stream(repositoryManager.browse().spliterator(), false)
-            .anyMatch(repo -> configuration.getRepositoryName().equals(repo.getName()));
-        if (loaded) {
-          RemoteConnectionStatus remoteStatus = repositoryManager.get(configuration.getRepositoryName())
-              .facet(HttpClientFacet.class)
-              .getStatus();
-          statusXO.setDescription(remoteStatus.getDescription());
-          if (remoteStatus.getReason() != null) {
-            statusXO.setReason(remoteStatus.getReason());
-          }
-        }
-      }
-      catch (MissingFacetException e) {
-        // no http client facet (usually on proxies), no remote status
-      }
-    }
-    return statusXO;
+  private RepositoryStatusXO buildStatus(final String repositoryName, final boolean online) {
+    return statusSnapshot.get(repositoryName).orElseGet(() -> {
+      // not loaded, so there is no remote status to report
+      RepositoryStatusXO statusXO = new RepositoryStatusXO();
+      statusXO.setRepositoryName(repositoryName);
+      statusXO.setOnline(online);
+      return statusXO;
+    });
   }
 
   @VisibleForTesting
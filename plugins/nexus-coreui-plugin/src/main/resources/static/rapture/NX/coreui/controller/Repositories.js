@@ -452,6 +452,14 @@ Ext.define('NX.coreui.controller.Repositories', {
         data: function(provider, event) {
           if (event.data && event.data.success && event.data.data) {
             me.updateRepositoryModels(event.data.data);
+            // only ask for statuses which changed since the newest one seen, starting over when the epoch changes
+            Ext.Array.each(event.data.data, function(repositoryStatus) {
+              if (provider.baseParams.epoch !== repositoryStatus.epoch) {
+                provider.baseParams.epoch = repositoryStatus.epoch;
+                provider.baseParams.since = 0;
+              }
+              provider.baseParams.since = Math.max(provider.baseParams.since || 0, repositoryStatus.version);
+            });
           }
         },
         scope: me
@@ -488,9 +496,13 @@ Ext.define('NX.coreui.controller.Repositories', {
     var me = this;
 
     Ext.Array.each(repositoryStatuses, function(repositoryStatus) {
-      var repositoryModel = me.getStore('Repository').findRecord('name', repositoryStatus.repositoryName);
+      var repositoryStore = me.getStore('Repository'),
+          repositoryModel = repositoryStore.findRecord('name', repositoryStatus.repositoryName);
       if (repositoryModel) {
-        if (!Ext.Object.equals(repositoryModel.get('status'), repositoryStatus)) {
+        if (repositoryStatus.removed) {
+          repositoryStore.remove(repositoryModel);
+        }
+        else if (!Ext.Object.equals(repositoryModel.get('status'), repositoryStatus)) {
           repositoryModel.set('status', repositoryStatus);
           repositoryModel.commit(true);
         }
@@ -0,0 +1,228 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.coreui.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.common.Time;
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.time.Clock;
+import org.sonatype.nexus.coreui.RepositoryStatusXO;
+import org.sonatype.nexus.distributed.event.service.api.common.RepositoryRemoteConnectionStatusEvent;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.Type;
+import org.sonatype.nexus.repository.config.Configuration;
+import org.sonatype.nexus.repository.httpclient.HttpClientFacet;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatus;
+import org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusEvent;
+import org.sonatype.nexus.repository.manager.RepositoryCreatedEvent;
+import org.sonatype.nexus.repository.manager.RepositoryDeletedEvent;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.repository.manager.RepositoryUpdatedEvent;
+import org.sonatype.nexus.repository.types.HostedType;
+import org.sonatype.nexus.repository.types.ProxyType;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.AUTO_BLOCKED_UNAVAILABLE;
+import static org.sonatype.nexus.repository.httpclient.RemoteConnectionStatusType.READY;
+
+public class RepositoryStatusSnapshotTest
+    extends TestSupport
+{
+  @Mock
+  private RepositoryManager repositoryManager;
+
+  @Mock
+  private Clock clock;
+
+  private Repository hosted;
+
+  private Repository proxy;
+
+  private RepositoryStatusSnapshot underTest;
+
+  @Before
+  public void setUp() {
+    hosted = repository("hosted", new HostedType(), null);
+    proxy = repository("proxy", new ProxyType(), new RemoteConnectionStatus(READY));
+    when(repositoryManager.browse()).thenReturn(Arrays.asList(hosted, proxy));
+    when(repositoryManager.get("proxy")).thenReturn(proxy);
+    underTest = new RepositoryStatusSnapshot(repositoryManager, clock, Time.minutes(10));
+  }
+
+  @Test
+  public void loadsEveryRepositoryOnce() {
+    assertThat(names(changedSince(0)), contains("hosted", "proxy"));
+    assertThat(underTest.get("proxy").get().getDescription(), is("Ready to Connect"));
+    assertThat(underTest.get("hosted").get().getDescription(), is((String) null));
+
+    changedSince(0);
+    verify(repositoryManager, times(1)).browse();
+  }
+
+  @Test
+  public void reportsOnlyChangesSinceVersion() {
+    changedSince(0);
+    long version = underTest.currentVersion();
+
+    underTest.on(new RemoteConnectionStatusEvent(
+        new RemoteConnectionStatus(AUTO_BLOCKED_UNAVAILABLE, "Connection refused"), proxy));
+
+    List<RepositoryStatusXO> changed = changedSince(version);
+    assertThat(names(changed), contains("proxy"));
+    assertThat(changed.get(0).getReason(), is("Connection refused"));
+    assertThat(changed.get(0).getVersion(), is(version + 1));
+    assertThat(changedSince(version + 1), is(empty()));
+  }
+
+  @Test
+  public void reportsStatusesDistributedByOtherNodes() {
+    changedSince(0);
+    long version = underTest.currentVersion();
+
+    RepositoryRemoteConnectionStatusEvent local = new RepositoryRemoteConnectionStatusEvent("proxy",
+        AUTO_BLOCKED_UNAVAILABLE.ordinal(), "Connection refused", 0, "http://example.com");
+    underTest.on(local);
+    assertThat(underTest.currentVersion(), is(version));
+
+    RepositoryRemoteConnectionStatusEvent remote = new RepositoryRemoteConnectionStatusEvent("proxy",
+        AUTO_BLOCKED_UNAVAILABLE.ordinal(), "Connection refused", 0, "http://example.com");
+    remote.setRemoteNodeId("other-node");
+    underTest.on(remote);
+
+    List<RepositoryStatusXO> changed = changedSince(version);
+    assertThat(names(changed), contains("proxy"));
+    assertThat(changed.get(0).getDescription(), is(AUTO_BLOCKED_UNAVAILABLE.getDescription()));
+    assertThat(changed.get(0).getReason(), is("Connection refused"));
+  }
+
+  @Test
+  public void ignoresEventsWhichDoNotChangeTheStatus() {
+    changedSince(0);
+    long version = underTest.currentVersion();
+
+    underTest.on(new RepositoryUpdatedEvent(hosted, mock(Configuration.class)));
+
+    assertThat(underTest.currentVersion(), is(version));
+  }
+
+  @Test
+  public void tracksCreatedAndDeletedRepositories() {
+    changedSince(0);
+    long version = underTest.currentVersion();
+
+    Repository created = repository("created", new HostedType(), null);
+    underTest.on(new RepositoryCreatedEvent(created));
+    assertThat(names(changedSince(version)), contains("created"));
+
+    underTest.on(new RepositoryDeletedEvent(created));
+    assertThat(underTest.get("created").isPresent(), is(false));
+
+    List<RepositoryStatusXO> changed = changedSince(version + 1);
+    assertThat(names(changed), contains("created"));
+    assertThat(changed.get(0).isRemoved(), is(true));
+    assertThat(changed.get(0).getVersion(), is(version + 2));
+    assertThat(underTest.removedConfiguration("created"), is(created.getConfiguration()));
+
+    // a full listing has no use for tombstones
+    assertThat(names(changedSince(0)), contains("hosted", "proxy"));
+
+    underTest.on(new RepositoryCreatedEvent(created));
+    assertThat(underTest.get("created").isPresent(), is(true));
+    assertThat(changedSince(version + 2).get(0).isRemoved(), is(false));
+  }
+
+  @Test
+  public void evictsTombstonesAfterTheRetentionPeriod() {
+    changedSince(0);
+    long version = underTest.currentVersion();
+
+    Repository created = repository("created", new HostedType(), null);
+    underTest.on(new RepositoryCreatedEvent(created));
+    underTest.on(new RepositoryDeletedEvent(created));
+    long deleted = underTest.currentVersion();
+
+    when(clock.millis()).thenReturn(Time.minutes(10).toMillis());
+    assertThat(names(changedSince(version)), contains("created"));
+
+    when(clock.millis()).thenReturn(Time.minutes(10).toMillis() + 1);
+    assertThat(underTest.removedConfiguration("created"), is(created.getConfiguration()));
+    underTest.on(new RemoteConnectionStatusEvent(
+        new RemoteConnectionStatus(AUTO_BLOCKED_UNAVAILABLE, "Connection refused"), proxy));
+
+    // a poller which may have missed the deletion is sent everything again
+    assertThat(names(changedSince(version)), contains("hosted", "proxy"));
+    assertThat(underTest.removedConfiguration("created"), is(nullValue()));
+    assertThat(names(changedSince(deleted)), contains("proxy"));
+  }
+
+  @Test
+  public void returnsEverythingToClientsFromAnotherEpoch() {
+    changedSince(0);
+    long version = underTest.currentVersion();
+
+    List<RepositoryStatusXO> changed = underTest.changedSince("some-other-epoch", version);
+
+    assertThat(names(changed), contains("hosted", "proxy"));
+    assertThat(changed.get(0).getEpoch(), is(underTest.epoch()));
+    assertThat(names(underTest.changedSince(null, version)), contains("hosted", "proxy"));
+  }
+
+  @Test
+  public void returnsEverythingToClientsAheadOfTheSnapshot() {
+    changedSince(0);
+
+    assertThat(names(changedSince(1000)), contains("hosted", "proxy"));
+  }
+
+  private List<RepositoryStatusXO> changedSince(final long since) {
+    return underTest.changedSince(underTest.epoch(), since);
+  }
+
+  private static Repository repository(
+      final String name,
+      final Type type,
+      final RemoteConnectionStatus remoteStatus)
+  {
+    Repository repository = mock(Repository.class);
+    Configuration configuration = mock(Configuration.class);
+    when(configuration.isOnline()).thenReturn(true);
+    when(repository.getName()).thenReturn(name);
+    when(repository.getConfiguration()).thenReturn(configuration);
+    when(repository.getType()).thenReturn(type);
+    if (remoteStatus != null) {
+      HttpClientFacet httpClientFacet = mock(HttpClientFacet.class);
+      when(httpClientFacet.getStatus()).thenReturn(remoteStatus);
+      when(repository.facet(HttpClientFacet.class)).thenReturn(httpClientFacet);
+    }
+    return repository;
+  }
+
+  private static List<String> names(final List<RepositoryStatusXO> statuses) {
+    return statuses.stream().map(RepositoryStatusXO::getRepositoryName).sorted().collect(Collectors.toList());
+  }
+}
@@ -13,6 +13,7 @@
 package org.sonatype.nexus.coreui.service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +26,7 @@ import org.sonatype.nexus.common.app.GlobalComponentLookupHelper;
 import org.sonatype.nexus.common.entity.EntityId;
 import org.sonatype.nexus.common.event.EventManager;
 import org.sonatype.nexus.coreui.RepositoryReferenceXO;
+import org.sonatype.nexus.coreui.RepositoryStatusXO;
 import org.sonatype.nexus.coreui.RepositoryXO;
 import org.sonatype.nexus.extdirect.model.StoreLoadParameters;
 import org.sonatype.nexus.repository.Format;
@@ -39,6 +41,7 @@ import org.sonatype.nexus.repository.rest.api.RepositoryMetricsService;
 import org.sonatype.nexus.repository.security.RepositoryPermissionChecker;
 import org.sonatype.nexus.repository.types.HostedType;
 import org.sonatype.nexus.scheduling.TaskScheduler;
+import org.sonatype.nexus.security.BreadActions;
 import org.sonatype.nexus.security.SecurityHelper;
 
 import org.junit.Assert;
@@ -52,6 +55,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -109,6 +113,9 @@ public class RepositoryUiServiceTest
   @Mock
   private Configuration configuration;
 
+  @Mock
+  private RepositoryStatusSnapshot statusSnapshot;
+
   private RepositoryUiService underTest;
 
   @Before
@@ -124,7 +131,8 @@ public class RepositoryUiServiceTest
     when(configuration.copy()).thenReturn(configuration);
 
     underTest = new RepositoryUiService(repositoryCacheInvalidationService, repositoryManager, repositoryMetricsService,
-        configurationStore, securityHelper, recipes, taskScheduler, typeLookup, formats, repositoryPermissionChecker)
+        configurationStore, securityHelper, recipes, taskScheduler, typeLookup, formats, repositoryPermissionChecker,
+        statusSnapshot)
     {
       @Override
       RepositoryXO asRepository(final Repository input) {
@@ -206,6 +214,59 @@ public class RepositoryUiServiceTest
     Assert.assertEquals("hosted", repoXo.getType());
   }
 
+  @Test
+  public void testReadStatusReturnsPermittedChangesSinceVersion() {
+    Repository hidden = mock(Repository.class);
+    Configuration hiddenConfiguration = mock(Configuration.class);
+    when(hidden.getConfiguration()).thenReturn(hiddenConfiguration);
+    when(repositoryManager.get("hidden")).thenReturn(hidden);
+    when(configuration.getRepositoryName()).thenReturn("repository");
+    when(statusSnapshot.changedSince("epoch", 42L)).thenReturn(Arrays.asList(status("repository"), status("hidden")));
+    when(repositoryPermissionChecker.userHasRepositoryAdminPermissionFor(any(Iterable.class), anyString()))
+        .thenReturn(Collections.singletonList(configuration));
+
+    Map<String, String> params = new HashMap<>();
+    params.put("epoch", "epoch");
+    params.put("since", "42");
+    List<RepositoryStatusXO> statuses = underTest.readStatus(params);
+
+    assertThat(statuses, hasSize(1));
+    assertThat(statuses.get(0).getRepositoryName(), is("repository"));
+  }
+
+  @Test
+  public void testReadStatusChecksPermissionForDeletedRepositories() {
+    RepositoryStatusXO removed = status("removed");
+    removed.setRemoved(true);
+    when(configuration.getRepositoryName()).thenReturn("removed");
+    when(statusSnapshot.removedConfiguration("removed")).thenReturn(configuration);
+    when(statusSnapshot.changedSince(null, 7L)).thenReturn(Collections.singletonList(removed));
+    when(repositoryPermissionChecker.userHasRepositoryAdminPermissionFor(any(Iterable.class), anyString()))
+        .thenReturn(Collections.singletonList(configuration));
+
+    List<RepositoryStatusXO> statuses = underTest.readStatus(Collections.singletonMap("since", "7"));
+
+    assertThat(statuses, hasSize(1));
+    assertThat(statuses.get(0).isRemoved(), is(true));
+    verify(repositoryPermissionChecker)
+        .userHasRepositoryAdminPermissionFor(Collections.singletonList(configuration), BreadActions.READ);
+  }
+
+  @Test
+  public void testReadStatusSkipsPermissionChecksWhenNothingChanged() {
+    when(statusSnapshot.changedSince(null, 0L)).thenReturn(Collections.emptyList());
+
+    assertThat(underTest.readStatus(Collections.emptyMap()), hasSize(0));
+
+    verify(repositoryPermissionChecker, never()).userHasRepositoryAdminPermissionFor(any(Iterable.class), anyString());
+  }
+
+  private static RepositoryStatusXO status(final String repositoryName) {
+    RepositoryStatusXO status = new RepositoryStatusXO();
+    status.setRepositoryName(repositoryName);
+    return status;
+  }
+
   private List<RepositoryReferenceXO> getTestRepositories() {
     RepositoryReferenceXO nugetRepoProxy = mock(RepositoryReferenceXO.class);
     when(nugetRepoProxy.getName()).thenReturn("nuget-proxy");
@@ -55,5 +55,12 @@ public interface AptContentFacet
 
   void deleteAssetsByPrefix(String pathPrefix);
 
+  /**
+   * Browses the metadata assets whose path starts with the given prefix.
+   *
+   * @since 3.71
+   */
+  Iterable<FluentAsset> getAssetsByPrefix(String pathPrefix);
+
   Iterable<FluentAsset> getAptPackageAssets();
 }
@@ -240,6 +240,11 @@ public class AptContentFacetImpl
 
   @Override
   public void deleteAssetsByPrefix(final String pathPrefix) {
+    getAssetsByPrefix(pathPrefix).forEach(FluentAsset::delete);
+  }
+
+  @Override
+  public Iterable<FluentAsset> getAssetsByPrefix(final String pathPrefix) {
     String filter = "repository_id = #{" + AssetDAO.FILTER_PARAMS + ".repositoryParam}" +
         " AND path LIKE #{" + AssetDAO.FILTER_PARAMS + ".pathParam}" +
         " AND component_id IS NULL";
@@ -247,7 +252,7 @@ public class AptContentFacetImpl
     Map<String, Object> params = ImmutableMap.of("repositoryParam", contentRepositoryId(),
         "pathParam", pathPrefix + "%");
 
-    iterableOf(assets().byFilter(filter, params)::browse).forEach(FluentAsset::delete);
+    return iterableOf(assets().byFilter(filter, params)::browse);
   }
 
   @Override
@@ -12,15 +12,22 @@
  */
 package org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,6 +35,8 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 
@@ -41,9 +50,12 @@ import org.sonatype.nexus.repository.apt.AptFormat;
 import org.sonatype.nexus.repository.apt.datastore.AptContentFacet;
 import org.sonatype.nexus.repository.apt.datastore.internal.data.AptKeyValueFacet;
 import org.sonatype.nexus.repository.apt.datastore.internal.hosted.AssetChange;
+import org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata.PackagesDiffIndex.Checksum;
+import org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata.PackagesDiffIndex.Patch;
 import org.sonatype.nexus.repository.apt.internal.AptMimeTypes;
 import org.sonatype.nexus.repository.apt.internal.debian.ControlFile;
 import org.sonatype.nexus.repository.apt.internal.debian.ControlFile.Paragraph;
+import org.sonatype.nexus.repository.apt.internal.debian.ControlFileParser;
 import org.sonatype.nexus.repository.apt.internal.gpg.AptSigningFacet;
 import org.sonatype.nexus.repository.apt.internal.hosted.AssetAction;
 import org.sonatype.nexus.repository.apt.internal.hosted.CompressingTempFileStore;
@@ -54,6 +66,7 @@ import org.sonatype.nexus.repository.content.fluent.FluentAsset;
 import org.sonatype.nexus.repository.content.store.InternalIds;
 import org.sonatype.nexus.repository.content.utils.FormatAttributesUtils;
 import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Payload;
 import org.sonatype.nexus.repository.view.payloads.BytesPayload;
 import org.sonatype.nexus.repository.view.payloads.StreamPayload;
 
@@ -81,12 +94,29 @@ import static org.sonatype.nexus.repository.apt.internal.ReleaseName.RELEASE_GPG
 
 /**
  * Apt metadata facet. Holds the logic for metadata recalculation.
+ *
+ * Besides the full {@code Packages} indexes, each rebuild publishes a {@code Packages.diff} patch from the previous
+ * index, keeping the last {@code nexus.apt.metadata.pdiff.history} of them, and {@code by-hash} copies of every index
+ * listed by the {@code Release} file.
  */
 @Named(AptFormat.NAME)
 @Exposed
 public class AptHostedMetadataFacet
     extends FacetSupport
 {
+  private static final String DIFF_DIRECTORY = ".diff/";
+
+  private static final String DIFF_INDEX = DIFF_DIRECTORY + "Index";
+
+  private static final String BY_HASH_DIRECTORY = "by-hash/SHA256/";
+
+  private static final DateTimeFormatter PATCH_NAME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd-HHmm.ss.SSS").withZone(ZoneOffset.UTC);
+
+  /**
+   * Indexes differing in more paragraphs than this are not worth patching; the PDiff history restarts instead.
+   */
+  private static final int MAX_PATCH_PARAGRAPHS = 1000;
 
   private final ObjectMapper mapper;
 
@@ -94,6 +124,10 @@ public class AptHostedMetadataFacet
 
   private final Cooperation2Factory.Builder cooperationBuilder;
 
+  private final int pdiffHistory;
+
+  private final boolean byHashEnabled;
+
   private Cooperation2 cooperation;
 
   @Inject
@@ -104,7 +138,9 @@ public class AptHostedMetadataFacet
       @Named("${nexus.apt.metadata.cooperation.enabled:-true}") final boolean cooperationEnabled,
       @Named("${nexus.apt.metadata.cooperation.majorTimeout:-0s}") final Duration majorTimeout,
       @Named("${nexus.apt.metadata.cooperation.minorTimeout:-30s}") final Duration minorTimeout,
-      @Named("${nexus.apt.metadata.cooperation.threadsPerKey:-100}") final int threadsPerKey)
+      @Named("${nexus.apt.metadata.cooperation.threadsPerKey:-100}") final int threadsPerKey,
+      @Named("${nexus.apt.metadata.pdiff.history:-30}") final int pdiffHistory,
+      @Named("${nexus.apt.metadata.byHash.enabled:-true}") final boolean byHashEnabled)
   {
     this.mapper = checkNotNull(mapper);
     this.clock = checkNotNull(clock);
@@ -113,6 +149,8 @@ public class AptHostedMetadataFacet
         .majorTimeout(majorTimeout)
         .minorTimeout(minorTimeout)
         .threadsPerKey(threadsPerKey);
+    this.pdiffHistory = pdiffHistory;
+    this.byHashEnabled = byHashEnabled;
   }
 
   @Override
@@ -148,14 +186,6 @@ public class AptHostedMetadataFacet
     );
   }
 
-  /**
-   * Removes metadata per architecture
-   */
-  private void removeMetadataPerArchitecture() {
-    log.debug("Removing metadata per architecture: {}", getRepository().getName());
-    content().deleteAssetsByPrefix(normalizeAssetPath(mainBinaryPrefix()));
-  }
-
   private Content doRebuildMetadata(final List<AssetChange> changeList) throws IOException {
     log.debug("Starting rebuilding metadata at {}", getRepository().getName());
     OffsetDateTime rebuildStart = clock.clusterTime();
@@ -163,34 +193,49 @@ public class AptHostedMetadataFacet
     AptContentFacet aptFacet = content();
     AptSigningFacet signingFacet = signing();
 
-    removeMetadataPerArchitecture();
+    // by-hash copies listed by the previous release stay available to clients which have just fetched it
+    Set<String> retainedHashes = previousReleaseHashes();
+    Set<String> publishedPaths = new HashSet<>();
 
     StringBuilder sha256Builder = new StringBuilder();
     StringBuilder md5Builder = new StringBuilder();
     String releaseFile;
     try (CompressingTempFileStore store = buildPackageIndexes(changeList)) {
       for (Map.Entry<String, CompressingTempFileStore.FileMetadata> entry : store.getFiles().entrySet()) {
-        FluentAsset metadataAsset = aptFacet.put(
-            packageIndexName(entry.getKey(), StringUtils.EMPTY),
-            new StreamPayload(entry.getValue().plainSupplier(), entry.getValue().plainSize(), AptMimeTypes.TEXT)
-        );
-        addSignatureItem(md5Builder, MD5, metadataAsset, packageRelativeIndexName(entry.getKey(), StringUtils.EMPTY));
-        addSignatureItem(sha256Builder, SHA256, metadataAsset,
-            packageRelativeIndexName(entry.getKey(), StringUtils.EMPTY));
-
-        FluentAsset gzMetadataAsset = aptFacet.put(
-            packageIndexName(entry.getKey(), GZ),
-            new StreamPayload(entry.getValue().gzSupplier(), entry.getValue().bzSize(), AptMimeTypes.GZIP)
-        );
-        addSignatureItem(md5Builder, MD5, gzMetadataAsset, packageRelativeIndexName(entry.getKey(), GZ));
-        addSignatureItem(sha256Builder, SHA256, gzMetadataAsset, packageRelativeIndexName(entry.getKey(), GZ));
-
-        FluentAsset bzMetadataAsset = aptFacet.put(
-            packageIndexName(entry.getKey(), BZ2),
-            new StreamPayload(entry.getValue().bzSupplier(), entry.getValue().bzSize(), AptMimeTypes.BZIP)
-        );
-        addSignatureItem(md5Builder, MD5, bzMetadataAsset, packageRelativeIndexName(entry.getKey(), BZ2));
-        addSignatureItem(sha256Builder, SHA256, bzMetadataAsset, packageRelativeIndexName(entry.getKey(), BZ2));
+        String arch = entry.getKey();
+        CompressingTempFileStore.FileMetadata metadata = entry.getValue();
+        Optional<FluentAsset> previousIndex = pdiffHistory > 0
+            ? aptFacet.getAsset(packageIndexName(arch, StringUtils.EMPTY)).filter(Asset::hasBlob)
+            : Optional.empty();
+        List<String> previousParagraphs = previousIndex.isPresent() ? readParagraphs(previousIndex.get()) : null;
+
+        FluentAsset metadataAsset = putIndexFile(
+            packageIndexName(arch, StringUtils.EMPTY),
+            new StreamPayload(metadata.plainSupplier(), metadata.plainSize(), AptMimeTypes.TEXT),
+            publishedPaths);
+        addSignatureItem(md5Builder, MD5, metadataAsset, packageRelativeIndexName(arch, StringUtils.EMPTY));
+        addSignatureItem(sha256Builder, SHA256, metadataAsset, packageRelativeIndexName(arch, StringUtils.EMPTY));
+
+        FluentAsset gzMetadataAsset = putIndexFile(
+            packageIndexName(arch, GZ),
+            new StreamPayload(metadata.gzSupplier(), metadata.bzSize(), AptMimeTypes.GZIP),
+            publishedPaths);
+        addSignatureItem(md5Builder, MD5, gzMetadataAsset, packageRelativeIndexName(arch, GZ));
+        addSignatureItem(sha256Builder, SHA256, gzMetadataAsset, packageRelativeIndexName(arch, GZ));
+
+        FluentAsset bzMetadataAsset = putIndexFile(
+            packageIndexName(arch, BZ2),
+            new StreamPayload(metadata.bzSupplier(), metadata.bzSize(), AptMimeTypes.BZIP),
+            publishedPaths);
+        addSignatureItem(md5Builder, MD5, bzMetadataAsset, packageRelativeIndexName(arch, BZ2));
+        addSignatureItem(sha256Builder, SHA256, bzMetadataAsset, packageRelativeIndexName(arch, BZ2));
+
+        if (pdiffHistory > 0) {
+          FluentAsset diffIndexAsset = publishPackagesDiff(
+              arch, previousIndex.orElse(null), previousParagraphs, metadataAsset, metadata, publishedPaths);
+          addSignatureItem(md5Builder, MD5, diffIndexAsset, packageRelativeIndexName(arch, DIFF_INDEX));
+          addSignatureItem(sha256Builder, SHA256, diffIndexAsset, packageRelativeIndexName(arch, DIFF_INDEX));
+        }
       }
 
       releaseFile = buildReleaseFile(
@@ -214,6 +259,9 @@ public class AptHostedMetadataFacet
         new BytesPayload(signingFacet.signExternal(releaseFile), AptMimeTypes.SIGNATURE)
     );
 
+    retainedHashes.addAll(releaseHashes(releaseFile));
+    removeUnpublishedMetadata(publishedPaths, retainedHashes);
+
     if (log.isDebugEnabled()) {
       long finishTime = System.currentTimeMillis();
       log.debug("Completed metadata rebuild in {}", finishTime - rebuildStart.toInstant().toEpochMilli());
@@ -222,6 +270,147 @@ public class AptHostedMetadataFacet
     return releaseFileAsset.download();
   }
 
+  /**
+   * Stores an index file, along with its by-hash copy when enabled.
+   */
+  private FluentAsset putIndexFile(
+      final String path,
+      final Payload payload,
+      final Set<String> publishedPaths) throws IOException
+  {
+    FluentAsset asset = content().put(path, payload);
+    publishedPaths.add(normalizeAssetPath(path));
+    if (byHashEnabled) {
+      String byHashPath = byHashName(path, checksum(asset).sha256);
+      if (!content().getAsset(byHashPath).isPresent()) {
+        content().put(byHashPath, payload);
+      }
+    }
+    return asset;
+  }
+
+  /**
+   * Records the change from the previous to the new index as a patch in {@code Packages.diff}, then publishes the
+   * updated {@code Packages.diff/Index}. The history restarts whenever the previous index is unknown, does not match
+   * the recorded history or changed too much for a patch to pay off.
+   */
+  private FluentAsset publishPackagesDiff(
+      final String arch,
+      @Nullable final FluentAsset previousIndex,
+      @Nullable final List<String> previousParagraphs,
+      final FluentAsset newIndex,
+      final CompressingTempFileStore.FileMetadata metadata,
+      final Set<String> publishedPaths) throws IOException
+  {
+    Checksum next = checksum(newIndex);
+    Checksum previous = previousIndex != null ? checksum(previousIndex) : null;
+
+    PackagesDiffIndex diffIndex = readDiffIndex(arch)
+        .filter(index -> index.getCurrent().equals(previous))
+        .orElseGet(() -> new PackagesDiffIndex(previous != null ? previous : next, Collections.emptyList()));
+
+    if (!next.equals(diffIndex.getCurrent())) {
+      Optional<String> script = Optional.empty();
+      if (previousParagraphs != null) {
+        try (InputStream in = metadata.plainSupplier().get()) {
+          script = PackagesDiff.edScript(previousParagraphs, PackagesDiff.paragraphs(in), MAX_PATCH_PARAGRAPHS);
+        }
+      }
+      if (script.isPresent()) {
+        String name = PATCH_NAME_FORMAT.format(clock.clusterTime());
+        byte[] patch = script.get().getBytes(StandardCharsets.UTF_8);
+        FluentAsset patchAsset = content().put(patchName(arch, name), new BytesPayload(gzip(patch), AptMimeTypes.GZIP));
+
+        Checksum patchChecksum = new Checksum(SHA256.function().hashBytes(patch).toString(), patch.length);
+        Patch diff = new Patch(name, diffIndex.getCurrent(), patchChecksum, checksum(patchAsset));
+        diffIndex = diffIndex.append(diff, next);
+      }
+      else {
+        diffIndex = new PackagesDiffIndex(next, Collections.emptyList());
+      }
+    }
+    diffIndex.retain(pdiffHistory);
+    diffIndex.getPatches().forEach(patch -> publishedPaths.add(normalizeAssetPath(patchName(arch, patch.name))));
+
+    return putIndexFile(
+        packageIndexName(arch, DIFF_INDEX),
+        new BytesPayload(diffIndex.toString().getBytes(StandardCharsets.UTF_8), AptMimeTypes.TEXT),
+        publishedPaths);
+  }
+
+  private Optional<PackagesDiffIndex> readDiffIndex(final String arch) throws IOException {
+    Optional<Content> index = content().get(packageIndexName(arch, DIFF_INDEX));
+    if (!index.isPresent()) {
+      return Optional.empty();
+    }
+    try (InputStream in = index.get().openInputStream()) {
+      return PackagesDiffIndex.parse(in);
+    }
+  }
+
+  private List<String> readParagraphs(final FluentAsset asset) throws IOException {
+    try (InputStream in = asset.download().openInputStream()) {
+      return PackagesDiff.paragraphs(in);
+    }
+  }
+
+  /**
+   * Removes the per architecture metadata which was not published by this rebuild, such as indexes of architectures
+   * without packages, patches which fell out of the history and by-hash copies no longer referenced by the current
+   * or previous release.
+   */
+  private void removeUnpublishedMetadata(final Set<String> publishedPaths, final Set<String> retainedHashes) {
+    log.debug("Removing unpublished metadata per architecture: {}", getRepository().getName());
+    for (FluentAsset asset : content().getAssetsByPrefix(normalizeAssetPath(mainBinaryPrefix()))) {
+      String path = asset.path();
+      boolean retained = path.contains(BY_HASH_DIRECTORY)
+          ? retainedHashes.contains(StringUtils.substringAfterLast(path, "/"))
+          : publishedPaths.contains(path);
+      if (!retained) {
+        asset.delete();
+      }
+    }
+  }
+
+  private Set<String> previousReleaseHashes() throws IOException {
+    Optional<Content> release = content().get(releaseIndexName(RELEASE));
+    if (!release.isPresent()) {
+      return new HashSet<>();
+    }
+    try (InputStream in = release.get().openInputStream()) {
+      return releaseHashes(IOUtils.toString(in, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static Set<String> releaseHashes(final String releaseFile) throws IOException {
+    ControlFile controlFile =
+        new ControlFileParser().parseControlFile(IOUtils.toInputStream(releaseFile, StandardCharsets.UTF_8));
+    Set<String> hashes = new HashSet<>();
+    controlFile.getField("SHA256").ifPresent(field -> {
+      for (String line : field.value.split("\n")) {
+        String hash = StringUtils.substringBefore(line.trim(), StringUtils.SPACE);
+        if (!hash.isEmpty()) {
+          hashes.add(hash);
+        }
+      }
+    });
+    return hashes;
+  }
+
+  private static Checksum checksum(final FluentAsset asset) {
+    AssetBlob assetBlob = asset.blob()
+        .orElseThrow(() -> new IllegalStateException("Blob couldn't be found for asset: " + asset.path()));
+    return new Checksum(assetBlob.checksums().get(SHA256.name()), assetBlob.blobSize());
+  }
+
+  private static byte[] gzip(final byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+      gz.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
   private CompressingTempFileStore buildPackageIndexes(final List<AssetChange> changes)
       throws IOException
   {
@@ -306,13 +495,17 @@ public class AptHostedMetadataFacet
       final String sha256)
   {
     String date = DateFormatUtils.format(new Date(), PATTERN_RFC1123, TimeZone.getTimeZone("GMT"));
-    Paragraph p = new Paragraph(Arrays.asList(
+    List<ControlFile.ControlField> fields = new ArrayList<>(Arrays.asList(
         new ControlFile.ControlField("Suite", distribution),
         new ControlFile.ControlField("Codename", distribution), new ControlFile.ControlField("Components", "main"),
         new ControlFile.ControlField("Date", date),
-        new ControlFile.ControlField("Architectures", String.join(StringUtils.SPACE, architectures)),
-        new ControlFile.ControlField("SHA256", sha256), new ControlFile.ControlField("MD5Sum", md5)));
-    return p.toString();
+        new ControlFile.ControlField("Architectures", String.join(StringUtils.SPACE, architectures))));
+    if (byHashEnabled) {
+      fields.add(new ControlFile.ControlField("Acquire-By-Hash", "yes"));
+    }
+    fields.add(new ControlFile.ControlField("SHA256", sha256));
+    fields.add(new ControlFile.ControlField("MD5Sum", md5));
+    return new Paragraph(fields).toString();
   }
 
   private String mainBinaryPrefix() {
@@ -330,6 +523,17 @@ public class AptHostedMetadataFacet
     return "dists/" + dist + "/main/binary-" + arch + "/Packages" + ext;
   }
 
+  private String patchName(final String arch, final String name) {
+    return packageIndexName(arch, DIFF_DIRECTORY + name + GZ);
+  }
+
+  /**
+   * The by-hash location of an index file, next to the file itself.
+   */
+  private static String byHashName(final String path, final String sha256) {
+    return StringUtils.substringBeforeLast(path, "/") + "/" + BY_HASH_DIRECTORY + sha256;
+  }
+
   private String packageRelativeIndexName(final String arch, final String ext) {
     return "main/binary-" + arch + "/Packages" + ext;
   }
@@ -0,0 +1,185 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Computes the {@code ed} script which turns one {@code Packages} index into another, as served in PDiff patches.
+ *
+ * The indexes are compared paragraph by paragraph, which keeps the number of edits proportional to the number of
+ * packages added or removed, and the resulting commands are listed bottom up so line numbers always refer to the
+ * original index.
+ *
+ * @since 3.71
+ */
+final class PackagesDiff
+{
+  private PackagesDiff() {
+    // no instance
+  }
+
+  /**
+   * Splits an index into paragraphs, each one holding its lines and the blank line which terminates it.
+   */
+  static List<String> paragraphs(final InputStream in) throws IOException {
+    List<String> paragraphs = new ArrayList<>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+    StringBuilder paragraph = new StringBuilder();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      paragraph.append(line).append('\n');
+      if (line.isEmpty()) {
+        paragraphs.add(paragraph.toString());
+        paragraph.setLength(0);
+      }
+    }
+    if (paragraph.length() > 0) {
+      paragraphs.add(paragraph.toString());
+    }
+    return paragraphs;
+  }
+
+  /**
+   * Returns the {@code ed} script turning {@code from} into {@code to}, or nothing when more than {@code maxEdits}
+   * paragraphs differ and a patch would not be worth downloading.
+   */
+  static Optional<String> edScript(final List<String> from, final List<String> to, final int maxEdits) {
+    List<int[]> hunks = hunks(from, to, maxEdits);
+    if (hunks == null) {
+      return Optional.empty();
+    }
+
+    int[] lineOffsets = new int[from.size() + 1];
+    for (int i = 0; i < from.size(); i++) {
+      lineOffsets[i + 1] = lineOffsets[i] + lineCount(from.get(i));
+    }
+
+    StringBuilder script = new StringBuilder();
+    for (int h = hunks.size() - 1; h >= 0; h--) {
+      int[] hunk = hunks.get(h);
+      int fromStart = hunk[0];
+      int fromEnd = hunk[1];
+      int toStart = hunk[2];
+      int toEnd = hunk[3];
+
+      if (fromStart == fromEnd) {
+        script.append(lineOffsets[fromStart]).append('a').append('\n');
+      }
+      else {
+        script.append(lineOffsets[fromStart] + 1);
+        if (lineOffsets[fromEnd] > lineOffsets[fromStart] + 1) {
+          script.append(',').append(lineOffsets[fromEnd]);
+        }
+        script.append(toStart == toEnd ? 'd' : 'c').append('\n');
+      }
+
+      if (toStart < toEnd) {
+        for (int i = toStart; i < toEnd; i++) {
+          script.append(to.get(i));
+        }
+        script.append(".\n");
+      }
+    }
+    return Optional.of(script.toString());
+  }
+
+  /**
+   * Myers' shortest edit script, as {@code [fromStart, fromEnd, toStart, toEnd]} hunks in file order.
+   */
+  private static List<int[]> hunks(final List<String> from, final List<String> to, final int maxEdits) {
+    int n = from.size();
+    int m = to.size();
+    int max = Math.min(n + m, maxEdits);
+    int offset = max + 1;
+    int[] v = new int[2 * max + 3];
+    List<int[]> trace = new ArrayList<>();
+
+    for (int d = 0; d <= max; d++) {
+      trace.add(v.clone());
+      for (int k = -d; k <= d; k += 2) {
+        int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+            ? v[offset + k + 1]
+            : v[offset + k - 1] + 1;
+        int y = x - k;
+        while (x < n && y < m && from.get(x).equals(to.get(y))) {
+          x++;
+          y++;
+        }
+        v[offset + k] = x;
+        if (x >= n && y >= m) {
+          return backtrack(trace, offset, n, m, from, to);
+        }
+      }
+    }
+    return null;
+  }
+
+  private static List<int[]> backtrack(
+      final List<int[]> trace,
+      final int offset,
+      final int n,
+      final int m,
+      final List<String> from,
+      final List<String> to)
+  {
+    List<int[]> hunks = new ArrayList<>();
+    int[] hunk = null;
+    int x = n;
+    int y = m;
+    for (int d = trace.size() - 1; d > 0; d--) {
+      int[] v = trace.get(d);
+      int k = x - y;
+      int prevK = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) ? k + 1 : k - 1;
+      int prevX = v[offset + prevK];
+      int prevY = prevX - prevK;
+
+      while (x > prevX && y > prevY) {
+        x--;
+        y--;
+        hunk = null;
+      }
+      if (hunk == null) {
+        hunk = new int[]{x, x, y, y};
+        hunks.add(hunk);
+      }
+      if (x == prevX) {
+        hunk[2] = --y;
+      }
+      else {
+        hunk[0] = --x;
+      }
+    }
+    Collections.reverse(hunks);
+    return hunks;
+  }
+
+  private static int lineCount(final String paragraph) {
+    int count = 0;
+    for (int i = 0; i < paragraph.length(); i++) {
+      if (paragraph.charAt(i) == '\n') {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.nexus.repository.apt.internal.debian.ControlFile;
+import org.sonatype.nexus.repository.apt.internal.debian.ControlFile.ControlField;
+import org.sonatype.nexus.repository.apt.internal.debian.ControlFileParser;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The {@code Packages.diff/Index} of one architecture: the checksum of the current {@code Packages} index and, oldest
+ * first, the patches which lead up to it. Each patch turns the index listed next to it in {@code SHA256-History}
+ * into the following one, so a client applies every patch from the one matching its local copy onwards.
+ *
+ * @since 3.71
+ */
+class PackagesDiffIndex
+{
+  static final String CURRENT = "SHA256-Current";
+
+  static final String HISTORY = "SHA256-History";
+
+  static final String PATCHES = "SHA256-Patches";
+
+  static final String DOWNLOAD = "SHA256-Download";
+
+  private final Checksum current;
+
+  private final List<Patch> patches;
+
+  PackagesDiffIndex(final Checksum current, final List<Patch> patches) {
+    this.current = checkNotNull(current);
+    this.patches = new ArrayList<>(patches);
+  }
+
+  Checksum getCurrent() {
+    return current;
+  }
+
+  List<Patch> getPatches() {
+    return patches;
+  }
+
+  /**
+   * Appends a patch leading from the current index to {@code next}.
+   */
+  PackagesDiffIndex append(final Patch patch, final Checksum next) {
+    List<Patch> appended = new ArrayList<>(patches);
+    appended.add(patch);
+    return new PackagesDiffIndex(next, appended);
+  }
+
+  /**
+   * Drops the oldest patches so that at most {@code maxPatches} remain, returning the patches dropped.
+   */
+  List<Patch> retain(final int maxPatches) {
+    List<Patch> dropped = new ArrayList<>();
+    while (patches.size() > maxPatches) {
+      dropped.add(patches.remove(0));
+    }
+    return dropped;
+  }
+
+  /**
+   * Parses a previously published index, returning nothing when it is missing or malformed.
+   */
+  static Optional<PackagesDiffIndex> parse(@Nullable final InputStream in) throws IOException {
+    if (in == null) {
+      return Optional.empty();
+    }
+    ControlFile controlFile = new ControlFileParser().parseControlFile(in);
+    Optional<List<String>> current = controlFile.getField(CURRENT).map(ControlField::listValue);
+    if (!current.isPresent() || current.get().size() != 2) {
+      return Optional.empty();
+    }
+
+    Map<String, List<String>> history = entries(controlFile, HISTORY);
+    Map<String, List<String>> patchChecksums = entries(controlFile, PATCHES);
+    Map<String, List<String>> downloadChecksums = entries(controlFile, DOWNLOAD);
+    try {
+      List<Patch> patches = new ArrayList<>();
+      for (Map.Entry<String, List<String>> entry : history.entrySet()) {
+        String name = entry.getKey();
+        List<String> patch = patchChecksums.get(name);
+        List<String> download = downloadChecksums.get(name + ".gz");
+        if (patch == null || download == null) {
+          return Optional.empty();
+        }
+        patches.add(new Patch(name, checksum(entry.getValue()), checksum(patch), checksum(download)));
+      }
+      return Optional.of(new PackagesDiffIndex(checksum(current.get()), patches));
+    }
+    catch (NumberFormatException e) { // NOSONAR
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(CURRENT).append(": ").append(current).append('\n');
+    if (patches.isEmpty()) {
+      return sb.toString();
+    }
+    sb.append(HISTORY).append(":\n");
+    patches.forEach(patch -> sb.append(' ').append(patch.from).append(' ').append(patch.name).append('\n'));
+    sb.append(PATCHES).append(":\n");
+    patches.forEach(patch -> sb.append(' ').append(patch.patch).append(' ').append(patch.name).append('\n'));
+    sb.append(DOWNLOAD).append(":\n");
+    patches.forEach(patch -> sb.append(' ').append(patch.download).append(' ').append(patch.name).append(".gz\n"));
+    return sb.toString();
+  }
+
+  /**
+   * Reads the {@code <checksum> <size> <name>} lines of a field, keyed by name and in file order.
+   */
+  private static Map<String, List<String>> entries(final ControlFile controlFile, final String field) {
+    Map<String, List<String>> entries = new LinkedHashMap<>();
+    controlFile.getField(field).ifPresent(value -> {
+      for (String line : value.value.split("\n")) {
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length == 3) {
+          List<String> checksum = new ArrayList<>(2);
+          checksum.add(parts[0]);
+          checksum.add(parts[1]);
+          entries.put(parts[2], checksum);
+        }
+      }
+    });
+    return entries;
+  }
+
+  private static Checksum checksum(final List<String> parts) {
+    return new Checksum(parts.get(0), Long.parseLong(parts.get(1)));
+  }
+
+  /**
+   * A SHA256 checksum and the size of the file it was computed for.
+   */
+  static class Checksum
+  {
+    final String sha256;
+
+    final long size;
+
+    Checksum(final String sha256, final long size) {
+      this.sha256 = checkNotNull(sha256);
+      this.size = size;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Checksum)) {
+        return false;
+      }
+      Checksum that = (Checksum) o;
+      return size == that.size && sha256.equals(that.sha256);
+    }
+
+    @Override
+    public int hashCode() {
+      return sha256.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return sha256 + " " + size;
+    }
+  }
+
+  /**
+   * A patch, with the checksum of the index it applies to and of its plain and compressed forms.
+   */
+  static class Patch
+  {
+    final String name;
+
+    final Checksum from;
+
+    final Checksum patch;
+
+    final Checksum download;
+
+    Patch(final String name, final Checksum from, final Checksum patch, final Checksum download) {
+      this.name = checkNotNull(name);
+      this.from = checkNotNull(from);
+      this.patch = checkNotNull(patch);
+      this.download = checkNotNull(download);
+    }
+  }
+}
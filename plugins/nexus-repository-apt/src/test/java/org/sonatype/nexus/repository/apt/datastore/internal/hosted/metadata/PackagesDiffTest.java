@@ -0,0 +1,172 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata.PackagesDiffIndex.Checksum;
+import org.sonatype.nexus.repository.apt.datastore.internal.hosted.metadata.PackagesDiffIndex.Patch;
+
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link PackagesDiff} and {@link PackagesDiffIndex}.
+ */
+public class PackagesDiffTest
+    extends TestSupport
+{
+  private static final Pattern COMMAND = Pattern.compile("(\\d+)(?:,(\\d+))?([acd])");
+
+  @Test
+  public void paragraphsKeepTheirTerminatingBlankLine() throws IOException {
+    List<String> paragraphs = PackagesDiff.paragraphs(stream("Package: a\nVersion: 1\n\nPackage: b\n\n"));
+
+    assertThat(paragraphs, contains("Package: a\nVersion: 1\n\n", "Package: b\n\n"));
+  }
+
+  @Test
+  public void edScriptIsAppliedBottomUp() {
+    List<String> from = Arrays.asList(paragraph("a"), paragraph("b"), paragraph("c"));
+    List<String> to = Arrays.asList(paragraph("b"), paragraph("c"), paragraph("d"));
+
+    String script = PackagesDiff.edScript(from, to, 10).get();
+
+    assertThat(script, is("9a\nPackage: d\nVersion: 1\n\n.\n1,3d\n"));
+    assertThat(apply(from, script), is(String.join("", to)));
+  }
+
+  @Test
+  public void edScriptTurnsOneIndexIntoTheOther() {
+    Random random = new Random(42);
+    for (int round = 0; round < 200; round++) {
+      List<String> from = randomIndex(random);
+      List<String> to = randomIndex(random);
+
+      Optional<String> script = PackagesDiff.edScript(from, to, from.size() + to.size());
+
+      assertThat(apply(from, script.get()), is(String.join("", to)));
+    }
+  }
+
+  @Test
+  public void edScriptGivesUpOnTooManyEdits() {
+    List<String> from = Arrays.asList(paragraph("a"), paragraph("b"), paragraph("c"));
+
+    assertThat(PackagesDiff.edScript(from, Collections.emptyList(), 2).isPresent(), is(false));
+    assertThat(PackagesDiff.edScript(from, from, 0).get(), is(""));
+  }
+
+  @Test
+  public void indexRoundTrips() throws IOException {
+    Checksum first = new Checksum("aaaa", 10);
+    Checksum second = new Checksum("bbbb", 20);
+    PackagesDiffIndex index = new PackagesDiffIndex(first, Collections.emptyList())
+        .append(new Patch("2024-01-01-0000.00.000", first, new Checksum("1111", 1), new Checksum("2222", 2)), second);
+
+    String text = index.toString();
+    PackagesDiffIndex parsed = PackagesDiffIndex.parse(stream(text)).get();
+
+    assertThat(text, is("SHA256-Current: bbbb 20\n" +
+        "SHA256-History:\n aaaa 10 2024-01-01-0000.00.000\n" +
+        "SHA256-Patches:\n 1111 1 2024-01-01-0000.00.000\n" +
+        "SHA256-Download:\n 2222 2 2024-01-01-0000.00.000.gz\n"));
+    assertThat(parsed.toString(), is(text));
+    assertThat(parsed.getCurrent(), is(second));
+  }
+
+  @Test
+  public void retainDropsTheOldestPatches() {
+    PackagesDiffIndex index = new PackagesDiffIndex(new Checksum("c", 3), Arrays.asList(
+        new Patch("1", new Checksum("a", 1), new Checksum("p", 1), new Checksum("d", 1)),
+        new Patch("2", new Checksum("b", 2), new Checksum("p", 1), new Checksum("d", 1))));
+
+    List<Patch> dropped = index.retain(1);
+
+    assertThat(dropped.size(), is(1));
+    assertThat(dropped.get(0).name, is("1"));
+    assertThat(index.getPatches().get(0).name, is("2"));
+  }
+
+  @Test
+  public void malformedIndexIsIgnored() throws IOException {
+    assertThat(PackagesDiffIndex.parse(null).isPresent(), is(false));
+    assertThat(PackagesDiffIndex.parse(stream("SHA256-Current: abc\n")).isPresent(), is(false));
+    assertThat(PackagesDiffIndex.parse(stream("SHA256-Current: abc 1\nSHA256-History:\n abc 1 x\n")).isPresent(),
+        is(false));
+  }
+
+  private static List<String> randomIndex(final Random random) {
+    List<String> paragraphs = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      if (random.nextInt(3) > 0) {
+        paragraphs.add(paragraph(Integer.toString(i)));
+      }
+    }
+    return paragraphs;
+  }
+
+  private static String paragraph(final String name) {
+    return "Package: " + name + "\nVersion: 1\n\n";
+  }
+
+  private static ByteArrayInputStream stream(final String text) {
+    return new ByteArrayInputStream(text.getBytes(UTF_8));
+  }
+
+  /**
+   * Applies an ed script the way apt does.
+   */
+  private static String apply(final List<String> paragraphs, final String script) {
+    List<String> lines = new ArrayList<>();
+    paragraphs.forEach(paragraph -> lines.addAll(Arrays.asList(paragraph.split("(?<=\n)"))));
+
+    List<String> commands = Arrays.asList(script.split("(?<=\n)"));
+    for (int i = 0; i < commands.size(); i++) {
+      Matcher matcher = COMMAND.matcher(commands.get(i).trim());
+      assertThat(matcher.matches(), is(true));
+      int start = Integer.parseInt(matcher.group(1));
+      int end = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : start;
+      String command = matcher.group(3);
+
+      List<String> text = new ArrayList<>();
+      if (!"d".equals(command)) {
+        while (!".\n".equals(commands.get(++i))) {
+          text.add(commands.get(i));
+        }
+      }
+      if ("a".equals(command)) {
+        lines.addAll(start, text);
+      }
+      else {
+        lines.subList(start - 1, end).clear();
+        lines.addAll(start - 1, text);
+      }
+    }
+    return String.join("", lines);
+  }
+}
@@ -15,6 +15,9 @@ package org.sonatype.nexus.repository.httpbridge.internal;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -31,9 +34,14 @@ import org.sonatype.nexus.repository.view.Request;
 import org.sonatype.nexus.repository.view.Response;
 import org.sonatype.nexus.repository.view.Status;
 
+import org.eclipse.jetty.server.HttpOutput;
+
 /**
  * Default {@link HttpResponseSender}.
  *
+ * Payloads held in local files are handed to Jetty as a channel, which reads them straight into its pooled (direct)
+ * output buffers instead of copying through a buffered stream and a heap buffer. Other payloads are streamed.
+ *
  * @since 3.0
  */
 @Named
@@ -75,8 +83,12 @@ public class DefaultHttpResponseSender
           }
 
           if (request != null && !HttpMethods.HEAD.equals(request.getAction())) {
-            try (InputStream input = payload.openInputStream(); OutputStream output = httpResponse.getOutputStream()) {
-              payload.copy(input, output);
+            try (OutputStream output = httpResponse.getOutputStream()) {
+              if (!sendFileChannel(payload, output)) {
+                try (InputStream input = payload.openInputStream()) {
+                  payload.copy(input, output);
+                }
+              }
             }
           }
         }
@@ -86,4 +98,75 @@ public class DefaultHttpResponseSender
       }
     }
   }
+
+  /**
+   * Sends the payload directly from its file when both the payload and the servlet output support it.
+   *
+   * @return {@code false} if nothing was written and the payload should be streamed instead
+   */
+  private boolean sendFileChannel(final Payload payload, final OutputStream output) throws IOException {
+    if (!(output instanceof HttpOutput)) {
+      return false;
+    }
+    try (FileChannel channel = payload.openFileChannel()) {
+      if (channel == null) {
+        return false;
+      }
+      log.trace("Sending payload from file channel: {}", payload);
+
+      long size = payload.getSize() != Payload.UNKNOWN_SIZE ? payload.getSize() : channel.size() - channel.position();
+      ((HttpOutput) output).sendContent(new BoundedChannel(channel, size));
+      return true;
+    }
+  }
+
+  /**
+   * Reads at most {@code limit} bytes from the current position of a file channel, so byte ranges of a file end where
+   * the range ends rather than at the end of the file.
+   */
+  private static class BoundedChannel
+      implements ReadableByteChannel
+  {
+    private final FileChannel channel;
+
+    private long remaining;
+
+    BoundedChannel(final FileChannel channel, final long limit) {
+      this.channel = channel;
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int read;
+      if (dst.remaining() > remaining) {
+        ByteBuffer slice = dst.duplicate();
+        slice.limit(slice.position() + (int) remaining);
+        read = channel.read(slice);
+        if (read > 0) {
+          dst.position(dst.position() + read);
+        }
+      }
+      else {
+        read = channel.read(dst);
+      }
+      if (read > 0) {
+        remaining -= read;
+      }
+      return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
 }
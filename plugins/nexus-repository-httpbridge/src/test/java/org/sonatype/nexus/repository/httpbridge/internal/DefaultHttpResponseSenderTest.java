@@ -13,9 +13,15 @@
 package org.sonatype.nexus.repository.httpbridge.internal;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
@@ -29,10 +35,13 @@ import org.sonatype.nexus.repository.view.Payload;
 import org.sonatype.nexus.repository.view.Request;
 import org.sonatype.nexus.repository.view.Response;
 import org.sonatype.nexus.repository.view.Status;
+import org.sonatype.nexus.repository.view.payloads.PathPayload;
 import org.sonatype.nexus.repository.view.payloads.StringPayload;
 
+import org.eclipse.jetty.server.HttpOutput;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -40,9 +49,14 @@ import org.mockito.Spy;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonatype.nexus.repository.http.HttpStatus.FORBIDDEN;
@@ -151,6 +165,74 @@ public class DefaultHttpResponseSenderTest
     order.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void fileBackedPayloadIsSentFromFileChannel() throws Exception {
+    when(request.getAction()).thenReturn(HttpMethods.GET);
+    HttpOutput httpOutput = mock(HttpOutput.class);
+    ByteArrayOutputStream sent = captureSentContent(httpOutput);
+    when(httpServletResponse.getOutputStream()).thenReturn(httpOutput);
+
+    Path file = util.createTempFile().toPath();
+    Files.write(file, TEST_CONTENT);
+    Payload filePayload = spy(new PathPayload(file, "text/plain"));
+
+    underTest.send(request, HttpResponses.ok(filePayload), httpServletResponse);
+
+    assertThat(sent.toByteArray(), is(TEST_CONTENT));
+    verify(filePayload, never()).openInputStream();
+    verify(httpOutput).close();
+  }
+
+  @Test
+  public void fileChannelIsLimitedToPayloadRange() throws Exception {
+    when(request.getAction()).thenReturn(HttpMethods.GET);
+    HttpOutput httpOutput = mock(HttpOutput.class);
+    ByteArrayOutputStream sent = captureSentContent(httpOutput);
+    when(httpServletResponse.getOutputStream()).thenReturn(httpOutput);
+
+    Path file = util.createTempFile().toPath();
+    Files.write(file, TEST_CONTENT);
+    FileChannel channel = FileChannel.open(file);
+    channel.position(5);
+    when(payload.openFileChannel()).thenReturn(channel);
+    when(payload.getSize()).thenReturn(4L);
+
+    underTest.send(request, HttpResponses.ok(payload), httpServletResponse);
+
+    assertThat(sent.toByteArray(), is("CONT".getBytes(StandardCharsets.UTF_8)));
+    verify(payload, never()).openInputStream();
+  }
+
+  /**
+   * Drains the channel handed to {@link HttpOutput#sendContent(ReadableByteChannel)} through a small buffer.
+   */
+  private static ByteArrayOutputStream captureSentContent(final HttpOutput httpOutput) throws IOException {
+    ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    doAnswer(invocation -> {
+      ReadableByteChannel channel = invocation.getArgument(0);
+      ByteBuffer buffer = ByteBuffer.allocate(3);
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        sent.write(buffer.array(), 0, buffer.limit());
+        buffer.clear();
+      }
+      return null;
+    }).when(httpOutput).sendContent(any(ReadableByteChannel.class));
+    return sent;
+  }
+
+  @Test
+  public void payloadIsStreamedWhenNotFileBacked() throws Exception {
+    when(request.getAction()).thenReturn(HttpMethods.GET);
+    HttpOutput httpOutput = mock(HttpOutput.class);
+    when(httpServletResponse.getOutputStream()).thenReturn(httpOutput);
+
+    underTest.send(request, HttpResponses.ok(payload), httpServletResponse);
+
+    verify(payload).openFileChannel();
+    verify(payload).copy(input, httpOutput);
+  }
+
   @Test
   public void customStatusMessageIsMaintained() throws Exception {
     when(request.getAction()).thenReturn(HttpMethods.GET);
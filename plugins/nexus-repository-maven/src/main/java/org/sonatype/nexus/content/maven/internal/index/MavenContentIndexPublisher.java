@@ -25,8 +25,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.stream.StreamSupport;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -48,6 +50,7 @@ import org.sonatype.nexus.repository.maven.internal.MavenIndexPublisher;
 import org.sonatype.nexus.repository.maven.internal.filter.DuplicateDetectionStrategy;
 import org.sonatype.nexus.repository.view.Content;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Closer;
 import org.apache.maven.index.reader.IndexWriter;
 import org.apache.maven.index.reader.Record;
@@ -56,6 +59,7 @@ import org.apache.maven.index.reader.WritableResourceHandler.WritableResource;
 import org.joda.time.DateTime;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
@@ -83,8 +87,10 @@ public class MavenContentIndexPublisher
 
   @Inject
   public MavenContentIndexPublisher(
-      @Named("${nexus.maven.index.publisher.browseAssetsPageSize:-1000}") final int browseAssetsPageSize)
+      @Named("${nexus.maven.index.publisher.browseAssetsPageSize:-1000}") final int browseAssetsPageSize,
+      @Named("${nexus.maven.index.publisher.maxIncrementalChunks:-30}") final int maxIncrementalChunks)
   {
+    super(maxIncrementalChunks);
     this.browseAssetsPageSize = browseAssetsPageSize;
   }
 
@@ -122,18 +128,33 @@ public class MavenContentIndexPublisher
       final Repository repository, final DuplicateDetectionStrategy<Record> duplicateDetectionStrategy)
       throws IOException
   {
+    long started = System.currentTimeMillis();
+    Properties previous = loadIndexProperties(repository);
+    OffsetDateTime since = incrementalPublishSince(previous);
+    if (since != null) {
+      List<Record> changed = getHostedRecords(repository, duplicateDetectionStrategy, since);
+      if (changed.isEmpty()) {
+        log.debug("No artifacts of {} changed since {}, nothing to publish", repository.getName(), since);
+      }
+      else {
+        publishIncrementalChunk(repository, changed, started, emptyMap());
+      }
+      return;
+    }
+
     try (Maven2WritableResourceHandler resourceHandler = new Maven2WritableResourceHandler(repository)) {
       try (IndexWriter indexWriter = new IndexWriter(resourceHandler, repository.getName(), false)) {
         indexWriter.writeChunk(records(repository, duplicateDetectionStrategy).iterator());
       }
     }
+    startIncrementalChain(repository, previous, started, emptyMap());
   }
 
   private Iterable<Map<String, String>> records(
       final Repository repository,
       final DuplicateDetectionStrategy<Record> duplicateDetectionStrategy)
   {
-    List<Record> hostedRecords = getHostedRecords(repository, duplicateDetectionStrategy);
+    List<Record> hostedRecords = getHostedRecords(repository, duplicateDetectionStrategy, null);
     return StreamSupport.stream(decorate(hostedRecords, repository.getName()).spliterator(), false)
         .map(RECORD_COMPACTOR::apply)
         .collect(toList());
@@ -141,12 +162,16 @@ public class MavenContentIndexPublisher
 
   private List<Record> getHostedRecords(
       final Repository repository,
-      final DuplicateDetectionStrategy<Record> duplicateDetectionStrategy) {
+      final DuplicateDetectionStrategy<Record> duplicateDetectionStrategy,
+      @Nullable final OffsetDateTime updatedSince) {
 
     List<Record> records = new ArrayList<>();
     MavenContentFacet mavenContentFacet = repository.facet(MavenContentFacet.class);
 
-    FluentQuery<FluentAsset> artifactQuery = mavenContentFacet.assets().byKind(ARTIFACT.name());
+    FluentQuery<FluentAsset> artifactQuery = updatedSince == null
+        ? mavenContentFacet.assets().byKind(ARTIFACT.name())
+        : mavenContentFacet.assets().byFilter("kind = #{filterParams.kind} AND last_updated > #{filterParams.since}",
+            ImmutableMap.of("kind", ARTIFACT.name(), "since", updatedSince));
     Continuation<FluentAsset> assets = artifactQuery.browse(browseAssetsPageSize, null);
     while (!assets.isEmpty()) {
       records.addAll(assetsToRecords(assets, mavenContentFacet, duplicateDetectionStrategy));
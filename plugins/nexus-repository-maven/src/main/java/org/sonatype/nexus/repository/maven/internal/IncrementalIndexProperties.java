@@ -0,0 +1,166 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import static org.apache.maven.index.reader.Utils.INDEX_FILE_PREFIX;
+
+/**
+ * Bookkeeping of the incremental chunk chain in {@code nexus-maven-repository-index.properties}.
+ *
+ * Uses the same layout as Maven Indexer: {@code nexus.index.last-incremental} holds the counter of the newest chunk
+ * and {@code nexus.index.incremental-<n>} lists the available chunk counters, newest first. Clients holding a chain
+ * at counter {@code c} only download chunks {@code c+1} up to {@code last-incremental}; a new
+ * {@code nexus.index.chain-id} forces them to download the full index instead.
+ *
+ * @since 3.71
+ */
+final class IncrementalIndexProperties
+{
+  static final String CHAIN_ID = "nexus.index.chain-id";
+
+  static final String LAST_INCREMENTAL = "nexus.index.last-incremental";
+
+  static final String INCREMENTAL_PREFIX = "nexus.index.incremental-";
+
+  /**
+   * When the publication of the newest chunk started, in epoch milliseconds; content changed after this instant is
+   * not yet part of the index. Not read by clients.
+   */
+  static final String PUBLISH_STARTED = "nexus.index.publish-started";
+
+  /**
+   * Prefix of the chain position of each group member, recorded by group indexes. Not read by clients.
+   */
+  static final String MEMBER_PREFIX = "nexus.index.member.";
+
+  private IncrementalIndexProperties() {
+    // no instance
+  }
+
+  static String chunkName(final int counter) {
+    return INDEX_FILE_PREFIX + "." + counter + ".gz";
+  }
+
+  /**
+   * Returns the counter of the newest incremental chunk, or {@code null} if the index is not part of a chain.
+   */
+  @Nullable
+  static Integer lastIncremental(final Properties properties) {
+    try {
+      return Integer.valueOf(properties.getProperty(LAST_INCREMENTAL));
+    }
+    catch (NumberFormatException e) { // NOSONAR
+      return null;
+    }
+  }
+
+  @Nullable
+  static Long publishStarted(final Properties properties) {
+    try {
+      return Long.valueOf(properties.getProperty(PUBLISH_STARTED));
+    }
+    catch (NumberFormatException e) { // NOSONAR
+      return null;
+    }
+  }
+
+  /**
+   * The counters of the available incremental chunks, newest first.
+   */
+  static List<Integer> incrementalChunks(final Properties properties) {
+    List<Integer> counters = new ArrayList<>();
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(INCREMENTAL_PREFIX)) {
+        try {
+          counters.add(Integer.valueOf(properties.getProperty(key)));
+        }
+        catch (NumberFormatException e) { // NOSONAR
+          // ignore malformed entries
+        }
+      }
+    }
+    counters.sort(Comparator.reverseOrder());
+    return counters;
+  }
+
+  /**
+   * Starts a new chain on top of a freshly written full index.
+   */
+  static void startChain(final Properties properties, final long publishStarted, final Map<String, String> members) {
+    removeKeys(properties, INCREMENTAL_PREFIX);
+    properties.setProperty(LAST_INCREMENTAL, "0");
+    properties.setProperty(PUBLISH_STARTED, Long.toString(publishStarted));
+    setMembers(properties, members);
+  }
+
+  /**
+   * Records the chunk just written as {@code last-incremental}, shifting the older chunks down the list.
+   */
+  static void appendChunk(final Properties properties, final long publishStarted, final Map<String, String> members) {
+    Map<Integer, String> older = new TreeMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(INCREMENTAL_PREFIX)) {
+        try {
+          older.put(Integer.valueOf(key.substring(INCREMENTAL_PREFIX.length())), properties.getProperty(key));
+        }
+        catch (NumberFormatException e) { // NOSONAR
+          // drop malformed entries
+        }
+      }
+    }
+    removeKeys(properties, INCREMENTAL_PREFIX);
+    older.forEach((position, counter) -> properties.setProperty(INCREMENTAL_PREFIX + (position + 1), counter));
+    properties.setProperty(INCREMENTAL_PREFIX + "0", properties.getProperty(LAST_INCREMENTAL));
+    properties.setProperty(PUBLISH_STARTED, Long.toString(publishStarted));
+    setMembers(properties, members);
+  }
+
+  /**
+   * The chain position of the given index, as recorded for it by a group: {@code <chain-id>/<last-incremental>}.
+   */
+  static String memberState(final Properties memberProperties) {
+    Integer lastIncremental = lastIncremental(memberProperties);
+    return memberProperties.getProperty(CHAIN_ID) + "/" + (lastIncremental == null ? "" : lastIncremental);
+  }
+
+  static Map<String, String> members(final Properties properties) {
+    Map<String, String> members = new HashMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(MEMBER_PREFIX)) {
+        members.put(key.substring(MEMBER_PREFIX.length()), properties.getProperty(key));
+      }
+    }
+    return members;
+  }
+
+  private static void setMembers(final Properties properties, final Map<String, String> members) {
+    removeKeys(properties, MEMBER_PREFIX);
+    members.forEach((name, state) -> properties.setProperty(MEMBER_PREFIX + name, state));
+  }
+
+  private static void removeKeys(final Properties properties, final String prefix) {
+    properties.stringPropertyNames().stream()
+        .filter(key -> key.startsWith(prefix))
+        .forEach(properties::remove);
+  }
+}
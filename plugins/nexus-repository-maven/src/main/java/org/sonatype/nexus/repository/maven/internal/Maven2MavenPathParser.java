@@ -13,6 +13,7 @@
 package org.sonatype.nexus.repository.maven.internal;
 
 import java.util.Locale;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -41,6 +42,9 @@ public class Maven2MavenPathParser
 {
   private static final String TAR_EXT_PREFIX = ".tar";
 
+  private static final Pattern INDEX_INCREMENTAL_CHUNK_PATH =
+      Pattern.compile(Pattern.quote(Constants.INDEX_FILE_BASE_PATH) + "\\.\\d+\\.gz");
+
   private static final String CPIO_EXT_PREFIX = ".cpio";
 
   // The extension supported for Coca-Cola
@@ -73,7 +77,8 @@ public class Maven2MavenPathParser
   @Override
   public boolean isRepositoryIndex(final MavenPath path) {
     return path.getPath().equals(Constants.INDEX_MAIN_CHUNK_FILE_PATH) ||
-        path.getPath().equals(Constants.INDEX_PROPERTY_FILE_PATH);
+        path.getPath().equals(Constants.INDEX_PROPERTY_FILE_PATH) ||
+        INDEX_INCREMENTAL_CHUNK_PATH.matcher(path.getPath()).matches();
   }
 
   /**
@@ -13,13 +13,23 @@
 package org.sonatype.nexus.repository.maven.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
 
 import org.sonatype.goodies.common.ComponentSupport;
 import org.sonatype.nexus.repository.Repository;
@@ -50,21 +60,38 @@ import org.joda.time.DateTime;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
+import static java.time.ZoneOffset.UTC;
 import static java.util.Collections.singletonList;
+import static org.apache.maven.index.reader.Utils.INDEX_FILE_PREFIX;
 import static org.apache.maven.index.reader.Utils.allGroups;
 import static org.apache.maven.index.reader.Utils.descriptor;
+import static org.apache.maven.index.reader.Utils.loadProperties;
 import static org.apache.maven.index.reader.Utils.rootGroup;
 import static org.apache.maven.index.reader.Utils.rootGroups;
+import static org.apache.maven.index.reader.Utils.storeProperties;
 import static org.sonatype.nexus.repository.http.HttpMethods.GET;
+import static org.sonatype.nexus.repository.maven.internal.Constants.INDEX_FILE_BASE_PATH;
 import static org.sonatype.nexus.repository.maven.internal.Constants.INDEX_MAIN_CHUNK_FILE_PATH;
 import static org.sonatype.nexus.repository.maven.internal.Constants.INDEX_PROPERTY_FILE_PATH;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.chunkName;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.incrementalChunks;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.lastIncremental;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.memberState;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.members;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.publishStarted;
 
 /**
  * General logic for Maven index publishing.
  *
+ * When {@code maxIncrementalChunks} is positive, publishers may publish only what changed since the previous
+ * publication as a numbered incremental chunk, so that clients which already hold the index only download the
+ * changes. After that many incremental chunks the full index is published again, starting a new chain; artifacts
+ * removed from a repository disappear from the index at that point.
+ *
  * @since 3.26
  */
 public abstract class MavenIndexPublisher extends ComponentSupport
@@ -73,10 +100,33 @@ public abstract class MavenIndexPublisher extends ComponentSupport
 
   private static final String INDEX_MAIN_CHUNK_FILE = "/" + INDEX_MAIN_CHUNK_FILE_PATH;
 
+  private static final String INDEX_PROPERTY_FILE_NAME = INDEX_FILE_PREFIX + ".properties";
+
+  /**
+   * Content changed shortly before the previous publication started may not have been committed yet when it was
+   * read, so incremental publications look back a little further.
+   */
+  private static final long INCREMENTAL_OVERLAP_MILLIS = 10L * 60 * 1000;
+
   private static final RecordExpander RECORD_EXPANDER = new RecordExpander();
 
   protected static final RecordCompactor RECORD_COMPACTOR = new RecordCompactor();
 
+  private final int maxIncrementalChunks;
+
+  protected MavenIndexPublisher() {
+    this(0);
+  }
+
+  /**
+   * @param maxIncrementalChunks incremental chunks to publish before the full index is published again, {@code 0} to
+   *                             always publish the full index
+   * @since 3.71
+   */
+  protected MavenIndexPublisher(final int maxIncrementalChunks) {
+    this.maxIncrementalChunks = maxIncrementalChunks;
+  }
+
   /**
    * Gets the MavenPathParser for the specified repository.
    */
@@ -98,6 +148,10 @@ public abstract class MavenIndexPublisher extends ComponentSupport
    */
   public boolean unpublishIndexFiles(final Repository repository) throws IOException {
     checkNotNull(repository);
+    Properties properties = loadIndexProperties(repository);
+    if (properties != null) {
+      deleteIncrementalChunks(repository, properties);
+    }
     return delete(repository, INDEX_PROPERTY_FILE)
         && delete(repository, INDEX_MAIN_CHUNK_FILE);
   }
@@ -109,10 +163,36 @@ public abstract class MavenIndexPublisher extends ComponentSupport
       final List<Repository> repositories,
       final Closer closer) throws IOException;
 
+  /**
+   * Get the artifact records of the index published by the specified repository, including its incremental chunks
+   * (newest first, so that duplicate detection keeps the most recent record of an artifact).
+   */
   protected Iterable<Record> getRecords(final Repository repository, final Closer closer) throws IOException {
     ResourceHandler resourceHandler = closer.register(getResourceHandler(repository));
+    List<Iterable<Record>> chunks = new ArrayList<>();
+    Properties properties = loadProperties(resourceHandler.locate(INDEX_PROPERTY_FILE_NAME));
+    if (properties != null) {
+      for (int counter : incrementalChunks(properties)) {
+        chunks.add(readChunk(resourceHandler, chunkName(counter), closer));
+      }
+    }
     IndexReader indexReader = closer.register(new IndexReader(null, resourceHandler));
     ChunkReader chunkReader = closer.register(indexReader.iterator().next());
+    chunks.add(filter(transform(chunkReader, RECORD_EXPANDER::apply), new RecordTypeFilter(Type.ARTIFACT_ADD)));
+    return concat(chunks);
+  }
+
+  private static Iterable<Record> readChunk(
+      final ResourceHandler resourceHandler,
+      final String chunkName,
+      final Closer closer) throws IOException
+  {
+    InputStream in = resourceHandler.locate(chunkName).read();
+    if (in == null) {
+      throw new IOException("Missing index chunk " + chunkName);
+    }
+    closer.register(in);
+    ChunkReader chunkReader = closer.register(new ChunkReader(chunkName, in));
     return filter(transform(chunkReader, RECORD_EXPANDER::apply), new RecordTypeFilter(Type.ARTIFACT_ADD));
   }
 
@@ -177,6 +257,24 @@ public abstract class MavenIndexPublisher extends ComponentSupport
   {
     checkNotNull(target);
     checkNotNull(repositories);
+    long started = System.currentTimeMillis();
+    Properties previous = loadIndexProperties(target);
+    Map<String, Properties> memberProperties = new LinkedHashMap<>();
+    for (Repository repository : repositories) {
+      Properties properties = loadIndexProperties(repository);
+      if (properties != null) {
+        memberProperties.put(repository.getName(), properties);
+      }
+    }
+    Map<String, String> members = new LinkedHashMap<>();
+    memberProperties.forEach((name, properties) -> members.put(name, memberState(properties)));
+
+    if (incrementalPublishSince(previous) != null && sameChains(members(previous), members)) {
+      publishMergedIncrementalChunk(target, repositories, members(previous), memberProperties, duplicateDetectionStrategy,
+          started, members);
+      return;
+    }
+
     Closer closer = Closer.create();
     try (WritableResourceHandler resourceHandler = getResourceHandler(target);
          IndexWriter indexWriter = new IndexWriter(resourceHandler, target.getName(), false)) {
@@ -196,6 +294,172 @@ public abstract class MavenIndexPublisher extends ComponentSupport
     finally {
       closer.close();
     }
+    startIncrementalChain(target, previous, started, members);
+  }
+
+  /**
+   * Publishes the incremental chunks which members published since the previous publication of the group as one
+   * incremental chunk of the group.
+   */
+  private void publishMergedIncrementalChunk(
+      final Repository target,
+      final List<Repository> repositories,
+      final Map<String, String> previousMembers,
+      final Map<String, Properties> memberProperties,
+      final DuplicateDetectionStrategy<Record> duplicateDetectionStrategy,
+      final long started,
+      final Map<String, String> members) throws IOException
+  {
+    Closer closer = Closer.create();
+    try {
+      List<Iterable<Record>> changes = new ArrayList<>();
+      for (Repository repository : repositories) {
+        Properties properties = memberProperties.get(repository.getName());
+        int published = chainCounter(previousMembers.get(repository.getName()));
+        ResourceHandler resourceHandler = closer.register(getResourceHandler(repository));
+        for (int counter : incrementalChunks(properties)) {
+          if (counter > published) {
+            changes.add(readChunk(resourceHandler, chunkName(counter), closer));
+          }
+        }
+      }
+      if (changes.isEmpty()) {
+        log.debug("No member of group {} changed its index, nothing to publish", target.getName());
+        return;
+      }
+      publishIncrementalChunk(target, filter(concat(changes), duplicateDetectionStrategy), started, members);
+    }
+    catch (Throwable t) {
+      throw closer.rethrow(t);
+    }
+    finally {
+      closer.close();
+    }
+  }
+
+  /**
+   * Whether every member still publishes the chain recorded by the group, so the group only needs their new chunks.
+   */
+  private static boolean sameChains(final Map<String, String> previousMembers, final Map<String, String> members) {
+    if (!previousMembers.keySet().equals(members.keySet())) {
+      return false;
+    }
+    for (Entry<String, String> member : members.entrySet()) {
+      String previous = previousMembers.get(member.getKey());
+      if (!chainId(previous).equals(chainId(member.getValue()))
+          || chainCounter(previous) > chainCounter(member.getValue())) {
+        return false;
+      }
+      if (chainCounter(previous) < 0 && !previous.equals(member.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String chainId(final String memberState) {
+    return memberState.substring(0, memberState.lastIndexOf('/'));
+  }
+
+  private static int chainCounter(final String memberState) {
+    String counter = memberState.substring(memberState.lastIndexOf('/') + 1);
+    return counter.isEmpty() ? -1 : Integer.parseInt(counter);
+  }
+
+  /**
+   * Loads the published {@code nexus-maven-repository-index.properties} of the specified repository, if any.
+   *
+   * @since 3.71
+   */
+  @Nullable
+  protected Properties loadIndexProperties(final Repository repository) throws IOException {
+    try (WritableResourceHandler resourceHandler = getResourceHandler(repository)) {
+      return loadProperties(resourceHandler.locate(INDEX_PROPERTY_FILE_NAME));
+    }
+  }
+
+  /**
+   * Returns the instant after which changed content needs to be published as the next incremental chunk, or
+   * {@code null} if the full index needs to be published instead.
+   *
+   * @since 3.71
+   */
+  @Nullable
+  protected OffsetDateTime incrementalPublishSince(@Nullable final Properties previous) {
+    if (maxIncrementalChunks <= 0 || previous == null) {
+      return null;
+    }
+    Integer lastIncremental = lastIncremental(previous);
+    Long publishStarted = publishStarted(previous);
+    if (lastIncremental == null || publishStarted == null) {
+      return null;
+    }
+    if (lastIncremental >= maxIncrementalChunks) {
+      log.debug("Index has {} incremental chunks, publishing full index", lastIncremental);
+      return null;
+    }
+    return Instant.ofEpochMilli(publishStarted - INCREMENTAL_OVERLAP_MILLIS).atOffset(UTC);
+  }
+
+  /**
+   * Publishes the given records as the next incremental chunk of the index of the specified repository.
+   *
+   * @since 3.71
+   */
+  protected void publishIncrementalChunk(
+      final Repository repository,
+      final Iterable<Record> records,
+      final long publishStarted,
+      final Map<String, String> members) throws IOException
+  {
+    String chunkName;
+    try (WritableResourceHandler resourceHandler = getResourceHandler(repository);
+         IndexWriter indexWriter = new IndexWriter(resourceHandler, repository.getName(), true)) {
+      chunkName = indexWriter.getNextChunkName();
+      indexWriter.writeChunk(
+          transform(decorate(records, repository.getName()), RECORD_COMPACTOR::apply).iterator());
+    }
+    updateIndexProperties(repository,
+        properties -> IncrementalIndexProperties.appendChunk(properties, publishStarted, members));
+    log.debug("Published incremental index chunk {} of {}", chunkName, repository.getName());
+  }
+
+  /**
+   * Makes the freshly published full index of the specified repository the start of a new incremental chain, and
+   * removes the chunks of the {@code previous} chain.
+   *
+   * @since 3.71
+   */
+  protected void startIncrementalChain(
+      final Repository repository,
+      @Nullable final Properties previous,
+      final long publishStarted,
+      final Map<String, String> members) throws IOException
+  {
+    if (maxIncrementalChunks > 0) {
+      updateIndexProperties(repository,
+          properties -> IncrementalIndexProperties.startChain(properties, publishStarted, members));
+    }
+    if (previous != null) {
+      deleteIncrementalChunks(repository, previous);
+    }
+  }
+
+  private void updateIndexProperties(final Repository repository, final Consumer<Properties> update)
+      throws IOException
+  {
+    try (WritableResourceHandler resourceHandler = getResourceHandler(repository)) {
+      Properties properties = loadProperties(resourceHandler.locate(INDEX_PROPERTY_FILE_NAME));
+      checkState(properties != null, "Index of %s has no properties", repository.getName());
+      update.accept(properties);
+      storeProperties(resourceHandler.locate(INDEX_PROPERTY_FILE_NAME), properties);
+    }
+  }
+
+  private void deleteIncrementalChunks(final Repository repository, final Properties properties) throws IOException {
+    for (int counter : incrementalChunks(properties)) {
+      delete(repository, "/" + INDEX_FILE_BASE_PATH + "." + counter + ".gz");
+    }
   }
 
   /**
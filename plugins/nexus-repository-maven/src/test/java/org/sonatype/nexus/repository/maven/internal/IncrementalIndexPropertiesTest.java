@@ -0,0 +1,79 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import java.util.Properties;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.CHAIN_ID;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.LAST_INCREMENTAL;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.appendChunk;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.incrementalChunks;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.lastIncremental;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.memberState;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.members;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.publishStarted;
+import static org.sonatype.nexus.repository.maven.internal.IncrementalIndexProperties.startChain;
+
+public class IncrementalIndexPropertiesTest
+    extends TestSupport
+{
+  @Test
+  public void newChainHasNoChunks() {
+    Properties properties = new Properties();
+    properties.setProperty("nexus.index.incremental-0", "7");
+
+    startChain(properties, 100L, ImmutableMap.of("central", "abc/3"));
+
+    assertThat(lastIncremental(properties), is(0));
+    assertThat(publishStarted(properties), is(100L));
+    assertThat(incrementalChunks(properties), is(empty()));
+    assertThat(members(properties), is(ImmutableMap.of("central", "abc/3")));
+  }
+
+  @Test
+  public void chunksAreListedNewestFirst() {
+    Properties properties = new Properties();
+    startChain(properties, 100L, emptyMap());
+
+    properties.setProperty(LAST_INCREMENTAL, "1");
+    appendChunk(properties, 200L, emptyMap());
+    properties.setProperty(LAST_INCREMENTAL, "2");
+    appendChunk(properties, 300L, emptyMap());
+
+    assertThat(properties.getProperty("nexus.index.incremental-0"), is("2"));
+    assertThat(properties.getProperty("nexus.index.incremental-1"), is("1"));
+    assertThat(incrementalChunks(properties), contains(2, 1));
+    assertThat(publishStarted(properties), is(300L));
+  }
+
+  @Test
+  public void indexWithoutChain() {
+    Properties properties = new Properties();
+    properties.setProperty(CHAIN_ID, "abc");
+
+    assertThat(lastIncremental(properties), is(nullValue()));
+    assertThat(publishStarted(properties), is(nullValue()));
+    assertThat(memberState(properties), is("abc/"));
+  }
+}
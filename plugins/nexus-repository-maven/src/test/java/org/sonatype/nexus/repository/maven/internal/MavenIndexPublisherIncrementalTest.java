@@ -0,0 +1,335 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2008-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.nexus.repository.maven.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.maven.MavenIndexFacet;
+import org.sonatype.nexus.repository.maven.MavenPathParser;
+import org.sonatype.nexus.repository.maven.internal.filter.DuplicateDetectionStrategy;
+import org.sonatype.nexus.repository.maven.internal.filter.HashBasedDuplicateDetectionStrategy;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closer;
+import org.apache.maven.index.reader.ChunkReader;
+import org.apache.maven.index.reader.IndexReader;
+import org.apache.maven.index.reader.IndexWriter;
+import org.apache.maven.index.reader.Record;
+import org.apache.maven.index.reader.Record.Type;
+import org.apache.maven.index.reader.RecordExpander;
+import org.apache.maven.index.reader.WritableResourceHandler;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.google.common.collect.Iterables.transform;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for incremental publishing in {@link MavenIndexPublisher}, checked against the indexer-reader client.
+ */
+public class MavenIndexPublisherIncrementalTest
+    extends TestSupport
+{
+  private static final String CHUNK_1 = "nexus-maven-repository-index.1.gz";
+
+  private static final String CHUNK_2 = "nexus-maven-repository-index.2.gz";
+
+  private static final String PROPERTIES = "nexus-maven-repository-index.properties";
+
+  private final Map<String, Map<String, byte[]>> storage = new ConcurrentHashMap<>();
+
+  private TestPublisher underTest;
+
+  private Repository hosted;
+
+  private Repository group;
+
+  @Before
+  public void setUp() throws IOException {
+    underTest = new TestPublisher(2);
+    hosted = repository("hosted");
+    group = repository("group");
+  }
+
+  @Test
+  public void clientsOnlyDownloadIncrementalChunks() throws IOException {
+    InMemoryResourceHandler client = new InMemoryResourceHandler(new HashMap<>());
+
+    underTest.publishHosted(hosted, record("a"));
+    try (IndexReader reader = new IndexReader(client, underTest.getResourceHandler(hosted))) {
+      assertThat(reader.isIncremental(), is(false));
+      assertThat(artifactIds(reader), contains("a"));
+    }
+
+    underTest.publishHosted(hosted, record("b"));
+    try (IndexReader reader = new IndexReader(client, underTest.getResourceHandler(hosted))) {
+      assertThat(reader.isIncremental(), is(true));
+      assertThat(reader.getChunkNames(), contains(CHUNK_1));
+      assertThat(artifactIds(reader), contains("b"));
+    }
+  }
+
+  @Test
+  public void fullIndexIsPublishedAfterMaxIncrementalChunks() throws IOException {
+    underTest.publishHosted(hosted, record("a"));
+    String chainId = properties(hosted).getProperty(IncrementalIndexProperties.CHAIN_ID);
+    underTest.publishHosted(hosted, record("b"));
+    underTest.publishHosted(hosted, record("c"));
+
+    assertThat(storage.get("hosted"), hasKey(CHUNK_2));
+    assertThat(records(hosted), contains("c", "b", "a"));
+
+    underTest.publishHosted(hosted, record("d"));
+
+    Properties properties = properties(hosted);
+    assertThat(properties.getProperty(IncrementalIndexProperties.LAST_INCREMENTAL), is("0"));
+    assertThat(properties.getProperty(IncrementalIndexProperties.CHAIN_ID).equals(chainId), is(false));
+    assertThat(storage.get("hosted"), not(hasKey(CHUNK_1)));
+    assertThat(storage.get("hosted"), not(hasKey(CHUNK_2)));
+  }
+
+  @Test
+  public void groupPublishesNewMemberChunksOnly() throws IOException {
+    underTest.publishHosted(hosted, record("a"));
+    underTest.publishGroupIndex(group, Lists.newArrayList(hosted), new HashBasedDuplicateDetectionStrategy());
+    assertThat(records(group), contains("a"));
+
+    underTest.publishHosted(hosted, record("b"));
+    underTest.publishGroupIndex(group, Lists.newArrayList(hosted), new HashBasedDuplicateDetectionStrategy());
+
+    assertThat(chunk(group, CHUNK_1), contains("b"));
+    assertThat(records(group), contains("b", "a"));
+
+    // nothing changed in the member, so nothing to publish
+    underTest.publishGroupIndex(group, Lists.newArrayList(hosted), new HashBasedDuplicateDetectionStrategy());
+    assertThat(storage.get("group"), not(hasKey(CHUNK_2)));
+  }
+
+  @Test
+  public void groupIsMergedAgainWhenMemberStartsNewChain() throws IOException {
+    underTest.publishHosted(hosted, record("a"));
+    underTest.publishGroupIndex(group, Lists.newArrayList(hosted), new HashBasedDuplicateDetectionStrategy());
+
+    underTest.publishFullHosted(hosted, record("x"));
+    underTest.publishGroupIndex(group, Lists.newArrayList(hosted), new HashBasedDuplicateDetectionStrategy());
+
+    assertThat(storage.get("group"), not(hasKey(CHUNK_1)));
+    assertThat(records(group), contains("x"));
+  }
+
+  private Repository repository(final String name) throws IOException {
+    Repository repository = mock(Repository.class);
+    when(repository.getName()).thenReturn(name);
+    MavenIndexFacet indexFacet = mock(MavenIndexFacet.class);
+    when(indexFacet.lastPublished()).thenReturn(DateTime.now());
+    when(repository.facet(MavenIndexFacet.class)).thenReturn(indexFacet);
+    storage.put(name, new ConcurrentHashMap<>());
+    return repository;
+  }
+
+  private static Record record(final String artifactId) {
+    Record record = new Record(Type.ARTIFACT_ADD, new HashMap<>());
+    record.put(Record.REC_MODIFIED, 1L);
+    record.put(Record.GROUP_ID, "org.example");
+    record.put(Record.ARTIFACT_ID, artifactId);
+    record.put(Record.VERSION, "1.0");
+    record.put(Record.PACKAGING, "jar");
+    record.put(Record.FILE_EXTENSION, "jar");
+    record.put(Record.FILE_MODIFIED, 1L);
+    record.put(Record.FILE_SIZE, 10L);
+    record.put(Record.HAS_SOURCES, false);
+    record.put(Record.HAS_JAVADOC, false);
+    record.put(Record.HAS_SIGNATURE, false);
+    record.put(Record.SHA1, "0000000000000000000000000000000000000000");
+    return record;
+  }
+
+  private Properties properties(final Repository repository) throws IOException {
+    Properties properties = new Properties();
+    properties.load(new ByteArrayInputStream(storage.get(repository.getName()).get(PROPERTIES)));
+    return properties;
+  }
+
+  private List<String> records(final Repository repository) throws IOException {
+    Closer closer = Closer.create();
+    try {
+      List<String> artifactIds = new ArrayList<>();
+      underTest.getRecords(repository, closer).forEach(record -> artifactIds.add(record.get(Record.ARTIFACT_ID)));
+      return artifactIds;
+    }
+    finally {
+      closer.close();
+    }
+  }
+
+  private List<String> chunk(final Repository repository, final String name) throws IOException {
+    try (ChunkReader reader = new ChunkReader(name,
+        new ByteArrayInputStream(storage.get(repository.getName()).get(name)))) {
+      return artifactIds(singletonList(reader));
+    }
+  }
+
+  private static List<String> artifactIds(final Iterable<ChunkReader> chunks) {
+    RecordExpander expander = new RecordExpander();
+    List<String> artifactIds = new ArrayList<>();
+    for (ChunkReader chunk : chunks) {
+      for (Map<String, String> compacted : chunk) {
+        Record record = expander.apply(compacted);
+        if (record.getType() == Type.ARTIFACT_ADD) {
+          artifactIds.add(record.get(Record.ARTIFACT_ID));
+        }
+      }
+    }
+    return artifactIds;
+  }
+
+  /**
+   * Publishes like the content hosted publisher, from a fixed list of changed records.
+   */
+  private class TestPublisher
+      extends MavenIndexPublisher
+  {
+    private final List<Record> allRecords = new ArrayList<>();
+
+    TestPublisher(final int maxIncrementalChunks) {
+      super(maxIncrementalChunks);
+    }
+
+    void publishHosted(final Repository repository, final Record... changed) throws IOException {
+      long started = System.currentTimeMillis();
+      Properties previous = loadIndexProperties(repository);
+      allRecords.addAll(0, Arrays.asList(changed));
+      if (incrementalPublishSince(previous) != null) {
+        publishIncrementalChunk(repository, Arrays.asList(changed), started, emptyMap());
+      }
+      else {
+        writeFull(repository, allRecords);
+        startIncrementalChain(repository, previous, started, emptyMap());
+      }
+    }
+
+    void publishFullHosted(final Repository repository, final Record... records) throws IOException {
+      long started = System.currentTimeMillis();
+      Properties previous = loadIndexProperties(repository);
+      writeFull(repository, Arrays.asList(records));
+      startIncrementalChain(repository, previous, started, emptyMap());
+    }
+
+    private void writeFull(final Repository repository, final List<Record> records) throws IOException {
+      try (WritableResourceHandler resourceHandler = getResourceHandler(repository);
+           IndexWriter indexWriter = new IndexWriter(resourceHandler, repository.getName(), false)) {
+        indexWriter.writeChunk(transform(decorate(records, repository.getName()), RECORD_COMPACTOR::apply).iterator());
+      }
+    }
+
+    @Override
+    protected MavenPathParser getMavenPathParser(final Repository repository) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected WritableResourceHandler getResourceHandler(final Repository repository) {
+      return new InMemoryResourceHandler(storage.get(repository.getName()));
+    }
+
+    @Override
+    protected boolean delete(final Repository repository, final String path) {
+      return storage.get(repository.getName()).remove(path.substring(path.lastIndexOf('/') + 1)) != null;
+    }
+
+    @Override
+    protected Iterable<Iterable<Record>> getGroupRecords(final List<Repository> repositories, final Closer closer)
+        throws IOException
+    {
+      List<Iterable<Record>> records = new ArrayList<>();
+      for (Repository repository : repositories) {
+        records.add(getRecords(repository, closer));
+      }
+      return records;
+    }
+
+    @Override
+    public void publishHostedIndex(
+        final Repository repository,
+        final DuplicateDetectionStrategy<Record> duplicateDetectionStrategy)
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class InMemoryResourceHandler
+      implements WritableResourceHandler
+  {
+    private final Map<String, byte[]> files;
+
+    InMemoryResourceHandler(final Map<String, byte[]> files) {
+      this.files = files;
+    }
+
+    @Override
+    public WritableResource locate(final String name) {
+      return new WritableResource()
+      {
+        @Override
+        public InputStream read() {
+          byte[] bytes = files.get(name);
+          return bytes == null ? null : new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public OutputStream write() {
+          return new ByteArrayOutputStream()
+          {
+            @Override
+            public void close() throws IOException {
+              super.close();
+              files.put(name, toByteArray());
+            }
+          };
+        }
+
+        @Override
+        public void close() {
+          // nop
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      // nop
+    }
+  }
+}